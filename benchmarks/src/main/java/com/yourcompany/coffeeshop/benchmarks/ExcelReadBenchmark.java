@@ -0,0 +1,80 @@
+package com.yourcompany.coffeeshop.benchmarks;
+
+import com.yourcompany.coffeeshop.data.ExcelDataReader;
+import com.yourcompany.coffeeshop.model.SaleRecord;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Читання daily_sales.xlsx: DOM (readDailySales) проти потокового читання (readDailySalesStreaming).
+// Основна метрика - час на файл; допоміжна "rows" - прочитані рядки за секунду (тобто вартість одного рядка).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExcelReadBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"0.1"})
+    public double missRatio;
+
+    private Path salesFile;
+    private final ExcelDataReader reader = new ExcelDataReader();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        salesFile = SyntheticData.writeSalesWorkbook(Files.createTempFile("bench_sales", ".xlsx"), rows, missRatio, SyntheticData.DEFAULT_SEED);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        Files.deleteIfExists(salesFile);
+    }
+
+    @Benchmark
+    public List<SaleRecord> readDom(RowCounter counter) {
+        List<SaleRecord> sales = reader.readDailySales(salesFile.toString());
+        counter.rows += sales.size();
+        return sales;
+    }
+
+    @Benchmark
+    public long readStreaming(RowCounter counter, Blackhole blackhole) {
+        long read = reader.readDailySalesStreaming(salesFile.toString(), blackhole::consume);
+        counter.rows += read;
+        return read;
+    }
+}
@@ -0,0 +1,76 @@
+package com.yourcompany.coffeeshop.benchmarks;
+
+import com.yourcompany.coffeeshop.model.MenuItem;
+import com.yourcompany.coffeeshop.processor.MenuNameIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Нормалізація назв через MenuNameIndex при різній частці точних збігів (hitRatio).
+// resolveWarm - типовий режим: варіанти написання повторюються і беруться з кешу індексу.
+// resolveCold - новий індекс на кожен виклик, тож кожна нова назва проходить повний шлях
+// (згортання, триграми, Левенштейн); вартість побудови індексу розподілена на COLD_BATCH назв.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class NameNormalizationBenchmark {
+
+    private static final int NAME_COUNT = 1 << 16;
+    static final int COLD_BATCH = 1024;
+
+    @Param({"1.0", "0.9", "0.5"})
+    public double hitRatio;
+
+    private List<MenuItem> menuItems;
+    private String[] names;
+    private MenuNameIndex warmIndex;
+    private int position;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SyntheticData.DEFAULT_SEED);
+        names = new String[NAME_COUNT];
+        for (int i = 0; i < NAME_COUNT; i++) {
+            names[i] = SyntheticData.rawItemName(random, 1.0 - hitRatio);
+        }
+        menuItems = SyntheticData.menuItems();
+        warmIndex = new MenuNameIndex(menuItems);
+        for (String name : names) {
+            warmIndex.resolve(name);
+        }
+    }
+
+    @Benchmark
+    public MenuNameIndex.Match resolveWarm() {
+        return warmIndex.resolve(names[position++ & (NAME_COUNT - 1)]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COLD_BATCH)
+    public void resolveCold(Blackhole blackhole) {
+        MenuNameIndex coldIndex = new MenuNameIndex(menuItems);
+        int start = position;
+        position += COLD_BATCH;
+        for (int i = start; i < start + COLD_BATCH; i++) {
+            blackhole.consume(coldIndex.resolve(names[i & (NAME_COUNT - 1)]));
+        }
+    }
+}
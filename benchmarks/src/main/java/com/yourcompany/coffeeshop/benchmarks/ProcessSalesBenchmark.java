@@ -0,0 +1,58 @@
+package com.yourcompany.coffeeshop.benchmarks;
+
+import com.yourcompany.coffeeshop.model.SaleRecord;
+import com.yourcompany.coffeeshop.processor.DataProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Пропускна здатність DataProcessor: валідація, нормалізація назв і грошові розрахунки.
+// Результат - записи за секунду (OperationsPerInvocation = розмір вхідного списку).
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcessSalesBenchmark {
+
+    static final int ROWS = 100_000;
+
+    @Param({"0.0", "0.1", "0.5"})
+    public double missRatio;
+
+    private List<SaleRecord> rawSales;
+    private DataProcessor processor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rawSales = SyntheticData.sales(ROWS, missRatio, SyntheticData.DEFAULT_SEED);
+        processor = new DataProcessor(SyntheticData.menuItems());
+    }
+
+    // Трансформація перезаписує ті самі поля, тож повторна обробка того ж списку дає той самий результат
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<SaleRecord> processSequential() {
+        return processor.processSalesData(rawSales);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<SaleRecord> processParallel() {
+        return processor.processSalesDataParallel(rawSales);
+    }
+}
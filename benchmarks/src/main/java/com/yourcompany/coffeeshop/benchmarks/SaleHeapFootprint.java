@@ -0,0 +1,97 @@
+package com.yourcompany.coffeeshop.benchmarks;
+
+import com.yourcompany.coffeeshop.model.CompactSaleRecord;
+import com.yourcompany.coffeeshop.model.SaleRecord;
+import com.yourcompany.coffeeshop.model.SaleSymbols;
+import com.yourcompany.coffeeshop.model.SymbolTable;
+import com.yourcompany.coffeeshop.processor.DataProcessor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Скільки heap займає один оброблений продаж у пам'яті (не JMH: міряється зайнята пам'ять, а не час).
+// Для кожного представлення будується список з rows записів, і різниця зайнятого heap після GC
+// ділиться на rows. Порівнюються:
+//   - SaleRecord з власними копіями рядків у кожному записі (так працювали читачі до SaleSymbols);
+//   - SaleRecord зі спільними рядками зі словників (як зараз повертають читачі);
+//   - CompactSaleRecord (черги IngestionPipeline).
+// Запуск: java -cp benchmarks/target/benchmarks.jar com.yourcompany.coffeeshop.benchmarks.SaleHeapFootprint [rows]
+// Числа точніші з одним потоком GC, наприклад з -XX:+UseSerialGC.
+public final class SaleHeapFootprint {
+
+    static final int DEFAULT_ROWS = 200_000;
+    private static final double MISS_RATIO = 0.1;
+
+    private SaleHeapFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+        DataProcessor processor = new DataProcessor(SyntheticData.menuItems());
+        compactSales(processor, rows); // Прогрів: словники, кеш назв і класи - до вимірювань
+
+        long ownStrings = retainedBytes(() -> withOwnStrings(processor.processSalesData(sharedSymbols(rows))));
+        long shared = retainedBytes(() -> processor.processSalesData(sharedSymbols(rows)));
+        long compact = retainedBytes(() -> compactSales(processor, rows));
+
+        System.out.printf("Heap per processed sale (%d rows, retained after GC):%n", rows);
+        System.out.printf("  SaleRecord, own strings per row: %6.1f bytes%n", (double) ownStrings / rows);
+        System.out.printf("  SaleRecord, shared symbols:      %6.1f bytes (%.1fx less)%n", (double) shared / rows, (double) ownStrings / shared);
+        System.out.printf("  CompactSaleRecord:               %6.1f bytes (%.1fx less)%n", (double) compact / rows, (double) ownStrings / compact);
+    }
+
+    // Сирі записи, як їх повертає читач: назви - спільні в межах читання, оплата й бариста - з SaleSymbols
+    private static List<SaleRecord> sharedSymbols(int rows) {
+        List<SaleRecord> sales = SyntheticData.sales(rows, MISS_RATIO, SyntheticData.DEFAULT_SEED);
+        SymbolTable itemNames = new SymbolTable();
+        for (SaleRecord sale : sales) {
+            sale.setItemNameRaw(itemNames.intern(sale.getItemNameRaw()));
+            sale.setPaymentMethod(SaleSymbols.PAYMENT_METHODS.intern(sale.getPaymentMethod()));
+            sale.setBaristaName(SaleSymbols.BARISTA_NAMES.intern(sale.getBaristaName()));
+        }
+        return sales;
+    }
+
+    // Як до словників: кожен рядок файлу давав нові String для назви, оплати й баристи,
+    // а для невідомого товару - ще й нову "Unknown / ..." (назви з меню були спільними й тоді)
+    private static List<SaleRecord> withOwnStrings(List<SaleRecord> sales) {
+        for (SaleRecord sale : sales) {
+            sale.setItemNameRaw(String.valueOf(sale.getItemNameRaw().toCharArray()));
+            sale.setPaymentMethod(String.valueOf(sale.getPaymentMethod().toCharArray()));
+            sale.setBaristaName(String.valueOf(sale.getBaristaName().toCharArray()));
+            if (sale.getItemNameStandard().startsWith("Unknown / ")) {
+                sale.setItemNameStandard(String.valueOf(sale.getItemNameStandard().toCharArray()));
+            }
+        }
+        return sales;
+    }
+
+    private static List<CompactSaleRecord> compactSales(DataProcessor processor, int rows) {
+        List<CompactSaleRecord> rawSales = new ArrayList<>(rows);
+        for (SaleRecord sale : sharedSymbols(rows)) {
+            rawSales.add(CompactSaleRecord.of(sale));
+        }
+        return processor.processCompactSales(rawSales);
+    }
+
+    // Приріст зайнятого heap, поки побудований список досяжний
+    private static long retainedBytes(Supplier<List<?>> build) {
+        long before = usedHeapAfterGc();
+        List<?> records = build.get();
+        long after = usedHeapAfterGc();
+        Reference.reachabilityFence(records);
+        return after - before;
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,102 @@
+package com.yourcompany.coffeeshop.benchmarks;
+
+import com.yourcompany.coffeeshop.db.PoolSettings;
+import com.yourcompany.coffeeshop.db.PostgreSQLManager;
+import com.yourcompany.coffeeshop.db.SalesLoadMode;
+import com.yourcompany.coffeeshop.model.SaleRecord;
+import com.yourcompany.coffeeshop.processor.DataProcessor;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Вставка продажів через PostgreSQLManager.insertSales: пакетний режим проти COPY.
+// За замовчуванням піднімається вбудований PostgreSQL (zonky; не запускається від root).
+// Щоб міряти на справжньому сервері: -Dbench.jdbc.url=jdbc:postgresql://host:5432/db -Dbench.jdbc.user=... -Dbench.jdbc.password=...
+// (через JMH: -jvmArgsAppend "-Dbench.jdbc.url=..."). Кожен виклик перезаписує ті самі sale_id (шлях ON CONFLICT DO UPDATE).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SalesInsertBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"BATCH", "COPY"})
+    public SalesLoadMode mode;
+
+    @Param({"1000"})
+    public int batchSize;
+
+    private EmbeddedPostgres embeddedPostgres;
+    private PostgreSQLManager dbManager;
+    private List<SaleRecord> sales;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        String url = System.getProperty("bench.jdbc.url");
+        String user = System.getProperty("bench.jdbc.user", "postgres");
+        String password = System.getProperty("bench.jdbc.password", "");
+        if (url == null) {
+            embeddedPostgres = EmbeddedPostgres.builder().start();
+            url = embeddedPostgres.getJdbcUrl("postgres", "postgres");
+        }
+
+        dbManager = new PostgreSQLManager(url, user, password, new PoolSettings());
+        dbManager.setSalesLoadMode(mode);
+        dbManager.setBatchSize(batchSize);
+        dbManager.createTables();
+        dbManager.insertBaristas(SyntheticData.baristaNames());
+        dbManager.insertMenuItems(SyntheticData.menuItems());
+
+        DataProcessor processor = new DataProcessor(SyntheticData.menuItems());
+        sales = processor.processSalesData(SyntheticData.sales(rows, 0.1, SyntheticData.DEFAULT_SEED));
+        dbManager.insertSales(sales); // Перший прогін створює рядки; далі міряємо перезапис
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (dbManager != null) {
+            dbManager.close();
+        }
+        if (embeddedPostgres != null) {
+            embeddedPostgres.close();
+        }
+    }
+
+    @Benchmark
+    public void insertSales(RowCounter counter) throws SQLException {
+        dbManager.insertSales(sales);
+        counter.rows += sales.size();
+    }
+}
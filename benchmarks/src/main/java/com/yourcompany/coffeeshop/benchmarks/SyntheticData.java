@@ -0,0 +1,194 @@
+package com.yourcompany.coffeeshop.benchmarks;
+
+import com.yourcompany.coffeeshop.model.InventoryItem;
+import com.yourcompany.coffeeshop.model.MenuItem;
+import com.yourcompany.coffeeshop.model.SaleRecord;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Генератор синтетичних даних того ж формату, що й файли в data/: заголовки, порядок колонок,
+// дати як числа з форматом дати, ціни як числа. Генерація детермінована (seed), тож прогони порівнянні.
+// Частина назв товарів навмисно "зіпсована" (missRatio), щоб навантажити нормалізацію назв.
+public final class SyntheticData {
+
+    public static final long DEFAULT_SEED = 42L;
+
+    // Меню як у data/menu_items.xlsx: назва, категорія, ціна, собівартість
+    private static final Object[][] MENU = {
+            {"Еспресо", "Кава", 30.0, 15.0}, {"Американо", "Кава", 26.0, 12.0}, {"Допіо", "Кава", 40.0, 19.0},
+            {"Лате", "Кава", 55.0, 20.0}, {"Капучіно", "Кава", 47.0, 24.0}, {"Раф", "Кава", 50.0, 25.0},
+            {"Чай зелений", "Чай", 30.0, 13.0}, {"Чай грейпфрутовий", "Чай", 50.0, 24.0}, {"Чай чорний", "Чай", 28.0, 13.0},
+            {"Шейк полуничний", "Напій", 55.0, 28.0}, {"Банановий мілк", "Напій", 60.0, 29.0}, {"Мілк шейк", "Напій", 58.0, 22.0}
+    };
+
+    private static final String[] BARISTAS = {"DMITRIEV", "PETROV", "IVANENKO", "KOVAL", "SHEVCHUK"};
+    private static final String[] PAYMENT_METHODS = {"CASH", "CARD"};
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+
+    private SyntheticData() {
+    }
+
+    public static List<MenuItem> menuItems() {
+        List<MenuItem> items = new ArrayList<>(MENU.length);
+        for (int i = 0; i < MENU.length; i++) {
+            items.add(new MenuItem(i + 1, (String) MENU[i][0], (String) MENU[i][1],
+                    BigDecimal.valueOf((Double) MENU[i][2]), BigDecimal.valueOf((Double) MENU[i][3])));
+        }
+        return items;
+    }
+
+    public static List<String> baristaNames() {
+        return List.of(BARISTAS);
+    }
+
+    // Сира назва товару: з імовірністю missRatio - варіант написання, якого немає в меню
+    public static String rawItemName(Random random, double missRatio) {
+        String name = (String) MENU[random.nextInt(MENU.length)][0];
+        return random.nextDouble() < missRatio ? misspell(name, random) : name;
+    }
+
+    // Одна з типових помилок у реальних файлах: подвоєна літера, пропущена літера, латиниця, регістр, пробіли
+    public static String misspell(String name, Random random) {
+        int position = 1 + random.nextInt(Math.max(1, name.length() - 1));
+        switch (random.nextInt(5)) {
+            case 0:
+                return name.substring(0, position) + name.charAt(position - 1) + name.substring(position);
+            case 1:
+                return name.length() > 3 ? name.substring(0, position - 1) + name.substring(position) : name + name.charAt(0);
+            case 2:
+                return name.toUpperCase();
+            case 3:
+                return "  " + name.toLowerCase() + " ";
+            default:
+                return name.replace('а', 'a').replace('е', 'e').replace('о', 'o'); // Латинські двійники
+        }
+    }
+
+    // Сирі записи продажів у пам'яті (як після ExcelDataReader.readDailySales)
+    public static List<SaleRecord> sales(int rows, double missRatio, long seed) {
+        Random random = new Random(seed);
+        List<SaleRecord> sales = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            String name = rawItemName(random, missRatio);
+            sales.add(new SaleRecord(i + 1, FIRST_DAY.plusDays(i / 500), name, 1 + random.nextInt(3),
+                    BigDecimal.valueOf(priceOf(name, random)), PAYMENT_METHODS[random.nextInt(2)], BARISTAS[random.nextInt(BARISTAS.length)]));
+        }
+        return sales;
+    }
+
+    // --- Файли Excel ---
+
+    public static Path writeSalesWorkbook(Path file, int rows, double missRatio, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(1000)) {
+            Sheet sheet = workbook.createSheet("sales");
+            CellStyle dateStyle = dateStyle(workbook);
+            header(sheet, "sale_id", "date", "item_name", "quantity", "price_per_item", "payment_method", "barista_name");
+            for (int i = 0; i < rows; i++) {
+                Row row = sheet.createRow(i + 1);
+                String name = rawItemName(random, missRatio);
+                row.createCell(0).setCellValue(i + 1);
+                row.createCell(1).setCellValue(FIRST_DAY.plusDays(i / 500));
+                row.getCell(1).setCellStyle(dateStyle);
+                row.createCell(2).setCellValue(name);
+                row.createCell(3).setCellValue(1 + random.nextInt(3));
+                row.createCell(4).setCellValue(priceOf(name, random));
+                row.createCell(5).setCellValue(PAYMENT_METHODS[random.nextInt(2)]);
+                row.createCell(6).setCellValue(BARISTAS[random.nextInt(BARISTAS.length)]);
+            }
+            write(workbook, file);
+        }
+        return file;
+    }
+
+    public static Path writeMenuWorkbook(Path file) throws IOException {
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(1000)) {
+            Sheet sheet = workbook.createSheet("menu");
+            header(sheet, "menu_item_id", "item_name_standart", "category", "standart_price", "cost_per_unit");
+            List<MenuItem> items = menuItems();
+            for (int i = 0; i < items.size(); i++) {
+                MenuItem item = items.get(i);
+                Row row = sheet.createRow(i + 1);
+                row.createCell(0).setCellValue(item.getItemId());
+                row.createCell(1).setCellValue(item.getNameStandard());
+                row.createCell(2).setCellValue(item.getCategory());
+                row.createCell(3).setCellValue(item.getStandardPrice().doubleValue());
+                row.createCell(4).setCellValue(item.getCostPerUnit().doubleValue());
+            }
+            write(workbook, file);
+        }
+        return file;
+    }
+
+    public static Path writeInventoryWorkbook(Path file, int rows, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(1000)) {
+            Sheet sheet = workbook.createSheet("inventory");
+            CellStyle dateStyle = dateStyle(workbook);
+            header(sheet, "ingridient_id", "ingridient_name", "current_stock_kg_1", "unit_cost", "last_restock_date");
+            for (int i = 0; i < rows; i++) {
+                Row row = sheet.createRow(i + 1);
+                row.createCell(0).setCellValue(i + 1);
+                row.createCell(1).setCellValue("Інгредієнт " + (i + 1));
+                row.createCell(2).setCellValue(random.nextInt(200) / 10.0);
+                row.createCell(3).setCellValue(10 + random.nextInt(990));
+                row.createCell(4).setCellValue(FIRST_DAY.minusDays(random.nextInt(30)));
+                row.getCell(4).setCellStyle(dateStyle);
+            }
+            write(workbook, file);
+        }
+        return file;
+    }
+
+    public static List<InventoryItem> inventoryItems(int rows, long seed) {
+        Random random = new Random(seed);
+        List<InventoryItem> items = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            items.add(new InventoryItem(i + 1, "Інгредієнт " + (i + 1), BigDecimal.valueOf(random.nextInt(200) / 10.0),
+                    BigDecimal.valueOf(10 + random.nextInt(990)), FIRST_DAY.minusDays(random.nextInt(30))));
+        }
+        return items;
+    }
+
+    // Ціна з меню; зрідка - "знижка" з копійками, щоб не всі значення були цілими
+    private static double priceOf(String rawName, Random random) {
+        for (Object[] item : MENU) {
+            if (((String) item[0]).equalsIgnoreCase(rawName.trim())) {
+                return random.nextInt(10) == 0 ? (Double) item[2] - 0.5 : (Double) item[2];
+            }
+        }
+        return 25.0 + random.nextInt(40);
+    }
+
+    private static CellStyle dateStyle(SXSSFWorkbook workbook) {
+        CellStyle style = workbook.createCellStyle();
+        style.setDataFormat((short) 14); // Вбудований формат дати, як у data/daily_sales.xlsx
+        return style;
+    }
+
+    private static void header(Sheet sheet, String... names) {
+        Row row = sheet.createRow(0);
+        for (int i = 0; i < names.length; i++) {
+            row.createCell(i).setCellValue(names[i]);
+        }
+    }
+
+    private static void write(SXSSFWorkbook workbook, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            workbook.write(out);
+        }
+        workbook.dispose(); // Видаляє тимчасові файли SXSSF
+    }
+}
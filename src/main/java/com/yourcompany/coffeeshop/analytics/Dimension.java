@@ -0,0 +1,9 @@
+package com.yourcompany.coffeeshop.analytics;
+
+// Поля, за якими можна групувати та фільтрувати продажі в SalesColumnStore
+public enum Dimension {
+    ITEM,
+    BARISTA,
+    PAYMENT_METHOD,
+    DAY
+}
@@ -0,0 +1,25 @@
+package com.yourcompany.coffeeshop.analytics;
+
+import java.math.BigDecimal;
+
+// Один рядок результату групування: значення виміру та сума міри
+public class GroupTotal {
+    private final String key;
+    private final long value;
+    private final boolean money;
+
+    GroupTotal(String key, long value, boolean money) {
+        this.key = key;
+        this.value = value;
+        this.money = money;
+    }
+
+    public String getKey() { return key; }
+    public long getValue() { return value; } // Для грошових мір - у копійках
+    public BigDecimal getMoney() { return BigDecimal.valueOf(value, money ? 2 : 0); }
+
+    @Override
+    public String toString() {
+        return key + "=" + getMoney();
+    }
+}
@@ -0,0 +1,19 @@
+package com.yourcompany.coffeeshop.analytics;
+
+// Агреговані значення. Грошові міри рахуються в копійках (long), див. GroupTotal.getMoney()
+public enum Measure {
+    SALES_COUNT(false),
+    QUANTITY(false),
+    REVENUE(true), // total_price
+    PROFIT(true);
+
+    private final boolean money;
+
+    Measure(boolean money) {
+        this.money = money;
+    }
+
+    public boolean isMoney() {
+        return money;
+    }
+}
@@ -0,0 +1,213 @@
+package com.yourcompany.coffeeshop.analytics;
+
+import com.yourcompany.coffeeshop.model.Money;
+import com.yourcompany.coffeeshop.model.SaleRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Колонкове сховище оброблених продажів у пам'яті для аналітичних запитів без звернення до PostgreSQL.
+// Кожне поле - окремий примітивний масив: рядки (товар, бариста, спосіб оплати) закодовані словником в int,
+// дата - epoch day, гроші - копійки. Запити (див. SalesQuery) проходять по масивах простими циклами.
+// Семантика та сама, що й у таблиці sales: повторний sale_id перезаписує попередній рядок,
+// а продажі з ненормалізованою назвою товару (їх не записує і insertSales) не потрапляють у сховище.
+// Після build() сховище незмінне, тож його можна читати з багатьох потоків.
+public class SalesColumnStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesColumnStore.class);
+
+    final int size;
+    final int[] saleIds;
+    final int[] epochDays;
+    final int[] itemCodes;
+    final int[] baristaCodes;
+    final int[] paymentCodes;
+    final int[] quantities;
+    final long[] priceCents; // Ціна за одиницю
+    final long[] revenueCents; // total_price
+    final long[] profitCents; // total_profit
+
+    final StringDictionary items;
+    final StringDictionary baristas;
+    final StringDictionary paymentMethods;
+    final int minEpochDay;
+    final int maxEpochDay;
+
+    private SalesColumnStore(Builder builder) {
+        this.size = builder.size;
+        this.saleIds = Arrays.copyOf(builder.saleIds, size);
+        this.epochDays = Arrays.copyOf(builder.epochDays, size);
+        this.itemCodes = Arrays.copyOf(builder.itemCodes, size);
+        this.baristaCodes = Arrays.copyOf(builder.baristaCodes, size);
+        this.paymentCodes = Arrays.copyOf(builder.paymentCodes, size);
+        this.quantities = Arrays.copyOf(builder.quantities, size);
+        this.priceCents = Arrays.copyOf(builder.priceCents, size);
+        this.revenueCents = Arrays.copyOf(builder.revenueCents, size);
+        this.profitCents = Arrays.copyOf(builder.profitCents, size);
+        this.items = builder.items;
+        this.baristas = builder.baristas;
+        this.paymentMethods = builder.paymentMethods;
+
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, epochDays[i]);
+            max = Math.max(max, epochDays[i]);
+        }
+        this.minEpochDay = size == 0 ? 0 : min;
+        this.maxEpochDay = size == 0 ? -1 : max;
+    }
+
+    public static SalesColumnStore of(List<SaleRecord> processedSales) {
+        Builder builder = new Builder(processedSales.size());
+        processedSales.forEach(builder::add);
+        SalesColumnStore store = builder.build();
+        logger.info("Built sales column store: {} rows, {} items, {} baristas, {} payment methods.",
+                store.size(), store.items.size(), store.baristas.size(), store.paymentMethods.size());
+        return store;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public LocalDate getFirstDay() {
+        return size == 0 ? null : LocalDate.ofEpochDay(minEpochDay);
+    }
+
+    public LocalDate getLastDay() {
+        return size == 0 ? null : LocalDate.ofEpochDay(maxEpochDay);
+    }
+
+    public SalesQuery query() {
+        return new SalesQuery(this);
+    }
+
+    // Коди виміру для кожного рядка; для DAY код - номер дня від першого дня у сховищі
+    int[] codes(Dimension dimension) {
+        switch (dimension) {
+            case ITEM:
+                return itemCodes;
+            case BARISTA:
+                return baristaCodes;
+            case PAYMENT_METHOD:
+                return paymentCodes;
+            default:
+                throw new IllegalArgumentException("No dictionary codes for " + dimension);
+        }
+    }
+
+    StringDictionary dictionary(Dimension dimension) {
+        switch (dimension) {
+            case ITEM:
+                return items;
+            case BARISTA:
+                return baristas;
+            case PAYMENT_METHOD:
+                return paymentMethods;
+            default:
+                throw new IllegalArgumentException("No dictionary for " + dimension);
+        }
+    }
+
+    // Накопичує рядки; можна наповнювати частинами (наприклад, чанками з конвеєра) і потім викликати build()
+    public static class Builder {
+        private int size;
+        private int[] saleIds;
+        private int[] epochDays;
+        private int[] itemCodes;
+        private int[] baristaCodes;
+        private int[] paymentCodes;
+        private int[] quantities;
+        private long[] priceCents;
+        private long[] revenueCents;
+        private long[] profitCents;
+        private final StringDictionary items = new StringDictionary();
+        private final StringDictionary baristas = new StringDictionary();
+        private final StringDictionary paymentMethods = new StringDictionary();
+        private final Map<Integer, Integer> rowBySaleId = new HashMap<>();
+        private boolean built;
+
+        public Builder() {
+            this(1024);
+        }
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            saleIds = new int[capacity];
+            epochDays = new int[capacity];
+            itemCodes = new int[capacity];
+            baristaCodes = new int[capacity];
+            paymentCodes = new int[capacity];
+            quantities = new int[capacity];
+            priceCents = new long[capacity];
+            revenueCents = new long[capacity];
+            profitCents = new long[capacity];
+        }
+
+        // Запис має бути вже оброблений DataProcessor (стандартизована назва, розраховані суми)
+        public Builder add(SaleRecord sale) {
+            if (built) {
+                throw new IllegalStateException("SalesColumnStore already built");
+            }
+            if (sale.getMatchConfidence() <= 0.0 || sale.getDate() == null) {
+                return this; // Товар не знайдено в меню - у sales такий продаж теж не потрапляє
+            }
+            Integer existing = rowBySaleId.get(sale.getSaleId());
+            int row;
+            if (existing != null) {
+                row = existing; // Як ON CONFLICT (sale_id) DO UPDATE: перемагає останній запис
+            } else {
+                ensureCapacity(size + 1);
+                row = size++;
+                rowBySaleId.put(sale.getSaleId(), row);
+            }
+            saleIds[row] = sale.getSaleId();
+            epochDays[row] = (int) sale.getDate().toEpochDay();
+            itemCodes[row] = items.encode(sale.getItemNameStandard());
+            baristaCodes[row] = baristas.encode(sale.getBaristaName());
+            paymentCodes[row] = paymentMethods.encode(sale.getPaymentMethod());
+            quantities[row] = sale.getQuantity();
+            priceCents[row] = cents(sale.getPricePerItemCents(), sale.getPricePerItem());
+            revenueCents[row] = cents(sale.getTotalSalePriceCents(), sale.getTotalSalePrice());
+            profitCents[row] = cents(sale.getTotalProfitCents(), sale.getTotalProfit());
+            return this;
+        }
+
+        public SalesColumnStore build() {
+            built = true;
+            return new SalesColumnStore(this);
+        }
+
+        // Значення поза scale 2 округлюються до копійок (HALF_UP, як у NUMERIC(10, 2) у БД)
+        private static long cents(long cents, BigDecimal exact) {
+            if (cents != Money.NONE) {
+                return cents;
+            }
+            return exact == null ? 0L : exact.setScale(Money.SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= saleIds.length) {
+                return;
+            }
+            int capacity = Math.max(required, saleIds.length * 2);
+            saleIds = Arrays.copyOf(saleIds, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            itemCodes = Arrays.copyOf(itemCodes, capacity);
+            baristaCodes = Arrays.copyOf(baristaCodes, capacity);
+            paymentCodes = Arrays.copyOf(paymentCodes, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            revenueCents = Arrays.copyOf(revenueCents, capacity);
+            profitCents = Arrays.copyOf(profitCents, capacity);
+        }
+    }
+}
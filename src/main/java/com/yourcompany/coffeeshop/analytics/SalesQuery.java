@@ -0,0 +1,232 @@
+package com.yourcompany.coffeeshop.analytics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Запит до SalesColumnStore: фільтри (діапазон дат, значення виміру) + сума, групування або top-N.
+// Фільтри один раз перетворюються на вектор вибраних рядків, далі кожна агрегація - це один цикл
+// по примітивному масиву міри з накопиченням у масив, індексований кодом словника (без boxing і Map).
+// Приклад: store.query().between(from, to).top(Dimension.ITEM, Measure.QUANTITY, 5)
+public class SalesQuery {
+
+    private final SalesColumnStore store;
+    private int fromEpochDay = Integer.MIN_VALUE;
+    private int toEpochDay = Integer.MAX_VALUE;
+    private int itemCode = -1; // -1 - фільтра немає
+    private int baristaCode = -1;
+    private int paymentCode = -1;
+    private boolean empty; // Фільтр за значенням, якого немає у словнику
+
+    SalesQuery(SalesColumnStore store) {
+        this.store = store;
+    }
+
+    // Діапазон дат включно; null - без обмеження з цього боку
+    public SalesQuery between(LocalDate from, LocalDate to) {
+        if (from != null) {
+            fromEpochDay = Math.max(fromEpochDay, (int) from.toEpochDay());
+        }
+        if (to != null) {
+            toEpochDay = Math.min(toEpochDay, (int) to.toEpochDay());
+        }
+        return this;
+    }
+
+    public SalesQuery where(Dimension dimension, String value) {
+        if (dimension == Dimension.DAY) {
+            LocalDate day = LocalDate.parse(value);
+            return between(day, day);
+        }
+        int code = store.dictionary(dimension).find(value);
+        if (code < 0) {
+            empty = true;
+            return this;
+        }
+        switch (dimension) {
+            case ITEM:
+                itemCode = code;
+                break;
+            case BARISTA:
+                baristaCode = code;
+                break;
+            default:
+                paymentCode = code;
+                break;
+        }
+        return this;
+    }
+
+    public long sum(Measure measure) {
+        int[] selection = selection();
+        int count = selection == null ? store.size : selection.length;
+        long total = 0;
+        switch (measure) {
+            case SALES_COUNT:
+                return count;
+            case QUANTITY:
+                int[] quantities = store.quantities;
+                if (selection == null) {
+                    for (int i = 0; i < count; i++) {
+                        total += quantities[i];
+                    }
+                } else {
+                    for (int row : selection) {
+                        total += quantities[row];
+                    }
+                }
+                return total;
+            default:
+                long[] values = moneyColumn(measure);
+                if (selection == null) {
+                    for (int i = 0; i < count; i++) {
+                        total += values[i];
+                    }
+                } else {
+                    for (int row : selection) {
+                        total += values[row];
+                    }
+                }
+                return total;
+        }
+    }
+
+    // Усі групи з хоча б одним продажем; рядкові виміри - за алфавітом, DAY - за датою
+    public List<GroupTotal> groupBy(Dimension dimension, Measure measure) {
+        if (store.size == 0) {
+            return new ArrayList<>();
+        }
+        int[] codes;
+        int offset;
+        int cardinality;
+        if (dimension == Dimension.DAY) {
+            codes = store.epochDays;
+            offset = store.minEpochDay;
+            cardinality = store.maxEpochDay - store.minEpochDay + 1;
+        } else {
+            codes = store.codes(dimension);
+            offset = 0;
+            cardinality = store.dictionary(dimension).size();
+        }
+
+        int[] selection = selection();
+        long[] counts = new long[cardinality];
+        accumulateCounts(codes, offset, selection, counts);
+        long[] totals;
+        switch (measure) {
+            case SALES_COUNT:
+                totals = counts;
+                break;
+            case QUANTITY:
+                totals = new long[cardinality];
+                accumulate(codes, offset, selection, store.quantities, totals);
+                break;
+            default:
+                totals = new long[cardinality];
+                accumulate(codes, offset, selection, moneyColumn(measure), totals);
+                break;
+        }
+
+        List<GroupTotal> result = new ArrayList<>();
+        for (int code = 0; code < cardinality; code++) {
+            if (counts[code] == 0) {
+                continue;
+            }
+            String key = dimension == Dimension.DAY
+                    ? LocalDate.ofEpochDay(code + offset).toString()
+                    : store.dictionary(dimension).decode(code);
+            result.add(new GroupTotal(key, totals[code], measure.isMoney()));
+        }
+        if (dimension != Dimension.DAY) {
+            result.sort(Comparator.comparing(GroupTotal::getKey));
+        }
+        return result;
+    }
+
+    // N груп з найбільшим значенням міри (при рівних - за ключем)
+    public List<GroupTotal> top(Dimension dimension, Measure measure, int limit) {
+        List<GroupTotal> groups = groupBy(dimension, measure);
+        groups.sort(Comparator.comparingLong(GroupTotal::getValue).reversed().thenComparing(GroupTotal::getKey));
+        return groups.size() > limit ? new ArrayList<>(groups.subList(0, limit)) : groups;
+    }
+
+    // --- Виконання ---
+
+    private long[] moneyColumn(Measure measure) {
+        return measure == Measure.REVENUE ? store.revenueCents : store.profitCents;
+    }
+
+    // Номери рядків, що проходять фільтри; null - без фільтрів (усі рядки)
+    private int[] selection() {
+        if (empty) {
+            return new int[0];
+        }
+        boolean byDate = fromEpochDay > store.minEpochDay || toEpochDay < store.maxEpochDay;
+        if (!byDate && itemCode < 0 && baristaCode < 0 && paymentCode < 0) {
+            return null;
+        }
+        int[] selected = new int[store.size];
+        int count = 0;
+        int[] days = store.epochDays;
+        for (int i = 0; i < store.size; i++) {
+            selected[count] = i;
+            // Без розгалужень: індекс записується завжди, а лічильник зсувається лише для вибраних рядків
+            count += (days[i] >= fromEpochDay & days[i] <= toEpochDay) ? 1 : 0;
+        }
+        count = refine(selected, count, itemCode, store.itemCodes);
+        count = refine(selected, count, baristaCode, store.baristaCodes);
+        count = refine(selected, count, paymentCode, store.paymentCodes);
+        return count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+
+    private static int refine(int[] selected, int count, int code, int[] codes) {
+        if (code < 0) {
+            return count;
+        }
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selected[i];
+            selected[kept] = row;
+            kept += codes[row] == code ? 1 : 0;
+        }
+        return kept;
+    }
+
+    private void accumulateCounts(int[] codes, int offset, int[] selection, long[] counts) {
+        if (selection == null) {
+            for (int i = 0; i < store.size; i++) {
+                counts[codes[i] - offset]++;
+            }
+        } else {
+            for (int row : selection) {
+                counts[codes[row] - offset]++;
+            }
+        }
+    }
+
+    private void accumulate(int[] codes, int offset, int[] selection, int[] values, long[] totals) {
+        if (selection == null) {
+            for (int i = 0; i < store.size; i++) {
+                totals[codes[i] - offset] += values[i];
+            }
+        } else {
+            for (int row : selection) {
+                totals[codes[row] - offset] += values[row];
+            }
+        }
+    }
+
+    private void accumulate(int[] codes, int offset, int[] selection, long[] values, long[] totals) {
+        if (selection == null) {
+            for (int i = 0; i < store.size; i++) {
+                totals[codes[i] - offset] += values[i];
+            }
+        } else {
+            for (int row : selection) {
+                totals[codes[row] - offset] += values[row];
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.yourcompany.coffeeshop.app;
+
+import com.yourcompany.coffeeshop.data.ExcelDataReader;
+import com.yourcompany.coffeeshop.db.PostgreSQLManager;
+import com.yourcompany.coffeeshop.model.DeadLetterSink;
+import com.yourcompany.coffeeshop.model.MenuItem;
+import com.yourcompany.coffeeshop.model.SaleRecord;
+import com.yourcompany.coffeeshop.processor.DataProcessor;
+import com.yourcompany.coffeeshop.processor.DuplicatePolicy;
+import com.yourcompany.coffeeshop.processor.SaleDeduplicator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Пакетне завантаження продажів з багатьох книг (--batch <каталог або glob>): файли та аркуші читаються
+// паралельно (ExcelDataReader.readDailySalesBatch), трансформація - паралельно на ForkJoin-пулі,
+// а злитий результат записується в БД одним завантаженням.
+// Книги з тими самими sale_id (перекриті вивантаження) розв'язує SaleDeduplicator у порядку файлів за шляхом,
+// тож книги різних кав'ярень мають використовувати різні діапазони sale_id.
+public class BatchIngestion {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchIngestion.class);
+
+    private final ExcelDataReader dataReader;
+    private final PostgreSQLManager dbManager;
+    private final int parallelism;
+    private volatile DeadLetterSink deadLetters = DeadLetterSink.NONE;
+    private volatile SaleDeduplicator deduplicator = new SaleDeduplicator(DuplicatePolicy.LAST_WINS);
+
+    public BatchIngestion(ExcelDataReader dataReader, PostgreSQLManager dbManager, int parallelism) {
+        this.dataReader = dataReader;
+        this.dbManager = dbManager;
+        this.parallelism = parallelism;
+    }
+
+    // Куди DataProcessor передає відкинуті записи (читач і менеджер БД налаштовуються окремо)
+    public void setDeadLetters(DeadLetterSink deadLetters) {
+        this.deadLetters = deadLetters;
+    }
+
+    // Правило для sale_id, що трапляються в кількох книгах (або вже є в БД)
+    public void setDeduplicator(SaleDeduplicator deduplicator) {
+        this.deduplicator = deduplicator;
+    }
+
+    // Каталог - усі *.xlsx у ньому; інакше glob (наприклад, "data/shops/*/daily_sales*.xlsx").
+    // Тимчасові файли Excel (~$...) пропускаються. Результат відсортовано за шляхом.
+    public static List<Path> resolveWorkbooks(String spec) throws IOException {
+        Path path = Path.of(spec);
+        if (Files.isDirectory(path)) {
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, "*.xlsx")) {
+                for (Path file : stream) {
+                    if (!file.getFileName().toString().startsWith("~$")) {
+                        files.add(file);
+                    }
+                }
+            }
+            files.sort(null);
+            return files;
+        }
+
+        // Обходимо лише каталог перед першим шаблонним символом
+        int wildcard = indexOfWildcard(spec);
+        Path parent = Path.of(wildcard < 0 ? spec : spec.substring(0, wildcard)).getParent();
+        Path root = parent != null ? parent : Path.of(".");
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + spec);
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.filter(Files::isRegularFile)
+                    .map(file -> parent != null ? file : root.relativize(file)) // "./a.xlsx" -> "a.xlsx" для відносного glob
+                    .filter(matcher::matches)
+                    .filter(file -> !file.getFileName().toString().startsWith("~$"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // Повертає кількість завантажених продажів
+    public int run(List<Path> salesFiles, List<MenuItem> menuItems) throws SQLException {
+        if (salesFiles.isEmpty()) {
+            logger.warn("No sales workbooks to load.");
+            return 0;
+        }
+        List<SaleRecord> rawSales = dataReader.readDailySalesBatch(salesFiles, parallelism);
+        logger.info("Raw Sales Records read: {} from {} workbooks", rawSales.size(), salesFiles.size());
+
+        DataProcessor dataProcessor = new DataProcessor(menuItems);
+        dataProcessor.setDeadLetters(deadLetters);
+        dataProcessor.setDeduplicator(deduplicator);
+        List<SaleRecord> processedSales = dataProcessor.removeDuplicateSales(dataProcessor.processSalesDataParallel(rawSales));
+        logger.info("Processed Sales Records after cleaning, transformation and deduplication: {}", processedSales.size());
+        logBySource(processedSales);
+
+        Set<String> uniqueBaristaNames = processedSales.stream()
+                .map(SaleRecord::getBaristaName)
+                .collect(Collectors.toSet());
+        dbManager.insertBaristas(List.copyOf(uniqueBaristaNames));
+        dbManager.insertSales(processedSales);
+        return processedSales.size();
+    }
+
+    private static void logBySource(List<SaleRecord> sales) {
+        Map<String, Long> bySource = sales.stream()
+                .collect(Collectors.groupingBy(sale -> String.valueOf(sale.getSource()), TreeMap::new, Collectors.counting()));
+        bySource.forEach((source, count) -> logger.info("- {}: {} records", source, count));
+    }
+
+    private static int indexOfWildcard(String spec) {
+        for (int i = 0; i < spec.length(); i++) {
+            char c = spec.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,162 @@
+package com.yourcompany.coffeeshop.app;
+
+import com.yourcompany.coffeeshop.data.DeadLetterStore;
+import com.yourcompany.coffeeshop.db.PostgreSQLManager;
+import com.yourcompany.coffeeshop.model.DeadLetter;
+import com.yourcompany.coffeeshop.model.DeadLetterSink;
+import com.yourcompany.coffeeshop.model.MenuItem;
+import com.yourcompany.coffeeshop.model.SaleRecord;
+import com.yourcompany.coffeeshop.processor.DataProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Повторна обробка відкинутих рядків (--reprocess-dead-letters): після виправлення меню, баристи
+// чи самих значень у файлі dead-letter лише ці рядки проходять валідацію, трансформацію і завантаження знову.
+// Рядки, які знову не проходять, потрапляють у той самий store (у новий файл) з новою причиною,
+// тож команду можна повторювати, доки файл не спорожніє. Повторні відмови (розбору, DataProcessor і завантаження)
+// накопичуються в пам'яті і пишуться в store лише після успішного завантаження: якщо воно впало, наступний
+// запуск повторює перенесений файл з початку і не дублює відмови.
+public class DeadLetterReprocessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterReprocessor.class);
+    private static final DateTimeFormatter DOTTED_DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    private final DeadLetterStore store;
+    private final PostgreSQLManager dbManager;
+    private final List<DeadLetter> rejected = Collections.synchronizedList(new ArrayList<>()); // Повторні відмови запуску
+
+    public DeadLetterReprocessor(DeadLetterStore store, PostgreSQLManager dbManager) {
+        this.store = store;
+        this.dbManager = dbManager;
+    }
+
+    // Повертає кількість продажів, переданих у insertSales. Якщо завантаження впало, перенесений файл лишається
+    // і наступний запуск почне з нього.
+    public int run(List<MenuItem> menuItems) throws SQLException, IOException, InterruptedException {
+        List<DeadLetter> deadLetters = store.takeForReprocessing();
+        if (deadLetters.isEmpty()) {
+            logger.info("No dead letters to reprocess in {}.", store.getFile());
+            return 0;
+        }
+        logger.info("Reprocessing {} dead letters from {}.", deadLetters.size(), store.getFile());
+        rejected.clear();
+
+        List<SaleRecord> rawSales = new ArrayList<>(deadLetters.size());
+        for (DeadLetter deadLetter : deadLetters) {
+            SaleRecord sale = toSaleRecord(deadLetter);
+            if (sale != null) {
+                rawSales.add(sale);
+            }
+        }
+
+        int loaded = 0;
+        if (!rawSales.isEmpty()) {
+            DataProcessor dataProcessor = new DataProcessor(menuItems);
+            dataProcessor.setDeadLetters(rejected::add);
+            List<SaleRecord> processedSales = dataProcessor.processSalesData(rawSales);
+
+            Set<String> uniqueBaristaNames = processedSales.stream()
+                    .map(SaleRecord::getBaristaName)
+                    .collect(Collectors.toSet());
+            DeadLetterSink loaderDeadLetters = dbManager.getDeadLetters();
+            dbManager.setDeadLetters(rejected::add); // Невідомі товар чи бариста - теж повторні відмови
+            try {
+                dbManager.createTables();
+                dbManager.insertBaristas(List.copyOf(uniqueBaristaNames));
+                dbManager.insertSales(processedSales);
+            } finally {
+                dbManager.setDeadLetters(loaderDeadLetters);
+            }
+            loaded = processedSales.size();
+        }
+
+        rejected.forEach(store::accept);
+        store.flush(); // Повторні відмови вже у новому файлі - старий можна видаляти
+        store.deleteReprocessed();
+        logger.info("Reprocessed {} dead letters: {} sales passed validation and were sent to the database.",
+                deadLetters.size(), loaded);
+        return loaded;
+    }
+
+    // Ті самі правила, що й у читачів; рядок, який і далі не розбирається, повертається в store з новою причиною
+    private SaleRecord toSaleRecord(DeadLetter deadLetter) {
+        Integer saleId = parseInt(deadLetter.getSaleId());
+        if (saleId == null) {
+            return reject(deadLetter, "row_error");
+        }
+        LocalDate date = parseDate(deadLetter.getDate());
+        if (date == null && deadLetter.getDate() != null) {
+            return reject(deadLetter, "row_error"); // Інакше нерозібраний текст дати загубився б
+        }
+        Integer quantity = parseInt(deadLetter.getQuantity());
+        if (quantity == null || quantity <= 0) {
+            return reject(deadLetter, "invalid_quantity");
+        }
+        BigDecimal pricePerItem = parseDecimal(deadLetter.getPricePerItem());
+        if (pricePerItem == null || pricePerItem.compareTo(BigDecimal.ZERO) <= 0) {
+            return reject(deadLetter, "invalid_price");
+        }
+        SaleRecord sale = new SaleRecord(saleId, date, deadLetter.getItemName(), quantity, pricePerItem,
+                deadLetter.getPaymentMethod(), deadLetter.getBaristaName());
+        sale.setSource(deadLetter.getSource());
+        return sale;
+    }
+
+    private SaleRecord reject(DeadLetter deadLetter, String reason) {
+        rejected.add(new DeadLetter(Instant.now(), DeadLetter.STAGE_READ, reason, deadLetter.getSource(),
+                deadLetter.getRowNumber(), deadLetter.getSaleId(), deadLetter.getDate(), deadLetter.getItemName(),
+                deadLetter.getQuantity(), deadLetter.getPricePerItem(), deadLetter.getPaymentMethod(),
+                deadLetter.getBaristaName()));
+        return null;
+    }
+
+    // Цілі числа з Excel можуть бути записані як "2.0"
+    private static Integer parseInt(String text) {
+        BigDecimal value = parseDecimal(text);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value.intValueExact();
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private static BigDecimal parseDecimal(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(text.trim().replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // ISO (так пише store для вже розібраних записів) або dd.MM.yyyy (як у вхідних файлах)
+    private static LocalDate parseDate(String text) {
+        if (text == null || text.isBlank()) {
+            return null; // Запис без дати відкине isValidSaleRecord
+        }
+        String trimmed = text.trim();
+        try {
+            return trimmed.indexOf('-') > 0 ? LocalDate.parse(trimmed) : LocalDate.parse(trimmed, DOTTED_DATE);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
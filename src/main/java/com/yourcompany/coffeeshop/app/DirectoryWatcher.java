@@ -0,0 +1,269 @@
+package com.yourcompany.coffeeshop.app;
+
+import com.yourcompany.coffeeshop.data.RecordSources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipFile;
+
+// Режим служби (--watch): стежить за каталогом даних через WatchService і завантажує нові та змінені
+// книги Excel і CSV-вивантаження через IncrementalIngestion на пулі робочих потоків. Процес живе довго, тож пул з'єднань,
+// кеші довідників і DataProcessor лишаються "теплими" між файлами.
+// Робочі потоки розбирають книги паралельно, а запис у БД IncrementalIngestion виконує по одному файлу:
+// upsert-и агрегатів і залишків інгредієнтів з двох одночасних завантажень могли б узаємоблокуватися.
+// Файли, які ще дописуються, відсіюються debounce-ом: файл передається в обробку лише тоді, коли його
+// розмір і час зміни не змінювалися quietPeriod, а xlsx ще й відкривається як повний zip-архів
+// (у CSV немає структури, за якою видно незавершений запис, тож для нього лишається лише quietPeriod).
+// Невдале завантаження повторюється із зростаючою затримкою; стан файлу в ingestion_state фіксується
+// лише після успіху, тож після перезапуску початкове сканування теж підхопить файл.
+public class DirectoryWatcher implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectoryWatcher.class);
+
+    public static final Duration DEFAULT_QUIET_PERIOD = Duration.ofSeconds(2);
+    public static final int DEFAULT_WORKERS = 2;
+    private static final long POLL_INTERVAL_MILLIS = 250;
+    private static final Duration FIRST_RETRY_DELAY = Duration.ofSeconds(30);
+    private static final int MAX_RETRIES = 5; // Затримки 30 с, 1, 2, 4, 8 хв
+
+    private final IncrementalIngestion ingestion;
+    private final Path directory;
+    private final Path menuFile;
+    private final Path inventoryFile;
+    private final Path recipesFile;
+    private final long quietPeriodNanos;
+    private final WatchService watchService;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService debouncer;
+
+    // Файли, що чекають стабілізації, та файли, які зараз обробляються
+    private final Map<Path, PendingFile> pending = new ConcurrentHashMap<>();
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+    // Файли в каталозі, які пише сама програма (dead_letters.csv)
+    private final Set<Path> ignored = ConcurrentHashMap.newKeySet();
+    // Кількість невдалих спроб поспіль для файлів, що чекають повтору
+    private final Map<Path, Integer> failures = new ConcurrentHashMap<>();
+
+    public DirectoryWatcher(IncrementalIngestion ingestion, Path directory, Path menuFile, Path inventoryFile,
+                            Path recipesFile, int workerCount, Duration quietPeriod) throws IOException {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("workerCount must be positive");
+        }
+        this.ingestion = ingestion;
+        this.directory = directory.toAbsolutePath().normalize();
+        this.menuFile = menuFile.toAbsolutePath().normalize();
+        this.inventoryFile = inventoryFile.toAbsolutePath().normalize();
+        this.recipesFile = recipesFile.toAbsolutePath().normalize();
+        this.quietPeriodNanos = quietPeriod.toNanos();
+        this.watchService = this.directory.getFileSystem().newWatchService();
+        this.workers = Executors.newFixedThreadPool(workerCount, IngestionPipeline.namedThreads("ingest-worker"));
+        this.debouncer = Executors.newSingleThreadScheduledExecutor(IngestionPipeline.namedThreads("ingest-debounce"));
+    }
+
+    // Файл у каталозі, який не слід завантажувати; викликається до run()
+    public void ignore(Path file) {
+        ignored.add(file.toAbsolutePath().normalize());
+    }
+
+    // Блокує потік до close(). Файли, змінені поки служба не працювала, підхоплюються початковим скануванням.
+    public void run() throws IOException {
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        scanDirectory();
+        debouncer.scheduleWithFixedDelay(this::dispatchStableFiles, POLL_INTERVAL_MILLIS, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        logger.info("Watching {} for new and changed data files.", directory);
+
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        logger.warn("Watch events overflowed; rescanning {}.", directory);
+                        scanDirectory();
+                    } else {
+                        enqueue(directory.resolve((Path) event.context()));
+                    }
+                }
+                if (!key.reset()) {
+                    logger.error("Watched directory {} is no longer accessible; stopping.", directory);
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            logger.info("Directory watcher stopped.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn("Could not close watch service: {}", e.getMessage());
+        }
+        debouncer.shutdownNow();
+        workers.shutdown(); // Файл, що вже завантажується, дозавантажується до кінця
+        try {
+            if (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Debounce ---
+
+    private void scanDirectory() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) { // Відбір файлів - в enqueue
+            for (Path file : files) {
+                enqueue(file);
+            }
+        }
+    }
+
+    private void enqueue(Path file) {
+        Path normalized = file.toAbsolutePath().normalize();
+        if (!isDataFile(normalized) || ignored.contains(normalized)) {
+            return;
+        }
+        pending.computeIfAbsent(normalized, path -> new PendingFile());
+    }
+
+    // Викликається debouncer-ом: передає в обробку файли, які перестали змінюватися
+    private void dispatchStableFiles() {
+        long now = System.nanoTime();
+        for (Map.Entry<Path, PendingFile> entry : pending.entrySet()) {
+            Path file = entry.getKey();
+            PendingFile state = entry.getValue();
+            try {
+                long size = Files.size(file);
+                long modified = Files.getLastModifiedTime(file).toMillis();
+                if (size != state.size || modified != state.modified) {
+                    state.size = size;
+                    state.modified = modified;
+                    state.changedAtNanos = now;
+                    continue;
+                }
+                if (now - state.changedAtNanos < quietPeriodNanos || inFlight.contains(file)) {
+                    continue; // Ще пишеться або попередня версія ще завантажується
+                }
+                if (!RecordSources.isCsv(file.toString()) && !isCompleteArchive(file)) {
+                    state.changedAtNanos = now; // Можливо, копіювання призупинилося - чекаємо ще
+                    continue;
+                }
+                pending.remove(file, state);
+                inFlight.add(file);
+                workers.execute(() -> process(file));
+            } catch (NoSuchFileException e) {
+                pending.remove(file, state); // Файл видалили або перейменували до завершення запису
+            } catch (IOException e) {
+                logger.warn("Could not stat {}: {}", file, e.getMessage());
+            } catch (RuntimeException e) {
+                // Виняток у scheduleWithFixedDelay скасував би всі наступні перевірки
+                logger.error("Unexpected error while debouncing {}: {}", file, e.getMessage(), e);
+            }
+        }
+    }
+
+    // --- Обробка ---
+
+    private void process(Path file) {
+        long startNanos = System.nanoTime();
+        try {
+            if (file.equals(menuFile)) {
+                if (ingestion.ingestMenu(file)) {
+                    // Нова собівартість змінює прибуток - усі файли продажів перераховуються повністю
+                    // (ingestSales бачить, що їх пораховано зі старим меню)
+                    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                        for (Path other : files) {
+                            Path normalized = other.toAbsolutePath().normalize();
+                            if (isSalesFile(normalized)) {
+                                enqueue(normalized);
+                            }
+                        }
+                    }
+                }
+            } else if (file.equals(inventoryFile)) {
+                ingestion.ingestInventory(file);
+            } else if (file.equals(recipesFile)) {
+                ingestion.ingestRecipes(file);
+            } else {
+                int loaded = ingestion.ingestSales(file, false);
+                logger.info("Loaded {} sales records from {} in {} ms.", loaded, file.getFileName(),
+                        (System.nanoTime() - startNanos) / 1_000_000);
+            }
+            failures.remove(file);
+        } catch (Exception e) {
+            // Служба продовжує працювати; файл повторюється, а також обробляється знову при наступній зміні
+            scheduleRetry(file, e);
+        } finally {
+            inFlight.remove(file);
+        }
+    }
+
+    private void scheduleRetry(Path file, Exception e) {
+        int attempt = failures.merge(file, 1, Integer::sum);
+        if (attempt > MAX_RETRIES) {
+            failures.remove(file);
+            logger.error("Failed to ingest {} after {} attempts; giving up until it changes or the service restarts: {}",
+                    file, attempt, e.getMessage(), e);
+            return;
+        }
+        long delayMillis = FIRST_RETRY_DELAY.toMillis() << (attempt - 1);
+        logger.error("Failed to ingest {} (attempt {}); retrying in {} s: {}", file, attempt, delayMillis / 1000, e.getMessage(), e);
+        try {
+            debouncer.schedule(() -> enqueue(file), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException closing) {
+            logger.debug("Not retrying {}: watcher is closing.", file);
+        }
+    }
+
+    private boolean isSalesFile(Path file) {
+        return !file.equals(menuFile) && !file.equals(inventoryFile) && !file.equals(recipesFile);
+    }
+
+    // Лише xlsx і csv; тимчасові файли Excel (~$name.xlsx) і приховані (знімки .name.xlsx.snapshot) ігноруються
+    private static boolean isDataFile(Path file) {
+        String name = file.getFileName().toString();
+        String lowerCase = name.toLowerCase(Locale.ROOT);
+        return (lowerCase.endsWith(".xlsx") || lowerCase.endsWith(".csv")) && !name.startsWith("~$") && !name.startsWith(".");
+    }
+
+    // Центральний каталог zip записується в кінці файлу, тож недописаний xlsx не відкривається
+    private static boolean isCompleteArchive(Path file) {
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            return zip.size() > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static final class PendingFile {
+        long size = -1;
+        long modified = -1;
+        long changedAtNanos;
+    }
+}
@@ -0,0 +1,279 @@
+package com.yourcompany.coffeeshop.app;
+
+import com.yourcompany.coffeeshop.data.RecordSource;
+import com.yourcompany.coffeeshop.data.FileFingerprint;
+import com.yourcompany.coffeeshop.db.PostgreSQLManager;
+import com.yourcompany.coffeeshop.model.DeadLetterSink;
+import com.yourcompany.coffeeshop.model.IngestionState;
+import com.yourcompany.coffeeshop.model.InventoryItem;
+import com.yourcompany.coffeeshop.model.MenuItem;
+import com.yourcompany.coffeeshop.model.RecipeItem;
+import com.yourcompany.coffeeshop.model.SaleRecord;
+import com.yourcompany.coffeeshop.processor.DataProcessor;
+import com.yourcompany.coffeeshop.processor.DuplicatePolicy;
+import com.yourcompany.coffeeshop.processor.SaleDeduplicator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Інкрементальне завантаження (--incremental): для кожного файлу в ingestion_state зберігається відбиток
+// (розмір, час зміни, SHA-256) і для продажів - high-water mark (максимальні sale_id та дата).
+// Незмінені файли пропускаються повністю, а з файлу продажів (xlsx або csv) розбираються, трансформуються
+// і завантажуються лише рядки за high-water mark, тож час роботи залежить від обсягу нових даних.
+// Припущення: нові продажі дописуються в кінець файлу; зміни вже завантажених рядків
+// підхоплює лише повне завантаження (запуск без --incremental).
+// Разом з high-water mark у стані файлу продажів зберігається SHA-256 меню, з яким пораховано прибуток.
+// Якщо меню відтоді змінилося, файл перечитується повністю - і це переживає збій: поки повний прохід
+// не завершився успішно, стан файлу продажів указує на старе меню.
+// Методи ingest* можна викликати окремо для довільних файлів (див. DirectoryWatcher); один і той самий
+// файл не слід обробляти з кількох потоків одночасно. Читання й трансформація йдуть паралельно, а запис у БД
+// (разом зі збереженням стану файлу) - під спільним loadLock, по одному файлу: upsert-и агрегатів і залишків
+// інгредієнтів блокують рядки в довільному порядку, тож два одночасні завантаження могли б узаємоблокуватися.
+public class IncrementalIngestion {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalIngestion.class);
+
+    private final RecordSource dataReader;
+    private final PostgreSQLManager dbManager;
+    private final Path salesFile;
+    private final Path menuFile;
+    private final Path inventoryFile;
+    private final Path recipesFile; // null або відсутній файл - без рецептів
+    private volatile DataProcessor dataProcessor; // Створюється з меню при першій потребі
+    private volatile DeadLetterSink deadLetters = DeadLetterSink.NONE;
+    private volatile SaleDeduplicator deduplicator = new SaleDeduplicator(DuplicatePolicy.LAST_WINS);
+    private final Object loadLock = new Object(); // Також захищає deduplicator - він не потокобезпечний
+
+    public IncrementalIngestion(RecordSource dataReader, PostgreSQLManager dbManager,
+                                Path salesFile, Path menuFile, Path inventoryFile) {
+        this(dataReader, dbManager, salesFile, menuFile, inventoryFile, null);
+    }
+
+    public IncrementalIngestion(RecordSource dataReader, PostgreSQLManager dbManager,
+                                Path salesFile, Path menuFile, Path inventoryFile, Path recipesFile) {
+        this.dataReader = dataReader;
+        this.dbManager = dbManager;
+        this.salesFile = salesFile;
+        this.menuFile = menuFile;
+        this.inventoryFile = inventoryFile;
+        this.recipesFile = recipesFile;
+    }
+
+    // Куди DataProcessor передає відкинуті записи (читач і менеджер БД налаштовуються окремо)
+    public void setDeadLetters(DeadLetterSink deadLetters) {
+        this.deadLetters = deadLetters;
+        DataProcessor processor = dataProcessor;
+        if (processor != null) {
+            processor.setDeadLetters(deadLetters);
+        }
+    }
+
+    // Правило для sale_id, що трапляються кілька разів (або вже є в БД). Живе, як і цей об'єкт, між файлами,
+    // тож у --watch FIRST_WINS і skipLoaded діють на всі файли, завантажені службою
+    public void setDeduplicator(SaleDeduplicator deduplicator) {
+        this.deduplicator = deduplicator;
+    }
+
+    // Повертає кількість завантажених продажів (0, якщо нових немає)
+    public int run() throws SQLException, IOException {
+        dbManager.createTables();
+        ingestMenu(menuFile);
+        ingestInventory(inventoryFile);
+        if (recipesFile != null && Files.isRegularFile(recipesFile)) {
+            ingestRecipes(recipesFile);
+        }
+        // Після зміни меню ingestSales сам перераховує продажі повністю (див. menu_sha256 в ingestion_state)
+        return ingestSales(salesFile, false);
+    }
+
+    // Завантажує меню, якщо файл змінився, і перебудовує DataProcessor. Повертає true, якщо меню змінилося.
+    public boolean ingestMenu(Path file) throws SQLException, IOException {
+        ChangeCheck menu = check(file);
+        if (!menu.changed) {
+            return false;
+        }
+        List<MenuItem> menuItems = dataReader.readMenuItems(file.toString());
+        logger.info("Menu Items read: {}", menuItems.size());
+        synchronized (loadLock) {
+            dbManager.insertMenuItems(menuItems);
+            dataProcessor = newDataProcessor(menuItems);
+            menu.commit(null, null, menuItems.size(), null);
+        }
+        return true;
+    }
+
+    public boolean ingestInventory(Path file) throws SQLException, IOException {
+        ChangeCheck inventory = check(file);
+        if (!inventory.changed) {
+            return false;
+        }
+        List<InventoryItem> inventoryItems = dataReader.readInventory(file.toString());
+        logger.info("Inventory Items read: {}", inventoryItems.size());
+        synchronized (loadLock) {
+            dbManager.insertInventoryItems(inventoryItems);
+            inventory.commit(null, null, inventoryItems.size(), null);
+        }
+        return true;
+    }
+
+    // Зміна рецептів перераховує списання за всіма продажами в БД (див. PostgreSQLManager.insertRecipes)
+    public boolean ingestRecipes(Path file) throws SQLException, IOException {
+        ChangeCheck recipes = check(file);
+        if (!recipes.changed) {
+            return false;
+        }
+        List<RecipeItem> recipeItems = dataReader.readRecipes(file.toString());
+        logger.info("Recipe Items read: {}", recipeItems.size());
+        synchronized (loadLock) {
+            dbManager.insertRecipes(recipeItems);
+            recipes.commit(null, null, recipeItems.size(), null);
+        }
+        return true;
+    }
+
+    // Завантажує рядки файлу продажів за його high-water mark; fullPass - ігнорувати high-water mark
+    // (файл перечитується повністю, навіть якщо не змінився). Те саме відбувається без fullPass, якщо
+    // прибуток продажів файлу пораховано з іншим меню; такий прохід перезаписує вже завантажені продажі файлу,
+    // тож deduplicator відкидає в ньому лише дублікати всередині файлу. Повертає кількість завантажених продажів.
+    public int ingestSales(Path file, boolean fullPass) throws SQLException, IOException {
+        ChangeCheck sales = check(file);
+        IngestionState previous = sales.previous;
+        String menuHash = committedMenuHash(); // До dataProcessor(): процесор замінюється раніше, ніж фіксується меню
+        boolean menuChanged = previous != null && !Objects.equals(previous.getMenuHash(), menuHash);
+        if (menuChanged) {
+            logger.info("Menu changed since {} was loaded; recomputing all its sales.", file);
+        }
+        boolean ignoreMark = fullPass || menuChanged;
+        if (!sales.changed && !ignoreMark) {
+            logger.info("No new sales to load from {}.", file);
+            return 0;
+        }
+
+        int afterSaleId = Integer.MIN_VALUE;
+        LocalDate afterDate = null;
+        if (!ignoreMark && previous != null && previous.getMaxSaleId() != null) {
+            afterSaleId = previous.getMaxSaleId();
+            afterDate = previous.getMaxSaleDate();
+        }
+
+        List<SaleRecord> rawSales = new ArrayList<>();
+        // Помилка читання (обрізана чи пошкоджена книга) прокидається до commit: файл лишається незавантаженим,
+        // і наступний запуск чи повторна спроба DirectoryWatcher прочитає його знову
+        dataReader.readDailySalesStreaming(file.toString(), afterSaleId, afterDate, rawSales::add);
+        logger.info("New raw Sales Records read from {}: {}", file, rawSales.size());
+
+        // Повний прохід визначає high-water mark і лічильник рядків наново
+        IngestionState carried = ignoreMark ? null : previous;
+        Integer maxSaleId = carried == null ? null : carried.getMaxSaleId();
+        LocalDate maxSaleDate = carried == null ? null : carried.getMaxSaleDate();
+        for (SaleRecord sale : rawSales) {
+            if (maxSaleId == null || sale.getSaleId() > maxSaleId) {
+                maxSaleId = sale.getSaleId();
+            }
+            if (sale.getDate() != null && (maxSaleDate == null || sale.getDate().isAfter(maxSaleDate))) {
+                maxSaleDate = sale.getDate();
+            }
+        }
+
+        List<SaleRecord> processedSales = List.of();
+        if (!rawSales.isEmpty()) {
+            processedSales = dataProcessor().processSalesData(rawSales);
+            logger.info("Processed Sales Records after cleaning and transformation: {}", processedSales.size());
+        }
+        synchronized (loadLock) {
+            // Під локом: файли завантажуються по одному, тож FIRST_WINS і skipLoaded бачать їх у порядку запису
+            if (!processedSales.isEmpty()) {
+                processedSales = deduplicator.dedupe(processedSales, SaleRecord::getSaleId, ignoreMark);
+            }
+            if (!processedSales.isEmpty()) {
+                Set<String> uniqueBaristaNames = processedSales.stream()
+                        .map(SaleRecord::getBaristaName)
+                        .collect(Collectors.toSet());
+                dbManager.insertBaristas(List.copyOf(uniqueBaristaNames));
+                dbManager.insertSales(processedSales);
+                deduplicator.recordLoaded(processedSales, SaleRecord::getSaleId);
+            }
+            int loaded = processedSales.size();
+            long rowsLoaded = (carried == null ? 0 : carried.getRowsLoaded()) + loaded;
+            sales.commit(maxSaleId, maxSaleDate, rowsLoaded, menuHash);
+            return loaded;
+        }
+    }
+
+    // SHA-256 останнього успішно завантаженого меню (null - меню ще не завантажувалося)
+    private String committedMenuHash() throws SQLException {
+        IngestionState menu = dbManager.getIngestionState(FileFingerprint.keyOf(menuFile));
+        return menu == null ? null : menu.getContentHash();
+    }
+
+    // DataProcessor живе між викликами (індекс назв меню та його мемоізація лишаються "теплими")
+    // і перебудовується лише при зміні меню
+    private DataProcessor dataProcessor() {
+        DataProcessor processor = dataProcessor;
+        if (processor == null) {
+            synchronized (this) {
+                if (dataProcessor == null) {
+                    dataProcessor = newDataProcessor(dataReader.readMenuItems(menuFile.toString()));
+                }
+                processor = dataProcessor;
+            }
+        }
+        return processor;
+    }
+
+    private DataProcessor newDataProcessor(List<MenuItem> menuItems) {
+        DataProcessor processor = new DataProcessor(menuItems);
+        processor.setDeadLetters(deadLetters);
+        return processor;
+    }
+
+    // Порівнює поточний відбиток файлу зі збереженим
+    private ChangeCheck check(Path file) throws SQLException, IOException {
+        String fileKey = FileFingerprint.keyOf(file);
+        IngestionState previous = dbManager.getIngestionState(fileKey);
+        FileFingerprint fingerprint = FileFingerprint.of(file, previous);
+        boolean changed = !fingerprint.sameContentAs(previous);
+        if (!changed) {
+            if (fingerprint.getLastModifiedMillis() != previous.getLastModifiedMillis()) {
+                // Вміст той самий (наприклад, файл перезбережено без змін): запам'ятовуємо новий час зміни,
+                // щоб наступного разу не рахувати хеш
+                fingerprint.applyTo(previous);
+                dbManager.saveIngestionState(previous);
+            }
+            logger.info("{} is unchanged since the last load.", file);
+        }
+        return new ChangeCheck(fileKey, previous, fingerprint, changed);
+    }
+
+    private final class ChangeCheck {
+        private final String fileKey;
+        private final IngestionState previous;
+        private final FileFingerprint fingerprint;
+        private final boolean changed;
+
+        ChangeCheck(String fileKey, IngestionState previous, FileFingerprint fingerprint, boolean changed) {
+            this.fileKey = fileKey;
+            this.previous = previous;
+            this.fingerprint = fingerprint;
+            this.changed = changed;
+        }
+
+        // Фіксує відбиток після успішного завантаження файлу
+        void commit(Integer maxSaleId, LocalDate maxSaleDate, long rowsLoaded, String menuHash) throws SQLException {
+            IngestionState state = new IngestionState(fileKey, 0, 0, null, maxSaleId, maxSaleDate, rowsLoaded);
+            state.setMenuHash(menuHash);
+            fingerprint.applyTo(state);
+            dbManager.saveIngestionState(state);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.yourcompany.coffeeshop.app;
+
+import com.yourcompany.coffeeshop.data.RecordSource;
+import com.yourcompany.coffeeshop.db.PostgreSQLManager;
+import com.yourcompany.coffeeshop.model.CompactSaleRecord;
+import com.yourcompany.coffeeshop.processor.DataProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Конвеєрне завантаження продажів: читання файлу (Excel або CSV), трансформація та запис у БД працюють одночасно
+// в окремих потоках і з'єднані обмеженими чергами. Якщо наступний етап не встигає, попередній
+// блокується на put() (backpressure), тож у пам'яті одночасно не більше ніж capacity * chunkSize записів.
+// Між етапами записи лежать як CompactSaleRecord; повний SaleRecord існує лише під час обробки та запису чанку.
+public class IngestionPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionPipeline.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 5_000;
+    public static final int DEFAULT_QUEUE_CAPACITY = 4;
+    private static final long REPORT_INTERVAL_SECONDS = 5;
+
+    // Маркер кінця потоку (порівнюється за посиланням)
+    private static final List<CompactSaleRecord> END_OF_STREAM = new ArrayList<>();
+
+    private final RecordSource dataReader;
+    private final DataProcessor dataProcessor;
+    private final PostgreSQLManager dbManager;
+    private final int chunkSize;
+    private final int queueCapacity;
+
+    public IngestionPipeline(RecordSource dataReader, DataProcessor dataProcessor, PostgreSQLManager dbManager) {
+        this(dataReader, dataProcessor, dbManager, DEFAULT_CHUNK_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public IngestionPipeline(RecordSource dataReader, DataProcessor dataProcessor, PostgreSQLManager dbManager,
+                             int chunkSize, int queueCapacity) {
+        if (chunkSize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("chunkSize and queueCapacity must be positive");
+        }
+        this.dataReader = dataReader;
+        this.dataProcessor = dataProcessor;
+        this.dbManager = dbManager;
+        this.chunkSize = chunkSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    // Запускає три етапи для одного файлу продажів і чекає їх завершення.
+    // Помилка будь-якого етапу зупиняє решту і прокидається назовні.
+    public void run(String salesFilePath) throws Exception {
+        BlockingQueue<List<CompactSaleRecord>> rawQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<List<CompactSaleRecord>> processedQueue = new ArrayBlockingQueue<>(queueCapacity);
+
+        StageStats readerStats = new StageStats("reader");
+        StageStats transformerStats = new StageStats("transformer");
+        StageStats loaderStats = new StageStats("loader");
+
+        ExecutorService stages = Executors.newFixedThreadPool(3, namedThreads("pipeline-stage"));
+        ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor(namedThreads("pipeline-monitor"));
+        monitor.scheduleAtFixedRate(() -> logProgress(rawQueue, processedQueue, readerStats, transformerStats, loaderStats),
+                REPORT_INTERVAL_SECONDS, REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        long startNanos = System.nanoTime();
+        try {
+            CompletionService<Void> completion = new ExecutorCompletionService<>(stages);
+            completion.submit(() -> {
+                readStage(salesFilePath, rawQueue, readerStats);
+                return null;
+            });
+            completion.submit(() -> {
+                transformStage(rawQueue, processedQueue, transformerStats);
+                return null;
+            });
+            completion.submit(() -> {
+                loadStage(processedQueue, loaderStats);
+                return null;
+            });
+
+            // Чекаємо етапи в порядку завершення: якщо впав loader, reader може висіти на повній черзі
+            for (int i = 0; i < 3; i++) {
+                try {
+                    completion.take().get();
+                } catch (ExecutionException e) {
+                    stages.shutdownNow(); // Перериваємо інші етапи, які чекають на черзі
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Exception) {
+                        throw (Exception) cause;
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            monitor.shutdownNow();
+            stages.shutdownNow();
+        }
+
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        logger.info("Pipeline finished in {} s.", String.format("%.2f", elapsedSeconds));
+        for (StageStats stats : List.of(readerStats, transformerStats, loaderStats)) {
+            logger.info("  {}", stats.summary());
+        }
+    }
+
+    // --- Етапи ---
+
+    private void readStage(String salesFilePath, BlockingQueue<List<CompactSaleRecord>> out, StageStats stats) throws InterruptedException {
+        stats.start();
+        List<CompactSaleRecord> buffer = new ArrayList<>(chunkSize);
+        dataReader.readDailySalesCompact(salesFilePath, record -> {
+            buffer.add(record);
+            if (buffer.size() >= chunkSize) {
+                stats.record(buffer.size());
+                putFromCallback(out, new ArrayList<>(buffer));
+                buffer.clear();
+            }
+        });
+        if (!buffer.isEmpty()) {
+            stats.record(buffer.size());
+            out.put(buffer);
+        }
+        out.put(END_OF_STREAM);
+        stats.finish();
+    }
+
+    // Дублікати відкидаються тут: етап один і бачить чанки в порядку читання
+    private void transformStage(BlockingQueue<List<CompactSaleRecord>> in, BlockingQueue<List<CompactSaleRecord>> out, StageStats stats) throws InterruptedException, SQLException {
+        stats.start();
+        List<CompactSaleRecord> chunk;
+        while ((chunk = in.take()) != END_OF_STREAM) {
+            long t0 = System.nanoTime();
+            List<CompactSaleRecord> processed = dataProcessor.removeDuplicateCompactSales(dataProcessor.processCompactSales(chunk));
+            stats.busy(System.nanoTime() - t0);
+            stats.record(processed.size());
+            out.put(processed);
+        }
+        out.put(END_OF_STREAM);
+        stats.finish();
+    }
+
+    private void loadStage(BlockingQueue<List<CompactSaleRecord>> in, StageStats stats) throws Exception {
+        stats.start();
+        List<CompactSaleRecord> chunk;
+        while ((chunk = in.take()) != END_OF_STREAM) {
+            if (chunk.isEmpty()) {
+                continue;
+            }
+            long t0 = System.nanoTime();
+            dbManager.insertCompactSales(chunk);
+            stats.busy(System.nanoTime() - t0);
+            stats.record(chunk.size());
+        }
+        stats.finish();
+    }
+
+    // --- Допоміжні методи ---
+
+    // Consumer у readDailySalesCompact не може кидати checked-винятки, тому переривання загортаємо
+    private static void putFromCallback(BlockingQueue<List<CompactSaleRecord>> queue, List<CompactSaleRecord> chunk) {
+        try {
+            queue.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Pipeline reader interrupted", e);
+        }
+    }
+
+    private void logProgress(BlockingQueue<List<CompactSaleRecord>> rawQueue, BlockingQueue<List<CompactSaleRecord>> processedQueue,
+                             StageStats... stats) {
+        logger.info("Pipeline progress: raw queue {}/{}, processed queue {}/{}; {}; {}; {}",
+                rawQueue.size(), queueCapacity, processedQueue.size(), queueCapacity,
+                stats[0].summary(), stats[1].summary(), stats[2].summary());
+    }
+
+    static ThreadFactory namedThreads(String prefix) {
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Лічильники одного етапу: кількість записів/чанків, час роботи та пропускна здатність
+    static final class StageStats {
+        private final String name;
+        private final AtomicLong records = new AtomicLong();
+        private final AtomicLong chunks = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private volatile long startNanos;
+        private volatile long finishNanos;
+
+        StageStats(String name) {
+            this.name = name;
+        }
+
+        void start() {
+            startNanos = System.nanoTime();
+        }
+
+        void finish() {
+            finishNanos = System.nanoTime();
+        }
+
+        void record(int count) {
+            records.addAndGet(count);
+            chunks.incrementAndGet();
+        }
+
+        void busy(long nanos) {
+            busyNanos.addAndGet(nanos);
+        }
+
+        String summary() {
+            long end = finishNanos != 0 ? finishNanos : System.nanoTime();
+            double seconds = startNanos == 0 ? 0 : (end - startNanos) / 1_000_000_000.0;
+            double throughput = seconds > 0 ? records.get() / seconds : 0;
+            String busy = busyNanos.get() > 0 ? String.format(", busy %.2f s", busyNanos.get() / 1_000_000_000.0) : "";
+            return String.format("%s: %d records in %d chunks, %.0f rec/s%s", name, records.get(), chunks.get(), throughput, busy);
+        }
+    }
+}
@@ -1,18 +1,35 @@
 package com.yourcompany.coffeeshop.app;
 
+import com.yourcompany.coffeeshop.analytics.Dimension;
+import com.yourcompany.coffeeshop.analytics.Measure;
+import com.yourcompany.coffeeshop.analytics.SalesColumnStore;
+import com.yourcompany.coffeeshop.data.CsvDataReader;
+import com.yourcompany.coffeeshop.data.DeadLetterStore;
 import com.yourcompany.coffeeshop.data.ExcelDataReader;
+import com.yourcompany.coffeeshop.data.RecordSource;
+import com.yourcompany.coffeeshop.data.RecordSources;
 import com.yourcompany.coffeeshop.db.PostgreSQLManager;
+import com.yourcompany.coffeeshop.db.SalesLoadMode;
+import com.yourcompany.coffeeshop.metrics.Metrics;
+import com.yourcompany.coffeeshop.metrics.MetricsHttpServer;
+import com.yourcompany.coffeeshop.model.DeadLetterSink;
 import com.yourcompany.coffeeshop.model.InventoryItem;
 import com.yourcompany.coffeeshop.model.MenuItem;
+import com.yourcompany.coffeeshop.model.RecipeItem;
 import com.yourcompany.coffeeshop.model.SaleRecord;
 import com.yourcompany.coffeeshop.processor.DataProcessor;
+import com.yourcompany.coffeeshop.processor.DuplicatePolicy;
+import com.yourcompany.coffeeshop.processor.SaleDeduplicator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-// import java.io.IOException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 public class Main {
@@ -22,55 +39,275 @@ public class Main {
 
     public static void main(String[] args) {
         logger.info("Starting data processing for Coffee Shop Analytics.");
+        Metrics.registerMBean(); // Лічильники, таймери і гістограми видно в jconsole / VisualVM
+        MetricsHttpServer metricsServer = startMetricsServer(flagValue(args, "--metrics-port"));
 
+        // Відкинуті на будь-якому етапі рядки продажів дописуються у data/dead_letters.csv
+        DeadLetterStore deadLetters = new DeadLetterStore(Path.of(DATA_DIR, "dead_letters.csv"));
         ExcelDataReader dataReader = new ExcelDataReader();
+        dataReader.setDeadLetters(deadLetters);
+        if (hasFlag(args, "--snapshot-cache")) {
+            dataReader.setSnapshotCacheEnabled(true); // Незмінені книги продажів читаються з бінарних знімків
+        }
+        CsvDataReader csvReader = new CsvDataReader();
+        csvReader.setDeadLetters(deadLetters);
+        // Файли *.csv читаються CsvDataReader, решта - ExcelDataReader
+        RecordSource records = RecordSources.byExtension(dataReader, csvReader);
         PostgreSQLManager dbManager = new PostgreSQLManager();
+        dbManager.setDeadLetters(deadLetters);
+        if (hasFlag(args, "--copy")) {
+            dbManager.setSalesLoadMode(SalesLoadMode.COPY); // Продажі через COPY замість JDBC batch
+        }
+        SaleDeduplicator deduplicator = deduplicator(args, dbManager);
 
         try {
 
-            // 1. Читання даних з Excel
+            String batchSpec = flagValue(args, "--batch");
+            if (hasFlag(args, "--reprocess-dead-letters")) {
+                // Лише рядки з dead_letters.csv - після виправлення меню чи даних
+                new DeadLetterReprocessor(deadLetters, dbManager).run(records.readMenuItems(dataFile("menu_items")));
+            } else if (batchSpec != null) {
+                runBatch(dataReader, records, dbManager, deadLetters, deduplicator, batchSpec);
+            } else if (hasFlag(args, "--watch")) {
+                runWatching(records, dbManager, deadLetters, deduplicator);
+            } else if (hasFlag(args, "--incremental")) {
+                // Лише змінені файли і нові рядки продажів (див. IncrementalIngestion)
+                Path dataDir = Path.of(DATA_DIR);
+                IncrementalIngestion ingestion = new IncrementalIngestion(records, dbManager, RecordSources.resolve(dataDir, "daily_sales"),
+                        RecordSources.resolve(dataDir, "menu_items"), RecordSources.resolve(dataDir, "inventory"),
+                        RecordSources.resolve(dataDir, "recipes"));
+                ingestion.setDeadLetters(deadLetters);
+                ingestion.setDeduplicator(deduplicator);
+                int loaded = ingestion.run();
+                logger.info("Incremental load finished: {} new sales records.", loaded);
+            } else if (hasFlag(args, "--pipeline")) {
+                runPipelined(records, dbManager, deadLetters, deduplicator);
+            } else {
+                runSequential(records, dbManager, deadLetters, deduplicator, hasFlag(args, "--parallel"));
+            }
 
-            List<SaleRecord> rawSales = dataReader.readDailySales(DATA_DIR + "daily_sales.xlsx");
-            List<MenuItem> menuItems = dataReader.readMenuItems(DATA_DIR + "menu_items.xlsx");
-            List<InventoryItem> inventoryItems = dataReader.readInventory(DATA_DIR + "inventory.xlsx");
+        } catch (SQLException e) { // Цей блок залишаємо, бо методи dbManager можуть кидати SQLException
+            logger.error("Database error occurred: {}", e.getMessage(), e);
+        } catch (Exception e) { // Залишаємо загальний виняток для інших непередбачених помилок
+            logger.error("An unexpected error occurred: {}", e.getMessage(), e);
+        } finally {
+            deadLetters.close(); // Дописує чергу відкинутих рядків
+            dbManager.close(); // Закриваємо пул з'єднань
+            if (metricsServer != null) {
+                metricsServer.close();
+            }
+        }
 
-            logger.info("Raw Sales Records read: {}", rawSales.size());
-            logger.info("Menu Items read: {}", menuItems.size());
-            logger.info("Inventory Items read: {}", inventoryItems.size());
+        logger.info("Run metrics:\n{}", Metrics.render());
+        logger.info("Data processing finished.");
+    }
 
-            // 2. Обробка та трансформація даних
-            DataProcessor dataProcessor = new DataProcessor(menuItems);
-            List<SaleRecord> processedSales = dataProcessor.processSalesData(rawSales);
+    // Послідовний режим: кожен етап повністю завершується перед наступним.
+    // З --parallel трансформація виконується паралельно на всіх ядрах (DataProcessor.processSalesDataParallel).
+    private static void runSequential(RecordSource dataReader, PostgreSQLManager dbManager, DeadLetterSink deadLetters,
+                                      SaleDeduplicator deduplicator, boolean parallel) throws SQLException {
+        // 1. Читання даних з Excel (або з CSV-вивантажень, якщо вони є)
 
-            logger.info("Processed Sales Records after cleaning and transformation: {}", processedSales.size());
+        List<SaleRecord> rawSales = dataReader.readDailySales(dataFile("daily_sales"));
+        List<MenuItem> menuItems = dataReader.readMenuItems(dataFile("menu_items"));
+        List<InventoryItem> inventoryItems = dataReader.readInventory(dataFile("inventory"));
 
-            // Отримання унікальних імен барист для вставки
+        logger.info("Raw Sales Records read: {}", rawSales.size());
+        logger.info("Menu Items read: {}", menuItems.size());
+        logger.info("Inventory Items read: {}", inventoryItems.size());
 
-            Set<String> uniqueBaristaNames = processedSales.stream()
-                    .map(SaleRecord::getBaristaName)
-                    .collect(Collectors.toSet());
+        // 2. Обробка та трансформація даних
+        DataProcessor dataProcessor = new DataProcessor(menuItems);
+        dataProcessor.setDeadLetters(deadLetters);
+        dataProcessor.setDeduplicator(deduplicator);
+        List<SaleRecord> processedSales = parallel
+                ? dataProcessor.processSalesDataParallel(rawSales)
+                : dataProcessor.processSalesData(rawSales);
 
-            // 3. Завантаження даних до PostgreSQL
-            dbManager.createTables(); // Створити таблиці, якщо їх немає
-            dbManager.insertBaristas(List.copyOf(uniqueBaristaNames)); // Вставляємо баристів
-            dbManager.insertMenuItems(menuItems);
-            dbManager.insertInventoryItems(inventoryItems);
-            dbManager.insertSales(processedSales);
-            logger.info("Data successfully loaded into PostgreSQL.");
+        logger.info("Processed Sales Records after cleaning and transformation: {}", processedSales.size());
 
-            // 4. Приклад виконання аналітичного запиту з Java
+        // 3. Завантаження даних до PostgreSQL
+        dbManager.createTables(); // Створити таблиці, якщо їх немає
+        // Дублікати sale_id (і з --skip-loaded вже завантажені продажі) відкидаються до запису
+        processedSales = dataProcessor.removeDuplicateSales(processedSales);
 
-            logger.info("Top 5 best-selling items:");
-            dbManager.getTopSellingItems(5).forEach((itemName, quantity) ->
-                    logger.info("- {}: {} units", itemName, quantity)
-            );
+        // Отримання унікальних імен барист для вставки
+        Set<String> uniqueBaristaNames = processedSales.stream()
+                .map(SaleRecord::getBaristaName)
+                .collect(Collectors.toSet());
 
-        } catch (SQLException e) { // Цей блок залишаємо, бо методи dbManager можуть кидати SQLException
-            logger.error("Database error occurred: {}", e.getMessage(), e);
-        } catch (Exception e) { // Залишаємо загальний виняток для інших непередбачених помилок
-            logger.error("An unexpected error occurred: {}", e.getMessage(), e);
+        dbManager.insertBaristas(List.copyOf(uniqueBaristaNames)); // Вставляємо баристів
+        dbManager.insertMenuItems(menuItems);
+        dbManager.insertInventoryItems(inventoryItems);
+        loadRecipes(dataReader, dbManager); // До продажів, щоб вони одразу списали інгредієнти
+        dbManager.insertSales(processedSales);
+        logger.info("Data successfully loaded into PostgreSQL.");
+
+        // 4. Аналітика з Java: запити до колонкового сховища в пам'яті, без звернення до БД
+        SalesColumnStore salesStore = SalesColumnStore.of(processedSales);
+
+        logger.info("Top 5 best-selling items:");
+        salesStore.query().top(Dimension.ITEM, Measure.QUANTITY, 5).forEach(total ->
+                logger.info("- {}: {} units", total.getKey(), total.getValue())
+        );
+        logger.info("Revenue by barista:");
+        salesStore.query().top(Dimension.BARISTA, Measure.REVENUE, Integer.MAX_VALUE).forEach(total ->
+                logger.info("- {}: {}", total.getKey(), total.getMoney())
+        );
+        logger.info("Revenue by payment method:");
+        salesStore.query().top(Dimension.PAYMENT_METHOD, Measure.REVENUE, Integer.MAX_VALUE).forEach(total ->
+                logger.info("- {}: {}", total.getKey(), total.getMoney())
+        );
+        logger.info("Ingredient stock:");
+        dbManager.getIngredientStock().forEach((ingredient, stock) ->
+                logger.info("- {}: {}", ingredient, stock.stripTrailingZeros().toPlainString())
+        );
+    }
+
+    // Конвеєрний режим (--pipeline): довідники читаються повністю (вони малі),
+    // а продажі проходять читання -> трансформацію -> запис у БД чанками паралельно.
+    private static void runPipelined(RecordSource dataReader, PostgreSQLManager dbManager, DeadLetterSink deadLetters,
+                                     SaleDeduplicator deduplicator) throws Exception {
+        List<MenuItem> menuItems = dataReader.readMenuItems(dataFile("menu_items"));
+        List<InventoryItem> inventoryItems = dataReader.readInventory(dataFile("inventory"));
+        logger.info("Menu Items read: {}", menuItems.size());
+        logger.info("Inventory Items read: {}", inventoryItems.size());
+
+        dbManager.createTables();
+        dbManager.insertMenuItems(menuItems);
+        dbManager.insertInventoryItems(inventoryItems);
+        loadRecipes(dataReader, dbManager);
+
+        // Нових баристів insertSales додає сам під час завантаження
+        DataProcessor dataProcessor = new DataProcessor(menuItems);
+        dataProcessor.setDeadLetters(deadLetters);
+        dataProcessor.setDeduplicator(deduplicator);
+        IngestionPipeline pipeline = new IngestionPipeline(dataReader, dataProcessor, dbManager);
+        pipeline.run(dataFile("daily_sales"));
+        logger.info("Data successfully loaded into PostgreSQL.");
+
+        logger.info("Top 5 best-selling items:");
+        dbManager.getTopSellingItems(5).forEach((itemName, quantity) ->
+                logger.info("- {}: {} units", itemName, quantity)
+        );
+    }
+
+    // Пакетний режим (--batch <каталог або glob>): багато книг продажів (по одній на кав'ярню, аркуш на день тощо)
+    // читаються паралельно, довідники - з DATA_DIR
+    private static void runBatch(ExcelDataReader dataReader, RecordSource records, PostgreSQLManager dbManager,
+                                 DeadLetterSink deadLetters, SaleDeduplicator deduplicator, String batchSpec) throws Exception {
+        List<Path> salesFiles = BatchIngestion.resolveWorkbooks(batchSpec);
+        List<MenuItem> menuItems = records.readMenuItems(dataFile("menu_items"));
+        List<InventoryItem> inventoryItems = records.readInventory(dataFile("inventory"));
+        logger.info("Sales workbooks matched by '{}': {}", batchSpec, salesFiles.size());
+        logger.info("Menu Items read: {}", menuItems.size());
+        logger.info("Inventory Items read: {}", inventoryItems.size());
+
+        dbManager.createTables();
+        dbManager.insertMenuItems(menuItems);
+        dbManager.insertInventoryItems(inventoryItems);
+        loadRecipes(records, dbManager);
+        BatchIngestion batch = new BatchIngestion(dataReader, dbManager, Runtime.getRuntime().availableProcessors());
+        batch.setDeadLetters(deadLetters);
+        batch.setDeduplicator(deduplicator);
+        int loaded = batch.run(salesFiles, menuItems);
+        logger.info("Batch load finished: {} sales records.", loaded);
+    }
+
+    // Режим служби (--watch): завантажує нові та змінені книги Excel і CSV-вивантаження з DATA_DIR, доки процес
+    // не зупинять (Ctrl+C / SIGTERM). Довідники обираються, як і в --incremental, один раз під час запуску.
+    private static void runWatching(RecordSource dataReader, PostgreSQLManager dbManager, DeadLetterStore deadLetters,
+                                    SaleDeduplicator deduplicator) throws Exception {
+        Path dataDir = Path.of(DATA_DIR);
+        Path menuFile = RecordSources.resolve(dataDir, "menu_items");
+        Path inventoryFile = RecordSources.resolve(dataDir, "inventory");
+        Path recipesFile = RecordSources.resolve(dataDir, "recipes");
+        dbManager.createTables();
+        IncrementalIngestion ingestion = new IncrementalIngestion(dataReader, dbManager,
+                RecordSources.resolve(dataDir, "daily_sales"), menuFile, inventoryFile, recipesFile);
+        ingestion.setDeadLetters(deadLetters);
+        ingestion.setDeduplicator(deduplicator);
+
+        DirectoryWatcher watcher = new DirectoryWatcher(ingestion, dataDir, menuFile, inventoryFile, recipesFile,
+                DirectoryWatcher.DEFAULT_WORKERS, DirectoryWatcher.DEFAULT_QUIET_PERIOD);
+        watcher.ignore(deadLetters.getFile()); // dead_letters.csv лежить у тому ж каталозі, але це не продажі
+        Thread mainThread = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            watcher.close(); // run() повертається, а main закриває пул з'єднань у finally
+            try {
+                mainThread.join(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "watcher-shutdown"));
+        try {
+            watcher.run();
+        } finally {
+            watcher.close(); // run() повертається і сам, якщо каталог став недоступним; повторний close() нічого не робить
         }
+    }
 
-        logger.info("Data processing finished.");
+    // Рецепти необов'язкові: без data/recipes.csv чи data/recipes.xlsx продажі не списують інгредієнти
+    private static void loadRecipes(RecordSource dataReader, PostgreSQLManager dbManager) throws SQLException {
+        String recipesFile = dataFile("recipes");
+        if (!Files.isRegularFile(Path.of(recipesFile))) {
+            logger.info("No recipes file in {}; sales will not deplete inventory.", DATA_DIR);
+            return;
+        }
+        List<RecipeItem> recipeItems = dataReader.readRecipes(recipesFile);
+        logger.info("Recipe Items read: {}", recipeItems.size());
+        dbManager.insertRecipes(recipeItems);
+    }
+
+    // Шлях до файлу даних: data/<baseName>.csv, якщо він є, інакше data/<baseName>.xlsx
+    private static String dataFile(String baseName) {
+        return RecordSources.resolve(Path.of(DATA_DIR), baseName).toString();
+    }
+
+    // --dedupe first|last: який із продажів з однаковим sale_id записується (за замовчуванням last, як і upsert);
+    // --skip-loaded: продажі, sale_id яких уже є в sales, не записуються повторно
+    private static SaleDeduplicator deduplicator(String[] args, PostgreSQLManager dbManager) {
+        String policy = flagValue(args, "--dedupe");
+        if (policy != null && !"first".equalsIgnoreCase(policy) && !"last".equalsIgnoreCase(policy)) {
+            logger.warn("Unknown --dedupe value '{}'; expected 'first' or 'last'. Using 'last'.", policy);
+        }
+        SaleDeduplicator deduplicator = new SaleDeduplicator("first".equalsIgnoreCase(policy)
+                ? DuplicatePolicy.FIRST_WINS : DuplicatePolicy.LAST_WINS);
+        if (hasFlag(args, "--skip-loaded")) {
+            deduplicator.skipLoaded(dbManager);
+        }
+        return deduplicator;
+    }
+
+    // --metrics-port <port>: текстові метрики на http://127.0.0.1:<port>/metrics (корисно в режимі --watch)
+    private static MetricsHttpServer startMetricsServer(String port) {
+        if (port == null) {
+            return null;
+        }
+        try {
+            return new MetricsHttpServer(Integer.parseInt(port));
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Could not start metrics endpoint on port {}: {}", port, e.getMessage());
+            return null;
+        }
+    }
+
+    // Значення параметра виду "--flag value"; null, якщо параметра немає
+    private static String flagValue(String[] args, String flag) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (flag.equals(args[i])) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasFlag(String[] args, String flag) {
+        for (String arg : args) {
+            if (flag.equals(arg)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
\ No newline at end of file
@@ -0,0 +1,274 @@
+package com.yourcompany.coffeeshop.data;
+
+import com.yourcompany.coffeeshop.metrics.SampledLogger;
+import com.yourcompany.coffeeshop.model.DeadLetter;
+import com.yourcompany.coffeeshop.model.DeadLetterSink;
+import com.yourcompany.coffeeshop.model.InventoryItem;
+import com.yourcompany.coffeeshop.model.MenuItem;
+import com.yourcompany.coffeeshop.model.RecipeItem;
+import com.yourcompany.coffeeshop.model.Money;
+import com.yourcompany.coffeeshop.model.SaleRecord;
+import com.yourcompany.coffeeshop.model.SaleSymbols;
+import com.yourcompany.coffeeshop.model.SymbolTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Читання CSV-вивантажень POS-систем. Перший рядок - заголовки; колонки знаходяться за ними (HeaderSchema),
+// як і в книгах Excel, тож порядок колонок у файлі може бути будь-який. Розбір без String.split і без проміжних рядків - див. CsvScanner.
+// Правила валідації збігаються з ExcelDataReader, тож результат той самий, що й з xlsx-версії файлу.
+public class CsvDataReader implements RecordSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvDataReader.class);
+    private static final SampledLogger sampledLogger = new SampledLogger(logger); // Попередження про окремі рядки
+
+    private volatile DeadLetterSink deadLetters = DeadLetterSink.NONE;
+
+    // Відкинуті рядки продажів передаються в sink разом з файлом, номером рядка і причиною
+    public void setDeadLetters(DeadLetterSink deadLetters) { this.deadLetters = deadLetters; }
+
+    // --- Продажі ---
+
+    @Override
+    public List<SaleRecord> readDailySales(String filePath) {
+        List<SaleRecord> sales = new ArrayList<>();
+        readDailySalesStreaming(filePath, sales::add);
+        return sales;
+    }
+
+    @Override
+    public long readDailySalesStreaming(String filePath, Consumer<SaleRecord> consumer) {
+        try {
+            return readSales(filePath, Integer.MIN_VALUE, null, consumer);
+        } catch (IOException e) {
+            logger.error("Could not read CSV file {}: {}", filePath, e.getMessage());
+            return 0;
+        }
+    }
+
+    // Старі рядки відсіюються за sale_id і датою, решта колонок у них не розбирається
+    @Override
+    public long readDailySalesStreaming(String filePath, int afterSaleId, LocalDate afterDate, Consumer<SaleRecord> consumer)
+            throws IOException {
+        return readSales(filePath, afterSaleId, afterDate, consumer);
+    }
+
+    // Помилка читання файлу прокидається; записи до місця помилки вже передані в consumer
+    private long readSales(String filePath, int afterSaleId, LocalDate afterDate, Consumer<SaleRecord> consumer)
+            throws IOException {
+        long startNanos = System.nanoTime();
+        long accepted = 0;
+        long skipped = 0;
+        try (CsvScanner csv = new CsvScanner(Path.of(filePath))) {
+            int[] fields = bindHeader(csv, HeaderSchema.SALES, filePath);
+            SymbolTable itemNames = new SymbolTable(); // Сирі назви спільні в межах файлу, не всього процесу
+            while (csv.nextRow()) {
+                try {
+                    int saleId = getInt(csv, fields[0], "sale_id");
+                    LocalDate date = getDate(csv, fields[1], "date");
+                    if (afterSaleId != Integer.MIN_VALUE
+                            && StreamingSalesReader.isAlreadyLoaded(saleId, date, afterSaleId, afterDate)) {
+                        skipped++;
+                        continue;
+                    }
+                    String itemNameRaw = itemNames.intern(csv.getString(fields[2])); // Спільний екземпляр замість копії на рядок
+                    int quantity = getInt(csv, fields[3], "quantity");
+                    // Ціна одразу в копійки; BigDecimal - лише для значень з більше ніж 2 знаками після коми тощо
+                    long pricePerItemCents = csv.getCents(fields[4]);
+                    BigDecimal pricePerItem = pricePerItemCents == Money.NONE ? csv.getBigDecimal(fields[4]) : null;
+                    String paymentMethod = SaleSymbols.PAYMENT_METHODS.intern(csv.getString(fields[5]));
+                    String baristaName = SaleSymbols.BARISTA_NAMES.intern(csv.getString(fields[6]));
+
+                    // Валідація: quantity та price_per_item мають бути позитивними
+                    if (quantity <= 0) {
+                        ReaderMetrics.invalidQuantity();
+                        sampledLogger.warn("invalid_quantity", "Invalid quantity (<=0) for sale_id: {}", saleId);
+                        deadLetters.accept(rejectedRow(csv, fields, "invalid_quantity", filePath));
+                        continue;
+                    }
+                    if (pricePerItemCents != Money.NONE ? pricePerItemCents <= 0
+                            : pricePerItem == null || pricePerItem.compareTo(BigDecimal.ZERO) <= 0) {
+                        ReaderMetrics.invalidPrice();
+                        sampledLogger.warn("invalid_price", "Invalid price_per_item (<=0 or null) for sale_id: {}", saleId);
+                        deadLetters.accept(rejectedRow(csv, fields, "invalid_price", filePath));
+                        continue;
+                    }
+
+                    consumer.accept(pricePerItemCents != Money.NONE
+                            ? new SaleRecord(saleId, date, itemNameRaw, quantity, pricePerItemCents, csv.getScale(fields[4]), paymentMethod, baristaName)
+                            : new SaleRecord(saleId, date, itemNameRaw, quantity, pricePerItem, paymentMethod, baristaName));
+                    accepted++;
+                } catch (RuntimeException e) {
+                    ReaderMetrics.rowError();
+                    sampledLogger.error("row_error", "Error reading row {} from {}: {}", csv.getRowNumber(), filePath, e.getMessage());
+                    deadLetters.accept(rejectedRow(csv, fields, "row_error", filePath));
+                }
+            }
+        } finally {
+            ReaderMetrics.rowsParsed(Path.of(filePath).getFileName().toString(), accepted);
+        }
+        if (skipped > 0) {
+            logger.info("Skipped {} already loaded rows in {} (high-water mark sale_id {}, date {}).",
+                    skipped, filePath, afterSaleId, afterDate);
+        }
+        logger.info("Read {} sales records from CSV {} in {} ms.", accepted, filePath,
+                (System.nanoTime() - startNanos) / 1_000_000);
+        return accepted;
+    }
+
+    // Сирі значення полів рядка - у dead-letter
+    private static DeadLetter rejectedRow(CsvScanner csv, int[] fields, String reason, String filePath) {
+        String[] values = new String[fields.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = csv.isEmpty(fields[i]) ? null : csv.getString(fields[i]);
+        }
+        return new DeadLetter(Instant.now(), DeadLetter.STAGE_READ, reason, filePath, csv.getRowNumber(),
+                values[0], values[1], values[2], values[3], values[4], values[5], values[6]);
+    }
+
+    // --- Довідники ---
+
+    @Override
+    public List<MenuItem> readMenuItems(String filePath) {
+        List<MenuItem> menuItems = new ArrayList<>();
+        try (CsvScanner csv = new CsvScanner(Path.of(filePath))) {
+            int[] fields = bindHeader(csv, HeaderSchema.MENU_ITEMS, filePath);
+            while (csv.nextRow()) {
+                try {
+                    int itemId = getInt(csv, fields[0], "menu_item_id");
+                    String nameStandard = csv.getString(fields[1]);
+                    String category = csv.getString(fields[2]);
+                    BigDecimal standardPrice = getBigDecimal(csv, fields[3], "standard_price");
+                    BigDecimal costPerUnit = getBigDecimal(csv, fields[4], "cost_per_unit");
+
+                    if (nameStandard == null || nameStandard.isEmpty()) {
+                        logger.warn("Missing standardized item name for menu_item_id: {}", itemId);
+                        continue;
+                    }
+
+                    menuItems.add(new MenuItem(itemId, nameStandard, category, standardPrice, costPerUnit));
+
+                } catch (RuntimeException e) {
+                    logger.error("Error reading row {} from {}: {}", csv.getRowNumber(), filePath, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Could not read CSV file {}: {}", filePath, e.getMessage());
+        }
+        return menuItems;
+    }
+
+    @Override
+    public List<InventoryItem> readInventory(String filePath) {
+        List<InventoryItem> inventoryItems = new ArrayList<>();
+        try (CsvScanner csv = new CsvScanner(Path.of(filePath))) {
+            int[] fields = bindHeader(csv, HeaderSchema.INVENTORY, filePath);
+            while (csv.nextRow()) {
+                try {
+                    int ingredientId = getInt(csv, fields[0], "ingredient_id");
+                    String ingredientName = csv.getString(fields[1]);
+                    BigDecimal currentStockKgL = getBigDecimal(csv, fields[2], "current_stock_kg_l");
+                    BigDecimal unitCost = getBigDecimal(csv, fields[3], "unit_cost");
+                    LocalDate lastRestockDate = getDate(csv, fields[4], "last_restock_date");
+
+                    if (ingredientName == null || ingredientName.isEmpty()) {
+                        logger.warn("Missing ingredient name for ingredient_id: {}", ingredientId);
+                        continue;
+                    }
+
+                    inventoryItems.add(new InventoryItem(ingredientId, ingredientName, currentStockKgL, unitCost, lastRestockDate));
+
+                } catch (RuntimeException e) {
+                    logger.error("Error reading row {} from {}: {}", csv.getRowNumber(), filePath, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Could not read CSV file {}: {}", filePath, e.getMessage());
+        }
+        return inventoryItems;
+    }
+
+    @Override
+    public List<RecipeItem> readRecipes(String filePath) {
+        List<RecipeItem> recipeItems = new ArrayList<>();
+        try (CsvScanner csv = new CsvScanner(Path.of(filePath))) {
+            int[] fields = bindHeader(csv, HeaderSchema.RECIPES, filePath);
+            while (csv.nextRow()) {
+                try {
+                    int menuItemId = getInt(csv, fields[0], "menu_item_id");
+                    int ingredientId = getInt(csv, fields[1], "ingredient_id");
+                    BigDecimal quantityPerUnit = getBigDecimal(csv, fields[2], "quantity_per_unit");
+
+                    if (quantityPerUnit.signum() <= 0) {
+                        logger.warn("Invalid quantity_per_unit (<=0) for menu_item_id {} and ingredient_id {}", menuItemId, ingredientId);
+                        continue;
+                    }
+
+                    recipeItems.add(new RecipeItem(menuItemId, ingredientId, quantityPerUnit));
+
+                } catch (RuntimeException e) {
+                    logger.error("Error reading row {} from {}: {}", csv.getRowNumber(), filePath, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Could not read CSV file {}: {}", filePath, e.getMessage());
+        }
+        return recipeItems;
+    }
+
+    // Читає рядок заголовків і повертає номери полів файлу для полів schema (HeaderSchema.MISSING - колонки немає)
+    private static int[] bindHeader(CsvScanner csv, HeaderSchema schema, String filePath) throws IOException {
+        List<String> headers = new ArrayList<>();
+        if (csv.nextRow()) {
+            for (int i = 0; i < csv.getFieldCount(); i++) {
+                headers.add(csv.getString(i));
+            }
+        }
+        return schema.bind(headers, filePath);
+    }
+
+    // --- Значення полів (ті ж значення за замовчуванням, що й для комірок Excel) ---
+
+    private static int getInt(CsvScanner csv, int field, String columnName) {
+        long value = csv.getLong(field);
+        if (value == Long.MIN_VALUE) {
+            ReaderMetrics.parseError(columnName);
+            sampledLogger.warn(columnName, "Non-numeric value for column {}. Value: {}", columnName, csv.getString(field));
+            return 0;
+        }
+        return (int) value;
+    }
+
+    private static BigDecimal getBigDecimal(CsvScanner csv, int field, String columnName) {
+        if (csv.isEmpty(field)) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal value = csv.getBigDecimal(field);
+        if (value == null) {
+            ReaderMetrics.parseError(columnName);
+            sampledLogger.warn(columnName, "Could not parse value as BigDecimal for column {}. Value: {}", columnName, csv.getString(field));
+            return BigDecimal.ZERO;
+        }
+        return value;
+    }
+
+    private static LocalDate getDate(CsvScanner csv, int field, String columnName) {
+        if (csv.isEmpty(field)) {
+            return null;
+        }
+        LocalDate date = csv.getDate(field);
+        if (date == null) {
+            ReaderMetrics.parseError(columnName);
+            sampledLogger.warn(columnName, "Could not parse date string '{}' for column {}.", csv.getString(field), columnName);
+        }
+        return date;
+    }
+}
@@ -0,0 +1,477 @@
+package com.yourcompany.coffeeshop.data;
+
+import com.yourcompany.coffeeshop.model.Money;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+// Розбір CSV (RFC 4180: поля в лапках, "" всередині лапок, CRLF або LF) прямо з байтового буфера.
+// Файл читається через FileChannel в один heap ByteBuffer, який перевикористовується; рядок не копіюється,
+// а описується межами полів у буфері. Числа, гроші та дати розбираються з байтів без створення String,
+// а рядкові значення декодуються одним CharsetDecoder і кешуються за байтами (назви товарів, баристи
+// та способи оплати повторюються в кожному рядку, тож більшість полів не декодується взагалі).
+// Роздільник (',', ';' або таб) визначається за першим рядком; з ';' або табом дробова частина
+// може відокремлюватися комою ("55,50" - так експортує Excel з українською локаллю).
+final class CsvScanner implements Closeable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    private static final int MAX_FIELDS = 64;
+    private static final int STRING_CACHE_SIZE = 4096; // Степінь двійки
+    private static final int MAX_CACHED_LENGTH = 64;
+
+    private final FileChannel channel;
+    private ByteBuffer buffer;
+    private byte[] bytes;
+    private ByteBuffer decodeView; // Вікно на bytes для декодера (перестворюється лише при збільшенні буфера)
+    private int position; // Початок наступного рядка
+    private int limit; // Кінець прочитаних байтів
+    private boolean endOfFile;
+    private byte delimiter;
+    private long rowNumber; // Номер поточного запису, 0 - рядок заголовків
+
+    // Межі полів поточного рядка в bytes (без лапок і пробілів по краях)
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    private final boolean[] fieldEscaped = new boolean[MAX_FIELDS]; // У полі є "" - перед декодуванням розекрануємо
+    private int fieldCount;
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private CharBuffer chars = CharBuffer.allocate(256);
+    private byte[] unescaped = new byte[256];
+    private final byte[][] cachedBytes = new byte[STRING_CACHE_SIZE][];
+    private final String[] cachedStrings = new String[STRING_CACHE_SIZE];
+
+    // Остання розібрана дата: продажі зазвичай згруповані по днях, тож LocalDate майже завжди той самий
+    private int lastDateKey = -1;
+    private LocalDate lastDate;
+
+    CsvScanner(Path file) throws IOException {
+        this(file, DEFAULT_BUFFER_SIZE);
+    }
+
+    CsvScanner(Path file, int bufferSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            setBuffer(new byte[Math.max(bufferSize, 16)]);
+            fill();
+            if (limit >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF) {
+                position = 3; // UTF-8 BOM (Excel пише його при "Зберегти як CSV UTF-8")
+            }
+            delimiter = detectDelimiter();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // --- Рядки ---
+
+    // Переходить до наступного непорожнього запису; false - кінець файлу
+    boolean nextRow() throws IOException {
+        while (true) {
+            int next = parseRow(position, endOfFile);
+            if (next < 0) {
+                if (endOfFile) {
+                    return false;
+                }
+                fill(); // Запис обірвався на межі буфера - дочитуємо і розбираємо його ще раз
+                continue;
+            }
+            position = next;
+            if (fieldCount == 1 && fieldStart[0] == fieldEnd[0] && !fieldEscaped[0]) {
+                continue; // Порожній рядок
+            }
+            rowNumber++;
+            return true;
+        }
+    }
+
+    long getRowNumber() { return rowNumber - 1; }
+    int getFieldCount() { return fieldCount; }
+
+    // Розбирає один запис з from; повертає початок наступного або -1, якщо запис не вміщується в прочитані байти
+    private int parseRow(int from, boolean atEnd) {
+        if (from >= limit) {
+            return -1;
+        }
+        byte[] b = bytes;
+        int i = from;
+        int field = 0;
+        while (true) {
+            boolean escaped = false;
+            int start;
+            int end;
+            while (i < limit && isBlank(b[i])) {
+                i++;
+            }
+            if (i < limit && b[i] == '"') {
+                start = ++i;
+                while (true) {
+                    if (i >= limit) {
+                        if (!atEnd) {
+                            return -1;
+                        }
+                        break; // Незакрита лапка в кінці файлу - беремо поле до кінця
+                    }
+                    if (b[i] == '"') {
+                        if (i + 1 >= limit && !atEnd) {
+                            return -1; // Не знаємо, чи це "" чи закриваюча лапка
+                        }
+                        if (i + 1 < limit && b[i + 1] == '"') {
+                            escaped = true;
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                end = i;
+                i++; // Закриваюча лапка; все до роздільника після неї ігнорується
+                while (i < limit && b[i] != delimiter && b[i] != '\n' && b[i] != '\r') {
+                    i++;
+                }
+            } else {
+                start = i;
+                while (i < limit && b[i] != delimiter && b[i] != '\n' && b[i] != '\r') {
+                    i++;
+                }
+                end = i;
+            }
+            if (i >= limit && !atEnd) {
+                return -1;
+            }
+            while (end > start && isBlank(b[end - 1])) {
+                end--;
+            }
+            while (start < end && isBlank(b[start])) {
+                start++;
+            }
+            if (field < MAX_FIELDS) {
+                fieldStart[field] = start;
+                fieldEnd[field] = end;
+                fieldEscaped[field] = escaped;
+                field++;
+            }
+            if (i >= limit) {
+                fieldCount = field;
+                return limit;
+            }
+            if (b[i] == delimiter) {
+                i++;
+                continue;
+            }
+            // Кінець запису: \n, \r\n або \r
+            fieldCount = field;
+            if (b[i] == '\r') {
+                if (i + 1 >= limit && !atEnd) {
+                    return -1;
+                }
+                return i + 1 < limit && b[i + 1] == '\n' ? i + 2 : i + 1;
+            }
+            return i + 1;
+        }
+    }
+
+    // Зсуває незавершений запис на початок буфера (або збільшує буфер) і дочитує файл
+    private void fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(bytes, position, bytes, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == bytes.length) {
+            setBuffer(Arrays.copyOf(bytes, bytes.length * 2));
+        }
+        buffer.limit(bytes.length).position(limit);
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        if (read < 0) {
+            endOfFile = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private void setBuffer(byte[] array) {
+        bytes = array;
+        buffer = ByteBuffer.wrap(array);
+        decodeView = ByteBuffer.wrap(array);
+    }
+
+    // Роздільник, якого найбільше в першому рядку поза лапками
+    private byte detectDelimiter() {
+        int commas = 0;
+        int semicolons = 0;
+        int tabs = 0;
+        boolean quoted = false;
+        for (int i = position; i < limit && (quoted || (bytes[i] != '\n' && bytes[i] != '\r')); i++) {
+            byte c = bytes[i];
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted) {
+                if (c == ',') {
+                    commas++;
+                } else if (c == ';') {
+                    semicolons++;
+                } else if (c == '\t') {
+                    tabs++;
+                }
+            }
+        }
+        if (semicolons > commas && semicolons >= tabs) {
+            return ';';
+        }
+        return tabs > commas ? (byte) '\t' : (byte) ',';
+    }
+
+    // --- Значення полів ---
+
+    // field < 0 - колонки немає у файлі (HeaderSchema.MISSING), як і поле за межами рядка
+    boolean isEmpty(int field) {
+        return field < 0 || field >= fieldCount || fieldStart[field] == fieldEnd[field];
+    }
+
+    // Текст поля (без пробілів по краях); null, якщо поля в рядку немає
+    String getString(int field) {
+        if (field < 0 || field >= fieldCount) {
+            return null;
+        }
+        int start = fieldStart[field];
+        int length = fieldEnd[field] - start;
+        byte[] source = bytes;
+        if (fieldEscaped[field]) {
+            length = unescape(start, length);
+            source = unescaped;
+            start = 0;
+        }
+        if (length == 0) {
+            return "";
+        }
+        if (length > MAX_CACHED_LENGTH) {
+            return decode(source, start, length);
+        }
+        int hash = 1;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + source[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & (STRING_CACHE_SIZE - 1);
+        byte[] cached = cachedBytes[slot];
+        if (cached != null && Arrays.equals(cached, 0, cached.length, source, start, start + length)) {
+            return cachedStrings[slot];
+        }
+        String value = decode(source, start, length);
+        cachedBytes[slot] = Arrays.copyOfRange(source, start, start + length);
+        cachedStrings[slot] = value;
+        return value;
+    }
+
+    private int unescape(int start, int length) {
+        if (unescaped.length < length) {
+            unescaped = new byte[Math.max(length, unescaped.length * 2)];
+        }
+        int out = 0;
+        for (int i = start; i < start + length; i++) {
+            unescaped[out++] = bytes[i];
+            if (bytes[i] == '"' && i + 1 < start + length && bytes[i + 1] == '"') {
+                i++;
+            }
+        }
+        return out;
+    }
+
+    private String decode(byte[] source, int start, int length) {
+        boolean ascii = true;
+        for (int i = start; i < start + length && ascii; i++) {
+            ascii = source[i] >= 0;
+        }
+        if (ascii) {
+            return new String(source, start, length, StandardCharsets.ISO_8859_1); // Без декодера
+        }
+        if (chars.capacity() < length) {
+            chars = CharBuffer.allocate(Math.max(length, chars.capacity() * 2)); // UTF-8 не дає більше символів, ніж байтів
+        }
+        ByteBuffer in = source == bytes ? decodeView : ByteBuffer.wrap(source);
+        in.clear().position(start).limit(start + length);
+        chars.clear();
+        decoder.reset();
+        decoder.decode(in, chars, true);
+        decoder.flush(chars);
+        return chars.flip().toString();
+    }
+
+    // Ціле значення; дробова частина відкидається (як (int) числової комірки Excel).
+    // Порожнє поле - 0; не число - Long.MIN_VALUE.
+    long getLong(int field) {
+        if (isEmpty(field)) {
+            return 0;
+        }
+        int i = fieldStart[field];
+        int end = fieldEnd[field];
+        boolean negative = bytes[i] == '-';
+        if (negative || bytes[i] == '+') {
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        for (; i < end && isDigit(bytes[i]); i++) {
+            value = value * 10 + (bytes[i] - '0');
+            if (++digits > 18) {
+                return Long.MIN_VALUE;
+            }
+        }
+        if (i < end && isDecimalSeparator(bytes[i])) {
+            for (i++; i < end && isDigit(bytes[i]); i++) {
+                digits++;
+            }
+        }
+        if (i != end || digits == 0) {
+            return Long.MIN_VALUE;
+        }
+        return negative ? -value : value;
+    }
+
+    // Значення в копійках за правилами Money.parse; Money.NONE - поле порожнє або не вміщується в scale 2
+    long getCents(int field) {
+        if (isEmpty(field)) {
+            return Money.NONE;
+        }
+        int i = fieldStart[field];
+        int end = fieldEnd[field];
+        boolean negative = bytes[i] == '-';
+        if (negative || bytes[i] == '+') {
+            i++;
+        }
+        long cents = 0;
+        int integerDigits = 0;
+        for (; i < end && isDigit(bytes[i]); i++) {
+            cents = cents * 10 + (bytes[i] - '0');
+            if (++integerDigits > 15) {
+                return Money.NONE;
+            }
+        }
+        int fractionDigits = 0;
+        if (i < end && isDecimalSeparator(bytes[i])) {
+            for (i++; i < end && isDigit(bytes[i]); i++) {
+                if (++fractionDigits > Money.SCALE) {
+                    return Money.NONE;
+                }
+                cents = cents * 10 + (bytes[i] - '0');
+            }
+        }
+        if (i != end || integerDigits + fractionDigits == 0) {
+            return Money.NONE;
+        }
+        for (int scale = fractionDigits; scale < Money.SCALE; scale++) {
+            cents *= 10;
+        }
+        return negative ? -cents : cents;
+    }
+
+    // Кількість знаків після десяткового роздільника (scale значення, розібраного getCents)
+    int getScale(int field) {
+        for (int i = fieldStart[field]; i < fieldEnd[field]; i++) {
+            if (isDecimalSeparator(bytes[i])) {
+                return fieldEnd[field] - i - 1;
+            }
+        }
+        return 0;
+    }
+
+    // Точне значення для чисел, що не вміщуються в копійки; null - поле порожнє або не число
+    BigDecimal getBigDecimal(int field) {
+        if (isEmpty(field)) {
+            return null;
+        }
+        long cents = getCents(field);
+        if (cents != Money.NONE) {
+            return Money.toBigDecimal(cents, getScale(field));
+        }
+        String text = getString(field);
+        try {
+            return new BigDecimal(delimiter != ',' ? text.replace(',', '.') : text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Дата dd.MM.yyyy або yyyy-MM-dd; null - поле порожнє або дата некоректна
+    LocalDate getDate(int field) {
+        if (isEmpty(field) || fieldEnd[field] - fieldStart[field] != 10) {
+            return null;
+        }
+        int s = fieldStart[field];
+        int day;
+        int month;
+        int year;
+        if (bytes[s + 2] == '.' && bytes[s + 5] == '.') {
+            day = twoDigits(s);
+            month = twoDigits(s + 3);
+            year = fourDigits(s + 6);
+        } else if (bytes[s + 4] == '-' && bytes[s + 7] == '-') {
+            year = fourDigits(s);
+            month = twoDigits(s + 5);
+            day = twoDigits(s + 8);
+        } else {
+            return null;
+        }
+        if (day < 0 || month < 0 || year < 0) {
+            return null;
+        }
+        int key = year * 10_000 + month * 100 + day;
+        if (key == lastDateKey) {
+            return lastDate;
+        }
+        try {
+            lastDate = LocalDate.of(year, month, day);
+            lastDateKey = key;
+            return lastDate;
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private int twoDigits(int at) {
+        return isDigit(bytes[at]) && isDigit(bytes[at + 1]) ? (bytes[at] - '0') * 10 + (bytes[at + 1] - '0') : -1;
+    }
+
+    private int fourDigits(int at) {
+        int high = twoDigits(at);
+        int low = twoDigits(at + 2);
+        return high < 0 || low < 0 ? -1 : high * 100 + low;
+    }
+
+    // Пробіли по краях поля (таб - лише якщо він не роздільник)
+    private boolean isBlank(byte c) {
+        return c == ' ' || (c == '\t' && delimiter != '\t');
+    }
+
+    private boolean isDecimalSeparator(byte c) {
+        return c == '.' || (c == ',' && delimiter != ',');
+    }
+
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,277 @@
+package com.yourcompany.coffeeshop.data;
+
+import com.yourcompany.coffeeshop.metrics.Metrics;
+import com.yourcompany.coffeeshop.model.DeadLetter;
+import com.yourcompany.coffeeshop.model.DeadLetterSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Сховище відкинутих рядків: CSV-файл, у який записи лише дописуються (перший рядок - заголовки).
+// accept() лише кладе запис у чергу; окремий потік забирає з неї все, що накопичилося,
+// і записує пачкою з одним flush, тож читання і обробка не чекають на диск.
+// Файл можна відкрити в Excel чи редакторі, виправити значення і повторно завантажити (takeForReprocessing).
+public class DeadLetterStore implements DeadLetterSink, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterStore.class);
+
+    private static final int QUEUE_CAPACITY = 65_536;
+    private static final int MAX_BATCH = 1_024;
+    private static final String HEADER = "recorded_at,stage,reason,source,row,"
+            + "sale_id,date,item_name,quantity,price_per_item,payment_method,barista_name";
+    // Маркер кінця черги (порівнюється за посиланням)
+    private static final DeadLetter END_OF_QUEUE = new DeadLetter(null, null, null, null, -1,
+            null, null, null, null, null, null, null);
+
+    private final Path file;
+    private final BlockingQueue<DeadLetter> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writerThread;
+    private volatile boolean closed;
+    private final Object fileLock = new Object(); // Запис пачки і перенесення файлу для повторної обробки
+    private Writer writer; // Під fileLock; відкривається при першому записі, тож без відкинутих рядків файл не створюється
+    private long written;
+    // Для flush(): скільки записів прийнято і скільки потік запису вже обробив
+    private final AtomicLong accepted = new AtomicLong();
+    private final Object flushLock = new Object();
+    private long processed; // Під flushLock
+
+    public DeadLetterStore(Path file) {
+        this.file = file;
+        this.writerThread = new Thread(this::writeLoop, "dead-letter-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void accept(DeadLetter deadLetter) {
+        if (closed) {
+            logger.warn("Dead-letter store {} is closed; dropping {}", file, deadLetter);
+            return;
+        }
+        Metrics.counter("dead_letters", "stage", deadLetter.getStage()).increment();
+        try {
+            queue.put(deadLetter); // Блокується лише якщо диск не встигає за QUEUE_CAPACITY записами
+            accepted.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while queueing dead letter {}", deadLetter);
+        }
+    }
+
+    // Чекає, доки всі прийняті до цього моменту записи потраплять у файл
+    public void flush() throws InterruptedException {
+        long target = accepted.get();
+        synchronized (flushLock) {
+            while (processed < target && writerThread.isAlive()) {
+                flushLock.wait(100);
+            }
+        }
+    }
+
+    // Дописує все, що в черзі, і зупиняє потік запису
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(END_OF_QUEUE);
+            writerThread.join(TimeUnit.MINUTES.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (written > 0) {
+            logger.info("{} rejected rows written to dead-letter store {}.", written, file);
+        }
+    }
+
+    private void writeLoop() {
+        List<DeadLetter> batch = new ArrayList<>(MAX_BATCH);
+        boolean end = false;
+        try {
+            while (!end) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                end = batch.get(batch.size() - 1) == END_OF_QUEUE;
+                if (end) {
+                    batch.remove(batch.size() - 1);
+                }
+                writeBatch(batch);
+                synchronized (flushLock) {
+                    processed += batch.size();
+                    flushLock.notifyAll();
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeWriter();
+        }
+    }
+
+    private void writeBatch(List<DeadLetter> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        synchronized (fileLock) {
+            writeBatchLocked(batch);
+        }
+    }
+
+    private void writeBatchLocked(List<DeadLetter> batch) {
+        try {
+            if (writer == null) {
+                boolean isNew = !Files.exists(file) || Files.size(file) == 0;
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+                if (isNew) {
+                    writer.write(HEADER);
+                    writer.write('\n');
+                }
+            }
+            StringBuilder line = new StringBuilder(256);
+            for (DeadLetter deadLetter : batch) {
+                line.setLength(0);
+                appendLine(line, deadLetter);
+                writer.append(line);
+            }
+            writer.flush();
+            written += batch.size();
+        } catch (IOException e) {
+            logger.error("Could not write {} dead letters to {}: {}", batch.size(), file, e.getMessage());
+        }
+    }
+
+    private void closeWriter() {
+        synchronized (fileLock) {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    logger.warn("Could not close dead-letter store {}: {}", file, e.getMessage());
+                }
+                writer = null;
+            }
+        }
+    }
+
+    // --- Формат CSV ---
+
+    private static void appendLine(StringBuilder out, DeadLetter d) {
+        appendField(out, d.getRecordedAt() == null ? null : d.getRecordedAt().toString()).append(',');
+        appendField(out, d.getStage()).append(',');
+        appendField(out, d.getReason()).append(',');
+        appendField(out, d.getSource()).append(',');
+        appendField(out, d.getRowNumber() < 0 ? null : Long.toString(d.getRowNumber())).append(',');
+        appendField(out, d.getSaleId()).append(',');
+        appendField(out, d.getDate()).append(',');
+        appendField(out, d.getItemName()).append(',');
+        appendField(out, d.getQuantity()).append(',');
+        appendField(out, d.getPricePerItem()).append(',');
+        appendField(out, d.getPaymentMethod()).append(',');
+        appendField(out, d.getBaristaName()).append('\n');
+    }
+
+    // Значення в лапках, якщо в ньому є кома, лапки чи перенесення рядка; null - порожнє поле
+    private static StringBuilder appendField(StringBuilder out, String value) {
+        if (value == null) {
+            return out;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return out.append(value);
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        return out.append('"');
+    }
+
+    // --- Повторна обробка ---
+
+    // Дописує чергу, атомарно переносить файл убік і повертає його записи; нові відмови під час повторної
+    // обробки пишуться вже в новий файл. Після успішної обробки перенесений файл треба видалити (deleteReprocessed).
+    // Якщо попередня повторна обробка не завершилася, повертаються записи лише з неї.
+    // Файл не повинен одночасно писати інший процес (наприклад, запущений --watch).
+    public List<DeadLetter> takeForReprocessing() throws IOException, InterruptedException {
+        flush();
+        Path taken = reprocessingFile(file);
+        synchronized (fileLock) {
+            if (Files.exists(taken)) {
+                logger.warn("Resuming unfinished reprocessing of {}.", taken);
+            } else {
+                closeWriter(); // Інакше наступні пачки дописувалися б у перенесений файл
+                try {
+                    Files.move(file, taken, StandardCopyOption.ATOMIC_MOVE);
+                } catch (NoSuchFileException e) {
+                    return List.of();
+                }
+            }
+        }
+        return read(taken);
+    }
+
+    public void deleteReprocessed() throws IOException {
+        Files.deleteIfExists(reprocessingFile(file));
+    }
+
+    private static Path reprocessingFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".reprocessing");
+    }
+
+    static List<DeadLetter> read(Path file) throws IOException {
+        List<DeadLetter> deadLetters = new ArrayList<>();
+        try (CsvScanner csv = new CsvScanner(file)) {
+            csv.nextRow(); // Заголовки
+            while (csv.nextRow()) {
+                Instant recordedAt;
+                try {
+                    recordedAt = csv.isEmpty(0) ? null : Instant.parse(csv.getString(0));
+                } catch (DateTimeParseException e) {
+                    recordedAt = null; // Поле могли змінити вручну - запис однаково повертаємо
+                }
+                long row = csv.isEmpty(4) ? -1 : csv.getLong(4);
+                deadLetters.add(new DeadLetter(recordedAt, nullIfEmpty(csv, 1), nullIfEmpty(csv, 2), nullIfEmpty(csv, 3),
+                        row == Long.MIN_VALUE ? -1 : row,
+                        nullIfEmpty(csv, 5), nullIfEmpty(csv, 6), nullIfEmpty(csv, 7), nullIfEmpty(csv, 8),
+                        nullIfEmpty(csv, 9), nullIfEmpty(csv, 10), nullIfEmpty(csv, 11)));
+            }
+        }
+        return deadLetters;
+    }
+
+    private static String nullIfEmpty(CsvScanner csv, int field) {
+        return csv.isEmpty(field) ? null : csv.getString(field);
+    }
+}
@@ -0,0 +1,183 @@
+package com.yourcompany.coffeeshop.data;
+
+import com.yourcompany.coffeeshop.metrics.SampledLogger;
+import com.yourcompany.coffeeshop.model.Money;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Декодер однієї колонки аркуша XSSFWorkbook: позиція визначається за заголовком (HeaderSchema) один раз на аркуш,
+// а тип кожної комірки перевіряється до читання значення, тож
+// getNumericCellValue / getStringCellValue ніколи не кидають IllegalStateException, а текстові значення
+// розбираються TextValues без винятків. Значення за замовчуванням ті самі, що й раніше: порожнє число - 0,
+// порожня сума - BigDecimal.ZERO, порожні текст і дата - null.
+final class ExcelColumn {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExcelColumn.class);
+    private static final SampledLogger sampledLogger = new SampledLogger(logger); // Попередження про окремі комірки
+
+    private final String name;
+    private final int index; // HeaderSchema.MISSING - колонки в аркуші немає
+    private final boolean date1904;
+
+    private ExcelColumn(String name, int index, boolean date1904) {
+        this.name = name;
+        this.index = index;
+        this.date1904 = date1904;
+    }
+
+    // Декодери для полів schema за рядком заголовків аркуша (номери полів - як у HeaderSchema).
+    // Розкладка колонок з типами комірок першого рядка даних пишеться в журнал (debug).
+    static ExcelColumn[] bind(Sheet sheet, HeaderSchema schema, String source) {
+        Row header = sheet.getRow(sheet.getFirstRowNum());
+        List<String> headers = new ArrayList<>();
+        if (header != null) {
+            for (int i = 0; i < header.getLastCellNum(); i++) {
+                Cell cell = header.getCell(i);
+                headers.add(cell == null || cell.getCellType() != CellType.STRING ? null : cell.getStringCellValue());
+            }
+        }
+        int[] positions = schema.bind(headers, source);
+        Row firstData = sheet.getRow(sheet.getFirstRowNum() + 1);
+        boolean date1904 = sheet.getWorkbook() instanceof XSSFWorkbook && ((XSSFWorkbook) sheet.getWorkbook()).isDate1904();
+
+        ExcelColumn[] columns = new ExcelColumn[schema.size()];
+        StringBuilder layout = new StringBuilder();
+        for (int field = 0; field < columns.length; field++) {
+            int position = positions[field];
+            Cell sample = firstData == null || position == HeaderSchema.MISSING ? null : firstData.getCell(position);
+            CellType type = sample == null ? CellType.BLANK : sample.getCellType();
+            columns[field] = new ExcelColumn(schema.fieldName(field), position, date1904);
+            layout.append(field == 0 ? "" : ", ").append(schema.fieldName(field)).append('@').append(position).append(':').append(type);
+        }
+        logger.debug("Column layout of {}: {}", source, layout);
+        return columns;
+    }
+
+    Cell cell(Row row) {
+        return index == HeaderSchema.MISSING ? null : row.getCell(index);
+    }
+
+    // Число; порожня комірка - 0, нечислове значення - 0 з попередженням
+    double number(Row row) {
+        Cell cell = cell(row);
+        if (cell == null) {
+            return 0.0;
+        }
+        CellType type = effectiveType(cell);
+        if (type == CellType.NUMERIC) {
+            return cell.getNumericCellValue();
+        }
+        if (type == CellType.BLANK) {
+            return 0.0;
+        }
+        double value = type == CellType.STRING ? TextValues.parseDouble(cell.getStringCellValue()) : Double.NaN;
+        if (Double.isNaN(value)) {
+            ReaderMetrics.parseError(name);
+            sampledLogger.warn(name, "Non-numeric cell type for column {}. Value: {}", name, cell);
+            return 0.0;
+        }
+        return value;
+    }
+
+    // Значення числової комірки або NaN (порожня чи не числова) - для швидкого шляху сум у копійках
+    double numberOrNaN(Row row) {
+        Cell cell = cell(row);
+        return cell != null && effectiveType(cell) == CellType.NUMERIC ? cell.getNumericCellValue() : Double.NaN;
+    }
+
+    // Текст без пробілів по краях; числа - їхнім десятковим записом (як у CSV)
+    String text(Row row) {
+        Cell cell = cell(row);
+        if (cell == null) {
+            return null;
+        }
+        CellType type = effectiveType(cell);
+        if (type == CellType.STRING) {
+            return cell.getStringCellValue().trim();
+        }
+        if (type == CellType.BLANK) {
+            return "";
+        }
+        if (type == CellType.NUMERIC) {
+            return numberText(cell.getNumericCellValue());
+        }
+        if (type == CellType.BOOLEAN) {
+            return String.valueOf(cell.getBooleanCellValue());
+        }
+        ReaderMetrics.parseError(name);
+        sampledLogger.warn(name, "Non-string cell type for column {}. Value: {}", name, cell);
+        return null;
+    }
+
+    // Точне значення (як new BigDecimal(String.valueOf(double)) для числових комірок); порожнє - ZERO
+    BigDecimal decimal(Row row) {
+        Cell cell = cell(row);
+        if (cell == null) {
+            return BigDecimal.ZERO;
+        }
+        CellType type = effectiveType(cell);
+        if (type == CellType.NUMERIC) {
+            double value = cell.getNumericCellValue();
+            long cents = Money.fromDouble(value);
+            return cents != Money.NONE ? Money.toBigDecimal(cents, Money.doubleScale(value)) : new BigDecimal(String.valueOf(value));
+        }
+        if (type == CellType.BLANK || (type == CellType.STRING && cell.getStringCellValue().isBlank())) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal value = type == CellType.STRING ? TextValues.parseDecimal(cell.getStringCellValue()) : null;
+        if (value == null) {
+            ReaderMetrics.parseError(name);
+            sampledLogger.warn(name, "Could not parse cell value as BigDecimal for column {}. Value: {}", name, cell);
+            return BigDecimal.ZERO;
+        }
+        return value;
+    }
+
+    // Дата з serial-числа (через кеш ExcelDates) або з тексту dd.MM.yyyy / yyyy-MM-dd; порожня комірка - null
+    LocalDate date(Row row) {
+        Cell cell = cell(row);
+        if (cell == null) {
+            return null;
+        }
+        CellType type = effectiveType(cell);
+        LocalDate date;
+        if (type == CellType.NUMERIC) {
+            date = ExcelDates.toLocalDate(cell.getNumericCellValue(), date1904);
+        } else if (type == CellType.STRING) {
+            date = TextValues.parseDate(cell.getStringCellValue());
+        } else if (type == CellType.BLANK) {
+            return null;
+        } else {
+            date = null;
+        }
+        if (date == null) {
+            ReaderMetrics.parseError(name);
+            sampledLogger.warn(name, "Could not parse date value '{}' for column {}.", cell, name);
+        }
+        return date;
+    }
+
+    // Для формул - тип закешованого результату
+    private static CellType effectiveType(Cell cell) {
+        CellType type = cell.getCellType();
+        return type == CellType.FORMULA ? cell.getCachedFormulaResultType() : type;
+    }
+
+    // 2.0 -> "2", 30.5 -> "30.5" (без BigDecimal для цілих значень)
+    static String numberText(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+}
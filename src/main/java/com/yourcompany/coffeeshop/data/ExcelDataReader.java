@@ -1,8 +1,15 @@
 package com.yourcompany.coffeeshop.data;
 
+import com.yourcompany.coffeeshop.metrics.SampledLogger;
+import com.yourcompany.coffeeshop.model.DeadLetter;
+import com.yourcompany.coffeeshop.model.DeadLetterSink;
 import com.yourcompany.coffeeshop.model.InventoryItem;
 import com.yourcompany.coffeeshop.model.MenuItem;
+import com.yourcompany.coffeeshop.model.RecipeItem;
+import com.yourcompany.coffeeshop.model.Money;
 import com.yourcompany.coffeeshop.model.SaleRecord;
+import com.yourcompany.coffeeshop.model.SaleSymbols;
+import com.yourcompany.coffeeshop.model.SymbolTable;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
@@ -12,19 +19,19 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
-public class ExcelDataReader {
+public class ExcelDataReader implements RecordSource {
 
     private static final Logger logger = LoggerFactory.getLogger(ExcelDataReader.class);
-    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd.MM.yyyy"); // Або "yyyy-MM-dd"
+    private static final SampledLogger sampledLogger = new SampledLogger(logger); // Попередження про окремі рядки
+    private volatile boolean snapshotCacheEnabled; // Див. setSnapshotCacheEnabled
+    private volatile DeadLetterSink deadLetters = DeadLetterSink.NONE; // Див. setDeadLetters
 
     // Метод для читання даних з Excel файлу
     private Workbook getWorkbook(String filePath) throws IOException {
@@ -34,10 +41,25 @@ public class ExcelDataReader {
 
     // --- Методи для читання окремих таблиць ---
 
+    @Override
     public List<SaleRecord> readDailySales(String filePath) {
         List<SaleRecord> sales = new ArrayList<>();
-        try (Workbook workbook = getWorkbook(filePath)) {
+        if (replaySnapshot(filePath, Integer.MIN_VALUE, null, sales::add) >= 0) {
+            return sales;
+        }
+        try (SalesSnapshot.Writer snapshot = openSnapshotWriter(filePath);
+             Workbook workbook = getWorkbook(filePath)) {
             Sheet sheet = workbook.getSheetAt(0); // Беремо перший аркуш
+            // Колонки за заголовками: декодери створюються один раз на аркуш
+            ExcelColumn[] columns = ExcelColumn.bind(sheet, HeaderSchema.SALES, filePath);
+            ExcelColumn saleIdColumn = columns[0];
+            ExcelColumn dateColumn = columns[1];
+            ExcelColumn itemNameColumn = columns[2];
+            ExcelColumn quantityColumn = columns[3];
+            ExcelColumn priceColumn = columns[4];
+            ExcelColumn paymentMethodColumn = columns[5];
+            ExcelColumn baristaNameColumn = columns[6];
+            SymbolTable itemNames = new SymbolTable(); // Сирі назви спільні в межах аркуша, не всього процесу
             boolean firstRow = true;
             for (Row row : sheet) {
                 if (firstRow) {
@@ -47,41 +69,165 @@ public class ExcelDataReader {
 
                 try {
                     // Валідація та обробка даних
-                    int saleId = (int) getNumericCellValue(row.getCell(0), "sale_id");
-                    LocalDate date = getLocalDateCellValue(row.getCell(1), "date");
-                    String itemNameRaw = getStringCellValue(row.getCell(2), "item_name");
-                    int quantity = (int) getNumericCellValue(row.getCell(3), "quantity");
-                    BigDecimal pricePerItem = getBigDecimalCellValue(row.getCell(4), "price_per_item");
-                    String paymentMethod = getStringCellValue(row.getCell(5), "payment_method");
-                    String baristaName = getStringCellValue(row.getCell(6), "barista_name");
+                    int saleId = (int) saleIdColumn.number(row);
+                    LocalDate date = dateColumn.date(row);
+                    String itemNameRaw = itemNames.intern(itemNameColumn.text(row)); // Спільний екземпляр замість копії на рядок
+                    int quantity = (int) quantityColumn.number(row);
+                    // Ціна одразу в копійки; BigDecimal створюється лише для нетипових значень (текст, більше 2 знаків після коми)
+                    double priceValue = priceColumn.numberOrNaN(row);
+                    long pricePerItemCents = Money.fromDouble(priceValue);
+                    BigDecimal pricePerItem = pricePerItemCents == Money.NONE ? priceColumn.decimal(row) : null;
+                    String paymentMethod = SaleSymbols.PAYMENT_METHODS.intern(paymentMethodColumn.text(row));
+                    String baristaName = SaleSymbols.BARISTA_NAMES.intern(baristaNameColumn.text(row));
 
                     // Валідація: quantity та price_per_item мають бути позитивними
                     if (quantity <= 0) {
-                        logger.warn("Invalid quantity (<=0) for sale_id: {}", saleId);
+                        ReaderMetrics.invalidQuantity();
+                        sampledLogger.warn("invalid_quantity", "Invalid quantity (<=0) for sale_id: {}", saleId);
+                        deadLetters.accept(rejectedRow(row, columns, "invalid_quantity", filePath));
                         continue; // Пропускаємо рядок або обробляємо як помилку
                     }
-                    if (pricePerItem == null || pricePerItem.compareTo(BigDecimal.ZERO) <= 0) {
-                        logger.warn("Invalid price_per_item (<=0 or null) for sale_id: {}", saleId);
+                    if (pricePerItemCents != Money.NONE ? pricePerItemCents <= 0
+                            : pricePerItem == null || pricePerItem.compareTo(BigDecimal.ZERO) <= 0) {
+                        ReaderMetrics.invalidPrice();
+                        sampledLogger.warn("invalid_price", "Invalid price_per_item (<=0 or null) for sale_id: {}", saleId);
+                        deadLetters.accept(rejectedRow(row, columns, "invalid_price", filePath));
                         continue;
                     }
 
-                    sales.add(new SaleRecord(saleId, date, itemNameRaw, quantity, pricePerItem, paymentMethod, baristaName));
+                    sales.add(pricePerItemCents != Money.NONE
+                            ? new SaleRecord(saleId, date, itemNameRaw, quantity, pricePerItemCents, Money.doubleScale(priceValue), paymentMethod, baristaName)
+                            : new SaleRecord(saleId, date, itemNameRaw, quantity, pricePerItem, paymentMethod, baristaName));
 
                 } catch (Exception e) {
-                    logger.error("Error reading row {} from {}: {}", row.getRowNum(), filePath, e.getMessage());
-                    // Можна додати логіку для збереження помилкових рядків для подальшого аналізу
+                    ReaderMetrics.rowError();
+                    sampledLogger.error("row_error", "Error reading row {} from {}: {}", row.getRowNum(), filePath, e.getMessage());
+                    deadLetters.accept(rejectedRow(row, columns, "row_error", filePath));
                 }
             }
+            ReaderMetrics.rowsParsed(new File(filePath).getName() + "!" + sheet.getSheetName(), sales.size());
+            if (snapshot != null) {
+                writeSnapshot(snapshot, filePath, sheet.getSheetName(), sales, workbook.getNumberOfSheets() == 1);
+            }
         } catch (IOException e) {
             logger.error("Could not read Excel file {}: {}", filePath, e.getMessage());
         }
         return sales;
     }
 
+    // Потоковий варіант readDailySales для великих файлів: записи передаються у consumer по одному,
+    // без побудови XSSFWorkbook у пам'яті. Повертає кількість прочитаних валідних записів.
+    @Override
+    public long readDailySalesStreaming(String filePath, Consumer<SaleRecord> consumer) {
+        long replayed = replaySnapshot(filePath, Integer.MIN_VALUE, null, consumer);
+        if (replayed >= 0) {
+            return replayed;
+        }
+        try (SalesSnapshot.Writer snapshot = openSnapshotWriter(filePath)) {
+            return new StreamingSalesReader(deadLetters).read(filePath, consumer, snapshot);
+        }
+    }
+
+    // Інкрементальний варіант: у consumer потрапляють лише рядки за high-water mark
+    // (sale_id > afterSaleId або дата пізніше afterDate). Старіші рядки пропускаються без розбору решти колонок.
+    @Override
+    public long readDailySalesStreaming(String filePath, int afterSaleId, LocalDate afterDate, Consumer<SaleRecord> consumer)
+            throws IOException {
+        long replayed = replaySnapshot(filePath, afterSaleId, afterDate, consumer);
+        if (replayed >= 0) {
+            return replayed;
+        }
+        // Знімок тут не пишеться: до нього потрапили б лише нові рядки
+        return new StreamingSalesReader(afterSaleId, afterDate, deadLetters).readOrThrow(filePath, consumer, null);
+    }
+
+    // Пакетне читання багатьох книг продажів з усіма аркушами паралельно на parallelism потоках.
+    // Кожен запис позначено джерелом ("файл!аркуш", SaleRecord.getSource()).
+    public List<SaleRecord> readDailySalesBatch(List<Path> files, int parallelism) {
+        return new ParallelSalesReader(new StreamingSalesReader(deadLetters), parallelism, snapshotCacheEnabled).read(files);
+    }
+
+    // Відкинуті рядки продажів (невалідні кількість чи ціна, помилка розбору) передаються в sink
+    // разом з файлом, номером рядка і причиною. Рядки, прочитані зі знімка, вже були валідними.
+    public void setDeadLetters(DeadLetterSink deadLetters) { this.deadLetters = deadLetters; }
+
+    // Сирі значення комірок рядка, як їх видно в книзі (для повторної обробки після виправлення)
+    private static DeadLetter rejectedRow(Row row, ExcelColumn[] columns, String reason, String filePath) {
+        String[] values = new String[columns.length];
+        for (int i = 0; i < values.length; i++) {
+            Cell cell = columns[i].cell(row);
+            values[i] = cell == null ? null : cellText(cell);
+        }
+        return new DeadLetter(Instant.now(), DeadLetter.STAGE_READ, reason, filePath, row.getRowNum(),
+                values[0], values[1], values[2], values[3], values[4], values[5], values[6]);
+    }
+
+    private static String cellText(Cell cell) {
+        if (cell.getCellType() == CellType.NUMERIC) {
+            if (DateUtil.isCellDateFormatted(cell)) {
+                return cell.getLocalDateTimeCellValue().toLocalDate().toString();
+            }
+            return BigDecimal.valueOf(cell.getNumericCellValue()).stripTrailingZeros().toPlainString();
+        }
+        String text = cell.toString().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    // --- Знімки прочитаних продажів (SalesSnapshot) ---
+
+    // Увімкнено: після розбору книги поруч із нею пишеться бінарний знімок, і поки книга не зміниться,
+    // методи readDailySales* читають записи зі знімка замість POI
+    public void setSnapshotCacheEnabled(boolean snapshotCacheEnabled) { this.snapshotCacheEnabled = snapshotCacheEnabled; }
+    public boolean isSnapshotCacheEnabled() { return snapshotCacheEnabled; }
+
+    // Передає в consumer записи першого аркуша зі знімка. Повертає -1, якщо знімок вимкнено, його немає або він застарів.
+    private long replaySnapshot(String filePath, int afterSaleId, LocalDate afterDate, Consumer<SaleRecord> consumer) {
+        if (!snapshotCacheEnabled) {
+            return -1;
+        }
+        SalesSnapshot snapshot = SalesSnapshot.load(Path.of(filePath));
+        if (snapshot == null || snapshot.getSheetCount() == 0) {
+            return -1;
+        }
+        long startNanos = System.nanoTime();
+        long replayed = snapshot.replay(0, null, afterSaleId, afterDate, consumer);
+        logger.info("Read {} sales records from snapshot of {} in {} ms.", replayed, filePath,
+                (System.nanoTime() - startNanos) / 1_000_000);
+        return replayed;
+    }
+
+    // null - знімки вимкнено або файл знімка не вдалося створити (тоді книга просто читається без нього)
+    private SalesSnapshot.Writer openSnapshotWriter(String filePath) {
+        if (!snapshotCacheEnabled) {
+            return null;
+        }
+        try {
+            Path source = Path.of(filePath);
+            return new SalesSnapshot.Writer(source, FileFingerprint.of(source)); // Відбиток - до читання книги
+        } catch (IOException e) {
+            logger.warn("Could not create sales snapshot for {}: {}", filePath, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeSnapshot(SalesSnapshot.Writer snapshot, String filePath, String sheetName,
+                                      List<SaleRecord> records, boolean complete) {
+        try {
+            snapshot.startSheet(sheetName);
+            records.forEach(snapshot::add);
+            snapshot.endSheet();
+            snapshot.commit(complete);
+        } catch (IOException e) {
+            logger.warn("Could not write sales snapshot for {}: {}", filePath, e.getMessage());
+        }
+    }
+
+    @Override
     public List<MenuItem> readMenuItems(String filePath) {
         List<MenuItem> menuItems = new ArrayList<>();
         try (Workbook workbook = getWorkbook(filePath)) {
             Sheet sheet = workbook.getSheetAt(0);
+            ExcelColumn[] columns = ExcelColumn.bind(sheet, HeaderSchema.MENU_ITEMS, filePath);
             boolean firstRow = true;
             for (Row row : sheet) {
                 if (firstRow) {
@@ -89,11 +235,11 @@ public class ExcelDataReader {
                     continue;
                 }
                 try {
-                    int itemId = (int) getNumericCellValue(row.getCell(0), "menu_item_id");
-                    String nameStandard = getStringCellValue(row.getCell(1), "item_name_standard");
-                    String category = getStringCellValue(row.getCell(2), "category");
-                    BigDecimal standardPrice = getBigDecimalCellValue(row.getCell(3), "standard_price");
-                    BigDecimal costPerUnit = getBigDecimalCellValue(row.getCell(4), "cost_per_unit");
+                    int itemId = (int) columns[0].number(row);
+                    String nameStandard = columns[1].text(row);
+                    String category = columns[2].text(row);
+                    BigDecimal standardPrice = columns[3].decimal(row);
+                    BigDecimal costPerUnit = columns[4].decimal(row);
 
                     if (nameStandard == null || nameStandard.trim().isEmpty()) {
                         logger.warn("Missing standardized item name for menu_item_id: {}", itemId);
@@ -112,10 +258,12 @@ public class ExcelDataReader {
         return menuItems;
     }
 
+    @Override
     public List<InventoryItem> readInventory(String filePath) {
         List<InventoryItem> inventoryItems = new ArrayList<>();
         try (Workbook workbook = getWorkbook(filePath)) {
             Sheet sheet = workbook.getSheetAt(0);
+            ExcelColumn[] columns = ExcelColumn.bind(sheet, HeaderSchema.INVENTORY, filePath);
             boolean firstRow = true;
             for (Row row : sheet) {
                 if (firstRow) {
@@ -123,11 +271,11 @@ public class ExcelDataReader {
                     continue;
                 }
                 try {
-                    int ingredientId = (int) getNumericCellValue(row.getCell(0), "ingredient_id");
-                    String ingredientName = getStringCellValue(row.getCell(1), "ingredient_name");
-                    BigDecimal currentStockKgL = getBigDecimalCellValue(row.getCell(2), "current_stock_kg_l");
-                    BigDecimal unitCost = getBigDecimalCellValue(row.getCell(3), "unit_cost");
-                    LocalDate lastRestockDate = getLocalDateCellValue(row.getCell(4), "last_restock_date");
+                    int ingredientId = (int) columns[0].number(row);
+                    String ingredientName = columns[1].text(row);
+                    BigDecimal currentStockKgL = columns[2].decimal(row);
+                    BigDecimal unitCost = columns[3].decimal(row);
+                    LocalDate lastRestockDate = columns[4].date(row);
 
                     if (ingredientName == null || ingredientName.trim().isEmpty()) {
                         logger.warn("Missing ingredient name for ingredient_id: {}", ingredientId);
@@ -146,65 +294,37 @@ public class ExcelDataReader {
         return inventoryItems;
     }
 
-    // --- Допоміжні методи для безпечного отримання значень комірок ---
-    private String getStringCellValue(Cell cell, String columnName) {
-        if (cell == null) {
-            return null;
-        }
-        try {
-            return cell.getStringCellValue().trim(); // Trim whitespace
-        } catch (IllegalStateException e) {
-            logger.warn("Non-string cell type for column {}. Value: {}", columnName, cell);
-            return null; // Return null if not a string
-        }
-    }
+    @Override
+    public List<RecipeItem> readRecipes(String filePath) {
+        List<RecipeItem> recipeItems = new ArrayList<>();
+        try (Workbook workbook = getWorkbook(filePath)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            ExcelColumn[] columns = ExcelColumn.bind(sheet, HeaderSchema.RECIPES, filePath);
+            boolean firstRow = true;
+            for (Row row : sheet) {
+                if (firstRow) {
+                    firstRow = false;
+                    continue;
+                }
+                try {
+                    int menuItemId = (int) columns[0].number(row);
+                    int ingredientId = (int) columns[1].number(row);
+                    BigDecimal quantityPerUnit = columns[2].decimal(row);
 
-    private double getNumericCellValue(Cell cell, String columnName) {
-        if (cell == null) {
-            return 0.0; // або кинути виняток, якщо не може бути 0
-        }
-        try {
-            return cell.getNumericCellValue();
-        } catch (IllegalStateException e) {
-            logger.warn("Non-numeric cell type for column {}. Value: {}", columnName, cell);
-            return 0.0;
-        }
-    }
+                    if (quantityPerUnit.signum() <= 0) {
+                        logger.warn("Invalid quantity_per_unit (<=0) for menu_item_id {} and ingredient_id {}", menuItemId, ingredientId);
+                        continue;
+                    }
 
-    private BigDecimal getBigDecimalCellValue(Cell cell, String columnName) {
-        if (cell == null) {
-            return BigDecimal.ZERO; // або null, залежить від логіки
-        }
-        try {
-            return new BigDecimal(String.valueOf(cell.getNumericCellValue()));
-        } catch (IllegalStateException | NumberFormatException e) {
-            // Спроба обробки, якщо число було збережено як текст
-            try {
-                String strValue = cell.getStringCellValue().trim();
-                if (strValue.isEmpty()) return BigDecimal.ZERO;
-                return new BigDecimal(strValue);
-            } catch (Exception ex) {
-                logger.warn("Could not parse cell value as BigDecimal for column {}. Value: {}", columnName, cell);
-                return BigDecimal.ZERO;
-            }
-        }
-    }
+                    recipeItems.add(new RecipeItem(menuItemId, ingredientId, quantityPerUnit));
 
-    private LocalDate getLocalDateCellValue(Cell cell, String columnName) {
-        if (cell == null) {
-            return null;
-        }
-        if (cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
-            return DateUtil.getJavaDate(cell.getNumericCellValue()).toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate();
-        } else if (cell.getCellType() == CellType.STRING) {
-            try {
-                return LocalDate.parse(cell.getStringCellValue().trim(), dateFormatter);
-            } catch (DateTimeParseException e) {
-                logger.warn("Could not parse date string '{}' for column {}. Error: {}", cell.getStringCellValue(), columnName, e.getMessage());
-                return null;
+                } catch (Exception e) {
+                    logger.error("Error reading row {} from {}: {}", row.getRowNum(), filePath, e.getMessage());
+                }
             }
+        } catch (IOException e) {
+            logger.error("Could not read Excel file {}: {}", filePath, e.getMessage());
         }
-        logger.warn("Unsupported cell type for date column {}. Value: {}", columnName, cell);
-        return null;
+        return recipeItems;
     }
-}
\ No newline at end of file
+}
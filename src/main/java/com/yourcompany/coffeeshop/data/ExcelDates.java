@@ -0,0 +1,77 @@
+package com.yourcompany.coffeeshop.data;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Excel зберігає дати як кількість днів (serial) від 1900-01-00 або, в книгах з 1904-системою, від 1904-01-01.
+// Замість DateUtil.getJavaDate -> java.util.Date -> ZoneId.systemDefault() на кожну комірку день переводиться
+// в LocalDate арифметикою один раз і кешується в таблиці сторінками по PAGE_SIZE днів: у файлі продажів
+// кілька сотень різних днів, тож майже кожна комірка - читання з масиву без створення об'єктів.
+// Разом з датою кешується її текст ISO yyyy-MM-dd (потокове читання передає значення комірок рядками).
+final class ExcelDates {
+
+    private static final int PAGE_SIZE = 1024;
+    private static final int MAX_SERIAL = 2_958_465; // 9999-12-31 - остання дата, яку приймає Excel
+    private static final int PAGE_COUNT = MAX_SERIAL / PAGE_SIZE + 1;
+
+    // 1900-01-01 має serial 1; serial 60 - неіснуюче 1900-02-29 (помилка Lotus 1-2-3, яку Excel зберіг),
+    // тож для serial > 60 зсув на день більший
+    private static final long EPOCH_DAY_OF_SERIAL_ZERO_1900 = LocalDate.of(1899, 12, 31).toEpochDay();
+    private static final long EPOCH_DAY_OF_SERIAL_ZERO_1904 = LocalDate.of(1904, 1, 1).toEpochDay();
+
+    // Сторінки заповнюються ліниво; гонка двох потоків лише створює однакові незмінні об'єкти двічі
+    private static final AtomicReferenceArray<Entry[]> PAGES_1900 = new AtomicReferenceArray<>(PAGE_COUNT);
+    private static final AtomicReferenceArray<Entry[]> PAGES_1904 = new AtomicReferenceArray<>(PAGE_COUNT);
+
+    private ExcelDates() {
+    }
+
+    // Дата для serial (дробова частина - час - відкидається); null, якщо serial поза діапазоном дат Excel
+    static LocalDate toLocalDate(double serial, boolean use1904Windowing) {
+        Entry entry = entry(serial, use1904Windowing);
+        return entry == null ? null : entry.date;
+    }
+
+    // Те саме як текст yyyy-MM-dd; null, якщо serial поза діапазоном
+    static String toIsoText(double serial, boolean use1904Windowing) {
+        Entry entry = entry(serial, use1904Windowing);
+        return entry == null ? null : entry.isoText;
+    }
+
+    private static Entry entry(double serial, boolean use1904Windowing) {
+        if (!(serial >= 0) || serial >= MAX_SERIAL + 1) {
+            return null; // Також NaN
+        }
+        int day = (int) serial;
+        AtomicReferenceArray<Entry[]> pages = use1904Windowing ? PAGES_1904 : PAGES_1900;
+        Entry[] page = pages.get(day / PAGE_SIZE);
+        if (page == null) {
+            pages.compareAndSet(day / PAGE_SIZE, null, new Entry[PAGE_SIZE]);
+            page = pages.get(day / PAGE_SIZE);
+        }
+        Entry entry = page[day % PAGE_SIZE];
+        if (entry == null) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay(day, use1904Windowing));
+            entry = new Entry(date, date.toString());
+            page[day % PAGE_SIZE] = entry; // Entry незмінний з final-полями - безпечна публікація без volatile
+        }
+        return entry;
+    }
+
+    private static long epochDay(int serial, boolean use1904Windowing) {
+        if (use1904Windowing) {
+            return EPOCH_DAY_OF_SERIAL_ZERO_1904 + serial;
+        }
+        return EPOCH_DAY_OF_SERIAL_ZERO_1900 + (serial > 60 ? serial - 1 : serial);
+    }
+
+    private static final class Entry {
+        private final LocalDate date;
+        private final String isoText;
+
+        private Entry(LocalDate date, String isoText) {
+            this.date = date;
+            this.isoText = isoText;
+        }
+    }
+}
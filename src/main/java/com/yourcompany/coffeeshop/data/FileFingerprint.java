@@ -0,0 +1,107 @@
+package com.yourcompany.coffeeshop.data;
+
+import com.yourcompany.coffeeshop.model.IngestionState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+// Відбиток файлу: розмір, час зміни та SHA-256 вмісту.
+// Хеш рахується лише тоді, коли розмір або час зміни відрізняються від збереженого стану:
+// незмінений файл розпізнається одним stat() без читання вмісту.
+public final class FileFingerprint {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final long size;
+    private final long lastModifiedMillis;
+    private final String contentHash;
+
+    private FileFingerprint(long size, long lastModifiedMillis, String contentHash) {
+        this.size = size;
+        this.lastModifiedMillis = lastModifiedMillis;
+        this.contentHash = contentHash;
+    }
+
+    // previous (може бути null) - стан з останнього завантаження. Якщо розмір і час зміни збігаються,
+    // хеш береться з нього, інакше файл читається повністю.
+    public static FileFingerprint of(Path path, IngestionState previous) throws IOException {
+        return previous == null
+                ? of(path)
+                : of(path, previous.getFileSize(), previous.getLastModifiedMillis(), previous.getContentHash());
+    }
+
+    public static FileFingerprint of(Path path) throws IOException {
+        return of(path, -1, -1, null);
+    }
+
+    // Те саме для відомого відбитка, збереженого деінде (наприклад, у заголовку знімка SalesSnapshot)
+    static FileFingerprint of(Path path, long knownSize, long knownLastModifiedMillis, String knownHash) throws IOException {
+        long size = Files.size(path);
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        if (knownHash != null && knownSize == size && knownLastModifiedMillis == lastModified) {
+            return new FileFingerprint(size, lastModified, knownHash);
+        }
+        return new FileFingerprint(size, lastModified, sha256(path));
+    }
+
+    // Ключ файлу в ingestion_state
+    public static String keyOf(Path path) {
+        return path.toAbsolutePath().normalize().toString();
+    }
+
+    public long getSize() { return size; }
+    public long getLastModifiedMillis() { return lastModifiedMillis; }
+    public String getContentHash() { return contentHash; }
+
+    // Вміст не змінився з моменту, описаного станом (час зміни може відрізнятися, наприклад після touch)
+    public boolean sameContentAs(IngestionState state) {
+        return state != null && state.getFileSize() == size && contentHash.equals(state.getContentHash());
+    }
+
+    // Переносить відбиток у стан (high-water mark не змінюється)
+    public void applyTo(IngestionState state) {
+        state.setFileSize(size);
+        state.setLastModifiedMillis(lastModifiedMillis);
+        state.setContentHash(contentHash);
+    }
+
+    private static String sha256(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Гарантовано будь-якою JVM
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        byte[] hash = digest.digest();
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[2 * i] = HEX[(hash[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    @Override
+    public String toString() {
+        return "FileFingerprint{" +
+                "size=" + size +
+                ", lastModifiedMillis=" + lastModifiedMillis +
+                ", contentHash='" + contentHash + '\'' +
+                '}';
+    }
+}
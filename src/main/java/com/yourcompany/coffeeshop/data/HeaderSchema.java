@@ -0,0 +1,135 @@
+package com.yourcompany.coffeeshop.data;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Колонки таблиці за назвами із рядка заголовків, а не за позиціями: зіставлення робиться один раз на аркуш
+// чи файл, тож експорт з переставленими або додатковими колонками читається так само.
+// Кожне поле має канонічну назву і варіанти, які трапляються в реальних вивантаженнях (зокрема з помилками,
+// як "item_name_standart" чи "ingridient_id"). Заголовки порівнюються без регістру, а пробіли й дефіси
+// вважаються підкресленнями ("Sale ID" = "sale_id").
+final class HeaderSchema {
+
+    private static final Logger logger = LoggerFactory.getLogger(HeaderSchema.class);
+
+    // Колонки для поля немає
+    static final int MISSING = -1;
+
+    // Порядок полів - стандартний порядок колонок; номери полів у читачах (0..size-1) відповідають йому
+    static final HeaderSchema SALES = new HeaderSchema("sales",
+            field("sale_id", "id"),
+            field("date", "sale_date"),
+            field("item_name", "item"),
+            field("quantity", "qty", "quantity_sold"),
+            field("price_per_item", "price", "unit_price"),
+            field("payment_method", "payment"),
+            field("barista_name", "barista"));
+
+    static final HeaderSchema MENU_ITEMS = new HeaderSchema("menu items",
+            field("menu_item_id", "item_id"),
+            field("item_name_standard", "item_name_standart", "name"),
+            field("category"),
+            field("standard_price", "standart_price"),
+            field("cost_per_unit"));
+
+    static final HeaderSchema INVENTORY = new HeaderSchema("inventory",
+            field("ingredient_id", "ingridient_id"),
+            field("ingredient_name", "ingridient_name"),
+            field("current_stock_kg_l", "current_stock_kg_1", "current_stock"), // "l" у вивантаженнях буває цифрою 1
+            field("unit_cost"),
+            field("last_restock_date", "restock_date"));
+
+    static final HeaderSchema RECIPES = new HeaderSchema("recipes",
+            field("menu_item_id", "item_id"),
+            field("ingredient_id", "ingridient_id"),
+            field("quantity_per_unit", "quantity"));
+
+    private final String table;
+    private final String[][] names; // [поле][0] - канонічна назва, далі - варіанти
+
+    private HeaderSchema(String table, String[]... names) {
+        this.table = table;
+        this.names = names;
+    }
+
+    private static String[] field(String... names) {
+        return names;
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    String fieldName(int field) {
+        return names[field][0];
+    }
+
+    // Позиції колонок (від 0) для кожного поля схеми; MISSING - колонки немає.
+    // Якщо жоден заголовок не впізнано (файл без заголовків чи з невідомими назвами), береться стандартний порядок.
+    int[] bind(List<String> headers, String source) {
+        String[] normalized = new String[headers.size()];
+        for (int i = 0; i < normalized.length; i++) {
+            normalized[i] = normalize(headers.get(i));
+        }
+        int[] positions = new int[names.length];
+        Arrays.fill(positions, MISSING);
+        boolean[] taken = new boolean[normalized.length];
+        int matched = 0;
+        List<String> missing = new ArrayList<>();
+        for (int field = 0; field < names.length; field++) {
+            for (int column = 0; column < normalized.length && positions[field] == MISSING; column++) {
+                if (!taken[column] && matches(field, normalized[column])) {
+                    positions[field] = column;
+                    taken[column] = true;
+                    matched++;
+                }
+            }
+            if (positions[field] == MISSING) {
+                missing.add(fieldName(field));
+            }
+        }
+        if (matched == 0) {
+            logger.warn("No known {} headers in {} ({}); assuming the standard column order.", table, source, headers);
+            for (int field = 0; field < positions.length; field++) {
+                positions[field] = field;
+            }
+        } else if (!missing.isEmpty()) {
+            logger.warn("Columns {} not found in {} headers of {}; their values will be empty.", missing, table, source);
+        }
+        return positions;
+    }
+
+    private boolean matches(int field, String header) {
+        for (String name : names[field]) {
+            if (name.equals(header)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // "  Sale ID " -> "sale_id", "Price-per-item" -> "price_per_item"
+    static String normalize(String header) {
+        if (header == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(header.length());
+        for (int i = 0; i < header.length(); i++) {
+            char c = header.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                out.append(c);
+            } else if (out.length() > 0 && out.charAt(out.length() - 1) != '_') {
+                out.append('_'); // Пробіли, дефіси та інші роздільники - одне підкреслення
+            }
+        }
+        if (out.length() > 0 && out.charAt(out.length() - 1) == '_') {
+            out.setLength(out.length() - 1);
+        }
+        return out.toString().toLowerCase(Locale.ROOT);
+    }
+}
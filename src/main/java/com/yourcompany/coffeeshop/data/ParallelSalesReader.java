@@ -0,0 +1,235 @@
+package com.yourcompany.coffeeshop.data;
+
+import com.yourcompany.coffeeshop.model.SaleRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Паралельне читання багатьох книг продажів (наприклад, по одній на кав'ярню) з усіма їхніми аркушами.
+// Одиниця роботи - аркуш: книги відкриваються паралельно (shared strings розбираються один раз на книгу),
+// а кожен аркуш читається окремим завданням на обмеженому пулі, тож час залежить від кількості ядер,
+// а не від кількості файлів. Результат злито в порядку файлів і аркушів, кожен запис позначено джерелом.
+// Зі snapshotCache незмінені книги читаються з повних знімків (SalesSnapshot) без POI.
+class ParallelSalesReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelSalesReader.class);
+
+    private final StreamingSalesReader sheetReader;
+    private final int parallelism;
+    private final boolean snapshotCache; // Читати і писати SalesSnapshot (лише повні, з усіма аркушами)
+
+    ParallelSalesReader(StreamingSalesReader sheetReader, int parallelism, boolean snapshotCache) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        this.sheetReader = sheetReader;
+        this.parallelism = parallelism;
+        this.snapshotCache = snapshotCache;
+    }
+
+    List<SaleRecord> read(List<Path> files) {
+        AtomicLong threadCounter = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "sales-reader-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long startNanos = System.nanoTime();
+        OpenWorkbooks openWorkbooks = new OpenWorkbooks();
+        boolean completed = false;
+        try {
+            // 1. Відкриваємо всі книги паралельно (або їхні знімки, якщо книга не змінилася)
+            List<Future<OpenedWorkbook>> opened = new ArrayList<>(files.size());
+            for (Path file : files) {
+                opened.add(pool.submit(() -> openWorkbooks.register(open(file))));
+            }
+
+            // 2. Щойно книга відкрита, ставимо в чергу її аркуші. Книгу закриває завдання, що дочитало її останній аркуш.
+            List<Future<List<SaleRecord>>> sheets = new ArrayList<>();
+            List<String> sources = new ArrayList<>();
+            int sheetCount = 0;
+            for (int i = 0; i < files.size(); i++) {
+                OpenedWorkbook workbook = await(opened.get(i), files.get(i).toString());
+                if (workbook == null) {
+                    continue;
+                }
+                if (workbook.getSheetCount() == 0) {
+                    logger.warn("Workbook {} has no sheets.", files.get(i));
+                    workbook.finish();
+                    continue;
+                }
+                String fileName = files.get(i).getFileName().toString();
+                for (int sheet = 0; sheet < workbook.getSheetCount(); sheet++) {
+                    int sheetIndex = sheet;
+                    String source = fileName + "!" + workbook.getSheetName(sheetIndex);
+                    sources.add(source);
+                    sheets.add(pool.submit(() -> workbook.readSheet(sheetIndex, source)));
+                }
+                sheetCount += workbook.getSheetCount();
+            }
+
+            // 3. Зливаємо в детермінованому порядку (файл, аркуш)
+            List<SaleRecord> merged = new ArrayList<>();
+            for (int i = 0; i < sheets.size(); i++) {
+                List<SaleRecord> records = await(sheets.get(i), sources.get(i));
+                if (records != null) {
+                    merged.addAll(records);
+                }
+            }
+            logger.info("Read {} sales records from {} sheets in {} workbooks in {} ms using {} threads.",
+                    merged.size(), sheetCount, files.size(), (System.nanoTime() - startNanos) / 1_000_000, parallelism);
+            completed = true;
+            return merged;
+        } finally {
+            pool.shutdownNow();
+            if (!completed) {
+                // Перервано (await): аркуші, що не встигли прочитатися, вже не закриють свої книги
+                openWorkbooks.abandonAll();
+            }
+        }
+    }
+
+    private OpenedWorkbook open(Path file) throws Exception {
+        if (snapshotCache) {
+            SalesSnapshot snapshot = SalesSnapshot.load(file);
+            if (snapshot != null && snapshot.isComplete()) {
+                return new OpenedWorkbook(file, snapshot, null, null);
+            }
+            FileFingerprint fingerprint = FileFingerprint.of(file); // До розбору книги
+            return new OpenedWorkbook(file, null, sheetReader.open(file.toString()), fingerprint);
+        }
+        return new OpenedWorkbook(file, null, sheetReader.open(file.toString()), null);
+    }
+
+    // Усі відкриті книги читання: при перериванні закриваються тут, а книга, відкрита вже після
+    // переривання, закривається одразу при реєстрації
+    private static final class OpenWorkbooks {
+        private final List<OpenedWorkbook> workbooks = new ArrayList<>();
+        private boolean abandoned;
+
+        synchronized OpenedWorkbook register(OpenedWorkbook workbook) {
+            if (abandoned) {
+                workbook.abandon();
+                return null;
+            }
+            workbooks.add(workbook);
+            return workbook;
+        }
+
+        synchronized void abandonAll() {
+            abandoned = true;
+            workbooks.forEach(OpenedWorkbook::abandon);
+        }
+    }
+
+    // Книга, відкрита через POI або замінена своїм знімком. Для POI-книги з fingerprint після останнього
+    // аркуша пишеться новий повний знімок (якщо всі аркуші прочитано без помилок).
+    private final class OpenedWorkbook {
+        private final Path file;
+        private final SalesSnapshot snapshot;
+        private final StreamingSalesReader.SalesWorkbook workbook;
+        private final FileFingerprint fingerprint;
+        private final List<List<SaleRecord>> sheetRecords;
+        private final AtomicInteger remaining;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean failed;
+
+        OpenedWorkbook(Path file, SalesSnapshot snapshot, StreamingSalesReader.SalesWorkbook workbook,
+                       FileFingerprint fingerprint) {
+            this.file = file;
+            this.snapshot = snapshot;
+            this.workbook = workbook;
+            this.fingerprint = fingerprint;
+            int sheets = getSheetCount();
+            this.sheetRecords = new ArrayList<>(Collections.nCopies(sheets, null));
+            this.remaining = new AtomicInteger(sheets);
+        }
+
+        int getSheetCount() {
+            return snapshot != null ? snapshot.getSheetCount() : workbook.getSheetCount();
+        }
+
+        String getSheetName(int sheetIndex) {
+            return snapshot != null ? snapshot.getSheetName(sheetIndex) : workbook.getSheetName(sheetIndex);
+        }
+
+        List<SaleRecord> readSheet(int sheetIndex, String source) {
+            List<SaleRecord> records = new ArrayList<>();
+            try {
+                if (snapshot != null) {
+                    snapshot.replay(sheetIndex, source, Integer.MIN_VALUE, null, records::add);
+                } else {
+                    sheetReader.readSheet(workbook, sheetIndex, source, records::add);
+                }
+            } catch (Exception e) {
+                // Як і при читанні одного файлу: записи до місця помилки лишаються, помилка логується
+                failed = true;
+                logger.error("Could not stream sheet '{}' of Excel file {}: {}", getSheetName(sheetIndex), file, e.getMessage());
+            } finally {
+                synchronized (sheetRecords) {
+                    sheetRecords.set(sheetIndex, records);
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    finish();
+                }
+            }
+            return records;
+        }
+
+        void finish() {
+            if (workbook == null || !closed.compareAndSet(false, true)) {
+                return;
+            }
+            workbook.close();
+            if (fingerprint != null && !failed) {
+                writeSnapshot();
+            }
+        }
+
+        // Читання перервано: книга закривається без знімка (його аркуші можуть бути неповними)
+        void abandon() {
+            failed = true;
+            if (workbook != null && closed.compareAndSet(false, true)) {
+                workbook.close();
+            }
+        }
+
+        private void writeSnapshot() {
+            try (SalesSnapshot.Writer writer = new SalesSnapshot.Writer(file, fingerprint)) {
+                for (int i = 0; i < sheetRecords.size(); i++) {
+                    writer.startSheet(getSheetName(i));
+                    sheetRecords.get(i).forEach(writer::add);
+                    writer.endSheet();
+                }
+                writer.commit(true);
+            } catch (IOException e) {
+                logger.warn("Could not write sales snapshot for {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    // Помилка одного файлу чи аркуша не зупиняє решту (як і в однофайлових читачах - логуємо і пропускаємо)
+    private static <T> T await(Future<T> future, String what) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            logger.error("Could not read {}: {}", what, e.getCause().getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading sales workbooks", e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.yourcompany.coffeeshop.data;
+
+import com.yourcompany.coffeeshop.metrics.Counter;
+import com.yourcompany.coffeeshop.metrics.Metrics;
+
+// Спільні метрики читачів (Excel DOM, потоковий Excel, CSV): прочитані рядки по аркушах,
+// помилки розбору по колонках і відкинуті рядки по причинах. Попередження про окремі рядки
+// читачі пишуть через SampledLogger, а точні кількості - тут.
+final class ReaderMetrics {
+
+    private static final Counter INVALID_QUANTITY = Metrics.counter("reader_rows_rejected", "reason", "invalid_quantity");
+    private static final Counter INVALID_PRICE = Metrics.counter("reader_rows_rejected", "reason", "invalid_price");
+    private static final Counter ROW_ERRORS = Metrics.counter("reader_rows_rejected", "reason", "row_error");
+
+    private ReaderMetrics() {
+    }
+
+    // Кількість валідних рядків, прочитаних з аркуша ("файл!аркуш" або ім'я файлу)
+    static void rowsParsed(String sheet, long rows) {
+        Metrics.counter("reader_rows_parsed", "sheet", sheet).add(rows);
+    }
+
+    static void parseError(String column) {
+        Metrics.counter("reader_parse_errors", "column", column).increment();
+    }
+
+    static void invalidQuantity() { INVALID_QUANTITY.increment(); }
+    static void invalidPrice() { INVALID_PRICE.increment(); }
+    static void rowError() { ROW_ERRORS.increment(); }
+}
@@ -0,0 +1,43 @@
+package com.yourcompany.coffeeshop.data;
+
+import com.yourcompany.coffeeshop.model.CompactSaleRecord;
+import com.yourcompany.coffeeshop.model.InventoryItem;
+import com.yourcompany.coffeeshop.model.MenuItem;
+import com.yourcompany.coffeeshop.model.RecipeItem;
+import com.yourcompany.coffeeshop.model.SaleRecord;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Джерело вхідних записів (продажі, меню, склад) незалежно від формату файлу.
+// Реалізації: ExcelDataReader (xlsx) та CsvDataReader (csv); RecordSources.byExtension обирає їх за розширенням.
+// Усі реалізації повертають ті самі моделі з тими самими правилами валідації: невалідні рядки
+// логуються і пропускаються, помилка читання файлу логується, а метод повертає вже прочитане
+// (крім інкрементального readDailySalesStreaming - див. нижче).
+public interface RecordSource {
+
+    List<SaleRecord> readDailySales(String filePath);
+
+    // Записи передаються у consumer по одному, без накопичення всього файлу. Повертає кількість валідних записів.
+    long readDailySalesStreaming(String filePath, Consumer<SaleRecord> consumer);
+
+    // Лише рядки за high-water mark (див. IncrementalIngestion); старі рядки пропускаються без розбору решти колонок.
+    // Помилка читання файлу тут прокидається, а не ковтається: недочитаний файл не можна позначати завантаженим.
+    long readDailySalesStreaming(String filePath, int afterSaleId, LocalDate afterDate, Consumer<SaleRecord> consumer)
+            throws IOException;
+
+    // Потокове читання в компактному вигляді - для буферів і черг, де одночасно лежать тисячі продажів
+    // (див. IngestionPipeline). Кожен SaleRecord живе лише до перетворення в CompactSaleRecord.
+    default long readDailySalesCompact(String filePath, Consumer<CompactSaleRecord> consumer) {
+        return readDailySalesStreaming(filePath, sale -> consumer.accept(CompactSaleRecord.of(sale)));
+    }
+
+    List<MenuItem> readMenuItems(String filePath);
+
+    List<InventoryItem> readInventory(String filePath);
+
+    // Рецепти (menu_item_id, ingredient_id, quantity_per_unit); рядки з кількістю <= 0 пропускаються
+    List<RecipeItem> readRecipes(String filePath);
+}
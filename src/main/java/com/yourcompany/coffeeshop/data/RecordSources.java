@@ -0,0 +1,81 @@
+package com.yourcompany.coffeeshop.data;
+
+import com.yourcompany.coffeeshop.model.InventoryItem;
+import com.yourcompany.coffeeshop.model.MenuItem;
+import com.yourcompany.coffeeshop.model.RecipeItem;
+import com.yourcompany.coffeeshop.model.SaleRecord;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+// Вибір джерела записів за форматом файлу
+public final class RecordSources {
+
+    private RecordSources() {
+    }
+
+    // Джерело, яке читає *.csv через csv, а решту (xlsx) - через excel
+    public static RecordSource byExtension(RecordSource excel, RecordSource csv) {
+        return new ByExtension(excel, csv);
+    }
+
+    // Файл baseName у каталозі: CSV-вивантаження має перевагу над книгою Excel, якщо обидва є
+    public static Path resolve(Path directory, String baseName) {
+        Path csv = directory.resolve(baseName + ".csv");
+        return Files.isRegularFile(csv) ? csv : directory.resolve(baseName + ".xlsx");
+    }
+
+    public static boolean isCsv(String filePath) {
+        return filePath.toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+
+    private static final class ByExtension implements RecordSource {
+        private final RecordSource excel;
+        private final RecordSource csv;
+
+        ByExtension(RecordSource excel, RecordSource csv) {
+            this.excel = excel;
+            this.csv = csv;
+        }
+
+        private RecordSource sourceFor(String filePath) {
+            return isCsv(filePath) ? csv : excel;
+        }
+
+        @Override
+        public List<SaleRecord> readDailySales(String filePath) {
+            return sourceFor(filePath).readDailySales(filePath);
+        }
+
+        @Override
+        public long readDailySalesStreaming(String filePath, Consumer<SaleRecord> consumer) {
+            return sourceFor(filePath).readDailySalesStreaming(filePath, consumer);
+        }
+
+        @Override
+        public long readDailySalesStreaming(String filePath, int afterSaleId, LocalDate afterDate, Consumer<SaleRecord> consumer)
+                throws IOException {
+            return sourceFor(filePath).readDailySalesStreaming(filePath, afterSaleId, afterDate, consumer);
+        }
+
+        @Override
+        public List<MenuItem> readMenuItems(String filePath) {
+            return sourceFor(filePath).readMenuItems(filePath);
+        }
+
+        @Override
+        public List<InventoryItem> readInventory(String filePath) {
+            return sourceFor(filePath).readInventory(filePath);
+        }
+
+        @Override
+        public List<RecipeItem> readRecipes(String filePath) {
+            return sourceFor(filePath).readRecipes(filePath);
+        }
+    }
+}
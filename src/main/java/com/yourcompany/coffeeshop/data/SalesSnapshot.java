@@ -0,0 +1,367 @@
+package com.yourcompany.coffeeshop.data;
+
+import com.yourcompany.coffeeshop.model.Money;
+import com.yourcompany.coffeeshop.model.SaleRecord;
+import com.yourcompany.coffeeshop.model.SaleSymbols;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Бінарний колонковий знімок прочитаних аркушів продажів поруч із книгою (.<файл>.xlsx.snapshot).
+// Знімок прив'язаний до відбитка книги (розмір, час зміни, SHA-256): поки книга не змінилася,
+// повторне читання бере записи зі знімка через memory-mapped FileChannel і не торкається POI взагалі.
+// Формат (little-endian): заголовок (magic, версія, відбиток), секції аркушів, кінцевий маркер з ознакою
+// "усі аркуші книги" (читання лише першого аркуша зберігає неповний знімок).
+// Секція аркуша: назва, кількість рядків, словник рядків і колонки примітивних масивів:
+// sale_id, epoch day, коди назви товару / способу оплати / бариста, кількість, ціна в копійках, scale ціни.
+// Ціни поза scale 2 (Money.NONE) зберігаються як текст BigDecimal у словнику: scale = -1, а замість копійок - код.
+// Записуються лише валідні рядки (ті, що читач передав далі), тож попередження про відкинуті рядки не повторюються.
+final class SalesSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesSnapshot.class);
+
+    private static final long MAGIC = 0x31305041_4E535343L; // "CSSNAP01" у little-endian
+    // Знімок зберігає результат читача, тож версія змінюється і з форматом, і з правилами розбору комірок
+    // (2 - декодери ExcelColumn: число в текстовій колонці стає текстом, числовий текст - числом)
+    private static final int VERSION = 2;
+    private static final int HASH_LENGTH = 64; // SHA-256, hex
+    private static final int SECTION_SHEET = 1;
+    private static final int SECTION_END = 0;
+    private static final int NULL_CODE = -1;
+    private static final int NULL_DAY = Integer.MIN_VALUE;
+    private static final byte EXACT_PRICE = -1;
+
+    private final List<Sheet> sheets;
+    private final boolean complete;
+
+    private SalesSnapshot(List<Sheet> sheets, boolean complete) {
+        this.sheets = sheets;
+        this.complete = complete;
+    }
+
+    static Path pathFor(Path source) {
+        return source.resolveSibling("." + source.getFileName() + ".snapshot");
+    }
+
+    // Повертає знімок, якщо він є і відповідає поточному вмісту книги; інакше null
+    static SalesSnapshot load(Path source) {
+        Path file = pathFor(source);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getLong() != MAGIC || buffer.getInt() != VERSION) {
+                logger.warn("Ignoring sales snapshot {} with unknown format.", file);
+                return null;
+            }
+            long size = buffer.getLong();
+            long lastModified = buffer.getLong();
+            byte[] hash = new byte[HASH_LENGTH];
+            buffer.get(hash);
+            String snapshotHash = new String(hash, StandardCharsets.US_ASCII);
+            // Якщо розмір і час зміни збіглися, хеш не рахується (книга не читається)
+            if (!FileFingerprint.of(source, size, lastModified, snapshotHash).getContentHash().equals(snapshotHash)) {
+                logger.info("Sales snapshot {} is stale; the workbook will be parsed again.", file);
+                return null;
+            }
+
+            List<Sheet> sheets = new ArrayList<>();
+            while (buffer.getInt() == SECTION_SHEET) {
+                sheets.add(Sheet.read(buffer));
+            }
+            boolean complete = buffer.get() == 1;
+            return new SalesSnapshot(sheets, complete);
+        } catch (IOException | RuntimeException e) { // RuntimeException - обрізаний або пошкоджений файл
+            logger.warn("Ignoring unreadable sales snapshot {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    // true, якщо знімок містить усі аркуші книги
+    boolean isComplete() {
+        return complete;
+    }
+
+    int getSheetCount() {
+        return sheets.size();
+    }
+
+    String getSheetName(int sheetIndex) {
+        return sheets.get(sheetIndex).name;
+    }
+
+    int getRowCount(int sheetIndex) {
+        return sheets.get(sheetIndex).rows;
+    }
+
+    // Передає записи аркуша в consumer з тим самим фільтром high-water mark, що й StreamingSalesReader.
+    // Повертає кількість переданих записів.
+    long replay(int sheetIndex, String source, int afterSaleId, LocalDate afterDate, Consumer<SaleRecord> consumer) {
+        Sheet sheet = sheets.get(sheetIndex);
+        String[] dictionary = sheet.dictionary;
+        long emitted = 0;
+        int previousDay = NULL_DAY;
+        LocalDate date = null;
+        for (int row = 0; row < sheet.rows; row++) {
+            int epochDay = sheet.epochDays[row];
+            if (epochDay != previousDay) { // Рядки зазвичай згруповані за днем - одна дата на групу
+                date = epochDay == NULL_DAY ? null : LocalDate.ofEpochDay(epochDay);
+                previousDay = epochDay;
+            }
+            int saleId = sheet.saleIds[row];
+            if (StreamingSalesReader.isAlreadyLoaded(saleId, date, afterSaleId, afterDate)) {
+                continue;
+            }
+            String itemNameRaw = decode(dictionary, sheet.itemCodes[row]); // Словник аркуша вже дає спільний екземпляр
+            String paymentMethod = SaleSymbols.PAYMENT_METHODS.intern(decode(dictionary, sheet.paymentCodes[row]));
+            String baristaName = SaleSymbols.BARISTA_NAMES.intern(decode(dictionary, sheet.baristaCodes[row]));
+            SaleRecord record;
+            if (sheet.priceScales[row] != EXACT_PRICE) {
+                record = new SaleRecord(saleId, date, itemNameRaw, sheet.quantities[row], sheet.priceCents[row],
+                        sheet.priceScales[row], paymentMethod, baristaName);
+            } else {
+                String exactPrice = decode(dictionary, (int) sheet.priceCents[row]);
+                record = new SaleRecord(saleId, date, itemNameRaw, sheet.quantities[row],
+                        exactPrice == null ? null : new BigDecimal(exactPrice), paymentMethod, baristaName);
+            }
+            record.setSource(source);
+            consumer.accept(record);
+            emitted++;
+        }
+        return emitted;
+    }
+
+    private static String decode(String[] dictionary, int code) {
+        return code == NULL_CODE ? null : dictionary[code];
+    }
+
+    // --- Запис ---
+
+    // Пише знімок у тимчасовий файл і атомарно підміняє ним попередній у commit(),
+    // тож читач ніколи не бачить недописаного знімка. Колонки в пам'яті - лише для поточного аркуша.
+    static final class Writer implements AutoCloseable {
+        private final Path target;
+        private final Path temp;
+        private final FileChannel channel;
+        private boolean committed;
+
+        private String sheetName;
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private int rows;
+        private int[] saleIds = new int[1024];
+        private int[] epochDays = new int[1024];
+        private int[] itemCodes = new int[1024];
+        private int[] quantities = new int[1024];
+        private long[] priceCents = new long[1024];
+        private byte[] priceScales = new byte[1024];
+        private int[] paymentCodes = new int[1024];
+        private int[] baristaCodes = new int[1024];
+
+        // fingerprint - відбиток книги, знятий до початку її читання
+        Writer(Path source, FileFingerprint fingerprint) throws IOException {
+            this.target = pathFor(source);
+            this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer header = ByteBuffer.allocate(8 + 4 + 8 + 8 + HASH_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(MAGIC).putInt(VERSION)
+                    .putLong(fingerprint.getSize()).putLong(fingerprint.getLastModifiedMillis())
+                    .put(fingerprint.getContentHash().getBytes(StandardCharsets.US_ASCII));
+            write(header);
+        }
+
+        void startSheet(String name) {
+            sheetName = name;
+            rows = 0;
+            codes.clear();
+            dictionary.clear();
+        }
+
+        void add(SaleRecord record) {
+            ensureCapacity(rows + 1);
+            saleIds[rows] = record.getSaleId();
+            epochDays[rows] = record.getDate() == null ? NULL_DAY : (int) record.getDate().toEpochDay();
+            itemCodes[rows] = encode(record.getItemNameRaw());
+            quantities[rows] = record.getQuantity();
+            if (record.getPricePerItemCents() != Money.NONE) {
+                priceCents[rows] = record.getPricePerItemCents();
+                priceScales[rows] = (byte) record.getPricePerItemScale();
+            } else {
+                BigDecimal exact = record.getPricePerItem();
+                priceCents[rows] = encode(exact == null ? null : exact.toString());
+                priceScales[rows] = EXACT_PRICE;
+            }
+            paymentCodes[rows] = encode(record.getPaymentMethod());
+            baristaCodes[rows] = encode(record.getBaristaName());
+            rows++;
+        }
+
+        // Передає записи і в знімок, і далі в consumer
+        Consumer<SaleRecord> tee(Consumer<SaleRecord> consumer) {
+            return record -> {
+                add(record);
+                consumer.accept(record);
+            };
+        }
+
+        void endSheet() throws IOException {
+            byte[] name = sheetName.getBytes(StandardCharsets.UTF_8);
+            byte[][] strings = new byte[dictionary.size()][];
+            int stringBytes = 0;
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = dictionary.get(i).getBytes(StandardCharsets.UTF_8);
+                stringBytes += 4 + strings[i].length;
+            }
+            ByteBuffer section = ByteBuffer.allocate(4 + 4 + name.length + 4 + 4 + stringBytes + rows * (6 * 4 + 8 + 1))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            section.putInt(SECTION_SHEET).putInt(name.length).put(name).putInt(rows).putInt(strings.length);
+            for (byte[] string : strings) {
+                section.putInt(string.length).put(string);
+            }
+            putInts(section, saleIds);
+            putInts(section, epochDays);
+            putInts(section, itemCodes);
+            putInts(section, quantities);
+            putInts(section, paymentCodes);
+            putInts(section, baristaCodes);
+            section.asLongBuffer().put(priceCents, 0, rows);
+            section.position(section.position() + rows * 8);
+            section.put(priceScales, 0, rows);
+            write(section);
+        }
+
+        // complete - чи записано всі аркуші книги
+        void commit(boolean complete) throws IOException {
+            ByteBuffer trailer = ByteBuffer.allocate(5).order(ByteOrder.LITTLE_ENDIAN);
+            trailer.putInt(SECTION_END).put((byte) (complete ? 1 : 0));
+            write(trailer);
+            channel.close();
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            logger.info("Wrote sales snapshot {} ({} bytes).", target, Files.size(target));
+        }
+
+        // Без commit() тимчасовий файл видаляється, попередній знімок (якщо був) лишається
+        @Override
+        public void close() {
+            if (committed) {
+                return;
+            }
+            try {
+                channel.close();
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                logger.warn("Could not remove temporary snapshot {}: {}", temp, e.getMessage());
+            }
+        }
+
+        private int encode(String value) {
+            if (value == null) {
+                return NULL_CODE;
+            }
+            return codes.computeIfAbsent(value, key -> {
+                dictionary.add(key);
+                return dictionary.size() - 1;
+            });
+        }
+
+        private void putInts(ByteBuffer section, int[] column) {
+            section.asIntBuffer().put(column, 0, rows);
+            section.position(section.position() + rows * 4);
+        }
+
+        private void write(ByteBuffer buffer) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= saleIds.length) {
+                return;
+            }
+            int capacity = Math.max(required, saleIds.length * 2);
+            saleIds = Arrays.copyOf(saleIds, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            itemCodes = Arrays.copyOf(itemCodes, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            priceScales = Arrays.copyOf(priceScales, capacity);
+            paymentCodes = Arrays.copyOf(paymentCodes, capacity);
+            baristaCodes = Arrays.copyOf(baristaCodes, capacity);
+        }
+    }
+
+    // Один аркуш знімка, розкладений у примітивні масиви
+    private static final class Sheet {
+        private String name;
+        private int rows;
+        private String[] dictionary;
+        private int[] saleIds;
+        private int[] epochDays;
+        private int[] itemCodes;
+        private int[] quantities;
+        private int[] paymentCodes;
+        private int[] baristaCodes;
+        private long[] priceCents;
+        private byte[] priceScales;
+
+        // Масові get з буфера: копіювання колонок іде зі швидкістю пам'яті, без розбору по одному значенню
+        static Sheet read(ByteBuffer buffer) {
+            Sheet sheet = new Sheet();
+            sheet.name = readString(buffer);
+            sheet.rows = buffer.getInt();
+            sheet.dictionary = new String[buffer.getInt()];
+            for (int i = 0; i < sheet.dictionary.length; i++) {
+                sheet.dictionary[i] = readString(buffer);
+            }
+            sheet.saleIds = getInts(buffer, sheet.rows);
+            sheet.epochDays = getInts(buffer, sheet.rows);
+            sheet.itemCodes = getInts(buffer, sheet.rows);
+            sheet.quantities = getInts(buffer, sheet.rows);
+            sheet.paymentCodes = getInts(buffer, sheet.rows);
+            sheet.baristaCodes = getInts(buffer, sheet.rows);
+            sheet.priceCents = new long[sheet.rows];
+            buffer.asLongBuffer().get(sheet.priceCents);
+            buffer.position(buffer.position() + sheet.rows * 8);
+            sheet.priceScales = new byte[sheet.rows];
+            buffer.get(sheet.priceScales);
+            return sheet;
+        }
+
+        private static int[] getInts(ByteBuffer buffer, int count) {
+            int[] values = new int[count];
+            buffer.asIntBuffer().get(values);
+            buffer.position(buffer.position() + count * 4);
+            return values;
+        }
+
+        private static String readString(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.yourcompany.coffeeshop.data;
+
+import com.yourcompany.coffeeshop.metrics.SampledLogger;
+import com.yourcompany.coffeeshop.model.DeadLetter;
+import com.yourcompany.coffeeshop.model.DeadLetterSink;
+import com.yourcompany.coffeeshop.model.Money;
+import com.yourcompany.coffeeshop.model.SaleRecord;
+import com.yourcompany.coffeeshop.model.SaleSymbols;
+import com.yourcompany.coffeeshop.model.SymbolTable;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Потокове читання daily_sales.xlsx через event API POI (XSSFReader + SAX).
+// На відміну від XSSFWorkbook, DOM аркуша не будується: рядки обробляються по одному,
+// тож пам'ять не залежить від розміру файлу (в пам'яті лише таблиця shared strings).
+// Колонки визначаються за рядком заголовків кожного аркуша (HeaderSchema.SALES), значення розбираються без винятків (TextValues).
+class StreamingSalesReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingSalesReader.class);
+    private static final SampledLogger sampledLogger = new SampledLogger(logger); // Попередження про окремі рядки
+
+    private static final HeaderSchema SCHEMA = HeaderSchema.SALES;
+
+    // High-water mark: рядки з sale_id <= afterSaleId і датою не пізніше afterDate вже завантажені
+    // і пропускаються до розбору решти колонок
+    private final int afterSaleId;
+    private final LocalDate afterDate;
+    private final DeadLetterSink deadLetters; // Куди потрапляють відкинуті рядки
+
+    StreamingSalesReader() {
+        this(Integer.MIN_VALUE, null, DeadLetterSink.NONE);
+    }
+
+    StreamingSalesReader(DeadLetterSink deadLetters) {
+        this(Integer.MIN_VALUE, null, deadLetters);
+    }
+
+    StreamingSalesReader(int afterSaleId, LocalDate afterDate, DeadLetterSink deadLetters) {
+        this.afterSaleId = afterSaleId;
+        this.afterDate = afterDate;
+        this.deadLetters = deadLetters;
+    }
+
+    // Читає перший аркуш файлу і передає кожен валідний SaleRecord у consumer. Повертає кількість переданих записів.
+    long read(String filePath, Consumer<SaleRecord> consumer) {
+        return read(filePath, consumer, null);
+    }
+
+    // snapshot (може бути null) - знімок, у який паралельно пишуться записи аркуша (див. SalesSnapshot);
+    // він фіксується лише якщо аркуш прочитано повністю
+    long read(String filePath, Consumer<SaleRecord> consumer, SalesSnapshot.Writer snapshot) {
+        try {
+            return readOrThrow(filePath, consumer, snapshot);
+        } catch (IOException e) {
+            logger.error("Could not stream Excel file {}: {}", filePath, e.getMessage());
+            return 0;
+        }
+    }
+
+    // Як read, але помилка відкриття чи розбору книги прокидається як IOException
+    // (записи до місця помилки вже передані в consumer)
+    long readOrThrow(String filePath, Consumer<SaleRecord> consumer, SalesSnapshot.Writer snapshot) throws IOException {
+        try (SalesWorkbook workbook = open(filePath)) {
+            if (workbook.getSheetCount() == 0) {
+                logger.warn("Workbook {} has no sheets.", filePath);
+                return 0;
+            }
+            if (snapshot == null) {
+                return readSheet(workbook, 0, null, consumer); // Беремо перший аркуш, як і readDailySales
+            }
+            snapshot.startSheet(workbook.getSheetName(0));
+            long emitted = readSheet(workbook, 0, null, snapshot.tee(consumer));
+            try {
+                snapshot.endSheet();
+                snapshot.commit(workbook.getSheetCount() == 1);
+            } catch (IOException e) {
+                logger.warn("Could not write sales snapshot for {}: {}", filePath, e.getMessage());
+            }
+            return emitted;
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    // Відкриває книгу: shared strings і стилі розбираються один раз і далі лише читаються,
+    // тож аркуші однієї книги можна читати з різних потоків (readSheet)
+    SalesWorkbook open(String filePath) throws IOException, OpenXML4JException, SAXException {
+        OPCPackage pkg = OPCPackage.open(new File(filePath), PackageAccess.READ);
+        try {
+            return new SalesWorkbook(filePath, pkg);
+        } catch (IOException | OpenXML4JException | SAXException | RuntimeException e) {
+            pkg.revert();
+            throw e;
+        }
+    }
+
+    // Читає один аркуш; source (може бути null) записується в кожен SaleRecord. Повертає кількість переданих записів.
+    // Якщо аркуш зламаний, записи до місця помилки вже передані в consumer, а виняток прокидається далі.
+    long readSheet(SalesWorkbook workbook, int sheetIndex, String source, Consumer<SaleRecord> consumer)
+            throws IOException, SAXException, ParserConfigurationException {
+        SalesRowHandler rowHandler = new SalesRowHandler(workbook.filePath, source, consumer);
+        try (InputStream sheet = workbook.sheetParts.get(sheetIndex).getInputStream()) {
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(new XSSFSheetXMLHandler(workbook.styles, workbook.sharedStrings, rowHandler,
+                    new RawValueFormatter(), false));
+            parser.parse(new InputSource(sheet));
+        } finally {
+            ReaderMetrics.rowsParsed(source != null ? source
+                    : new File(workbook.filePath).getName() + "!" + workbook.getSheetName(sheetIndex), rowHandler.emitted);
+        }
+        if (rowHandler.skipped > 0) {
+            logger.info("Skipped {} already loaded rows in {} (high-water mark sale_id {}, date {}).",
+                    rowHandler.skipped, workbook.filePath, afterSaleId, afterDate);
+        }
+        return rowHandler.emitted;
+    }
+
+    // Відкрита книга продажів: пакет, shared strings, стилі та частини аркушів у порядку книги
+    static final class SalesWorkbook implements Closeable {
+        private final String filePath;
+        private final OPCPackage pkg;
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final StylesTable styles;
+        private final List<PackagePart> sheetParts = new ArrayList<>();
+        private final List<String> sheetNames = new ArrayList<>();
+
+        private SalesWorkbook(String filePath, OPCPackage pkg) throws IOException, OpenXML4JException, SAXException {
+            this.filePath = filePath;
+            this.pkg = pkg;
+            XSSFReader xssfReader = new XSSFReader(pkg);
+            this.sharedStrings = new ReadOnlySharedStringsTable(pkg);
+            this.styles = xssfReader.getStylesTable();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            while (sheets.hasNext()) {
+                sheets.next().close(); // Ітератор відкриває потік; сам аркуш читає readSheet
+                sheetParts.add(sheets.getSheetPart());
+                sheetNames.add(sheets.getSheetName());
+            }
+        }
+
+        int getSheetCount() {
+            return sheetParts.size();
+        }
+
+        String getSheetName(int sheetIndex) {
+            return sheetNames.get(sheetIndex);
+        }
+
+        @Override
+        public void close() {
+            pkg.revert(); // Пакет відкрито лише для читання - нічого не зберігаємо
+        }
+    }
+
+    // Замість відформатованого тексту повертаємо "сирі" значення: числа як Double.toString
+    // (так само, як String.valueOf(cell.getNumericCellValue()) у ExcelDataReader), дати як ISO yyyy-MM-dd
+    // з кешу ExcelDates (той самий рядок для того самого дня).
+    private static final class RawValueFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString)) {
+                String isoText = ExcelDates.toIsoText(value, use1904Windowing);
+                if (isoText != null) {
+                    return isoText;
+                }
+            }
+            return String.valueOf(value);
+        }
+    }
+
+    private final class SalesRowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final String filePath;
+        private final String source;
+        private final Consumer<SaleRecord> consumer;
+        private final SymbolTable itemNames = new SymbolTable(); // Сирі назви спільні в межах аркуша, не всього процесу
+        private final String[] values = new String[SCHEMA.size()]; // Перевикористовується для кожного рядка; індекс - поле схеми
+        private List<String> headers = new ArrayList<>(); // Заголовки до кінця першого рядка аркуша, далі null
+        private int[] fieldByColumn = new int[0]; // Колонка аркуша -> поле схеми (HeaderSchema.MISSING - колонка не потрібна)
+        private String lastDateText; // Останній розібраний текст дати: рядки зазвичай згруповані по днях
+        private LocalDate lastDate;
+        private long emitted;
+        private long skipped;
+
+        SalesRowHandler(String filePath, String source, Consumer<SaleRecord> consumer) {
+            this.filePath = filePath;
+            this.source = source;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(values, null); // Порожні комірки SAX не повідомляє
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = columnIndex(cellReference);
+            if (column < 0) {
+                return;
+            }
+            if (headers != null) {
+                while (headers.size() < column) {
+                    headers.add(null); // Порожні комірки заголовка
+                }
+                headers.add(formattedValue);
+            } else if (column < fieldByColumn.length && fieldByColumn[column] != HeaderSchema.MISSING) {
+                values[fieldByColumn[column]] = formattedValue;
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (headers != null) {
+                bindHeaders(); // Перший рядок аркуша - заголовки
+                return;
+            }
+            SaleRecord record;
+            try {
+                // Валідація та обробка даних
+                int saleId = (int) parseNumeric(values[0], SCHEMA.fieldName(0));
+                LocalDate date = parseDate(values[1], SCHEMA.fieldName(1));
+                if (alreadyLoaded(saleId, date)) {
+                    skipped++;
+                    return;
+                }
+                String itemNameRaw = itemNames.intern(trimOrNull(values[2])); // Спільний екземпляр замість копії на рядок
+                int quantity = (int) parseNumeric(values[3], SCHEMA.fieldName(3));
+                // Ціна одразу в копійки; BigDecimal створюється лише для нетипових значень (більше 2 знаків після коми тощо)
+                String priceValue = trimOrNull(values[4]);
+                long pricePerItemCents = Money.parse(priceValue);
+                BigDecimal pricePerItem = pricePerItemCents == Money.NONE ? parseBigDecimal(values[4], SCHEMA.fieldName(4)) : null;
+                String paymentMethod = SaleSymbols.PAYMENT_METHODS.intern(trimOrNull(values[5]));
+                String baristaName = SaleSymbols.BARISTA_NAMES.intern(trimOrNull(values[6]));
+
+                // Валідація: quantity та price_per_item мають бути позитивними
+                if (quantity <= 0) {
+                    ReaderMetrics.invalidQuantity();
+                    sampledLogger.warn("invalid_quantity", "Invalid quantity (<=0) for sale_id: {}", saleId);
+                    reject("invalid_quantity", rowNum);
+                    return;
+                }
+                if (pricePerItemCents != Money.NONE ? pricePerItemCents <= 0
+                        : pricePerItem == null || pricePerItem.compareTo(BigDecimal.ZERO) <= 0) {
+                    ReaderMetrics.invalidPrice();
+                    sampledLogger.warn("invalid_price", "Invalid price_per_item (<=0 or null) for sale_id: {}", saleId);
+                    reject("invalid_price", rowNum);
+                    return;
+                }
+
+                record = pricePerItemCents != Money.NONE
+                        ? new SaleRecord(saleId, date, itemNameRaw, quantity, pricePerItemCents, Money.scaleOf(priceValue), paymentMethod, baristaName)
+                        : new SaleRecord(saleId, date, itemNameRaw, quantity, pricePerItem, paymentMethod, baristaName);
+                record.setSource(source);
+
+            } catch (Exception e) {
+                ReaderMetrics.rowError();
+                sampledLogger.error("row_error", "Error reading row {} from {}: {}", rowNum, filePath, e.getMessage());
+                reject("row_error", rowNum);
+                return;
+            }
+            // Поза try: винятки з consumer (наприклад, зупинка конвеєра) мають перервати читання
+            consumer.accept(record);
+            emitted++;
+        }
+
+        private void bindHeaders() {
+            int[] positions = SCHEMA.bind(headers, source != null ? source : filePath);
+            int columnCount = 0;
+            for (int position : positions) {
+                columnCount = Math.max(columnCount, position + 1);
+            }
+            fieldByColumn = new int[columnCount];
+            Arrays.fill(fieldByColumn, HeaderSchema.MISSING);
+            for (int field = 0; field < positions.length; field++) {
+                if (positions[field] != HeaderSchema.MISSING) {
+                    fieldByColumn[positions[field]] = field;
+                }
+            }
+            headers = null;
+        }
+
+        // Той самий об'єкт тексту (кеш ExcelDates) чи той самий текст - та сама дата без повторного розбору
+        private LocalDate parseDate(String value, String columnName) {
+            if (value == null) {
+                return null;
+            }
+            if (value == lastDateText || value.equals(lastDateText)) {
+                return lastDate;
+            }
+            LocalDate date = TextValues.parseDate(value);
+            if (date == null) {
+                ReaderMetrics.parseError(columnName);
+                sampledLogger.warn(columnName, "Could not parse date string '{}' for column {}.", value, columnName);
+                return null;
+            }
+            lastDateText = value;
+            lastDate = date;
+            return date;
+        }
+
+        // Сирі значення комірок рядка - у dead-letter
+        private void reject(String reason, int rowNum) {
+            deadLetters.accept(new DeadLetter(Instant.now(), DeadLetter.STAGE_READ, reason,
+                    source != null ? source : filePath, rowNum, trimOrNull(values[0]), trimOrNull(values[1]),
+                    trimOrNull(values[2]), trimOrNull(values[3]), trimOrNull(values[4]), trimOrNull(values[5]),
+                    trimOrNull(values[6])));
+        }
+    }
+
+    private boolean alreadyLoaded(int saleId, LocalDate date) {
+        return isAlreadyLoaded(saleId, date, afterSaleId, afterDate);
+    }
+
+    static boolean isAlreadyLoaded(int saleId, LocalDate date, int afterSaleId, LocalDate afterDate) {
+        if (saleId > afterSaleId) {
+            return false;
+        }
+        // Продаж з новішою датою, ніж усе завантажене, беремо навіть з меншим sale_id (upsert ідемпотентний)
+        return afterDate == null || date == null || !date.isAfter(afterDate);
+    }
+
+    // --- Розбір значень комірок (ті ж правила, що й у ExcelDataReader) ---
+
+    // "C12" -> 2 без створення CellReference на кожну комірку
+    private static int columnIndex(String cellReference) {
+        if (cellReference == null) {
+            return -1;
+        }
+        int column = 0;
+        for (int i = 0; i < cellReference.length(); i++) {
+            char c = cellReference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private static String trimOrNull(String value) {
+        return value == null ? null : value.trim();
+    }
+
+    private static double parseNumeric(String value, String columnName) {
+        if (value == null) {
+            return 0.0;
+        }
+        double number = TextValues.parseDouble(value);
+        if (Double.isNaN(number)) {
+            ReaderMetrics.parseError(columnName);
+            sampledLogger.warn(columnName, "Non-numeric cell type for column {}. Value: {}", columnName, value);
+            return 0.0;
+        }
+        return number;
+    }
+
+    private static BigDecimal parseBigDecimal(String value, String columnName) {
+        if (value == null || value.isBlank()) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal decimal = TextValues.parseDecimal(value);
+        if (decimal == null) {
+            ReaderMetrics.parseError(columnName);
+            sampledLogger.warn(columnName, "Could not parse cell value as BigDecimal for column {}. Value: {}", columnName, value);
+            return BigDecimal.ZERO;
+        }
+        return decimal;
+    }
+}
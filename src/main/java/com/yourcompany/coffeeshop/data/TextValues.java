@@ -0,0 +1,123 @@
+package com.yourcompany.coffeeshop.data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Розбір текстових значень комірок без винятків: формат перевіряється до виклику Double.parseDouble,
+// new BigDecimal чи LocalDate.of, тож некоректне значення коштує один прохід по символах,
+// а не створення і перехоплення NumberFormatException / DateTimeParseException на кожну комірку.
+final class TextValues {
+
+    private TextValues() {
+    }
+
+    // Десяткове число ("12", "-3.5", "1,25", "1.5E3"); NaN - текст порожній або не число
+    static double parseDouble(String text) {
+        String value = decimalText(text);
+        return value == null ? Double.NaN : Double.parseDouble(value);
+    }
+
+    // Точне значення; null - текст порожній або не число
+    static BigDecimal parseDecimal(String text) {
+        String value = decimalText(text);
+        return value == null ? null : new BigDecimal(value);
+    }
+
+    // Обрізаний текст з '.' як роздільником, якщо він має синтаксис десяткового числа; інакше null
+    private static String decimalText(String text) {
+        if (text == null) {
+            return null;
+        }
+        String value = text.trim();
+        int length = value.length();
+        int i = 0;
+        if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            i++;
+        }
+        int digits = 0;
+        for (; i < length && isDigit(value.charAt(i)); i++) {
+            digits++;
+        }
+        boolean comma = false;
+        if (i < length && (value.charAt(i) == '.' || value.charAt(i) == ',')) {
+            comma = value.charAt(i) == ',';
+            for (i++; i < length && isDigit(value.charAt(i)); i++) {
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return null;
+        }
+        if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            for (; i < length && isDigit(value.charAt(i)); i++) {
+                exponentDigits++;
+            }
+            if (exponentDigits == 0 || exponentDigits > 4) {
+                return null; // Експонента, яку BigDecimal не прийме (scale виходить за int)
+            }
+        }
+        if (i != length) {
+            return null;
+        }
+        return comma ? value.replace(',', '.') : value;
+    }
+
+    // Дата dd.MM.yyyy (як у вхідних файлах) або yyyy-MM-dd; null - текст порожній або дата некоректна
+    static LocalDate parseDate(String text) {
+        if (text == null) {
+            return null;
+        }
+        String value = text.trim();
+        if (value.length() != 10) {
+            return null;
+        }
+        int day;
+        int month;
+        int year;
+        if (value.charAt(2) == '.' && value.charAt(5) == '.') {
+            day = digits(value, 0, 2);
+            month = digits(value, 3, 5);
+            year = digits(value, 6, 10);
+        } else if (value.charAt(4) == '-' && value.charAt(7) == '-') {
+            year = digits(value, 0, 4);
+            month = digits(value, 5, 7);
+            day = digits(value, 8, 10);
+        } else {
+            return null;
+        }
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    // Число з цифр value[from, to); -1, якщо там не лише цифри
+    private static int digits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,201 @@
+package com.yourcompany.coffeeshop.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+// Пакетний запис чанками: кожні batchSize рядків - окремий executeBatch і окрема транзакція.
+// Пам'ять драйвера обмежена одним чанком, а коміт робиться раз на чанк, а не на рядок (як в autocommit).
+// Якщо задано checkpointKey, номер останнього закоміченого рядка зберігається в load_checkpoints
+// в тій самій транзакції, що й чанк, тож повторний виклик з тими ж даними продовжує з місця збою.
+class ChunkedBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedBatchWriter.class);
+
+    static final String CREATE_CHECKPOINTS_TABLE_SQL = "CREATE TABLE IF NOT EXISTS load_checkpoints ("
+            + "load_key VARCHAR(255) PRIMARY KEY,"
+            + "committed_rows BIGINT NOT NULL,"
+            + "updated_at TIMESTAMP NOT NULL DEFAULT now()"
+            + ");";
+
+    // Прив'язує один рядок до PreparedStatement. Повертає false, якщо рядок треба пропустити.
+    interface RowBinder<T> {
+        boolean bind(PreparedStatement pstmt, T row) throws SQLException;
+    }
+
+    // Додаткова робота в транзакції чанку до і після executeBatch (наприклад, оновлення агрегатів).
+    // rows - лише рядки чанку, які справді пішли в executeBatch (без пропущених binder-ом і витіснених дублікатів).
+    interface ChunkHook<T> {
+        void beforeBatch(Connection conn, List<T> rows) throws SQLException;
+
+        void afterBatch(Connection conn, List<T> rows) throws SQLException;
+    }
+
+    private final int batchSize;
+    private final Runnable onChunkCommitted; // Викликається після коміту кожного чанку (може бути null)
+
+    ChunkedBatchWriter(int batchSize) {
+        this(batchSize, null);
+    }
+
+    ChunkedBatchWriter(int batchSize, Runnable onChunkCommitted) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.batchSize = batchSize;
+        this.onChunkCommitted = onChunkCommitted;
+    }
+
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    // Записує rows чанками. conflictKey (може бути null) - ключ ON CONFLICT: з reWriteBatchedInserts чанк стає
+    // одним багаторядковим INSERT, а PostgreSQL не дозволяє оновити той самий рядок двічі в одній команді,
+    // тому в межах чанку лишається тільки останній рядок з кожним ключем (як і при послідовних INSERT).
+    // Повертає кількість записаних рядків.
+    <T> int write(Connection conn, String sql, List<T> rows, RowBinder<T> binder,
+                  Function<T, Object> conflictKey, String checkpointKey) throws SQLException {
+        return write(conn, sql, rows, binder, conflictKey, checkpointKey, null);
+    }
+
+    <T> int write(Connection conn, String sql, List<T> rows, RowBinder<T> binder,
+                  Function<T, Object> conflictKey, String checkpointKey, ChunkHook<T> hook) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        int written = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int start = checkpointKey == null ? 0 : readCheckpoint(conn, checkpointKey);
+            if (start > 0) {
+                logger.info("Resuming load '{}' after {} already committed rows.", checkpointKey, start);
+            }
+
+            for (int chunkStart = start; chunkStart < rows.size(); chunkStart += batchSize) {
+                int chunkEnd = Math.min(chunkStart + batchSize, rows.size());
+                List<T> chunk = rows.subList(chunkStart, chunkEnd);
+                Set<Integer> superseded = conflictKey == null ? Set.of() : supersededInChunk(chunk, conflictKey);
+
+                List<T> boundRows = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (!superseded.contains(i) && binder.bind(pstmt, chunk.get(i))) {
+                        pstmt.addBatch();
+                        boundRows.add(chunk.get(i));
+                    }
+                }
+                int bound = boundRows.size();
+                try {
+                    if (hook != null) {
+                        hook.beforeBatch(conn, boundRows);
+                    }
+                    if (bound > 0) {
+                        long executeStart = System.nanoTime();
+                        pstmt.executeBatch();
+                        LoaderMetrics.BATCH_EXECUTE.recordSince(executeStart);
+                        LoaderMetrics.BATCH_ROWS.record(bound);
+                    }
+                    if (hook != null) {
+                        hook.afterBatch(conn, boundRows);
+                    }
+                    if (checkpointKey != null) {
+                        saveCheckpoint(conn, checkpointKey, chunkEnd);
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    logger.error("Chunk [{}, {}) failed; {} rows committed before it.", chunkStart, chunkEnd, chunkStart);
+                    throw e;
+                }
+                written += bound;
+                if (onChunkCommitted != null && bound > 0) {
+                    onChunkCommitted.run();
+                }
+            }
+
+            if (checkpointKey != null) {
+                clearCheckpoint(conn, checkpointKey); // Завантаження завершене - точка відновлення більше не потрібна
+                conn.commit();
+            }
+            return written;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    // Детермінований ключ завантаження за вмістом рядків: той самий набір даних дає той самий ключ.
+    // SHA-256 замість поліноміального хешу: збіг ключа з застарілим записом load_checkpoints означав би,
+    // що відновлення мовчки пропустить чанки. Кожне поле пишеться з довжиною, тож ("ab", "c") і ("a", "bc") різні.
+    static <T> String checkpointKey(String table, List<T> rows, Function<T, Object[]> fields) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Гарантовано будь-якою JVM
+        }
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        for (T row : rows) {
+            for (Object field : fields.apply(row)) {
+                byte[] bytes = field == null ? null : field.toString().getBytes(StandardCharsets.UTF_8);
+                length.clear();
+                length.putInt(bytes == null ? -1 : bytes.length); // -1 - null, відмінний від порожнього рядка
+                digest.update(length.array());
+                if (bytes != null) {
+                    digest.update(bytes);
+                }
+            }
+        }
+        return table + ":" + rows.size() + ":" + HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static <T> Set<Integer> supersededInChunk(List<T> chunk, Function<T, Object> conflictKey) {
+        Set<Object> seen = new HashSet<>();
+        Set<Integer> superseded = new HashSet<>();
+        for (int i = chunk.size() - 1; i >= 0; i--) {
+            if (!seen.add(conflictKey.apply(chunk.get(i)))) {
+                superseded.add(i);
+            }
+        }
+        return superseded;
+    }
+
+    // --- Точки відновлення ---
+
+    private static int readCheckpoint(Connection conn, String key) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT committed_rows FROM load_checkpoints WHERE load_key = ?;")) {
+            pstmt.setString(1, key);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? (int) rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private static void saveCheckpoint(Connection conn, String key, int committedRows) throws SQLException {
+        String sql = "INSERT INTO load_checkpoints (load_key, committed_rows, updated_at) VALUES (?, ?, now()) "
+                + "ON CONFLICT (load_key) DO UPDATE SET committed_rows = EXCLUDED.committed_rows, updated_at = EXCLUDED.updated_at;";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, key);
+            pstmt.setLong(2, committedRows);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static void clearCheckpoint(Connection conn, String key) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM load_checkpoints WHERE load_key = ?;")) {
+            pstmt.setString(1, key);
+            pstmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,524 @@
+package com.yourcompany.coffeeshop.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Простий обмежений пул з'єднань з PostgreSQL.
+// - не більше maxSize фізичних з'єднань (Semaphore), мінімум minSize тримається відкритими;
+// - з'єднання перевіряється (isValid) при видачі, биті закриваються і замінюються;
+// - зайві з'єднання, що простоюють довше idleTimeout, закриваються фоновим потоком;
+// - на кожному з'єднанні кешуються PreparedStatement за текстом SQL.
+// Видане з'єднання - це проксі: close() повертає його в пул, а close() кешованого statement лише очищає параметри.
+// Statement теж видаються як проксі: помилка з'єднання (SQLState 08) під час їх виконання позначає з'єднання битим,
+// і після close() воно закривається, а не повертається в пул.
+public class ConnectionPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final String url;
+    private final Properties connectionProperties;
+    private final PoolSettings settings;
+
+    // LIFO: "гарячі" з'єднання видаються першими, а найстаріші за простоєм лишаються в хвості для виселення
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    // Статистика
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+
+    public ConnectionPool(String url, String user, String password, PoolSettings settings) {
+        settings.validate();
+        this.url = url;
+        this.settings = settings;
+        this.connectionProperties = new Properties();
+        this.connectionProperties.setProperty("user", user);
+        this.connectionProperties.setProperty("password", password);
+        this.permits = new Semaphore(settings.getMaxSize(), true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMillis = Math.max(1_000, settings.getIdleTimeout().toMillis() / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+
+        fillToMinimum();
+        logger.info("Connection pool started for {} with {}.", url, settings);
+    }
+
+    // Видає з'єднання з пулу (або відкриває нове, якщо є місце). close() на ньому повертає з'єднання в пул.
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(settings.getBorrowTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + settings.getBorrowTimeout() + " waiting for a pooled connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection", e);
+        }
+        waitNanos.addAndGet(System.nanoTime() - start);
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isUsable(pooled)) {
+                    break;
+                }
+                validationFailures.incrementAndGet();
+                destroy(pooled);
+            }
+            if (pooled == null) {
+                pooled = openPhysical();
+            }
+            borrows.incrementAndGet();
+            Connection leased = pooled.lease();
+            LoaderMetrics.CONNECTION_ACQUIRE.recordSince(start); // Очікування дозволу + перевірка або відкриття з'єднання
+            return leased;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public Stats getStats() {
+        int idleCount = idle.size();
+        return new Stats(totalConnections.get(), idleCount, settings.getMaxSize() - permits.availablePermits(),
+                borrows.get(), created.get(), validationFailures.get(), evictions.get(),
+                waitNanos.get(), statementCacheHits.get(), statementCacheMisses.get());
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        evictor.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+        logger.info("Connection pool closed. {}", getStats());
+    }
+
+    // --- Внутрішня логіка пулу ---
+
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(settings.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection openPhysical() throws SQLException {
+        logger.debug("Opening new pooled connection to {}", url);
+        Connection physical = DriverManager.getConnection(url, connectionProperties);
+        totalConnections.incrementAndGet();
+        created.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void release(PooledConnection pooled, boolean broken) {
+        try {
+            if (!broken && !pooled.broken && !closed && resetState(pooled)) {
+                pooled.lastUsedNanos = System.nanoTime();
+                idle.offerFirst(pooled);
+            } else {
+                destroy(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Повертає з'єднання до стану за замовчуванням: statement, не закриті за оренду, звільняються,
+    // незавершені транзакції відкочуються
+    private boolean resetState(PooledConnection pooled) {
+        pooled.endLease();
+        try {
+            Connection physical = pooled.physical;
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            physical.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            logger.warn("Discarding pooled connection that failed to reset: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        pooled.closeStatements();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            logger.debug("Error closing pooled connection: {}", e.getMessage());
+        }
+    }
+
+    // Відкриття теж займає дозвіл семафора, тож разом із виданими з'єднаннями не перевищує maxSize.
+    // Немає вільного дозволу - пул зайнятий, і позичальники самі відкриють з'єднання, коли звільниться місце.
+    private void fillToMinimum() {
+        while (!closed && totalConnections.get() < settings.getMinSize() && permits.tryAcquire()) {
+            try {
+                PooledConnection pooled = openPhysical();
+                pooled.lastUsedNanos = System.nanoTime();
+                idle.offerLast(pooled);
+            } catch (SQLException e) {
+                logger.warn("Could not pre-open pooled connection: {}", e.getMessage());
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long idleTimeoutNanos = settings.getIdleTimeout().toNanos();
+        long now = System.nanoTime();
+        Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+        while (oldestFirst.hasNext() && totalConnections.get() > settings.getMinSize()) {
+            PooledConnection pooled = oldestFirst.next();
+            if (now - pooled.lastUsedNanos > idleTimeoutNanos && idle.remove(pooled)) {
+                evictions.incrementAndGet();
+                destroy(pooled);
+            }
+        }
+        fillToMinimum();
+    }
+
+    // Фізичне з'єднання + його кеш PreparedStatement
+    private final class PooledConnection {
+        private final Connection physical;
+        private final LinkedHashMap<String, PreparedStatement> statementCache;
+        private final Set<String> statementsInUse = new HashSet<>();
+        private volatile long lastUsedNanos;
+        private int leaseNumber; // Проксі statement з попередніх оренд за ним перестають діяти
+        private volatile boolean broken; // Помилка з'єднання під час виконання statement
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            int cacheSize = settings.getStatementCacheSize();
+            this.statementCache = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > cacheSize && !statementsInUse.contains(eldest.getKey())) {
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        Connection lease() {
+            leaseNumber++;
+            LeaseHandler handler = new LeaseHandler(this);
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, handler);
+        }
+
+        PreparedStatement prepare(String sql, Connection leaseProxy) throws SQLException {
+            if (settings.getStatementCacheSize() == 0 || statementsInUse.contains(sql)) {
+                // Кеш вимкнено або цей SQL уже відкритий на цьому з'єднанні - звичайний statement
+                return (PreparedStatement) wrap(this, physical.prepareStatement(sql), PreparedStatement.class, leaseProxy);
+            }
+            PreparedStatement statement = statementCache.get(sql);
+            if (statement == null || statement.isClosed()) {
+                statementCacheMisses.incrementAndGet();
+                statement = physical.prepareStatement(sql);
+                statementCache.put(sql, statement);
+            } else {
+                statementCacheHits.incrementAndGet();
+            }
+            statementsInUse.add(sql);
+            CachedStatementHandler handler = new CachedStatementHandler(this, leaseNumber, sql, statement, leaseProxy);
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, handler);
+        }
+
+        // Кінець оренди: кешовані statement, які не закрили, очищаються і знову доступні
+        void endLease() {
+            for (String sql : statementsInUse) {
+                PreparedStatement statement = statementCache.get(sql);
+                if (statement != null) {
+                    clearOrDiscard(sql, statement);
+                }
+            }
+            statementsInUse.clear();
+        }
+
+        void returnStatement(String sql, PreparedStatement statement) {
+            statementsInUse.remove(sql);
+            clearOrDiscard(sql, statement);
+        }
+
+        private void clearOrDiscard(String sql, PreparedStatement statement) {
+            try {
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException e) {
+                statementCache.remove(sql);
+                closeQuietly(statement);
+            }
+        }
+
+        // Виняток виконання statement; помилка з'єднання позначає його битим
+        Throwable failed(InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException && isFatal((SQLException) cause)) {
+                broken = true;
+            }
+            return cause;
+        }
+
+        void closeStatements() {
+            for (PreparedStatement statement : statementCache.values()) {
+                closeQuietly(statement);
+            }
+            statementCache.clear();
+            statementsInUse.clear();
+        }
+    }
+
+    // Обробник проксі виданого з'єднання
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled, false);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if ("prepareStatement".equals(name) && args != null && args.length == 1) {
+                return pooled.prepare((String) args[0], (Connection) proxy);
+            }
+            try {
+                Object result = method.invoke(pooled.physical, args);
+                if (result instanceof Statement) { // createStatement, prepareCall, prepareStatement з параметрами
+                    return wrap(pooled, (Statement) result, method.getReturnType(), (Connection) proxy);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException && isFatal((SQLException) cause)) {
+                    // З'єднання "мертве": не повертаємо його в пул
+                    returned = true;
+                    release(pooled, true);
+                }
+                throw cause;
+            }
+        }
+    }
+
+    // Проксі некешованого statement: виклики передаються як є, помилки з'єднання позначають його битим
+    private static Statement wrap(PooledConnection pooled, Statement statement, Class<?> type, Connection leaseProxy) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getConnection":
+                    return leaseProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw pooled.failed(e);
+            }
+        };
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    // Обробник проксі кешованого PreparedStatement: close() не закриває statement, а повертає його в кеш.
+    // Після повернення з'єднання в пул проксі вважається закритим (statement уже звільнено для наступної оренди).
+    private static final class CachedStatementHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final int leaseNumber;
+        private final String sql;
+        private final PreparedStatement statement;
+        private final Connection leaseProxy;
+        private boolean closed;
+
+        CachedStatementHandler(PooledConnection pooled, int leaseNumber, String sql, PreparedStatement statement, Connection leaseProxy) {
+            this.pooled = pooled;
+            this.leaseNumber = leaseNumber;
+            this.sql = sql;
+            this.statement = statement;
+            this.leaseProxy = leaseProxy;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (pooled.leaseNumber != leaseNumber) {
+                closed = true;
+            }
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        pooled.returnStatement(sql, statement);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    return leaseProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw pooled.failed(e);
+            }
+        }
+    }
+
+    // SQLState класу 08 - помилки з'єднання; 57P01..57P03 - сервер завершив сеанс (з'єднання після цього закрите)
+    private static boolean isFatal(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("08") || state.startsWith("57P0"));
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.debug("Error closing cached statement: {}", e.getMessage());
+        }
+    }
+
+    // Знімок статистики пулу
+    public static final class Stats {
+        private final int total;
+        private final int idle;
+        private final int active;
+        private final long borrows;
+        private final long created;
+        private final long validationFailures;
+        private final long evictions;
+        private final long totalWaitNanos;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+
+        Stats(int total, int idle, int active, long borrows, long created, long validationFailures, long evictions,
+              long totalWaitNanos, long statementCacheHits, long statementCacheMisses) {
+            this.total = total;
+            this.idle = idle;
+            this.active = active;
+            this.borrows = borrows;
+            this.created = created;
+            this.validationFailures = validationFailures;
+            this.evictions = evictions;
+            this.totalWaitNanos = totalWaitNanos;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+        }
+
+        public int getTotal() { return total; }
+        public int getIdle() { return idle; }
+        public int getActive() { return active; }
+        public long getBorrows() { return borrows; }
+        public long getCreated() { return created; }
+        public long getValidationFailures() { return validationFailures; }
+        public long getEvictions() { return evictions; }
+        public long getTotalWaitNanos() { return totalWaitNanos; }
+        public long getStatementCacheHits() { return statementCacheHits; }
+        public long getStatementCacheMisses() { return statementCacheMisses; }
+
+        @Override
+        public String toString() {
+            return "PoolStats{" +
+                    "total=" + total +
+                    ", idle=" + idle +
+                    ", active=" + active +
+                    ", borrows=" + borrows +
+                    ", created=" + created +
+                    ", validationFailures=" + validationFailures +
+                    ", evictions=" + evictions +
+                    ", avgWaitMicros=" + (borrows == 0 ? 0 : totalWaitNanos / borrows / 1_000) +
+                    ", statementCacheHits=" + statementCacheHits +
+                    ", statementCacheMisses=" + statementCacheMisses +
+                    '}';
+        }
+    }
+}
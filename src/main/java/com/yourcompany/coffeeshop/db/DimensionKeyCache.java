@@ -0,0 +1,142 @@
+package com.yourcompany.coffeeshop.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Кеш ключів довідників: назва пункту меню -> item_id та ім'я баристи -> barista_id.
+// Завантажується один раз і живе між завантаженнями; відсутні ключі добираються пакетно
+// (один запит на всю партію), тож цикл вставки продажів не робить мережевих запитів.
+public class DimensionKeyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DimensionKeyCache.class);
+
+    private final Map<String, Integer> menuItemIds = new ConcurrentHashMap<>();
+    private final Map<String, Integer> baristaIds = new ConcurrentHashMap<>();
+    // Назви, яких точно немає в menu_items (наприклад, "Unknown / ..."), щоб не шукати їх щоразу
+    private final Set<String> missingMenuItems = ConcurrentHashMap.newKeySet();
+    private volatile boolean menuItemsLoaded;
+    private volatile boolean baristasLoaded;
+
+    public Integer getMenuItemId(String name) {
+        return name == null ? null : menuItemIds.get(name);
+    }
+
+    public Integer getBaristaId(String name) {
+        return name == null ? null : baristaIds.get(name.trim());
+    }
+
+    // Гарантує, що в кеші є ID для всіх переданих назв товарів і імен баристів.
+    // Бариста, яких немає в БД, вставляються одним upsert з RETURNING.
+    public synchronized void resolve(Connection conn, Collection<String> menuItemNames, Collection<String> baristaNames) throws SQLException {
+        loadIfNeeded(conn);
+
+        List<String> unknownItems = new ArrayList<>();
+        for (String name : new LinkedHashSet<>(menuItemNames)) {
+            if (name != null && !menuItemIds.containsKey(name) && !missingMenuItems.contains(name)) {
+                unknownItems.add(name);
+            }
+        }
+        if (!unknownItems.isEmpty()) {
+            lookupMenuItems(conn, unknownItems);
+        }
+
+        List<String> unknownBaristas = new ArrayList<>();
+        for (String name : new LinkedHashSet<>(baristaNames)) {
+            if (name != null && !name.trim().isEmpty() && !baristaIds.containsKey(name.trim())) {
+                unknownBaristas.add(name.trim());
+            }
+        }
+        if (!unknownBaristas.isEmpty()) {
+            upsertBaristas(conn, unknownBaristas);
+        }
+    }
+
+    // Викликається після зміни menu_items: наступний resolve перезавантажить мапу
+    public void invalidateMenuItems() {
+        menuItemsLoaded = false;
+        missingMenuItems.clear();
+    }
+
+    public void invalidateAll() {
+        invalidateMenuItems();
+        baristasLoaded = false;
+    }
+
+    // --- Завантаження з БД ---
+
+    private void loadIfNeeded(Connection conn) throws SQLException {
+        if (!menuItemsLoaded) {
+            menuItemIds.clear();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT name, item_id FROM menu_items;")) {
+                while (rs.next()) {
+                    menuItemIds.put(rs.getString("name"), rs.getInt("item_id"));
+                }
+            }
+            menuItemsLoaded = true;
+            logger.debug("Loaded {} menu item keys.", menuItemIds.size());
+        }
+        if (!baristasLoaded) {
+            baristaIds.clear();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT name, barista_id FROM baristas;")) {
+                while (rs.next()) {
+                    baristaIds.put(rs.getString("name"), rs.getInt("barista_id"));
+                }
+            }
+            baristasLoaded = true;
+            logger.debug("Loaded {} barista keys.", baristaIds.size());
+        }
+    }
+
+    private void lookupMenuItems(Connection conn, List<String> names) throws SQLException {
+        String sql = "SELECT name, item_id FROM menu_items WHERE name = ANY(?);";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            Array array = conn.createArrayOf("varchar", names.toArray());
+            pstmt.setArray(1, array);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    menuItemIds.put(rs.getString("name"), rs.getInt("item_id"));
+                }
+            }
+            array.free();
+        }
+        for (String name : names) {
+            if (!menuItemIds.containsKey(name)) {
+                missingMenuItems.add(name);
+            }
+        }
+    }
+
+    private void upsertBaristas(Connection conn, List<String> names) throws SQLException {
+        // DO UPDATE (а не DO NOTHING), щоб RETURNING повернув ID і для вже існуючих рядків
+        String sql = "INSERT INTO baristas (name) SELECT DISTINCT unnest(?::varchar[]) "
+                + "ON CONFLICT (name) DO UPDATE SET name = EXCLUDED.name "
+                + "RETURNING barista_id, name;";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            Array array = conn.createArrayOf("varchar", names.toArray());
+            pstmt.setArray(1, array);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    baristaIds.put(rs.getString("name"), rs.getInt("barista_id"));
+                }
+            }
+            array.free();
+        }
+        logger.info("Resolved {} new baristas.", names.size());
+    }
+}
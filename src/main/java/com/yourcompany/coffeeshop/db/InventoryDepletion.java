@@ -0,0 +1,285 @@
+package com.yourcompany.coffeeshop.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+
+// Списання інгредієнтів за продажами за таблицею рецептів (recipes: товар -> інгредієнт -> кількість на одиницю).
+// Працює як SalesRollups: у транзакції запису в sales спершу повертається на склад споживання рядків, які
+// буде перезаписано, потім списується споживання нових рядків. Рядки sales згортаються в SQL до
+// (товар, день, кількість), а розкладання за рецептами і суми по (інгредієнт, день) рахуються в пам'яті
+// в LongLongMap. У inventory_logs на кожен інгредієнт і день є один рядок з причиною REASON, який
+// оновлюється дельтою; поточний залишок (сума inventory_logs) ведеться в ingredient_stock тією ж дельтою,
+// тож читання залишку не потребує SUM по всьому журналу.
+// Кількості в пам'яті - long у 1/10000 одиниці складу (scale 4, як у recipes.quantity_per_unit).
+class InventoryDepletion {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryDepletion.class);
+
+    static final String REASON = "Sales depletion";
+    static final int QUANTITY_SCALE = 4;
+
+    static final String[] CREATE_TABLES_SQL = {
+            "CREATE TABLE IF NOT EXISTS recipes ("
+                    + "item_id INT NOT NULL REFERENCES menu_items(item_id),"
+                    + "ingredient_id INT NOT NULL REFERENCES ingredients(ingredient_id),"
+                    + "quantity_per_unit NUMERIC(12, 4) NOT NULL,"
+                    + "PRIMARY KEY (item_id, ingredient_id)"
+                    + ");",
+            "CREATE TABLE IF NOT EXISTS ingredient_stock ("
+                    + "ingredient_id INT PRIMARY KEY REFERENCES ingredients(ingredient_id),"
+                    + "stock NUMERIC(14, 4) NOT NULL," // = SUM(inventory_logs.change_amount) для інгредієнта
+                    + "updated_at TIMESTAMP NOT NULL DEFAULT now()"
+                    + ");",
+            // Один рядок списання на інгредієнт і день - ключ для upsert дельт
+            "CREATE UNIQUE INDEX IF NOT EXISTS inventory_logs_depletion_day ON inventory_logs (ingredient_id, log_date) "
+                    + "WHERE reason = '" + REASON + "';"
+    };
+
+    // Рядки sales, згорнуті до (товар, день): %s - умова WHERE (SalesRollups.BY_*)
+    private static final String SALES_BY_ITEM_DAY_SQL = "SELECT item_id, sale_date, SUM(quantity_sold) FROM sales "
+            + "WHERE item_id IS NOT NULL AND (%s) GROUP BY item_id, sale_date";
+
+    private static final String UPSERT_LOG_SQL = "INSERT INTO inventory_logs (ingredient_id, log_date, change_amount, reason) "
+            + "VALUES (?, ?, ?, '" + REASON + "') "
+            + "ON CONFLICT (ingredient_id, log_date) WHERE reason = '" + REASON + "' DO UPDATE SET "
+            + "change_amount = inventory_logs.change_amount + EXCLUDED.change_amount;";
+
+    private static final String UPSERT_STOCK_SQL = "INSERT INTO ingredient_stock (ingredient_id, stock, updated_at) VALUES (?, ?, now()) "
+            + "ON CONFLICT (ingredient_id) DO UPDATE SET stock = ingredient_stock.stock + EXCLUDED.stock, updated_at = now();";
+
+    // Рецепти з БД; null - ще не завантажені або змінилися (див. invalidateRecipes)
+    private volatile Recipes recipes;
+
+    void invalidateRecipes() {
+        recipes = null;
+    }
+
+    // Повертає на склад споживання рядків sales, які буде перезаписано (викликається до запису)
+    void restoreExisting(Connection conn, String salesPredicate, Collection<Integer> saleIds, LongLongMap deltas) throws SQLException {
+        collect(conn, salesPredicate, saleIds, null, null, 1, deltas);
+    }
+
+    // Списує споживання актуальних рядків sales (викликається після запису); from і to - межі дат для *_IN_RANGE
+    void consumeCurrent(Connection conn, String salesPredicate, Collection<Integer> saleIds,
+                        LocalDate from, LocalDate to, LongLongMap deltas) throws SQLException {
+        collect(conn, salesPredicate, saleIds, from, to, -1, deltas);
+    }
+
+    private void collect(Connection conn, String salesPredicate, Collection<Integer> saleIds, LocalDate from, LocalDate to,
+                         int sign, LongLongMap deltas) throws SQLException {
+        Recipes current = recipes(conn);
+        if (current.isEmpty()) {
+            return; // Без рецептів продажі запаси не змінюють
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(String.format(SALES_BY_ITEM_DAY_SQL, salesPredicate))) {
+            Array idArray = SalesRollups.bindSelection(conn, pstmt, saleIds, from, to);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int itemId = rs.getInt(1);
+                    long day = rs.getDate(2).toLocalDate().toEpochDay();
+                    long quantitySold = rs.getLong(3);
+                    current.addConsumption(itemId, day, sign * quantitySold, deltas);
+                }
+            }
+            if (idArray != null) {
+                idArray.free();
+            }
+        }
+    }
+
+    // Записує дельти (ключ - key(інгредієнт, день)) в inventory_logs і ingredient_stock; deltas очищується
+    void apply(Connection conn, LongLongMap deltas) throws SQLException {
+        if (deltas.size() == 0) {
+            return;
+        }
+        LongLongMap byIngredient = new LongLongMap();
+        int written = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_LOG_SQL)) {
+            for (int slot = deltas.next(-1); slot >= 0; slot = deltas.next(slot)) {
+                long change = deltas.valueAt(slot);
+                if (change == 0) {
+                    continue; // Перезапис без змін кількості чи товару
+                }
+                long key = deltas.keyAt(slot);
+                pstmt.setInt(1, ingredientOf(key));
+                pstmt.setDate(2, Date.valueOf(LocalDate.ofEpochDay(dayOf(key))));
+                pstmt.setBigDecimal(3, BigDecimal.valueOf(change, QUANTITY_SCALE));
+                pstmt.addBatch();
+                byIngredient.add(ingredientOf(key), change);
+                written++;
+            }
+            if (written > 0) {
+                pstmt.executeBatch();
+            }
+        }
+        addToStock(conn, byIngredient);
+        deltas.clear();
+    }
+
+    // Додає зміни (ingredient_id -> кількість у 1/10000) до ingredient_stock
+    static void addToStock(Connection conn, LongLongMap byIngredient) throws SQLException {
+        if (byIngredient.size() == 0) {
+            return;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_STOCK_SQL)) {
+            for (int slot = byIngredient.next(-1); slot >= 0; slot = byIngredient.next(slot)) {
+                pstmt.setInt(1, (int) byIngredient.keyAt(slot));
+                pstmt.setBigDecimal(2, BigDecimal.valueOf(byIngredient.valueAt(slot), QUANTITY_SCALE));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    // Кількість у 1/10000 одиниці; дробові значення з більшою точністю округлюються
+    static long toUnits(BigDecimal quantity) {
+        return quantity.setScale(QUANTITY_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // --- Повний перерахунок ---
+
+    // Списання за всіма продажами з поточними рецептами (після зміни рецептів) і залишки з усього журналу
+    static void rebuild(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM inventory_logs WHERE reason = '" + REASON + "';");
+            stmt.executeUpdate("INSERT INTO inventory_logs (ingredient_id, log_date, change_amount, reason) "
+                    + "SELECT r.ingredient_id, s.sale_date, -SUM(s.quantity_sold * r.quantity_per_unit), '" + REASON + "' "
+                    + "FROM sales s JOIN recipes r ON r.item_id = s.item_id "
+                    + "GROUP BY r.ingredient_id, s.sale_date;");
+        }
+        rebuildStock(conn);
+        logger.info("Inventory depletion rebuilt from sales and recipes.");
+    }
+
+    static void rebuildStock(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("TRUNCATE ingredient_stock;");
+            stmt.executeUpdate("INSERT INTO ingredient_stock (ingredient_id, stock, updated_at) "
+                    + "SELECT ingredient_id, SUM(change_amount), now() FROM inventory_logs "
+                    + "WHERE ingredient_id IS NOT NULL GROUP BY ingredient_id;");
+        }
+    }
+
+    // true, якщо журнал не порожній, а залишків ще немає (таблиця щойно створена)
+    static boolean needsStockBackfill(Connection conn) throws SQLException {
+        String sql = "SELECT EXISTS (SELECT 1 FROM inventory_logs) AND NOT EXISTS (SELECT 1 FROM ingredient_stock);";
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    // Старі бази: change_amount був NUMERIC(10, 2), чого замало для рецептів у грамах і мілілітрах
+    static void widenChangeAmount(Connection conn) throws SQLException {
+        String sql = "SELECT numeric_scale FROM information_schema.columns "
+                + "WHERE table_name = 'inventory_logs' AND column_name = 'change_amount' AND table_schema = current_schema();";
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            if (!rs.next() || rs.getInt(1) >= QUANTITY_SCALE) {
+                return;
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE inventory_logs ALTER COLUMN change_amount TYPE NUMERIC(12, 4);");
+        }
+        logger.info("Widened inventory_logs.change_amount to NUMERIC(12, 4).");
+    }
+
+    // --- Ключі (інгредієнт, день) ---
+
+    static long key(int ingredientId, long epochDay) {
+        return ((long) ingredientId << 32) | (epochDay & 0xFFFFFFFFL);
+    }
+
+    static int ingredientOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    static long dayOf(long key) {
+        return (int) key; // Дні до 1970 року від'ємні - відновлюємо знак
+    }
+
+    // --- Рецепти ---
+
+    private Recipes recipes(Connection conn) throws SQLException {
+        Recipes current = recipes;
+        if (current == null) {
+            current = Recipes.load(conn);
+            recipes = current;
+        }
+        return current;
+    }
+
+    // Рецепти в масивах: для товару - діапазон [offset, offset + count) в ingredientIds / quantities
+    private static final class Recipes {
+        private final LongLongMap rangeByItem; // item_id -> (offset << 32) | count
+        private final int[] ingredientIds;
+        private final long[] quantities; // 1/10000 одиниці на проданий товар
+
+        private Recipes(LongLongMap rangeByItem, int[] ingredientIds, long[] quantities) {
+            this.rangeByItem = rangeByItem;
+            this.ingredientIds = ingredientIds;
+            this.quantities = quantities;
+        }
+
+        static Recipes load(Connection conn) throws SQLException {
+            String sql = "SELECT item_id, ingredient_id, quantity_per_unit FROM recipes ORDER BY item_id, ingredient_id;";
+            LongLongMap rangeByItem = new LongLongMap();
+            int[] ingredientIds = new int[16];
+            long[] quantities = new long[16];
+            int count = 0;
+            try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+                int currentItem = 0;
+                int itemStart = 0;
+                while (rs.next()) {
+                    int itemId = rs.getInt(1);
+                    if (count > 0 && itemId != currentItem) {
+                        rangeByItem.add(currentItem, ((long) itemStart << 32) | (count - itemStart));
+                        itemStart = count;
+                    }
+                    currentItem = itemId;
+                    if (count == ingredientIds.length) {
+                        ingredientIds = Arrays.copyOf(ingredientIds, count * 2);
+                        quantities = Arrays.copyOf(quantities, count * 2);
+                    }
+                    ingredientIds[count] = rs.getInt(2);
+                    quantities[count] = toUnits(rs.getBigDecimal(3));
+                    count++;
+                }
+                if (count > 0) {
+                    rangeByItem.add(currentItem, ((long) itemStart << 32) | (count - itemStart));
+                }
+            }
+            logger.debug("Loaded {} recipe lines for {} menu items.", count, rangeByItem.size());
+            return new Recipes(rangeByItem, ingredientIds, quantities);
+        }
+
+        boolean isEmpty() {
+            return rangeByItem.size() == 0;
+        }
+
+        // Додає до deltas quantitySold одиниць товару за день (від'ємне quantitySold - списання)
+        void addConsumption(int itemId, long epochDay, long quantitySold, LongLongMap deltas) {
+            long range = rangeByItem.get(itemId, -1);
+            if (range < 0) {
+                return; // Товар без рецепту
+            }
+            int offset = (int) (range >>> 32);
+            int end = offset + (int) range;
+            for (int i = offset; i < end; i++) {
+                deltas.add(key(ingredientIds[i], epochDay), quantitySold * quantities[i]);
+            }
+        }
+    }
+}
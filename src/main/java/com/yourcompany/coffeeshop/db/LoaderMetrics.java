@@ -0,0 +1,23 @@
+package com.yourcompany.coffeeshop.db;
+
+import com.yourcompany.coffeeshop.metrics.Counter;
+import com.yourcompany.coffeeshop.metrics.Histogram;
+import com.yourcompany.coffeeshop.metrics.Metrics;
+import com.yourcompany.coffeeshop.metrics.Timer;
+
+// Метрики завантаження в БД: розміри пакетів, час виконання JDBC-команд, час отримання з'єднання з пулу
+// та продажі, пропущені через невідомі ключі довідників
+final class LoaderMetrics {
+
+    static final Histogram BATCH_ROWS = Metrics.histogram("jdbc_batch_size", "op", "batch");
+    static final Histogram COPY_ROWS = Metrics.histogram("jdbc_batch_size", "op", "copy");
+    static final Timer BATCH_EXECUTE = Metrics.timer("jdbc_execute", "op", "batch");
+    static final Timer COPY_EXECUTE = Metrics.timer("jdbc_execute", "op", "copy");
+    static final Timer MERGE_EXECUTE = Metrics.timer("jdbc_execute", "op", "merge");
+    static final Timer CONNECTION_ACQUIRE = Metrics.timer("pool_acquire");
+    static final Counter UNKNOWN_BARISTA = Metrics.counter("loader_rows_skipped", "reason", "unknown_barista");
+    static final Counter UNKNOWN_MENU_ITEM = Metrics.counter("loader_rows_skipped", "reason", "unknown_menu_item");
+
+    private LoaderMetrics() {
+    }
+}
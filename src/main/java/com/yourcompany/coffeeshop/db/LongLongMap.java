@@ -0,0 +1,112 @@
+package com.yourcompany.coffeeshop.db;
+
+import java.util.Arrays;
+
+// Хеш-таблиця long -> long з відкритою адресацією (лінійне зондування) без упаковки ключів і значень
+// в об'єкти: для сум на кшталт "інгредієнт × день -> кількість" по сотнях тисяч продажів
+// HashMap<Long, Long> створював би по два об'єкти на кожне додавання.
+// Обхід: for (int slot = map.next(-1); slot >= 0; slot = map.next(slot)) { map.keyAt(slot); map.valueAt(slot); }
+final class LongLongMap {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int size;
+    private int resizeAt;
+
+    LongLongMap() {
+        this(16);
+    }
+
+    LongLongMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) * 2 - 1);
+        allocate(capacity);
+    }
+
+    // Додає delta до значення ключа (відсутній ключ - 0)
+    void add(long key, long delta) {
+        int slot = slotOf(key);
+        if (used[slot]) {
+            values[slot] += delta;
+            return;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size >= resizeAt) {
+            rehash();
+        }
+    }
+
+    // Значення ключа або defaultValue
+    long get(long key, long defaultValue) {
+        int slot = slotOf(key);
+        return used[slot] ? values[slot] : defaultValue;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    // Наступний зайнятий слот після slot (-1 - з початку); -1, якщо слотів більше немає
+    int next(int slot) {
+        for (int i = slot + 1; i < used.length; i++) {
+            if (used[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    long valueAt(int slot) {
+        return values[slot];
+    }
+
+    // Слот ключа або перший вільний слот його ланцюжка
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L; // Множення Фібоначчі: сусідні id та дні розходяться по таблиці
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slotOf(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.yourcompany.coffeeshop.db;
+
+import java.time.Duration;
+
+// Налаштування пулу з'єднань ConnectionPool (значення за замовчуванням підходять для нічного завантаження + дашбордів)
+public class PoolSettings {
+    private int minSize = 2; // Скільки з'єднань тримати відкритими навіть без навантаження
+    private int maxSize = 10; // Верхня межа одночасно відкритих з'єднань
+    private Duration idleTimeout = Duration.ofMinutes(5); // Після цього простою зайві (понад minSize) з'єднання закриваються
+    private Duration borrowTimeout = Duration.ofSeconds(30); // Скільки чекати вільне з'єднання, коли пул вичерпано
+    private int validationTimeoutSeconds = 2; // Таймаут Connection.isValid при видачі з пулу
+    private int statementCacheSize = 32; // Кількість PreparedStatement, що кешуються на кожному з'єднанні (0 - вимкнено)
+
+    public int getMinSize() { return minSize; }
+    public void setMinSize(int minSize) { this.minSize = minSize; }
+    public int getMaxSize() { return maxSize; }
+    public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+    public Duration getIdleTimeout() { return idleTimeout; }
+    public void setIdleTimeout(Duration idleTimeout) { this.idleTimeout = idleTimeout; }
+    public Duration getBorrowTimeout() { return borrowTimeout; }
+    public void setBorrowTimeout(Duration borrowTimeout) { this.borrowTimeout = borrowTimeout; }
+    public int getValidationTimeoutSeconds() { return validationTimeoutSeconds; }
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) { this.validationTimeoutSeconds = validationTimeoutSeconds; }
+    public int getStatementCacheSize() { return statementCacheSize; }
+    public void setStatementCacheSize(int statementCacheSize) { this.statementCacheSize = statementCacheSize; }
+
+    void validate() {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("statementCacheSize must not be negative");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PoolSettings{" +
+                "minSize=" + minSize +
+                ", maxSize=" + maxSize +
+                ", idleTimeout=" + idleTimeout +
+                ", borrowTimeout=" + borrowTimeout +
+                ", validationTimeoutSeconds=" + validationTimeoutSeconds +
+                ", statementCacheSize=" + statementCacheSize +
+                '}';
+    }
+}
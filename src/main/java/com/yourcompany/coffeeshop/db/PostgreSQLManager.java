@@ -1,21 +1,37 @@
 package com.yourcompany.coffeeshop.db;
 
+import com.yourcompany.coffeeshop.metrics.SampledLogger;
+import com.yourcompany.coffeeshop.model.CompactSaleRecord;
+import com.yourcompany.coffeeshop.model.DeadLetter;
+import com.yourcompany.coffeeshop.model.DeadLetterSink;
+import com.yourcompany.coffeeshop.model.IngestionState;
 import com.yourcompany.coffeeshop.model.InventoryItem;
 import com.yourcompany.coffeeshop.model.MenuItem;
+import com.yourcompany.coffeeshop.model.RecipeItem;
+import com.yourcompany.coffeeshop.model.SaleIdStore;
 import com.yourcompany.coffeeshop.model.SaleRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
 import java.sql.*;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Set;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
 
-public class PostgreSQLManager {
+public class PostgreSQLManager implements AutoCloseable, SaleIdStore {
 
     private static final Logger logger = LoggerFactory.getLogger(PostgreSQLManager.class);
+    private static final SampledLogger sampledLogger = new SampledLogger(logger); // Помилки окремих продажів
 
     // Параметри підключення до бази даних (краще зберігати у файлі конфігурації!)
 
@@ -23,16 +39,84 @@ public class PostgreSQLManager {
     private static final String USER = "serhii_project"; // ім'я користувача PostgreSQL
     private static final String PASSWORD = "77778888"; // пароль PostgreSQL
 
+    // Пул з'єднань: замість DriverManager.getConnection (повний handshake + auth) на кожен виклик
+    private final ConnectionPool connectionPool;
+
+    // Кеш name -> id для menu_items та baristas, спільний для всіх завантажень цього менеджера
+    private final DimensionKeyCache dimensionKeys = new DimensionKeyCache();
+
+    // Спосіб запису продажів: пакетний JDBC або COPY (можна перемикати для порівняння швидкості)
+    private volatile SalesLoadMode salesLoadMode = SalesLoadMode.BATCH;
+    private final SalesCopyLoader salesCopyLoader;
+
+    // Продажі, пропущені через невідомого баристу чи товар, передаються сюди (етап DeadLetter.STAGE_LOAD)
+    private volatile DeadLetterSink deadLetters = DeadLetterSink.NONE;
+
+    // Розмір чанку для пакетних вставок: один executeBatch і один коміт на чанк
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+    private volatile ChunkedBatchWriter batchWriter = new ChunkedBatchWriter(DEFAULT_BATCH_SIZE, this::dataChanged);
+
+    // Кеш результатів аналітичних запитів. Версія даних збільшується після кожного коміту завантаження
+    // (кожного чанку), тож закешовані результати стають недійсними саме тоді, коли змінюються дані.
+    private final AtomicLong dataVersion = new AtomicLong();
+    private volatile QueryResultCache queryCache = new QueryResultCache(QueryResultCache.DEFAULT_MAX_ENTRIES, QueryResultCache.DEFAULT_TTL);
+
+    // Денні агрегати продажів (sales_daily_*), що оновлюються разом з кожним чанком insertSales
+    private final SalesRollups salesRollups = new SalesRollups(SalesRollups.BY_SALE_ID_ARRAY, SalesRollups.BY_SALE_ID_ARRAY_IN_RANGE);
+
+    // Місячні секції sales: схема, перенесення старої таблиці і створення секцій перед записом
+    private final SalesPartitions salesPartitions = new SalesPartitions();
+
+    // Списання інгредієнтів за рецептами, теж дельтою в транзакції кожного чанку (спільне з salesCopyLoader)
+    private final InventoryDepletion inventoryDepletion = new InventoryDepletion();
+
     public PostgreSQLManager() {
-        // Конструктор
+        this(DB_URL, USER, PASSWORD, new PoolSettings());
+    }
 
+    public PostgreSQLManager(String dbUrl, String user, String password, PoolSettings poolSettings) {
+        // reWriteBatchedInserts: драйвер склеює пакет INSERT-ів у багаторядкові INSERT ... VALUES (...), (...)
+        this.connectionPool = new ConnectionPool(withDriverOption(dbUrl, "reWriteBatchedInserts", "true"), user, password, poolSettings);
+        this.salesCopyLoader = new SalesCopyLoader(inventoryDepletion);
         logger.info("PostgreSQLManager initialized.");
     }
 
-    // --- Метод для встановлення з'єднання з БД ---
+    // --- Метод для отримання з'єднання з БД (з пулу) ---
     private Connection getConnection() throws SQLException {
-        logger.debug("Attempting to connect to database: {}", DB_URL);
-        return DriverManager.getConnection(DB_URL, USER, PASSWORD);
+        return connectionPool.getConnection();
+    }
+
+    public SalesLoadMode getSalesLoadMode() { return salesLoadMode; }
+    public void setSalesLoadMode(SalesLoadMode salesLoadMode) { this.salesLoadMode = salesLoadMode; }
+
+    public void setDeadLetters(DeadLetterSink deadLetters) { this.deadLetters = deadLetters; }
+    public DeadLetterSink getDeadLetters() { return deadLetters; }
+
+    public int getBatchSize() { return batchWriter.getBatchSize(); }
+    public void setBatchSize(int batchSize) { this.batchWriter = new ChunkedBatchWriter(batchSize, this::dataChanged); }
+
+    public void setQueryCache(int maxEntries, Duration ttl) { this.queryCache = new QueryResultCache(maxEntries, ttl); }
+    public QueryResultCache.Stats getQueryCacheStats() { return queryCache.getStats(); }
+    public long getDataVersion() { return dataVersion.get(); }
+
+    private void dataChanged() {
+        dataVersion.incrementAndGet();
+    }
+
+    public ConnectionPool.Stats getPoolStats() {
+        return connectionPool.getStats();
+    }
+
+    @Override
+    public void close() {
+        connectionPool.close();
+    }
+
+    private static String withDriverOption(String url, String option, String value) {
+        if (url.contains(option + "=")) {
+            return url; // Явно заданий у URL параметр має пріоритет
+        }
+        return url + (url.contains("?") ? "&" : "?") + option + "=" + value;
     }
 
     // --- Метод для створення таблиць SQL ---
@@ -62,19 +146,20 @@ public class PostgreSQLManager {
                 + "log_id SERIAL PRIMARY KEY,"
                 + "ingredient_id INT REFERENCES ingredients(ingredient_id),"
                 + "log_date DATE NOT NULL,"
-                + "change_amount NUMERIC(10, 2) NOT NULL,"
+                + "change_amount NUMERIC(12, 4) NOT NULL,"
                 + "reason VARCHAR(255)"
                 + ");";
 
-        String createSalesTableSQL = "CREATE TABLE IF NOT EXISTS sales ("
-                + "sale_id INT PRIMARY KEY," // Зверніть увагу, що sale_id вже є в даних, тому не SERIAL
-                + "sale_date DATE NOT NULL,"
-                + "item_id INT REFERENCES menu_items(item_id),"
-                + "quantity_sold INT NOT NULL,"
-                + "total_price NUMERIC(10, 2) NOT NULL,"
-                + "profit NUMERIC(10, 2)," // Додамо поле для розрахованого прибутку
-                + "payment_method VARCHAR(50),"
-                + "barista_id INT REFERENCES baristas(barista_id)"
+        String createIngestionStateTableSQL = "CREATE TABLE IF NOT EXISTS ingestion_state ("
+                + "file_key VARCHAR(1024) PRIMARY KEY,"
+                + "file_size BIGINT NOT NULL,"
+                + "last_modified_millis BIGINT NOT NULL,"
+                + "content_sha256 CHAR(64) NOT NULL,"
+                + "max_sale_id INT," // High-water mark; NULL для файлів без продажів
+                + "max_sale_date DATE,"
+                + "rows_loaded BIGINT NOT NULL DEFAULT 0,"
+                + "menu_sha256 CHAR(64)," // Меню, з яким пораховано прибуток продажів файлу
+                + "updated_at TIMESTAMP NOT NULL DEFAULT now()"
                 + ");";
 
         try (Connection conn = getConnection();
@@ -88,8 +173,30 @@ public class PostgreSQLManager {
             stmt.execute(createIngredientsTableSQL);
             logger.info("Creating inventory_logs table...");
             stmt.execute(createInventoryLogsTableSQL);
-            logger.info("Creating sales table...");
-            stmt.execute(createSalesTableSQL);
+            logger.info("Creating sales table and monthly partitions...");
+            salesPartitions.ensureSchema(conn); // Секціонована за місяцями; стара звичайна таблиця переноситься
+            logger.info("Creating load_checkpoints table...");
+            stmt.execute(ChunkedBatchWriter.CREATE_CHECKPOINTS_TABLE_SQL);
+            logger.info("Creating ingestion_state table...");
+            stmt.execute(createIngestionStateTableSQL);
+            stmt.execute("ALTER TABLE ingestion_state ADD COLUMN IF NOT EXISTS menu_sha256 CHAR(64);"); // Таблиці старіших версій
+            logger.info("Creating sales rollup tables...");
+            for (String createRollupSQL : SalesRollups.CREATE_TABLES_SQL) {
+                stmt.execute(createRollupSQL);
+            }
+            if (SalesRollups.needsBackfill(conn)) {
+                logger.info("Sales rollups are empty while sales has data; backfilling...");
+                SalesRollups.rebuild(conn);
+            }
+            logger.info("Creating recipes and ingredient_stock tables...");
+            InventoryDepletion.widenChangeAmount(conn);
+            for (String createDepletionSQL : InventoryDepletion.CREATE_TABLES_SQL) {
+                stmt.execute(createDepletionSQL);
+            }
+            if (InventoryDepletion.needsStockBackfill(conn)) {
+                logger.info("Ingredient stock is empty while inventory_logs has data; backfilling...");
+                InventoryDepletion.rebuildStock(conn);
+            }
 
             logger.info("All tables created or already exist.");
 
@@ -103,17 +210,16 @@ public class PostgreSQLManager {
 
     public void insertBaristas(List<String> baristaNames) throws SQLException {
         String sql = "INSERT INTO baristas (name) VALUES (?) ON CONFLICT (name) DO NOTHING;"; // Ігнорувати, якщо бариста вже є
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = getConnection()) {
 
-            for (String name : baristaNames) {
-                if (name != null && !name.trim().isEmpty()) {
-                    pstmt.setString(1, name.trim());
-                    pstmt.addBatch(); // Додаємо до пакетної обробки
+            int insertedRows = batchWriter.write(conn, sql, baristaNames, (pstmt, name) -> {
+                if (name == null || name.trim().isEmpty()) {
+                    return false;
                 }
-            }
-            int[] insertedRows = pstmt.executeBatch(); // Виконуємо пакетну вставку
-            logger.info("Inserted/updated {} baristas.", insertedRows.length);
+                pstmt.setString(1, name.trim());
+                return true;
+            }, null, null); // DO NOTHING не конфліктує з дублікатами в одній команді
+            logger.info("Inserted/updated {} baristas.", insertedRows);
         } catch (SQLException e) {
             logger.error("Error inserting baristas: {}", e.getMessage(), e);
             throw e;
@@ -130,19 +236,18 @@ public class PostgreSQLManager {
                 + "name = EXCLUDED.name, category = EXCLUDED.category, "
                 + "standard_price = EXCLUDED.standard_price, cost_per_unit = EXCLUDED.cost_per_unit;";
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = getConnection()) {
 
-            for (MenuItem item : menuItems) {
+            int insertedRows = batchWriter.write(conn, sql, menuItems, (pstmt, item) -> {
                 pstmt.setInt(1, item.getItemId());
                 pstmt.setString(2, item.getNameStandard());
                 pstmt.setString(3, item.getCategory());
                 pstmt.setBigDecimal(4, item.getStandardPrice());
                 pstmt.setBigDecimal(5, item.getCostPerUnit());
-                pstmt.addBatch();
-            }
-            int[] insertedRows = pstmt.executeBatch();
-            logger.info("Inserted/updated {} menu items.", insertedRows.length);
+                return true;
+            }, MenuItem::getItemId, null);
+            dimensionKeys.invalidateMenuItems(); // Назви могли змінитися для тих самих item_id
+            logger.info("Inserted/updated {} menu items.", insertedRows);
         } catch (SQLException e) {
             logger.error("Error inserting menu items: {}", e.getMessage(), e);
             throw e;
@@ -156,19 +261,17 @@ public class PostgreSQLManager {
                 + "name = EXCLUDED.name, unit_of_measure = EXCLUDED.unit_of_measure, "
                 + "unit_cost = EXCLUDED.unit_cost;"; // Оновлюємо дані інгредієнта
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = getConnection()) {
 
-            for (InventoryItem item : inventoryItems) {
+            int insertedRows = batchWriter.write(conn, sql, inventoryItems, (pstmt, item) -> {
                 pstmt.setInt(1, item.getIngredientId());
                 pstmt.setString(2, item.getIngredientName());
                 // Unit of measure not explicitly in InventoryItem, assuming 'kg' or 'L' based on name or separate mapping
                 pstmt.setString(3, "kg/L"); // TODO: Adjust based on your actual data or add to model
                 pstmt.setBigDecimal(4, item.getUnitCost());
-                pstmt.addBatch();
-            }
-            int[] insertedRows = pstmt.executeBatch();
-            logger.info("Inserted/updated {} ingredient definitions.", insertedRows.length);
+                return true;
+            }, InventoryItem::getIngredientId, null);
+            logger.info("Inserted/updated {} ingredient definitions.", insertedRows);
 
             // Також вставимо початкові дані про запаси в inventory_logs
             insertInitialInventoryLogs(inventoryItems);
@@ -182,24 +285,43 @@ public class PostgreSQLManager {
     // --- Додатковий метод для початкових записів запасів ---
     private void insertInitialInventoryLogs(List<InventoryItem> inventoryItems) throws SQLException {
         String sql = "INSERT INTO inventory_logs (ingredient_id, log_date, change_amount, reason) VALUES (?, ?, ?, ?);";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        // inventory_logs - звичайні INSERT без ON CONFLICT, тому після збою продовжуємо з точки відновлення,
+        // щоб не продублювати вже закомічені чанки
+        String checkpointKey = ChunkedBatchWriter.checkpointKey("inventory_logs", inventoryItems, item -> new Object[]{
+                item.getIngredientId(), item.getLastRestockDate(), item.getCurrentStockKgL()});
+        try (Connection conn = getConnection()) {
 
-            for (InventoryItem item : inventoryItems) {
+            int insertedLogs = batchWriter.write(conn, sql, inventoryItems, (pstmt, item) -> {
                 // Перевіряємо, чи є вже запис про початковий запас для цього інгредієнта на цю дату
                 // Це дуже спрощено, в реальному проєкті треба перевіряти, чи цей лог вже існує,
                 // або обробляти унікальність (наприклад, UNIQUE (ingredient_id, log_date, reason)
                 // Але для портфоліо може бути достатньо такої логіки:
-                if (item.getLastRestockDate() != null) {
-                    pstmt.setInt(1, item.getIngredientId());
-                    pstmt.setDate(2, Date.valueOf(item.getLastRestockDate()));
-                    pstmt.setBigDecimal(3, item.getCurrentStockKgL()); // Вважаємо поточний запас як початковий лог
-                    pstmt.setString(4, "Initial Stock / Last Restock");
-                    pstmt.addBatch();
+                if (item.getLastRestockDate() == null) {
+                    return false;
                 }
-            }
-            int[] insertedLogs = pstmt.executeBatch();
-            logger.info("Inserted {} initial inventory log entries.", insertedLogs.length);
+                pstmt.setInt(1, item.getIngredientId());
+                pstmt.setDate(2, Date.valueOf(item.getLastRestockDate()));
+                pstmt.setBigDecimal(3, item.getCurrentStockKgL()); // Вважаємо поточний запас як початковий лог
+                pstmt.setString(4, "Initial Stock / Last Restock");
+                return true;
+            }, null, checkpointKey, new ChunkedBatchWriter.ChunkHook<>() {
+                @Override
+                public void beforeBatch(Connection c, List<InventoryItem> chunk) {
+                }
+
+                // Залишок у ingredient_stock змінюється в тій самій транзакції, що й журнал
+                @Override
+                public void afterBatch(Connection c, List<InventoryItem> chunk) throws SQLException {
+                    LongLongMap byIngredient = new LongLongMap(chunk.size());
+                    for (InventoryItem item : chunk) {
+                        if (item.getLastRestockDate() != null) {
+                            byIngredient.add(item.getIngredientId(), InventoryDepletion.toUnits(item.getCurrentStockKgL()));
+                        }
+                    }
+                    InventoryDepletion.addToStock(c, byIngredient);
+                }
+            });
+            logger.info("Inserted {} initial inventory log entries.", insertedLogs);
         } catch (SQLException e) {
             logger.error("Error inserting initial inventory logs: {}", e.getMessage(), e);
             throw e;
@@ -207,119 +329,447 @@ public class PostgreSQLManager {
     }
 
 
+    // --- Метод для вставки рецептів ---
+
+    // Замінює всі рецепти. Якщо вони змінилися, списання за вже завантаженими продажами перераховується
+    // з новими рецептами в тій самій транзакції, тож журнал і залишки відповідають поточним рецептам.
+    public void insertRecipes(List<RecipeItem> recipeItems) throws SQLException {
+        // Останній рядок для пари (товар, інгредієнт) перемагає
+        Map<Long, BigDecimal> incoming = new LinkedHashMap<>();
+        for (RecipeItem item : recipeItems) {
+            incoming.put(recipeKey(item.getMenuItemId(), item.getIngredientId()), item.getQuantityPerUnit());
+        }
+
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (sameRecipes(conn, incoming)) {
+                    conn.commit();
+                    logger.info("Recipes unchanged ({} lines).", incoming.size());
+                    return;
+                }
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("DELETE FROM recipes;");
+                }
+                String sql = "INSERT INTO recipes (item_id, ingredient_id, quantity_per_unit) VALUES (?, ?, ?);";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (Map.Entry<Long, BigDecimal> entry : incoming.entrySet()) {
+                        pstmt.setInt(1, (int) (entry.getKey() >>> 32));
+                        pstmt.setInt(2, (int) (long) entry.getKey());
+                        pstmt.setBigDecimal(3, entry.getValue());
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+                InventoryDepletion.rebuild(conn);
+                conn.commit();
+                inventoryDepletion.invalidateRecipes();
+                dataChanged();
+                logger.info("Inserted {} recipe lines.", incoming.size());
+            } catch (SQLException e) {
+                conn.rollback();
+                logger.error("Error inserting recipes: {}", e.getMessage(), e);
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static long recipeKey(int menuItemId, int ingredientId) {
+        return ((long) menuItemId << 32) | (ingredientId & 0xFFFFFFFFL);
+    }
+
+    private static boolean sameRecipes(Connection conn, Map<Long, BigDecimal> incoming) throws SQLException {
+        int stored = 0;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT item_id, ingredient_id, quantity_per_unit FROM recipes;")) {
+            while (rs.next()) {
+                BigDecimal quantity = incoming.get(recipeKey(rs.getInt(1), rs.getInt(2)));
+                if (quantity == null || quantity.compareTo(rs.getBigDecimal(3)) != 0) {
+                    return false;
+                }
+                stored++;
+            }
+        }
+        return stored == incoming.size();
+    }
+
     // --- Метод для вставки записів про продажі ---
     public void insertSales(List<SaleRecord> sales) throws SQLException {
-        // Ми використовуємо sale_id як PK, і він вже приходить з даних, тому ON CONFLICT (sale_id) DO UPDATE
+        // sale_id вже приходить з даних, тому ON CONFLICT (sale_id, sale_date) DO UPDATE
         // дозволить нам перезаписувати записи, якщо ви запускаєте скрипт кілька разів.
-        // Це корисно для тестування.
+        // Продаж, у якого змінилася дата, спершу видаляється зі старої секції (див. хук у insertSalesBatch).
         String sql = "INSERT INTO sales (sale_id, sale_date, item_id, quantity_sold, total_price, profit, payment_method, barista_id) "
                 + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
-                + "ON CONFLICT (sale_id) DO UPDATE SET "
-                + "sale_date = EXCLUDED.sale_date, item_id = EXCLUDED.item_id, quantity_sold = EXCLUDED.quantity_sold, "
+                + "ON CONFLICT (sale_id, sale_date) DO UPDATE SET "
+                + "item_id = EXCLUDED.item_id, quantity_sold = EXCLUDED.quantity_sold, "
                 + "total_price = EXCLUDED.total_price, profit = EXCLUDED.profit, "
                 + "payment_method = EXCLUDED.payment_method, barista_id = EXCLUDED.barista_id;";
 
-        // Для того, щоб зв'язати barista_name зі sales.barista_id, нам потрібні ID баристів.
-        // Зробимо кеш імен баристів та їх ID з БД.
-        Map<String, Integer> baristaNameToIdMap = getBaristaNameToIdMap();
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        long startNanos = System.nanoTime();
+        SalesLoadMode mode = salesLoadMode;
+        try (Connection conn = getConnection()) {
 
+            // Для того, щоб зв'язати barista_name та item_name_standard з ID, беремо їх з кешу довідників.
+            // Відсутні ключі добираються одним пакетним запитом до початку циклу, тож у самому циклі
+            // немає звернень до БД, крім executeBatch.
+            Set<String> itemNames = new HashSet<>();
+            Set<String> baristaNames = new HashSet<>();
             for (SaleRecord sale : sales) {
-                Integer baristaId = baristaNameToIdMap.get(sale.getBaristaName());
-                if (baristaId == null) {
-                    // Якщо баристи немає в базі, спробуємо вставити його та оновити мапу
-                    // У реальному проекті тут краще викликати окремий метод для вставки нового баристи
-                    logger.warn("Barista '{}' not found in database. Inserting...", sale.getBaristaName());
-                    insertBaristas(List.of(sale.getBaristaName())); // Вставляємо нового баристу
-                    baristaNameToIdMap = getBaristaNameToIdMap(); // Оновлюємо мапу
-                    baristaId = baristaNameToIdMap.get(sale.getBaristaName());
-                }
+                itemNames.add(sale.getItemNameStandard());
+                baristaNames.add(sale.getBaristaName());
+            }
+            dimensionKeys.resolve(conn, itemNames, baristaNames);
+            salesPartitions.ensureFor(conn, sales); // DDL - до транзакцій запису
+
+            int written;
+            if (mode == SalesLoadMode.COPY) {
+                written = salesCopyLoader.load(conn, sales, dimensionKeys, deadLetters);
+                dataChanged(); // COPY комітить усе завантаження однією транзакцією
+            } else {
+                written = insertSalesBatch(conn, sql, sales); // Версія збільшується після кожного чанку
+            }
+
+            long elapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+            logger.info("Inserted/updated {} sales records via {} in {} ms ({} rows/s).",
+                    written, mode, elapsedMillis, written * 1000L / elapsedMillis);
+        } catch (SQLException e) {
+            logger.error("Error inserting sales: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
 
-                // Щоб item_id був коректним, вам потрібна мапа стандартизованих назв товарів на їх ID
-                // Це можна зробити, передавши Map<String, Integer> з DataProcessor або зчитавши з БД
-                // Для простоти, припустимо, що item_id можна отримати з MenuItem, якщо ви його зберегли
-                // Або вам потрібно буде зробити lookup по `nameStandard` в таблиці `menu_items`
-                // Передбачаємо, що SaleRecord має метод getItemIdStandard() або схожий, який ви могли додати
-                // Або зробимо lookup тут:
-                Integer menuItemId = getMenuItemIdByName(sale.getItemNameStandard());
-                if (menuItemId == null) {
-                    logger.error("Menu item ID not found for standardized name: {}. Skipping sale {}.", sale.getItemNameStandard(), sale.getSaleId());
-                    continue; // Пропускаємо цей продаж, якщо не знайшли товар
+    // Компактні записи розгортаються в SaleRecord лише на час запису: розмір списку (чанку) задає той,
+    // хто викликає, наприклад IngestionPipeline
+    public void insertCompactSales(List<CompactSaleRecord> sales) throws SQLException {
+        insertSales(CompactSaleRecord.toSaleRecords(sales));
+    }
+
+    private int insertSalesBatch(Connection conn, String sql, List<SaleRecord> sales) throws SQLException {
+        String checkpointKey = ChunkedBatchWriter.checkpointKey("sales", sales, sale -> new Object[]{
+                sale.getSaleId(), sale.getDate(), sale.getItemNameStandard(), sale.getQuantity(),
+                sale.getTotalSalePrice(), sale.getTotalProfit(), sale.getPaymentMethod(), sale.getBaristaName()});
+
+        DeadLetterSink deadLetters = this.deadLetters;
+        return batchWriter.write(conn, sql, sales, (pstmt, sale) -> {
+            Integer baristaId = dimensionKeys.getBaristaId(sale.getBaristaName());
+            if (baristaId == null) {
+                LoaderMetrics.UNKNOWN_BARISTA.increment();
+                sampledLogger.error("unknown_barista", "Barista ID not found for name: {}. Skipping sale {}.", sale.getBaristaName(), sale.getSaleId());
+                deadLetters.accept(DeadLetter.of(sale, DeadLetter.STAGE_LOAD, "unknown_barista"));
+                return false;
+            }
+
+            Integer menuItemId = dimensionKeys.getMenuItemId(sale.getItemNameStandard());
+            if (menuItemId == null) {
+                LoaderMetrics.UNKNOWN_MENU_ITEM.increment();
+                sampledLogger.error("unknown_menu_item", "Menu item ID not found for standardized name: {}. Skipping sale {}.", sale.getItemNameStandard(), sale.getSaleId());
+                deadLetters.accept(DeadLetter.of(sale, DeadLetter.STAGE_LOAD, "unknown_menu_item"));
+                return false; // Пропускаємо цей продаж, якщо не знайшли товар
+            }
+
+            pstmt.setInt(1, sale.getSaleId());
+            pstmt.setDate(2, Date.valueOf(sale.getDate())); // Перетворення LocalDate на java.sql.Date
+            pstmt.setInt(3, menuItemId); // item_id з menu_items
+            pstmt.setInt(4, sale.getQuantity());
+            pstmt.setBigDecimal(5, sale.getTotalSalePrice());
+            pstmt.setBigDecimal(6, sale.getTotalProfit()); // Вставляємо розрахований прибуток
+            pstmt.setString(7, sale.getPaymentMethod());
+            pstmt.setInt(8, baristaId); // ID баристи
+            return true;
+        }, SaleRecord::getSaleId, checkpointKey, new ChunkedBatchWriter.ChunkHook<>() {
+            private final LongLongMap depletion = new LongLongMap();
+
+            // Агрегати і списання оновлюються дельтою в транзакції чанку: мінус старі рядки цих sale_id, плюс нові
+            @Override
+            public void beforeBatch(Connection c, List<SaleRecord> rows) throws SQLException {
+                if (rows.isEmpty()) {
+                    return;
                 }
+                Set<Integer> ids = saleIds(rows);
+                salesRollups.subtractExisting(c, ids);
+                depletion.clear();
+                inventoryDepletion.restoreExisting(c, SalesRollups.BY_SALE_ID_ARRAY, ids, depletion);
+                SalesPartitions.deleteMoved(c, rows);
+            }
 
+            // Нові рядки лежать лише в секціях дат чанку
+            @Override
+            public void afterBatch(Connection c, List<SaleRecord> rows) throws SQLException {
+                if (rows.isEmpty()) {
+                    return;
+                }
+                Set<Integer> ids = saleIds(rows);
+                LocalDate from = rows.get(0).getDate();
+                LocalDate to = from;
+                for (SaleRecord sale : rows) {
+                    from = sale.getDate().isBefore(from) ? sale.getDate() : from;
+                    to = sale.getDate().isAfter(to) ? sale.getDate() : to;
+                }
+                salesRollups.addCurrent(c, ids, from, to);
+                inventoryDepletion.consumeCurrent(c, SalesRollups.BY_SALE_ID_ARRAY_IN_RANGE, ids, from, to, depletion);
+                inventoryDepletion.apply(c, depletion);
+            }
+        });
+    }
 
-                pstmt.setInt(1, sale.getSaleId());
-                pstmt.setDate(2, Date.valueOf(sale.getDate())); // Перетворення LocalDate на java.sql.Date
-                pstmt.setInt(3, menuItemId); // item_id з menu_items
-                pstmt.setInt(4, sale.getQuantity());
-                pstmt.setBigDecimal(5, sale.getTotalSalePrice());
-                pstmt.setBigDecimal(6, sale.getTotalProfit()); // Вставляємо розрахований прибуток
-                pstmt.setString(7, sale.getPaymentMethod());
-                pstmt.setInt(8, baristaId); // ID баристи
+    private static Set<Integer> saleIds(List<SaleRecord> sales) {
+        Set<Integer> ids = new HashSet<>(sales.size() * 2);
+        for (SaleRecord sale : sales) {
+            ids.add(sale.getSaleId());
+        }
+        return ids;
+    }
 
-                pstmt.addBatch();
+    // Повний перерахунок агрегатів з sales (якщо sales змінювали в обхід insertSales)
+    public void rebuildSalesRollups() throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                SalesRollups.rebuild(conn);
+                conn.commit();
+                dataChanged();
+            } catch (SQLException e) {
+                conn.rollback();
+                logger.error("Error rebuilding sales rollups: {}", e.getMessage(), e);
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-            int[] insertedRows = pstmt.executeBatch();
-            logger.info("Inserted/updated {} sales records.", insertedRows.length);
+        }
+    }
+
+    // --- sale_id вже завантажених продажів (SaleDeduplicator) ---
+
+    @Override
+    public long countSaleIds() throws SQLException {
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT count(*) FROM sales;")) {
+            return rs.next() ? rs.getLong(1) : 0;
         } catch (SQLException e) {
-            logger.error("Error inserting sales: {}", e.getMessage(), e);
+            logger.error("Error counting sale ids: {}", e.getMessage());
             throw e;
         }
     }
 
-    // --- Допоміжні методи для отримання ID з БД ---
+    // Курсором (fetchSize у транзакції), щоб драйвер не тримав у пам'яті весь результат
+    @Override
+    public void forEachSaleId(IntConsumer consumer) throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.setFetchSize(10_000);
+                try (ResultSet rs = stmt.executeQuery("SELECT sale_id FROM sales;")) {
+                    while (rs.next()) {
+                        consumer.accept(rs.getInt(1));
+                    }
+                }
+                conn.commit();
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("Error reading sale ids: {}", e.getMessage());
+            throw e;
+        }
+    }
 
-    // Отримання мапи імен баристів до їх ID
-    private Map<String, Integer> getBaristaNameToIdMap() throws SQLException {
-        Map<String, Integer> map = new HashMap<>();
-        String sql = "SELECT name, barista_id FROM baristas;";
+    // Один запит на весь набір кандидатів; sale_id - перша колонка PK у кожній секції
+    @Override
+    public int[] findSaleIds(int[] saleIds) throws SQLException {
+        Integer[] ids = new Integer[saleIds.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = saleIds[i];
+        }
         try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                map.put(rs.getString("name"), rs.getInt("barista_id"));
+             PreparedStatement pstmt = conn.prepareStatement("SELECT DISTINCT sale_id FROM sales WHERE sale_id = ANY(?);")) {
+            Array idArray = conn.createArrayOf("integer", ids);
+            pstmt.setArray(1, idArray);
+            int[] found = new int[saleIds.length];
+            int count = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    found[count++] = rs.getInt(1);
+                }
             }
+            idArray.free();
+            return Arrays.copyOf(found, count);
+        } catch (SQLException e) {
+            logger.error("Error looking up sale ids: {}", e.getMessage());
+            throw e;
         }
-        return map;
     }
 
-    // Отримання ID пункту меню за стандартизованою назвою
-    private Integer getMenuItemIdByName(String itemName) throws SQLException {
-        String sql = "SELECT item_id FROM menu_items WHERE name = ?;";
+    // --- Залишки інгредієнтів ---
+
+    // Поточний залишок за назвою інгредієнта (в одиницях складу) з ingredient_stock - без SUM по inventory_logs.
+    // Кешується до наступного завантаження, як і аналітичні запити.
+    public Map<String, BigDecimal> getIngredientStock() throws SQLException {
+        String sql = "SELECT i.name, s.stock FROM ingredient_stock s "
+                + "JOIN ingredients i ON i.ingredient_id = s.ingredient_id "
+                + "ORDER BY i.name;";
+        return queryCache.get(sql, new Object[0], dataVersion.get(), () -> {
+            Map<String, BigDecimal> stock = new LinkedHashMap<>();
+            try (Connection conn = getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    stock.put(rs.getString("name"), rs.getBigDecimal("stock"));
+                }
+            }
+            return Collections.unmodifiableMap(stock);
+        });
+    }
+
+    // --- Стан інкрементального завантаження ---
+
+    // Повертає null, якщо файл ще не завантажувався
+    public IngestionState getIngestionState(String fileKey) throws SQLException {
+        String sql = "SELECT file_size, last_modified_millis, content_sha256, max_sale_id, max_sale_date, rows_loaded, "
+                + "menu_sha256 FROM ingestion_state WHERE file_key = ?;";
         try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, itemName);
+            pstmt.setString(1, fileKey);
             try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("item_id");
+                if (!rs.next()) {
+                    return null;
                 }
+                int maxSaleId = rs.getInt("max_sale_id");
+                Integer maxSaleIdOrNull = rs.wasNull() ? null : maxSaleId;
+                Date maxSaleDate = rs.getDate("max_sale_date");
+                IngestionState state = new IngestionState(fileKey, rs.getLong("file_size"), rs.getLong("last_modified_millis"),
+                        rs.getString("content_sha256"), maxSaleIdOrNull,
+                        maxSaleDate == null ? null : maxSaleDate.toLocalDate(), rs.getLong("rows_loaded"));
+                state.setMenuHash(rs.getString("menu_sha256"));
+                return state;
+            }
+        } catch (SQLException e) {
+            logger.error("Error reading ingestion state for {}: {}", fileKey, e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    // Зберігається після успішного завантаження файлу: якщо процес впаде раніше,
+    // наступний запуск повторить завантаження (upsert-и ідемпотентні)
+    public void saveIngestionState(IngestionState state) throws SQLException {
+        String sql = "INSERT INTO ingestion_state (file_key, file_size, last_modified_millis, content_sha256, "
+                + "max_sale_id, max_sale_date, rows_loaded, menu_sha256, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, now()) "
+                + "ON CONFLICT (file_key) DO UPDATE SET "
+                + "file_size = EXCLUDED.file_size, last_modified_millis = EXCLUDED.last_modified_millis, "
+                + "content_sha256 = EXCLUDED.content_sha256, max_sale_id = EXCLUDED.max_sale_id, "
+                + "max_sale_date = EXCLUDED.max_sale_date, rows_loaded = EXCLUDED.rows_loaded, "
+                + "menu_sha256 = EXCLUDED.menu_sha256, updated_at = EXCLUDED.updated_at;";
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, state.getFileKey());
+            pstmt.setLong(2, state.getFileSize());
+            pstmt.setLong(3, state.getLastModifiedMillis());
+            pstmt.setString(4, state.getContentHash());
+            if (state.getMaxSaleId() != null) {
+                pstmt.setInt(5, state.getMaxSaleId());
+            } else {
+                pstmt.setNull(5, Types.INTEGER);
             }
+            pstmt.setDate(6, state.getMaxSaleDate() == null ? null : Date.valueOf(state.getMaxSaleDate()));
+            pstmt.setLong(7, state.getRowsLoaded());
+            pstmt.setString(8, state.getMenuHash());
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error saving ingestion state for {}: {}", state.getFileKey(), e.getMessage(), e);
+            throw e;
         }
-        return null; // Повернути null, якщо не знайдено
     }
 
+    // --- Аналітичні запити з Java ---
+    // Читають агрегати sales_daily_* замість повного сканування sales
 
-    // --- Приклад аналітичного запиту з Java ---
+    // Результати кешуються (див. queryCache) і повертаються як незмінні Map
     public Map<String, Long> getTopSellingItems(int limit) throws SQLException {
-        Map<String, Long> topItems = new HashMap<>();
-        String sql = "SELECT mi.name, SUM(s.quantity_sold) AS total_sold " +
-                "FROM sales s " +
-                "JOIN menu_items mi ON s.item_id = mi.item_id " +
+        String sql = "SELECT mi.name, SUM(r.quantity) AS total_sold " +
+                "FROM sales_daily_item r " +
+                "JOIN menu_items mi ON r.item_id = mi.item_id " +
                 "GROUP BY mi.name " +
-                "ORDER BY total_sold DESC " +
+                "ORDER BY total_sold DESC, mi.name " +
                 "LIMIT ?;";
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, limit);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    topItems.put(rs.getString("name"), rs.getLong("total_sold"));
+        return queryCache.get(sql, new Object[]{limit}, dataVersion.get(), () -> {
+            Map<String, Long> topItems = new LinkedHashMap<>(); // Зберігаємо порядок ORDER BY
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        topItems.put(rs.getString("name"), rs.getLong("total_sold"));
+                    }
                 }
             }
+            return Collections.unmodifiableMap(topItems);
+        });
+    }
+
+    // Виручка за баристами за період (from/to включно, null - без обмеження), від більшої до меншої
+    public Map<String, BigDecimal> getRevenueByBarista(LocalDate from, LocalDate to) throws SQLException {
+        String sql = "SELECT b.name AS group_key, SUM(r.revenue) AS total " +
+                "FROM sales_daily_barista r " +
+                "JOIN baristas b ON r.barista_id = b.barista_id " +
+                "WHERE " + dateRange("r.sale_date", from, to) + " " +
+                "GROUP BY b.name " +
+                "ORDER BY total DESC, b.name;";
+        return queryRevenueSummary(sql, from, to);
+    }
+
+    public Map<String, BigDecimal> getRevenueByPaymentMethod(LocalDate from, LocalDate to) throws SQLException {
+        String sql = "SELECT r.payment_method AS group_key, SUM(r.revenue) AS total " +
+                "FROM sales_daily_payment r " +
+                "WHERE " + dateRange("r.sale_date", from, to) + " " +
+                "GROUP BY r.payment_method " +
+                "ORDER BY total DESC, r.payment_method;";
+        return queryRevenueSummary(sql, from, to);
+    }
+
+    // Прибуток по днях (ключ - дата yyyy-MM-dd), у хронологічному порядку
+    public Map<String, BigDecimal> getDailyProfit(LocalDate from, LocalDate to) throws SQLException {
+        String sql = "SELECT r.sale_date::text AS group_key, SUM(r.profit) AS total " +
+                "FROM sales_daily_item r " +
+                "WHERE " + dateRange("r.sale_date", from, to) + " " +
+                "GROUP BY r.sale_date " +
+                "ORDER BY r.sale_date;";
+        return queryRevenueSummary(sql, from, to);
+    }
+
+    // Умова лише з заданими межами: "(? IS NULL OR ...)" не дає планувальнику ні діапазону індексу,
+    // ні відсікання секцій, тож кожна комбінація меж - окремий текст запиту
+    private static String dateRange(String column, LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return "TRUE";
+        }
+        if (to == null) {
+            return column + " >= ?";
         }
-        return topItems;
+        return from == null ? column + " <= ?" : column + " BETWEEN ? AND ?";
+    }
+
+    private Map<String, BigDecimal> queryRevenueSummary(String sql, LocalDate from, LocalDate to) throws SQLException {
+        return queryCache.get(sql, new Object[]{from, to}, dataVersion.get(), () -> {
+            Map<String, BigDecimal> totals = new LinkedHashMap<>();
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int index = 1;
+                if (from != null) {
+                    pstmt.setDate(index++, Date.valueOf(from));
+                }
+                if (to != null) {
+                    pstmt.setDate(index, Date.valueOf(to));
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        totals.put(rs.getString("group_key"), rs.getBigDecimal("total"));
+                    }
+                }
+            }
+            return Collections.unmodifiableMap(totals);
+        });
     }
-}
\ No newline at end of file
+}
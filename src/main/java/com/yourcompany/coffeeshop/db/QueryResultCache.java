@@ -0,0 +1,178 @@
+package com.yourcompany.coffeeshop.db;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Кеш результатів аналітичних запитів PostgreSQLManager.
+// Ключ - текст запиту + параметри. Кожен запис пам'ятає версію даних, з якою його прочитано:
+// PostgreSQLManager збільшує версію після кожного коміту завантаження, тож результат стає недійсним
+// саме тоді, коли змінилися дані. Додатково - LRU-обмеження розміру та TTL (на випадок змін в обхід цього процесу).
+// Значення мають бути незмінними: той самий об'єкт віддається всім викликам.
+public class QueryResultCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    // Завантаження значення з БД при промаху
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws SQLException;
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // access-order = LRU
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong(); // Витіснення через ліміт розміру
+    private final AtomicLong expirations = new AtomicLong(); // Записи, старші за TTL
+    private final AtomicLong invalidations = new AtomicLong(); // Записи зі старою версією даних
+
+    public QueryResultCache(int maxEntries, Duration ttl) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    // Повертає закешоване значення для (sql, params) з поточною версією даних або завантажує його.
+    // БД читається поза блокуванням: паралельні промахи по одному ключу можуть завантажити значення двічі,
+    // зате повільний запит не блокує решту кешу.
+    public <V> V get(String sql, Object[] params, long dataVersion, Loader<V> loader) throws SQLException {
+        Key key = new Key(sql, params);
+        long now = System.nanoTime();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.dataVersion != dataVersion) {
+                    entries.remove(key);
+                    invalidations.incrementAndGet();
+                } else if (now - entry.loadedAtNanos > ttlNanos) {
+                    entries.remove(key);
+                    expirations.incrementAndGet();
+                } else {
+                    hits.incrementAndGet();
+                    @SuppressWarnings("unchecked")
+                    V value = (V) entry.value;
+                    return value;
+                }
+            }
+        }
+
+        misses.incrementAndGet();
+        V value = loader.load();
+        synchronized (this) {
+            // Версія, з якою почали читати: якщо за час запиту прийшло завантаження, запис одразу буде недійсним
+            entries.put(key, new Entry(value, dataVersion, now));
+            Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+        return value;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public Stats getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return new Stats(size, hits.get(), misses.get(), evictions.get(), expirations.get(), invalidations.get());
+    }
+
+    public static class Stats {
+        private final int size;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final long invalidations;
+
+        Stats(int size, long hits, long misses, long evictions, long expirations, long invalidations) {
+            this.size = size;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.invalidations = invalidations;
+        }
+
+        public int getSize() { return size; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public long getExpirations() { return expirations; }
+        public long getInvalidations() { return invalidations; }
+
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "QueryCacheStats{" +
+                    "size=" + size +
+                    ", hits=" + hits +
+                    ", misses=" + misses +
+                    ", hitRatio=" + String.format("%.2f", getHitRatio()) +
+                    ", evictions=" + evictions +
+                    ", expirations=" + expirations +
+                    ", invalidations=" + invalidations +
+                    '}';
+        }
+    }
+
+    private static final class Key {
+        private final String sql;
+        private final Object[] params;
+        private final int hash;
+
+        Key(String sql, Object[] params) {
+            this.sql = sql;
+            this.params = params == null ? new Object[0] : params.clone();
+            this.hash = 31 * sql.hashCode() + Arrays.hashCode(this.params);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return hash == other.hash && sql.equals(other.sql) && Arrays.equals(params, other.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        final Object value;
+        final long dataVersion;
+        final long loadedAtNanos;
+
+        Entry(Object value, long dataVersion, long loadedAtNanos) {
+            this.value = value;
+            this.dataVersion = dataVersion;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.yourcompany.coffeeshop.db;
+
+import com.yourcompany.coffeeshop.metrics.SampledLogger;
+import com.yourcompany.coffeeshop.model.DeadLetter;
+import com.yourcompany.coffeeshop.model.DeadLetterSink;
+import com.yourcompany.coffeeshop.model.Money;
+import com.yourcompany.coffeeshop.model.SaleRecord;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+// Масове завантаження продажів через COPY-протокол PostgreSQL (CopyManager).
+// Рядки потоково пишуться у форматі CSV в тимчасову staging-таблицю (без WAL, видима лише цій сесії),
+// після чого один set-based INSERT ... SELECT ... ON CONFLICT переносить їх у sales.
+// Семантика та сама, що й у пакетного шляху: повторний запуск файлу перезаписує рядки за sale_id,
+// а при дублікатах sale_id у межах одного завантаження перемагає останній рядок.
+// Денні агрегати (SalesRollups) і списання інгредієнтів (InventoryDepletion) оновлюються в тій самій транзакції навколо MERGE.
+class SalesCopyLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesCopyLoader.class);
+    private static final SampledLogger sampledLogger = new SampledLogger(logger);
+
+    private static final int FLUSH_THRESHOLD_CHARS = 64 * 1024;
+
+    private final SalesRollups salesRollups = new SalesRollups(SalesRollups.BY_STAGING_TABLE, SalesRollups.BY_STAGING_TABLE_IN_RANGE);
+    private final InventoryDepletion inventoryDepletion;
+
+    SalesCopyLoader(InventoryDepletion inventoryDepletion) {
+        this.inventoryDepletion = inventoryDepletion;
+    }
+
+    private static final String CREATE_STAGING_SQL = "CREATE TEMP TABLE IF NOT EXISTS sales_staging ("
+            + "seq BIGINT NOT NULL," // Порядок рядка у завантаженні - для вибору останнього дубліката
+            + "sale_id INT NOT NULL,"
+            + "sale_date DATE NOT NULL,"
+            + "item_id INT NOT NULL,"
+            + "quantity_sold INT NOT NULL,"
+            + "total_price NUMERIC(10, 2) NOT NULL,"
+            + "profit NUMERIC(10, 2),"
+            + "payment_method VARCHAR(50),"
+            + "barista_id INT NOT NULL"
+            + ") ON COMMIT DELETE ROWS;";
+
+    private static final String COPY_SQL = "COPY sales_staging (seq, sale_id, sale_date, item_id, quantity_sold, "
+            + "total_price, profit, payment_method, barista_id) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MERGE_SQL = "INSERT INTO sales (sale_id, sale_date, item_id, quantity_sold, total_price, profit, payment_method, barista_id) "
+            + "SELECT DISTINCT ON (sale_id) sale_id, sale_date, item_id, quantity_sold, total_price, profit, payment_method, barista_id "
+            + "FROM sales_staging ORDER BY sale_id, seq DESC "
+            + "ON CONFLICT (sale_id, sale_date) DO UPDATE SET " // Продажі зі зміненою датою вже видалені (SalesPartitions)
+            + "item_id = EXCLUDED.item_id, quantity_sold = EXCLUDED.quantity_sold, "
+            + "total_price = EXCLUDED.total_price, profit = EXCLUDED.profit, "
+            + "payment_method = EXCLUDED.payment_method, barista_id = EXCLUDED.barista_id;";
+
+    // Завантажує продажі в одній транзакції. Ключі довідників мають бути вже розв'язані в dimensionKeys.
+    // Пропущені продажі (невідомий бариста чи товар) передаються в deadLetters. Повертає кількість рядків, застосованих до sales.
+    int load(Connection conn, List<SaleRecord> sales, DimensionKeyCache dimensionKeys, DeadLetterSink deadLetters) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(CREATE_STAGING_SQL);
+            }
+
+            long copied = copyToStaging(conn, sales, dimensionKeys, deadLetters);
+
+            int merged;
+            salesRollups.subtractExisting(conn, null);
+            LongLongMap depletion = new LongLongMap();
+            inventoryDepletion.restoreExisting(conn, SalesRollups.BY_STAGING_TABLE, null, depletion);
+            long mergeStart = System.nanoTime();
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate(SalesPartitions.DELETE_MOVED_FROM_STAGING_SQL);
+                merged = stmt.executeUpdate(MERGE_SQL);
+            }
+            LoaderMetrics.MERGE_EXECUTE.recordSince(mergeStart);
+            salesRollups.addCurrent(conn, null, null, null);
+            inventoryDepletion.consumeCurrent(conn, SalesRollups.BY_STAGING_TABLE_IN_RANGE, null, null, null, depletion);
+            inventoryDepletion.apply(conn, depletion);
+            conn.commit();
+            logger.debug("COPY staged {} rows, merged {} into sales.", copied, merged);
+            return merged;
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private long copyToStaging(Connection conn, List<SaleRecord> sales, DimensionKeyCache dimensionKeys,
+                               DeadLetterSink deadLetters) throws SQLException {
+        long copyStart = System.nanoTime();
+        CopyIn copyIn = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        try {
+            StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD_CHARS + 256);
+            long seq = 0;
+            for (SaleRecord sale : sales) {
+                Integer baristaId = dimensionKeys.getBaristaId(sale.getBaristaName());
+                if (baristaId == null) {
+                    LoaderMetrics.UNKNOWN_BARISTA.increment();
+                    sampledLogger.error("unknown_barista", "Barista ID not found for name: {}. Skipping sale {}.", sale.getBaristaName(), sale.getSaleId());
+                    deadLetters.accept(DeadLetter.of(sale, DeadLetter.STAGE_LOAD, "unknown_barista"));
+                    continue;
+                }
+                Integer menuItemId = dimensionKeys.getMenuItemId(sale.getItemNameStandard());
+                if (menuItemId == null) {
+                    LoaderMetrics.UNKNOWN_MENU_ITEM.increment();
+                    sampledLogger.error("unknown_menu_item", "Menu item ID not found for standardized name: {}. Skipping sale {}.", sale.getItemNameStandard(), sale.getSaleId());
+                    deadLetters.accept(DeadLetter.of(sale, DeadLetter.STAGE_LOAD, "unknown_menu_item"));
+                    continue;
+                }
+
+                buffer.append(seq++).append(',')
+                        .append(sale.getSaleId()).append(',')
+                        .append(sale.getDate()).append(',') // LocalDate.toString() = yyyy-MM-dd
+                        .append(menuItemId).append(',')
+                        .append(sale.getQuantity()).append(',');
+                // Копійки пишуться напряму; BigDecimal потрібен лише для значень поза scale 2
+                if (sale.getTotalSalePriceCents() != Money.NONE) {
+                    Money.appendTo(buffer, sale.getTotalSalePriceCents()).append(',');
+                } else {
+                    appendDecimal(buffer, sale.getTotalSalePrice()).append(',');
+                }
+                if (sale.getTotalProfitCents() != Money.NONE) {
+                    Money.appendTo(buffer, sale.getTotalProfitCents()).append(',');
+                } else {
+                    appendDecimal(buffer, sale.getTotalProfit()).append(',');
+                }
+                appendText(buffer, sale.getPaymentMethod()).append(',')
+                        .append(baristaId).append('\n');
+
+                if (buffer.length() >= FLUSH_THRESHOLD_CHARS) {
+                    flush(copyIn, buffer);
+                }
+            }
+            flush(copyIn, buffer);
+            long copied = copyIn.endCopy();
+            LoaderMetrics.COPY_EXECUTE.recordSince(copyStart);
+            LoaderMetrics.COPY_ROWS.record(copied);
+            return copied;
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private static void flush(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.length() == 0) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    // NULL у CSV-форматі COPY - порожнє значення без лапок
+    private static StringBuilder appendDecimal(StringBuilder buffer, BigDecimal value) {
+        return value == null ? buffer : buffer.append(value.toPlainString());
+    }
+
+    private static StringBuilder appendText(StringBuilder buffer, String value) {
+        if (value == null) {
+            return buffer;
+        }
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                buffer.append('"'); // Лапки всередині значення подвоюються
+            }
+            buffer.append(c);
+        }
+        return buffer.append('"');
+    }
+}
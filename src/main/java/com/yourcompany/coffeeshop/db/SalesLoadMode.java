@@ -0,0 +1,7 @@
+package com.yourcompany.coffeeshop.db;
+
+// Спосіб запису продажів у таблицю sales
+public enum SalesLoadMode {
+    BATCH, // JDBC addBatch/executeBatch з INSERT ... ON CONFLICT
+    COPY   // COPY у тимчасову staging-таблицю + один INSERT ... SELECT ... ON CONFLICT
+}
@@ -0,0 +1,225 @@
+package com.yourcompany.coffeeshop.db;
+
+import com.yourcompany.coffeeshop.model.SaleRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Таблиця sales секціонована за місяцями (PARTITION BY RANGE (sale_date)): секція sales_yYYYYmMM на кожен
+// календарний місяць. Запити з умовою на sale_date читають лише секції потрібних місяців (partition pruning),
+// а індекси кожної секції малі. Секції створюються наперед на MONTHS_AHEAD місяців і на вимогу перед
+// записом продажів за місяць, якого ще немає (наприклад, історичні файли). Секції за замовчуванням немає:
+// вона заважала б потім створити секцію місяця, рядки якого вже лежать у ній.
+// Ключ секціонованої таблиці мусить містити sale_date, тож PRIMARY KEY - (sale_id, sale_date), а унікальність
+// sale_id підтримують завантажувачі: перед upsert рядок, чия дата змінилася, видаляється зі старої секції (deleteMoved).
+class SalesPartitions {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesPartitions.class);
+
+    static final int MONTHS_AHEAD = 3;
+
+    private static final String CREATE_PARENT_SQL = "CREATE TABLE IF NOT EXISTS sales ("
+            + "sale_id INT NOT NULL," // Зверніть увагу, що sale_id вже є в даних, тому не SERIAL
+            + "sale_date DATE NOT NULL,"
+            + "item_id INT REFERENCES menu_items(item_id),"
+            + "quantity_sold INT NOT NULL,"
+            + "total_price NUMERIC(10, 2) NOT NULL,"
+            + "profit NUMERIC(10, 2),"
+            + "payment_method VARCHAR(50),"
+            + "barista_id INT REFERENCES baristas(barista_id),"
+            + "PRIMARY KEY (sale_id, sale_date)" // Індекс PK покриває й пошук за sale_id
+            + ") PARTITION BY RANGE (sale_date);";
+
+    // Індекси на батьківській таблиці створюються і в кожній секції, зокрема в майбутніх
+    private static final String[] CREATE_INDEXES_SQL = {
+            "CREATE INDEX IF NOT EXISTS sales_sale_date_idx ON sales (sale_date);",
+            "CREATE INDEX IF NOT EXISTS sales_item_id_idx ON sales (item_id, sale_date);",
+            "CREATE INDEX IF NOT EXISTS sales_barista_id_idx ON sales (barista_id, sale_date);"
+    };
+
+    private static final String COLUMNS = "sale_id, sale_date, item_id, quantity_sold, total_price, profit, payment_method, barista_id";
+
+    // Продаж, що прийшов з іншою датою, лежить в іншій секції, і ON CONFLICT (sale_id, sale_date) його не побачить
+    private static final String DELETE_MOVED_SQL = "DELETE FROM sales s USING unnest(?::int[], ?::date[]) AS n(sale_id, sale_date) "
+            + "WHERE s.sale_id = n.sale_id AND s.sale_date <> n.sale_date;";
+    static final String DELETE_MOVED_FROM_STAGING_SQL = "DELETE FROM sales s USING ("
+            + "SELECT DISTINCT ON (sale_id) sale_id, sale_date FROM sales_staging ORDER BY sale_id, seq DESC) n "
+            + "WHERE s.sale_id = n.sale_id AND s.sale_date <> n.sale_date;";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("sales_y(\\d{4})m(\\d{2})");
+
+    // Місяці, секції яких точно існують (секції не видаляються, тож кеш не застаріває)
+    private final Set<YearMonth> knownMonths = ConcurrentHashMap.newKeySet();
+
+    // Створює секціоновану sales з індексами або переносить у неї звичайну таблицю зі старих версій,
+    // плюс секції на MONTHS_AHEAD місяців уперед
+    void ensureSchema(Connection conn) throws SQLException {
+        String relkind;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT relkind FROM pg_class WHERE oid = to_regclass('sales');")) {
+            relkind = rs.next() ? rs.getString(1) : null;
+        }
+        if ("r".equals(relkind)) {
+            migrate(conn);
+        } else {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(CREATE_PARENT_SQL);
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            for (String createIndexSQL : CREATE_INDEXES_SQL) {
+                stmt.execute(createIndexSQL);
+            }
+        }
+        knownMonths.clear();
+        knownMonths.addAll(existingMonths(conn));
+        ensureMonths(conn, upcomingMonths());
+    }
+
+    // Секції для всіх місяців продажів (і на MONTHS_AHEAD місяців уперед) - до транзакції запису
+    void ensureFor(Connection conn, List<SaleRecord> sales) throws SQLException {
+        Set<YearMonth> months = upcomingMonths();
+        int lastKey = Integer.MIN_VALUE;
+        for (SaleRecord sale : sales) {
+            LocalDate date = sale.getDate();
+            if (date == null) {
+                continue;
+            }
+            int key = date.getYear() * 12 + date.getMonthValue(); // Файли зазвичай впорядковані за датою
+            if (key != lastKey) {
+                months.add(YearMonth.from(date));
+                lastKey = key;
+            }
+        }
+        ensureMonths(conn, months);
+    }
+
+    // Видаляє рядки, чиї sale_id записуються з іншою датою (у транзакції чанку, до executeBatch)
+    static void deleteMoved(Connection conn, List<SaleRecord> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Integer[] ids = new Integer[rows.size()];
+        Date[] dates = new Date[rows.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = rows.get(i).getSaleId();
+            dates[i] = Date.valueOf(rows.get(i).getDate());
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(DELETE_MOVED_SQL)) {
+            Array idArray = conn.createArrayOf("integer", ids);
+            Array dateArray = conn.createArrayOf("date", dates);
+            pstmt.setArray(1, idArray);
+            pstmt.setArray(2, dateArray);
+            pstmt.executeUpdate();
+            idArray.free();
+            dateArray.free();
+        }
+    }
+
+    private synchronized void ensureMonths(Connection conn, Set<YearMonth> months) throws SQLException {
+        for (YearMonth month : months) {
+            if (knownMonths.contains(month)) {
+                continue;
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(createPartitionSql(month));
+            } catch (SQLException e) {
+                // Секцію міг щойно створити інший процес (IF NOT EXISTS не захищає від гонки)
+                if (!"42P07".equals(e.getSQLState()) && !"23505".equals(e.getSQLState())) {
+                    logger.error("Error creating sales partition for {}: {}", month, e.getMessage());
+                    throw e;
+                }
+            }
+            knownMonths.add(month);
+            logger.debug("Sales partition {} is ready.", partitionName(month));
+        }
+    }
+
+    private static Set<YearMonth> upcomingMonths() {
+        Set<YearMonth> months = new TreeSet<>();
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= MONTHS_AHEAD; i++) {
+            months.add(current.plusMonths(i));
+        }
+        return months;
+    }
+
+    private static Set<YearMonth> existingMonths(Connection conn) throws SQLException {
+        String sql = "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = to_regclass('sales');";
+        Set<YearMonth> months = new TreeSet<>();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                Matcher matcher = PARTITION_NAME.matcher(rs.getString(1));
+                if (matcher.matches()) {
+                    months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+                }
+            }
+        }
+        return months;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("sales_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private static String createPartitionSql(YearMonth month) {
+        return "CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF sales "
+                + "FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "');";
+    }
+
+    // --- Перенесення звичайної таблиці sales ---
+
+    // Одна транзакція: стара таблиця перейменовується, створюється секціонована з секціями для всіх місяців
+    // наявних продажів, рядки копіюються, стара таблиця видаляється. Агрегати і списання не змінюються -
+    // рядки ті самі.
+    private void migrate(Connection conn) throws SQLException {
+        logger.info("Migrating sales to a table partitioned by month...");
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("LOCK TABLE sales IN ACCESS EXCLUSIVE MODE;");
+            stmt.execute("ALTER TABLE sales RENAME TO sales_unpartitioned;");
+            stmt.execute("ALTER INDEX IF EXISTS sales_pkey RENAME TO sales_unpartitioned_pkey;"); // Ім'я потрібне новому PK
+            stmt.execute(CREATE_PARENT_SQL);
+
+            Set<YearMonth> months = new TreeSet<>();
+            try (ResultSet rs = stmt.executeQuery("SELECT min(sale_date), max(sale_date) FROM sales_unpartitioned;")) {
+                if (rs.next() && rs.getDate(1) != null) {
+                    YearMonth last = YearMonth.from(rs.getDate(2).toLocalDate());
+                    for (YearMonth month = YearMonth.from(rs.getDate(1).toLocalDate()); !month.isAfter(last); month = month.plusMonths(1)) {
+                        months.add(month);
+                    }
+                }
+            }
+            for (YearMonth month : months) {
+                stmt.execute(createPartitionSql(month));
+            }
+            int copied = stmt.executeUpdate("INSERT INTO sales (" + COLUMNS + ") SELECT " + COLUMNS + " FROM sales_unpartitioned;");
+            stmt.execute("DROP TABLE sales_unpartitioned;");
+            conn.commit();
+            logger.info("Migrated {} sales rows into {} monthly partitions.", copied, months.size());
+        } catch (SQLException e) {
+            conn.rollback();
+            logger.error("Error migrating sales to a partitioned table: {}", e.getMessage(), e);
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.yourcompany.coffeeshop.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Collection;
+
+// Інкрементальні агрегати продажів по днях: за товаром, баристою та способом оплати
+// (кількість, виручка, прибуток, кількість продажів). Оновлюються дельтою в тій самій транзакції,
+// що й запис у sales: спершу віднімаються поточні рядки sales з цими sale_id (щоб перезапис через
+// ON CONFLICT не рахувався двічі), потім після upsert додаються нові. Запити top-N та підсумків читають
+// лише ці таблиці, тож їхня вартість залежить від кількості днів × товарів, а не від кількості продажів.
+class SalesRollups {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollups.class);
+
+    static final String[] CREATE_TABLES_SQL = {
+            "CREATE TABLE IF NOT EXISTS sales_daily_item ("
+                    + "sale_date DATE NOT NULL,"
+                    + "item_id INT NOT NULL,"
+                    + "quantity BIGINT NOT NULL,"
+                    + "revenue NUMERIC(14, 2) NOT NULL,"
+                    + "profit NUMERIC(14, 2) NOT NULL,"
+                    + "sales_count BIGINT NOT NULL,"
+                    + "PRIMARY KEY (sale_date, item_id)"
+                    + ");",
+            "CREATE TABLE IF NOT EXISTS sales_daily_barista ("
+                    + "sale_date DATE NOT NULL,"
+                    + "barista_id INT NOT NULL,"
+                    + "quantity BIGINT NOT NULL,"
+                    + "revenue NUMERIC(14, 2) NOT NULL,"
+                    + "profit NUMERIC(14, 2) NOT NULL,"
+                    + "sales_count BIGINT NOT NULL,"
+                    + "PRIMARY KEY (sale_date, barista_id)"
+                    + ");",
+            "CREATE TABLE IF NOT EXISTS sales_daily_payment ("
+                    + "sale_date DATE NOT NULL,"
+                    + "payment_method VARCHAR(50) NOT NULL," // NULL у sales зберігається як ''
+                    + "quantity BIGINT NOT NULL,"
+                    + "revenue NUMERIC(14, 2) NOT NULL,"
+                    + "profit NUMERIC(14, 2) NOT NULL,"
+                    + "sales_count BIGINT NOT NULL,"
+                    + "PRIMARY KEY (sale_date, payment_method)"
+                    + ");",
+            // Часткові індекси лише для порожніх груп: CLEANUP_SQL після кожного чанку читає ці кілька рядків,
+            // а не всю таблицю, що росте з кількістю днів × ключів
+            "CREATE INDEX IF NOT EXISTS sales_daily_item_empty_idx ON sales_daily_item (sale_date) WHERE sales_count = 0;",
+            "CREATE INDEX IF NOT EXISTS sales_daily_barista_empty_idx ON sales_daily_barista (sale_date) WHERE sales_count = 0;",
+            "CREATE INDEX IF NOT EXISTS sales_daily_payment_empty_idx ON sales_daily_payment (sale_date) WHERE sales_count = 0;"
+    };
+
+    // Вибір рядків sales, яких стосується завантаження. Старі рядки можуть лежати в будь-якій секції
+    // (дату продажу могли змінити), а нові - лише в місяцях дат завантаження, тож для них додається
+    // діапазон sale_date і PostgreSQL читає тільки ці секції.
+    static final String BY_SALE_ID_ARRAY = "sale_id = ANY(?)";
+    static final String BY_SALE_ID_ARRAY_IN_RANGE = BY_SALE_ID_ARRAY + " AND sale_date BETWEEN ? AND ?";
+    static final String BY_STAGING_TABLE = "sale_id IN (SELECT sale_id FROM sales_staging)";
+    static final String BY_STAGING_TABLE_IN_RANGE = BY_STAGING_TABLE
+            + " AND sale_date BETWEEN (SELECT min(sale_date) FROM sales_staging) AND (SELECT max(sale_date) FROM sales_staging)";
+
+    // Рядки sales, яких стосується завантаження: %1$s - умова WHERE, %2$s - ім'я CTE
+    private static final String SALES_ROWS_CTE = "%2$s AS MATERIALIZED ("
+            + "SELECT sale_date, item_id, barista_id, COALESCE(payment_method, '') AS payment_method, "
+            + "quantity_sold, total_price, COALESCE(profit, 0) AS profit FROM sales WHERE %1$s)";
+
+    private static final String SUMS = "SUM(quantity_sold) AS quantity, SUM(total_price) AS revenue, "
+            + "SUM(profit) AS profit, COUNT(*) AS sales_count";
+
+    private static final String SUBTRACT_SQL_TEMPLATE = "WITH " + SALES_ROWS_CTE + ", "
+            + subtract("sales_daily_item", "item_id") + ", "
+            + subtract("sales_daily_barista", "barista_id") + " "
+            + subtractStatement("sales_daily_payment", "payment_method");
+
+    private static final String ADD_SQL_TEMPLATE = "WITH " + SALES_ROWS_CTE + ", "
+            + "item_add AS (" + add("sales_daily_item", "item_id") + "), "
+            + "barista_add AS (" + add("sales_daily_barista", "barista_id") + ") "
+            + add("sales_daily_payment", "payment_method");
+
+    // Групи, в яких не лишилося продажів (наприклад, продаж перенесли на іншу дату); читаються через *_empty_idx
+    private static final String CLEANUP_SQL = "WITH item_cleanup AS (DELETE FROM sales_daily_item WHERE sales_count = 0), "
+            + "barista_cleanup AS (DELETE FROM sales_daily_barista WHERE sales_count = 0) "
+            + "DELETE FROM sales_daily_payment WHERE sales_count = 0;";
+
+    private final String subtractSql;
+    private final String addSql;
+
+    // oldRowsPredicate / newRowsPredicate - BY_SALE_ID_ARRAY / BY_SALE_ID_ARRAY_IN_RANGE (saleIds у методах - масив sale_id,
+    // from і to - межі дат завантаження) або BY_STAGING_TABLE / BY_STAGING_TABLE_IN_RANGE (усі параметри null)
+    SalesRollups(String oldRowsPredicate, String newRowsPredicate) {
+        // FOR UPDATE: паралельне завантаження тих самих sale_id чекає, доки ця транзакція не додасть нові значення
+        this.subtractSql = String.format(SUBTRACT_SQL_TEMPLATE, oldRowsPredicate + " FOR UPDATE", "old_rows");
+        this.addSql = String.format(ADD_SQL_TEMPLATE, newRowsPredicate, "new_rows");
+    }
+
+    // Викликається до запису в sales: віднімає рядки, які будуть перезаписані
+    void subtractExisting(Connection conn, Collection<Integer> saleIds) throws SQLException {
+        execute(conn, subtractSql, saleIds, null, null);
+    }
+
+    // Викликається після запису в sales: додає актуальні рядки
+    void addCurrent(Connection conn, Collection<Integer> saleIds, LocalDate from, LocalDate to) throws SQLException {
+        execute(conn, addSql, saleIds, from, to);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(CLEANUP_SQL);
+        }
+    }
+
+    private static void execute(Connection conn, String sql, Collection<Integer> saleIds,
+                                LocalDate from, LocalDate to) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            Array idArray = bindSelection(conn, pstmt, saleIds, from, to);
+            pstmt.executeUpdate();
+            if (idArray != null) {
+                idArray.free();
+            }
+        }
+    }
+
+    // Параметри умов BY_*: масив sale_id, потім межі дат (якщо задані). Повертає масив, який треба звільнити.
+    static Array bindSelection(Connection conn, PreparedStatement pstmt, Collection<Integer> saleIds,
+                               LocalDate from, LocalDate to) throws SQLException {
+        if (saleIds == null) {
+            return null;
+        }
+        Array idArray = conn.createArrayOf("integer", saleIds.toArray());
+        pstmt.setArray(1, idArray);
+        if (from != null) {
+            pstmt.setDate(2, Date.valueOf(from));
+            pstmt.setDate(3, Date.valueOf(to));
+        }
+        return idArray;
+    }
+
+    // Повний перерахунок з sales (при першому створенні таблиць або для відновлення)
+    static void rebuild(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("TRUNCATE sales_daily_item, sales_daily_barista, sales_daily_payment;");
+            stmt.executeUpdate(String.format(ADD_SQL_TEMPLATE, "TRUE", "new_rows"));
+        }
+        logger.info("Sales rollups rebuilt from the sales table.");
+    }
+
+    // true, якщо sales містить дані, а агрегатів ще немає (таблиці щойно створені)
+    static boolean needsBackfill(Connection conn) throws SQLException {
+        String sql = "SELECT EXISTS (SELECT 1 FROM sales) AND NOT EXISTS (SELECT 1 FROM sales_daily_item);";
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    // --- Побудова SQL ---
+
+    private static String subtract(String table, String key) {
+        return table + "_subtract AS (" + subtractStatement(table, key) + ")";
+    }
+
+    private static String subtractStatement(String table, String key) {
+        return "UPDATE " + table + " r SET quantity = r.quantity - d.quantity, revenue = r.revenue - d.revenue, "
+                + "profit = r.profit - d.profit, sales_count = r.sales_count - d.sales_count "
+                + "FROM (SELECT sale_date, " + key + ", " + SUMS + " FROM old_rows WHERE " + key + " IS NOT NULL "
+                + "GROUP BY sale_date, " + key + ") d "
+                + "WHERE r.sale_date = d.sale_date AND r." + key + " = d." + key;
+    }
+
+    private static String add(String table, String key) {
+        return "INSERT INTO " + table + " (sale_date, " + key + ", quantity, revenue, profit, sales_count) "
+                + "SELECT sale_date, " + key + ", " + SUMS + " FROM new_rows WHERE " + key + " IS NOT NULL "
+                + "GROUP BY sale_date, " + key + " "
+                + "ON CONFLICT (sale_date, " + key + ") DO UPDATE SET "
+                + "quantity = " + table + ".quantity + EXCLUDED.quantity, revenue = " + table + ".revenue + EXCLUDED.revenue, "
+                + "profit = " + table + ".profit + EXCLUDED.profit, sales_count = " + table + ".sales_count + EXCLUDED.sales_count";
+    }
+}
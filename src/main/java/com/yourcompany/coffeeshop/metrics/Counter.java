@@ -0,0 +1,15 @@
+package com.yourcompany.coffeeshop.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Лічильник, що лише зростає. LongAdder: інкременти з багатьох потоків не конкурують за одну комірку.
+public final class Counter {
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() { value.increment(); }
+    public void add(long delta) { value.add(delta); }
+    public long get() { return value.sum(); }
+}
@@ -0,0 +1,55 @@
+package com.yourcompany.coffeeshop.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Розподіл невід'ємних значень (розміри пакетів, затримки). Значення розкладаються по кошиках-степенях двійки,
+// тож запис - кілька атомарних операцій без блокувань і без пам'яті на кожне значення,
+// а перцентилі наближені з точністю до кошика (не більше ніж удвічі).
+public class Histogram {
+    private static final int BUCKETS = 65; // Кошик i: значення з i значущими бітами (0, 1, 2..3, 4..7, ...)
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    Histogram() {
+    }
+
+    public void record(long value) {
+        long v = Math.max(0, value);
+        buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(v));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    public long getCount() { return count.sum(); }
+    public long getSum() { return sum.sum(); }
+    public long getMax() { return max.get(); }
+
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) getSum() / n;
+    }
+
+    // Верхня межа кошика, в який потрапляє перцентиль (0 < percentile <= 1), але не більше за максимум
+    public long getPercentile(double percentile) {
+        long n = getCount();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * n);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                long upper = i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+                return Math.min(upper, getMax());
+            }
+        }
+        return getMax();
+    }
+}
@@ -0,0 +1,175 @@
+package com.yourcompany.coffeeshop.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Реєстр метрик усього процесу: лічильники, таймери та гістограми за іменем і (необов'язково) однією міткою,
+// наприклад counter("reader_parse_errors", "column", "date"). Метрика створюється при першому зверненні;
+// у гарячих місцях її варто тримати в полі, а не шукати в реєстрі на кожен запис.
+// Назовні метрики видно через JMX (registerMBean), HTTP (MetricsHttpServer) і render() для логу.
+public final class Metrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(Metrics.class);
+
+    public static final String JMX_NAME = "com.yourcompany.coffeeshop:type=Metrics";
+
+    private static final Map<String, Entry> registry = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static Counter counter(String name) {
+        return counter(name, null, null);
+    }
+
+    public static Counter counter(String name, String label, String labelValue) {
+        return get(name, label, labelValue, Counter.class, Counter::new);
+    }
+
+    public static Timer timer(String name) {
+        return timer(name, null, null);
+    }
+
+    public static Timer timer(String name, String label, String labelValue) {
+        return get(name, label, labelValue, Timer.class, Timer::new);
+    }
+
+    public static Histogram histogram(String name) {
+        return histogram(name, null, null);
+    }
+
+    public static Histogram histogram(String name, String label, String labelValue) {
+        return get(name, label, labelValue, Histogram.class, Histogram::new);
+    }
+
+    private static <T> T get(String name, String label, String labelValue, Class<T> type, Supplier<T> factory) {
+        String key = label == null ? name : name + '\u0000' + label + '\u0000' + labelValue;
+        Entry entry = registry.get(key);
+        if (entry == null) {
+            entry = registry.computeIfAbsent(key, k -> new Entry(name, label, labelValue, factory.get()));
+        }
+        if (entry.metric.getClass() != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as "
+                    + entry.metric.getClass().getSimpleName());
+        }
+        return type.cast(entry.metric);
+    }
+
+    // --- Експорт ---
+
+    // Текстовий формат, сумісний з Prometheus: рядок "назва{мітка="значення"} число" на кожне значення.
+    // Таймери - у секундах; для гістограм і таймерів - _count, _sum, _max і наближені перцентилі.
+    public static String render() {
+        StringBuilder out = new StringBuilder();
+        for (Entry entry : sortedEntries()) {
+            if (entry.metric instanceof Counter) {
+                line(out, entry.name, entry.labels(null), ((Counter) entry.metric).get());
+            } else {
+                Histogram histogram = (Histogram) entry.metric;
+                boolean timer = histogram instanceof Timer;
+                String name = timer ? entry.name + "_seconds" : entry.name;
+                line(out, name + "_count", entry.labels(null), histogram.getCount());
+                line(out, name + "_sum", entry.labels(null), value(histogram.getSum(), timer));
+                line(out, name + "_max", entry.labels(null), value(histogram.getMax(), timer));
+                for (double quantile : new double[]{0.5, 0.9, 0.99}) {
+                    line(out, name, entry.labels("quantile=\"" + quantile + "\""),
+                            value(histogram.getPercentile(quantile), timer));
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    // Плоский знімок для JMX: "назва{мітка}" -> число; для гістограм - атрибути .count/.mean/.p50/.p99/.max
+    static Map<String, Number> flatten() {
+        Map<String, Number> values = new LinkedHashMap<>();
+        for (Entry entry : sortedEntries()) {
+            String key = entry.name + entry.labels(null);
+            if (entry.metric instanceof Counter) {
+                values.put(key, ((Counter) entry.metric).get());
+            } else {
+                Histogram histogram = (Histogram) entry.metric;
+                boolean timer = histogram instanceof Timer;
+                String suffix = timer ? ".ms" : "";
+                values.put(key + ".count", histogram.getCount());
+                values.put(key + ".mean" + suffix, timer ? histogram.getMean() / 1e6 : histogram.getMean());
+                values.put(key + ".p50" + suffix, millisOrValue(histogram.getPercentile(0.5), timer));
+                values.put(key + ".p99" + suffix, millisOrValue(histogram.getPercentile(0.99), timer));
+                values.put(key + ".max" + suffix, millisOrValue(histogram.getMax(), timer));
+            }
+        }
+        return values;
+    }
+
+    // Реєструє MBean JMX_NAME у платформному MBeanServer (jconsole / VisualVM). Повторний виклик нічого не робить.
+    public static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(JMX_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MetricsMBean(), name);
+            }
+        } catch (JMException e) {
+            logger.warn("Could not register metrics MBean: {}", e.getMessage());
+        }
+    }
+
+    private static List<Entry> sortedEntries() {
+        List<Entry> entries = new ArrayList<>(registry.values());
+        entries.sort(Comparator.comparing((Entry e) -> e.name)
+                .thenComparing(e -> e.labelValue == null ? "" : e.labelValue));
+        return entries;
+    }
+
+    private static void line(StringBuilder out, String name, String labels, Object value) {
+        out.append(name).append(labels).append(' ').append(value).append('\n');
+    }
+
+    private static Object value(long value, boolean nanos) {
+        return nanos ? String.format(Locale.ROOT, "%.6f", value / 1e9) : value;
+    }
+
+    private static Number millisOrValue(long value, boolean nanos) {
+        return nanos ? value / 1e6 : value;
+    }
+
+    private static final class Entry {
+        private final String name;
+        private final String label;
+        private final String labelValue;
+        private final Object metric;
+
+        Entry(String name, String label, String labelValue, Object metric) {
+            this.name = name;
+            this.label = label;
+            this.labelValue = labelValue;
+            this.metric = metric;
+        }
+
+        // {мітка="значення",extra} або порожній рядок
+        String labels(String extra) {
+            if (label == null) {
+                return extra == null ? "" : "{" + extra + "}";
+            }
+            String own = label + "=\"" + escape(labelValue) + "\"";
+            return "{" + own + (extra == null ? "" : "," + extra) + "}";
+        }
+
+        private static String escape(String value) {
+            return String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.yourcompany.coffeeshop.metrics;
+
+import org.slf4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Логування повідомлень про окремі записи з вибіркою: для кожного ключа (наприклад, "invalid_quantity")
+// пишуться перші burst повідомлень, далі - лише кожне every-те. Точну кількість дають лічильники Metrics,
+// тож великий файл з тисячами поганих рядків не сповільнюється логуванням.
+public final class SampledLogger {
+
+    public static final int DEFAULT_BURST = 10;
+    public static final int DEFAULT_EVERY = 1_000;
+
+    private final Logger logger;
+    private final int burst;
+    private final int every;
+    private final Map<String, AtomicLong> occurrences = new ConcurrentHashMap<>();
+
+    public SampledLogger(Logger logger) {
+        this(logger, DEFAULT_BURST, DEFAULT_EVERY);
+    }
+
+    public SampledLogger(Logger logger, int burst, int every) {
+        if (burst < 0 || every <= 0) {
+            throw new IllegalArgumentException("burst must be non-negative and every positive");
+        }
+        this.logger = logger;
+        this.burst = burst;
+        this.every = every;
+    }
+
+    public void warn(String key, String format, Object... arguments) {
+        if (logger.isWarnEnabled()) {
+            String sampled = sample(key, format);
+            if (sampled != null) {
+                logger.warn(sampled, arguments);
+            }
+        }
+    }
+
+    public void error(String key, String format, Object... arguments) {
+        if (logger.isErrorEnabled()) {
+            String sampled = sample(key, format);
+            if (sampled != null) {
+                logger.error(sampled, arguments);
+            }
+        }
+    }
+
+    // Формат повідомлення, якщо цю появу ключа треба записати, інакше null
+    private String sample(String key, String format) {
+        long n = occurrences.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        if (n < burst) {
+            return format;
+        }
+        if (n == burst) {
+            return format + " (further '" + key + "' messages are sampled 1 in " + every + ")";
+        }
+        return n % every == 0 ? format + " (" + n + " '" + key + "' messages so far)" : null;
+    }
+}
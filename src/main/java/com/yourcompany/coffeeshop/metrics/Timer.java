@@ -0,0 +1,13 @@
+package com.yourcompany.coffeeshop.metrics;
+
+// Гістограма тривалостей у наносекундах. Типовий запис:
+//   long start = System.nanoTime(); ...; timer.recordSince(start);
+public final class Timer extends Histogram {
+
+    Timer() {
+    }
+
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+}
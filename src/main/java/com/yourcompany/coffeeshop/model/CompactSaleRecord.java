@@ -0,0 +1,152 @@
+package com.yourcompany.coffeeshop.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Компактна незмінна форма SaleRecord для продажів, які довго лежать у пам'яті (черги конвеєра, буфери чанків):
+// спосіб оплати і бариста - коди з SaleSymbols, назви товарів і джерело - посилання на спільні екземпляри
+// (з compressed oops посилання займає ті самі 4 байти, що й код), дата - номер дня (epoch day),
+// гроші - копійки зі scale, упакованими в один int. Близько 90 байт проти кількох сотень у SaleRecord
+// з власними рядками, LocalDate і BigDecimal. Значення, що не вміщуються в копійки, зберігаються як BigDecimal в окремому масиві,
+// який створюється лише для таких записів.
+// Перетворення в обидва боки без втрат, крім matchConfidence (float замість double - вистачає для порівнянь).
+public final class CompactSaleRecord {
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    // Номери грошових полів: байт у scales і позиція в exact
+    private static final int PRICE_PER_ITEM = 0;
+    private static final int TOTAL_SALE_PRICE = 1;
+    private static final int PROFIT_PER_ITEM = 2;
+    private static final int TOTAL_PROFIT = 3;
+
+    private int saleId;
+    private int epochDay;
+    private int quantity;
+    private String itemNameRaw; // Спільні екземпляри від читача і DataProcessor
+    private String itemNameStandard;
+    private int paymentMethod; // Коди SaleSymbols (SymbolTable.NONE - null)
+    private int baristaName;
+    private String source;
+    private float matchConfidence;
+    private long pricePerItemCents;
+    private long totalSalePriceCents;
+    private long profitPerItemCents;
+    private long totalProfitCents;
+    private int scales; // Scale кожного грошового поля - по байту
+    private BigDecimal[] exact; // null, якщо всі грошові поля в копійках
+
+    private CompactSaleRecord() {
+    }
+
+    public static CompactSaleRecord of(SaleRecord sale) {
+        CompactSaleRecord compact = new CompactSaleRecord();
+        compact.saleId = sale.getSaleId();
+        compact.epochDay = sale.getDate() == null ? NO_DATE : Math.toIntExact(sale.getDate().toEpochDay());
+        compact.quantity = sale.getQuantity();
+        compact.itemNameRaw = sale.getItemNameRaw();
+        compact.itemNameStandard = sale.getItemNameStandard();
+        compact.paymentMethod = SaleSymbols.PAYMENT_METHODS.code(sale.getPaymentMethod());
+        compact.baristaName = SaleSymbols.BARISTA_NAMES.code(sale.getBaristaName());
+        compact.source = sale.getSource();
+        compact.matchConfidence = (float) sale.getMatchConfidence();
+
+        compact.pricePerItemCents = sale.getPricePerItemCents();
+        compact.totalSalePriceCents = sale.getTotalSalePriceCents();
+        compact.profitPerItemCents = sale.getProfitPerItemCents();
+        compact.totalProfitCents = sale.getTotalProfitCents();
+        compact.scales = sale.getPricePerItemScale() << (8 * PRICE_PER_ITEM)
+                | sale.getTotalSalePriceScale() << (8 * TOTAL_SALE_PRICE)
+                | sale.getProfitPerItemScale() << (8 * PROFIT_PER_ITEM)
+                | sale.getTotalProfitScale() << (8 * TOTAL_PROFIT);
+        if (compact.pricePerItemCents == Money.NONE) {
+            compact.setExact(PRICE_PER_ITEM, sale.getPricePerItem());
+        }
+        if (compact.totalSalePriceCents == Money.NONE) {
+            compact.setExact(TOTAL_SALE_PRICE, sale.getTotalSalePrice());
+        }
+        if (compact.profitPerItemCents == Money.NONE) {
+            compact.setExact(PROFIT_PER_ITEM, sale.getProfitPerItem());
+        }
+        if (compact.totalProfitCents == Money.NONE) {
+            compact.setExact(TOTAL_PROFIT, sale.getTotalProfit());
+        }
+        return compact;
+    }
+
+    // Повний SaleRecord з тими самими значеннями (рядки - ті самі спільні екземпляри)
+    public SaleRecord toSaleRecord() {
+        SaleRecord sale = pricePerItemCents != Money.NONE
+                ? new SaleRecord(saleId, getDate(), getItemNameRaw(), quantity, pricePerItemCents, scale(PRICE_PER_ITEM), getPaymentMethod(), getBaristaName())
+                : new SaleRecord(saleId, getDate(), getItemNameRaw(), quantity, exact(PRICE_PER_ITEM), getPaymentMethod(), getBaristaName());
+        sale.setSource(getSource());
+        sale.setItemNameStandard(getItemNameStandard());
+        sale.setMatchConfidence(matchConfidence);
+        if (totalSalePriceCents != Money.NONE) {
+            sale.setTotalSalePriceCents(totalSalePriceCents, scale(TOTAL_SALE_PRICE));
+        } else {
+            sale.setTotalSalePrice(exact(TOTAL_SALE_PRICE));
+        }
+        if (profitPerItemCents != Money.NONE) {
+            sale.setProfitPerItemCents(profitPerItemCents, scale(PROFIT_PER_ITEM));
+        } else {
+            sale.setProfitPerItem(exact(PROFIT_PER_ITEM));
+        }
+        if (totalProfitCents != Money.NONE) {
+            sale.setTotalProfitCents(totalProfitCents, scale(TOTAL_PROFIT));
+        } else {
+            sale.setTotalProfit(exact(TOTAL_PROFIT));
+        }
+        return sale;
+    }
+
+    // SaleRecord для кожного запису - на час запису чанку в БД чи іншої обробки, що потребує повної моделі
+    public static List<SaleRecord> toSaleRecords(List<CompactSaleRecord> sales) {
+        List<SaleRecord> records = new ArrayList<>(sales.size());
+        for (CompactSaleRecord sale : sales) {
+            records.add(sale.toSaleRecord());
+        }
+        return records;
+    }
+
+    // Геттери
+
+    public int getSaleId() { return saleId; }
+    public LocalDate getDate() { return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay); }
+    public int getQuantity() { return quantity; }
+    public String getItemNameRaw() { return itemNameRaw; }
+    public String getItemNameStandard() { return itemNameStandard; }
+    public String getPaymentMethod() { return SaleSymbols.PAYMENT_METHODS.symbol(paymentMethod); }
+    public String getBaristaName() { return SaleSymbols.BARISTA_NAMES.symbol(baristaName); }
+    public String getSource() { return source; }
+    public double getMatchConfidence() { return matchConfidence; }
+    public long getPricePerItemCents() { return pricePerItemCents; }
+    public long getTotalSalePriceCents() { return totalSalePriceCents; }
+    public long getProfitPerItemCents() { return profitPerItemCents; }
+    public long getTotalProfitCents() { return totalProfitCents; }
+
+    private int scale(int field) {
+        return (scales >>> (8 * field)) & 0xFF;
+    }
+
+    private BigDecimal exact(int field) {
+        return exact == null ? null : exact[field];
+    }
+
+    private void setExact(int field, BigDecimal value) {
+        if (value == null) {
+            return;
+        }
+        if (exact == null) {
+            exact = new BigDecimal[4];
+        }
+        exact[field] = value;
+    }
+
+    @Override
+    public String toString() {
+        return toSaleRecord().toString();
+    }
+}
@@ -0,0 +1,99 @@
+package com.yourcompany.coffeeshop.model;
+
+import java.time.Instant;
+
+// Відкинутий рядок продажу (dead letter): сирі значення колонок у тому вигляді, як їх прочитано,
+// де рядок знайдено, на якому етапі і чому його відкинуто. Значення зберігаються текстом,
+// щоб можна було зберегти й те, що не розбирається (наприклад, quantity "два").
+public class DeadLetter {
+    public static final String STAGE_READ = "read"; // Читач: рядок не розібрано або не пройшов валідацію
+    public static final String STAGE_PROCESS = "process"; // DataProcessor: isValidSaleRecord
+    public static final String STAGE_LOAD = "load"; // Завантаження: невідомий товар або бариста
+
+    private Instant recordedAt;
+    private String stage;
+    private String reason; // invalid_quantity, invalid_price, row_error, invalid_record, unknown_menu_item, ...
+    private String source; // Файл або "файл!аркуш" (null, якщо невідомо)
+    private long rowNumber; // Номер рядка в джерелі (0 - заголовки); -1, якщо невідомо
+
+    private String saleId;
+    private String date;
+    private String itemName;
+    private String quantity;
+    private String pricePerItem;
+    private String paymentMethod;
+    private String baristaName;
+
+    public DeadLetter(Instant recordedAt, String stage, String reason, String source, long rowNumber,
+                      String saleId, String date, String itemName, String quantity, String pricePerItem,
+                      String paymentMethod, String baristaName) {
+        this.recordedAt = recordedAt;
+        this.stage = stage;
+        this.reason = reason;
+        this.source = source;
+        this.rowNumber = rowNumber;
+        this.saleId = saleId;
+        this.date = date;
+        this.itemName = itemName;
+        this.quantity = quantity;
+        this.pricePerItem = pricePerItem;
+        this.paymentMethod = paymentMethod;
+        this.baristaName = baristaName;
+    }
+
+    // Вже розібраний запис, відкинутий на етапі обробки чи завантаження. Назва - сира (itemNameRaw),
+    // щоб після виправлення меню запис знову пройшов нормалізацію.
+    public static DeadLetter of(SaleRecord sale, String stage, String reason) {
+        return new DeadLetter(Instant.now(), stage, reason, sale.getSource(), -1,
+                String.valueOf(sale.getSaleId()),
+                sale.getDate() == null ? null : sale.getDate().toString(),
+                sale.getItemNameRaw(),
+                String.valueOf(sale.getQuantity()),
+                sale.getPricePerItem() == null ? null : sale.getPricePerItem().toPlainString(),
+                sale.getPaymentMethod(),
+                sale.getBaristaName());
+    }
+
+    // Геттери та Сеттери
+    public Instant getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(Instant recordedAt) { this.recordedAt = recordedAt; }
+    public String getStage() { return stage; }
+    public void setStage(String stage) { this.stage = stage; }
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+    public long getRowNumber() { return rowNumber; }
+    public void setRowNumber(long rowNumber) { this.rowNumber = rowNumber; }
+    public String getSaleId() { return saleId; }
+    public void setSaleId(String saleId) { this.saleId = saleId; }
+    public String getDate() { return date; }
+    public void setDate(String date) { this.date = date; }
+    public String getItemName() { return itemName; }
+    public void setItemName(String itemName) { this.itemName = itemName; }
+    public String getQuantity() { return quantity; }
+    public void setQuantity(String quantity) { this.quantity = quantity; }
+    public String getPricePerItem() { return pricePerItem; }
+    public void setPricePerItem(String pricePerItem) { this.pricePerItem = pricePerItem; }
+    public String getPaymentMethod() { return paymentMethod; }
+    public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
+    public String getBaristaName() { return baristaName; }
+    public void setBaristaName(String baristaName) { this.baristaName = baristaName; }
+
+    @Override
+    public String toString() {
+        return "DeadLetter{" +
+                "stage='" + stage + '\'' +
+                ", reason='" + reason + '\'' +
+                ", source='" + source + '\'' +
+                ", rowNumber=" + rowNumber +
+                ", saleId='" + saleId + '\'' +
+                ", date='" + date + '\'' +
+                ", itemName='" + itemName + '\'' +
+                ", quantity='" + quantity + '\'' +
+                ", pricePerItem='" + pricePerItem + '\'' +
+                ", paymentMethod='" + paymentMethod + '\'' +
+                ", baristaName='" + baristaName + '\'' +
+                '}';
+    }
+}
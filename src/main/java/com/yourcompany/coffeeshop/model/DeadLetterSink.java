@@ -0,0 +1,11 @@
+package com.yourcompany.coffeeshop.model;
+
+// Куди етапи завантаження віддають відкинуті рядки. Реалізації мають бути потокобезпечними
+// і не блокувати надовго: accept викликається з гарячого циклу читання та обробки.
+public interface DeadLetterSink {
+
+    // Рядки лише відкидаються (поведінка за замовчуванням)
+    DeadLetterSink NONE = deadLetter -> { };
+
+    void accept(DeadLetter deadLetter);
+}
@@ -0,0 +1,59 @@
+package com.yourcompany.coffeeshop.model;
+
+import java.time.LocalDate;
+
+// Стан інкрементального завантаження одного файлу (таблиця ingestion_state):
+// відбиток файлу на момент останнього успішного завантаження та high-water mark продажів.
+public class IngestionState {
+    private String fileKey; // Нормалізований абсолютний шлях
+    private long fileSize;
+    private long lastModifiedMillis;
+    private String contentHash; // SHA-256, hex
+    private Integer maxSaleId; // null - для файлів без продажів (меню, інвентар)
+    private LocalDate maxSaleDate;
+    private long rowsLoaded; // Усього записів, завантажених з цього файлу
+    private String menuHash; // Для продажів: SHA-256 меню, з собівартістю якого пораховано прибуток (null - невідомо)
+
+    public IngestionState(String fileKey, long fileSize, long lastModifiedMillis, String contentHash,
+                          Integer maxSaleId, LocalDate maxSaleDate, long rowsLoaded) {
+        this.fileKey = fileKey;
+        this.fileSize = fileSize;
+        this.lastModifiedMillis = lastModifiedMillis;
+        this.contentHash = contentHash;
+        this.maxSaleId = maxSaleId;
+        this.maxSaleDate = maxSaleDate;
+        this.rowsLoaded = rowsLoaded;
+    }
+
+    // Геттери та Сеттери
+    public String getFileKey() { return fileKey; }
+    public void setFileKey(String fileKey) { this.fileKey = fileKey; }
+    public long getFileSize() { return fileSize; }
+    public void setFileSize(long fileSize) { this.fileSize = fileSize; }
+    public long getLastModifiedMillis() { return lastModifiedMillis; }
+    public void setLastModifiedMillis(long lastModifiedMillis) { this.lastModifiedMillis = lastModifiedMillis; }
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+    public Integer getMaxSaleId() { return maxSaleId; }
+    public void setMaxSaleId(Integer maxSaleId) { this.maxSaleId = maxSaleId; }
+    public LocalDate getMaxSaleDate() { return maxSaleDate; }
+    public void setMaxSaleDate(LocalDate maxSaleDate) { this.maxSaleDate = maxSaleDate; }
+    public long getRowsLoaded() { return rowsLoaded; }
+    public void setRowsLoaded(long rowsLoaded) { this.rowsLoaded = rowsLoaded; }
+    public String getMenuHash() { return menuHash; }
+    public void setMenuHash(String menuHash) { this.menuHash = menuHash; }
+
+    @Override
+    public String toString() {
+        return "IngestionState{" +
+                "fileKey='" + fileKey + '\'' +
+                ", fileSize=" + fileSize +
+                ", lastModifiedMillis=" + lastModifiedMillis +
+                ", contentHash='" + contentHash + '\'' +
+                ", maxSaleId=" + maxSaleId +
+                ", maxSaleDate=" + maxSaleDate +
+                ", rowsLoaded=" + rowsLoaded +
+                ", menuHash='" + menuHash + '\'' +
+                '}';
+    }
+}
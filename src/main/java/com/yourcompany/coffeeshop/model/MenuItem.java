@@ -8,13 +8,14 @@ public class MenuItem {
     private String category;
     private BigDecimal standardPrice;
     private BigDecimal costPerUnit;
+    private long costPerUnitCents; // costPerUnit у копійках для обчислень без BigDecimal (Money.NONE, якщо не вміщується)
 
     public MenuItem(int itemId, String nameStandard, String category, BigDecimal standardPrice, BigDecimal costPerUnit) {
         this.itemId = itemId;
         this.nameStandard = nameStandard;
         this.category = category;
         this.standardPrice = standardPrice;
-        this.costPerUnit = costPerUnit;
+        setCostPerUnit(costPerUnit);
     }
 
     // Геттери та Сеттери
@@ -27,7 +28,11 @@ public class MenuItem {
     public BigDecimal getStandardPrice() { return standardPrice; }
     public void setStandardPrice(BigDecimal standardPrice) { this.standardPrice = standardPrice; }
     public BigDecimal getCostPerUnit() { return costPerUnit; }
-    public void setCostPerUnit(BigDecimal costPerUnit) { this.costPerUnit = costPerUnit; }
+    public void setCostPerUnit(BigDecimal costPerUnit) {
+        this.costPerUnit = costPerUnit;
+        this.costPerUnitCents = Money.fromBigDecimal(costPerUnit);
+    }
+    public long getCostPerUnitCents() { return costPerUnitCents; }
 
     @Override
     public String toString() {
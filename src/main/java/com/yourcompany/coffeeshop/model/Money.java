@@ -0,0 +1,157 @@
+package com.yourcompany.coffeeshop.model;
+
+import java.math.BigDecimal;
+
+// Грошові значення з фіксованою точкою: long у мінімальних одиницях (копійках, scale 2).
+// Використовується всередині конвеєра замість BigDecimal, щоб не створювати кілька об'єктів на кожен запис;
+// у BigDecimal значення перетворюється лише на межі з JDBC.
+// Поряд з копійками зберігається scale початкового BigDecimal (0..2), тож toBigDecimal(cents, scale)
+// відтворює те саме значення, що й раніше (включно з equals/toString: "30.0" лишається "30.0").
+// Значення з більшим scale (наприклад, 12.345) позначаються NONE - їх рахують через BigDecimal з HALF_UP, як і раніше.
+public final class Money {
+
+    public static final int SCALE = 2;
+    public static final long NONE = Long.MIN_VALUE; // Немає значення або воно не представиме в копійках
+
+    private static final long MAX_CENTS = 100_000_000_000_000_000L; // 1e17: запас, щоб добуток/різниця не переповнили long
+    private static final long[] POW10 = {1, 10, 100};
+
+    // Кеш double -> копійки для значень з комірок Excel (ціни сильно повторюються).
+    // Запис - незмінний об'єкт, тож гонка між потоками безпечна: у гіршому разі значення перерахується.
+    private static final int DOUBLE_CACHE_SIZE = 4096;
+    private static final DoubleEntry[] DOUBLE_CACHE = new DoubleEntry[DOUBLE_CACHE_SIZE];
+
+    private Money() {
+    }
+
+    // Копійки для BigDecimal зі scale 0..2; NONE для null, більшого/від'ємного scale або завеликого значення
+    public static long fromBigDecimal(BigDecimal value) {
+        if (value == null || value.scale() < 0 || value.scale() > SCALE || value.precision() - value.scale() > 15) {
+            return NONE;
+        }
+        return value.unscaledValue().longValue() * POW10[SCALE - value.scale()];
+    }
+
+    // Зворотне перетворення; scale - той, що повернув scaleOf/doubleScale для цього значення
+    public static BigDecimal toBigDecimal(long cents, int scale) {
+        if (cents == NONE) {
+            return null;
+        }
+        return BigDecimal.valueOf(cents / POW10[SCALE - scale], scale);
+    }
+
+    // Те саме значення, що new BigDecimal(String.valueOf(value)) у ExcelDataReader, але в копійках
+    public static long fromDouble(double value) {
+        return doubleEntry(value).cents;
+    }
+
+    // Scale, який мав би new BigDecimal(String.valueOf(value)) (лише для fromDouble(value) != NONE)
+    public static int doubleScale(double value) {
+        return doubleEntry(value).scale;
+    }
+
+    private static DoubleEntry doubleEntry(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        int slot = (int) (bits ^ (bits >>> 32)) & (DOUBLE_CACHE_SIZE - 1);
+        DoubleEntry entry = DOUBLE_CACHE[slot];
+        if (entry != null && entry.bits == bits) {
+            return entry;
+        }
+        long cents = NONE;
+        int scale = 0;
+        if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+            BigDecimal decimal = new BigDecimal(String.valueOf(value)); // Рахуємо один раз на унікальне значення
+            cents = fromBigDecimal(decimal);
+            scale = decimal.scale();
+        }
+        entry = new DoubleEntry(bits, cents, scale);
+        DOUBLE_CACHE[slot] = entry;
+        return entry;
+    }
+
+    // Розбір десяткового рядка ("30", "30.0", "12.35", "-4.5") без створення BigDecimal.
+    // NONE, якщо new BigDecimal(text) дав би інший scale (експонента, більше 2 знаків після коми тощо).
+    public static long parse(String text) {
+        int length = text == null ? 0 : text.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        long cents = 0;
+        int integerDigits = 0;
+        for (; i < length && isDigit(text.charAt(i)); i++) {
+            cents = cents * 10 + (text.charAt(i) - '0');
+            if (++integerDigits > 15) {
+                return NONE;
+            }
+        }
+        int fractionDigits = 0;
+        if (i < length && text.charAt(i) == '.') {
+            for (i++; i < length && isDigit(text.charAt(i)); i++) {
+                if (++fractionDigits > SCALE) {
+                    return NONE;
+                }
+                cents = cents * 10 + (text.charAt(i) - '0');
+            }
+        }
+        if (i != length || integerDigits + fractionDigits == 0) {
+            return NONE;
+        }
+        cents *= POW10[SCALE - fractionDigits];
+        return negative ? -cents : cents;
+    }
+
+    // Scale рядка, розібраного parse (кількість знаків після коми)
+    public static int scaleOf(String text) {
+        int dot = text.indexOf('.');
+        return dot < 0 ? 0 : text.length() - dot - 1;
+    }
+
+    // cents * quantity; NONE, якщо результат може переповнити long (тоді рахуємо через BigDecimal)
+    public static long times(long cents, int quantity) {
+        if (cents == NONE || Math.abs(cents) > MAX_CENTS / Math.max(1, Math.abs((long) quantity))) {
+            return NONE;
+        }
+        return cents * quantity;
+    }
+
+    // a - b; NONE, якщо будь-яке значення відсутнє
+    public static long minus(long a, long b) {
+        if (a == NONE || b == NONE || Math.abs(a) > MAX_CENTS || Math.abs(b) > MAX_CENTS) {
+            return NONE;
+        }
+        return a - b;
+    }
+
+    // Запис у вигляді "1234.50" / "-0.05" без створення BigDecimal (для COPY)
+    public static StringBuilder appendTo(StringBuilder out, long cents) {
+        long abs = Math.abs(cents);
+        if (cents < 0) {
+            out.append('-');
+        }
+        out.append(abs / 100).append('.');
+        long fraction = abs % 100;
+        if (fraction < 10) {
+            out.append('0');
+        }
+        return out.append(fraction);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static final class DoubleEntry {
+        final long bits;
+        final long cents;
+        final int scale;
+
+        DoubleEntry(long bits, long cents, int scale) {
+            this.bits = bits;
+            this.cents = cents;
+            this.scale = scale;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.yourcompany.coffeeshop.model;
+
+import java.math.BigDecimal;
+
+// Рядок рецепту: скільки інгредієнта (в одиницях складу, кг/л) списується на одну продану одиницю товару меню
+public class RecipeItem {
+    private int menuItemId;
+    private int ingredientId;
+    private BigDecimal quantityPerUnit;
+
+    public RecipeItem(int menuItemId, int ingredientId, BigDecimal quantityPerUnit) {
+        this.menuItemId = menuItemId;
+        this.ingredientId = ingredientId;
+        this.quantityPerUnit = quantityPerUnit;
+    }
+
+    // Геттери та Сеттери
+    public int getMenuItemId() { return menuItemId; }
+    public void setMenuItemId(int menuItemId) { this.menuItemId = menuItemId; }
+    public int getIngredientId() { return ingredientId; }
+    public void setIngredientId(int ingredientId) { this.ingredientId = ingredientId; }
+    public BigDecimal getQuantityPerUnit() { return quantityPerUnit; }
+    public void setQuantityPerUnit(BigDecimal quantityPerUnit) { this.quantityPerUnit = quantityPerUnit; }
+
+    @Override
+    public String toString() {
+        return "RecipeItem{" +
+                "menuItemId=" + menuItemId +
+                ", ingredientId=" + ingredientId +
+                ", quantityPerUnit=" + quantityPerUnit +
+                '}';
+    }
+}
@@ -0,0 +1,17 @@
+package com.yourcompany.coffeeshop.model;
+
+import java.sql.SQLException;
+import java.util.function.IntConsumer;
+
+// sale_id, які вже лежать у сховищі продажів (реалізація - PostgreSQLManager).
+// Потрібне SaleDeduplicator, щоб відкидати вже завантажені продажі до запису.
+public interface SaleIdStore {
+
+    long countSaleIds() throws SQLException;
+
+    // Усі sale_id по одному, без накопичення в пам'яті
+    void forEachSaleId(IntConsumer consumer) throws SQLException;
+
+    // Ті з saleIds, що є в сховищі (порядок не гарантується)
+    int[] findSaleIds(int[] saleIds) throws SQLException;
+}
@@ -8,15 +8,26 @@ public class SaleRecord {
     private LocalDate date;
     private String itemNameRaw; // Початкова сира назва товару
     private int quantity;
-    private BigDecimal pricePerItem;
+    // Грошові поля зберігаються в копійках (див. Money); *Exact - лише для значень, які не вміщуються в scale 2
+    private long pricePerItemCents = Money.NONE;
+    private int pricePerItemScale;
+    private BigDecimal pricePerItemExact;
     private String paymentMethod;
     private String baristaName;
+    private String source; // Звідки прочитано запис: "файл!аркуш" (null, якщо невідомо)
 
     // Після очищення та трансформації:
     private String itemNameStandard; // Стандартизована назва товару
-    private BigDecimal totalSalePrice; // Загальна ціна за цю позицію продажу
-    private BigDecimal profitPerItem; // Прибуток з цієї позиції (за одиницю)
-    private BigDecimal totalProfit; // Загальний прибуток з цієї позиції
+    private double matchConfidence; // Впевненість нормалізації назви: 1.0 - точний збіг, 0.0 - не знайдено
+    private long totalSalePriceCents = Money.NONE; // Загальна ціна за цю позицію продажу
+    private int totalSalePriceScale;
+    private BigDecimal totalSalePriceExact;
+    private long profitPerItemCents = Money.NONE; // Прибуток з цієї позиції (за одиницю)
+    private int profitPerItemScale;
+    private BigDecimal profitPerItemExact;
+    private long totalProfitCents = Money.NONE; // Загальний прибуток з цієї позиції
+    private int totalProfitScale;
+    private BigDecimal totalProfitExact;
 
     // Конструктор
     public SaleRecord(int saleId, LocalDate date, String itemNameRaw, int quantity, BigDecimal pricePerItem, String paymentMethod, String baristaName) {
@@ -24,7 +35,18 @@ public class SaleRecord {
         this.date = date;
         this.itemNameRaw = itemNameRaw;
         this.quantity = quantity;
-        this.pricePerItem = pricePerItem;
+        setPricePerItem(pricePerItem);
+        this.paymentMethod = paymentMethod;
+        this.baristaName = baristaName;
+    }
+
+    // Конструктор без BigDecimal: ціна вже в копійках (scale - scale вихідного десяткового значення, 0..2)
+    public SaleRecord(int saleId, LocalDate date, String itemNameRaw, int quantity, long pricePerItemCents, int pricePerItemScale, String paymentMethod, String baristaName) {
+        this.saleId = saleId;
+        this.date = date;
+        this.itemNameRaw = itemNameRaw;
+        this.quantity = quantity;
+        setPricePerItemCents(pricePerItemCents, pricePerItemScale);
         this.paymentMethod = paymentMethod;
         this.baristaName = baristaName;
     }
@@ -39,20 +61,54 @@ public class SaleRecord {
     public void setItemNameRaw(String itemNameRaw) { this.itemNameRaw = itemNameRaw; }
     public int getQuantity() { return quantity; }
     public void setQuantity(int quantity) { this.quantity = quantity; }
-    public BigDecimal getPricePerItem() { return pricePerItem; }
-    public void setPricePerItem(BigDecimal pricePerItem) { this.pricePerItem = pricePerItem; }
+    public BigDecimal getPricePerItem() { return pricePerItemCents != Money.NONE ? Money.toBigDecimal(pricePerItemCents, pricePerItemScale) : pricePerItemExact; }
+    public void setPricePerItem(BigDecimal pricePerItem) {
+        pricePerItemCents = Money.fromBigDecimal(pricePerItem);
+        pricePerItemScale = pricePerItemCents != Money.NONE ? pricePerItem.scale() : 0;
+        pricePerItemExact = pricePerItemCents != Money.NONE ? null : pricePerItem;
+    }
     public String getPaymentMethod() { return paymentMethod; }
     public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
     public String getBaristaName() { return baristaName; }
     public void setBaristaName(String baristaName) { this.baristaName = baristaName; }
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
     public String getItemNameStandard() { return itemNameStandard; }
     public void setItemNameStandard(String itemNameStandard) { this.itemNameStandard = itemNameStandard; }
-    public BigDecimal getTotalSalePrice() { return totalSalePrice; }
-    public void setTotalSalePrice(BigDecimal totalSalePrice) { this.totalSalePrice = totalSalePrice; }
-    public BigDecimal getProfitPerItem() { return profitPerItem; }
-    public void setProfitPerItem(BigDecimal profitPerItem) { this.profitPerItem = profitPerItem; }
-    public BigDecimal getTotalProfit() { return totalProfit; }
-    public void setTotalProfit(BigDecimal totalProfit) { this.totalProfit = totalProfit; }
+    public double getMatchConfidence() { return matchConfidence; }
+    public void setMatchConfidence(double matchConfidence) { this.matchConfidence = matchConfidence; }
+    public BigDecimal getTotalSalePrice() { return totalSalePriceCents != Money.NONE ? Money.toBigDecimal(totalSalePriceCents, totalSalePriceScale) : totalSalePriceExact; }
+    public void setTotalSalePrice(BigDecimal totalSalePrice) {
+        totalSalePriceCents = Money.fromBigDecimal(totalSalePrice);
+        totalSalePriceScale = totalSalePriceCents != Money.NONE ? totalSalePrice.scale() : 0;
+        totalSalePriceExact = totalSalePriceCents != Money.NONE ? null : totalSalePrice;
+    }
+    public BigDecimal getProfitPerItem() { return profitPerItemCents != Money.NONE ? Money.toBigDecimal(profitPerItemCents, profitPerItemScale) : profitPerItemExact; }
+    public void setProfitPerItem(BigDecimal profitPerItem) {
+        profitPerItemCents = Money.fromBigDecimal(profitPerItem);
+        profitPerItemScale = profitPerItemCents != Money.NONE ? profitPerItem.scale() : 0;
+        profitPerItemExact = profitPerItemCents != Money.NONE ? null : profitPerItem;
+    }
+    public BigDecimal getTotalProfit() { return totalProfitCents != Money.NONE ? Money.toBigDecimal(totalProfitCents, totalProfitScale) : totalProfitExact; }
+    public void setTotalProfit(BigDecimal totalProfit) {
+        totalProfitCents = Money.fromBigDecimal(totalProfit);
+        totalProfitScale = totalProfitCents != Money.NONE ? totalProfit.scale() : 0;
+        totalProfitExact = totalProfitCents != Money.NONE ? null : totalProfit;
+    }
+
+    // Доступ до грошових полів у копійках без створення BigDecimal (Money.NONE - значення немає або воно поза scale 2)
+    public long getPricePerItemCents() { return pricePerItemCents; }
+    public void setPricePerItemCents(long cents, int scale) { pricePerItemCents = cents; pricePerItemScale = scale; pricePerItemExact = null; }
+    public int getPricePerItemScale() { return pricePerItemScale; }
+    public long getTotalSalePriceCents() { return totalSalePriceCents; }
+    public void setTotalSalePriceCents(long cents, int scale) { totalSalePriceCents = cents; totalSalePriceScale = scale; totalSalePriceExact = null; }
+    public int getTotalSalePriceScale() { return totalSalePriceScale; }
+    public long getProfitPerItemCents() { return profitPerItemCents; }
+    public void setProfitPerItemCents(long cents, int scale) { profitPerItemCents = cents; profitPerItemScale = scale; profitPerItemExact = null; }
+    public int getProfitPerItemScale() { return profitPerItemScale; }
+    public long getTotalProfitCents() { return totalProfitCents; }
+    public void setTotalProfitCents(long cents, int scale) { totalProfitCents = cents; totalProfitScale = scale; totalProfitExact = null; }
+    public int getTotalProfitScale() { return totalProfitScale; }
 
     @Override
     public String toString() {
@@ -61,12 +117,14 @@ public class SaleRecord {
                 ", date=" + date +
                 ", itemNameRaw='" + itemNameRaw + '\'' +
                 ", quantity=" + quantity +
-                ", pricePerItem=" + pricePerItem +
+                ", pricePerItem=" + getPricePerItem() +
                 ", paymentMethod='" + paymentMethod + '\'' +
                 ", baristaName='" + baristaName + '\'' +
                 ", itemNameStandard='" + itemNameStandard + '\'' +
-                ", totalSalePrice=" + totalSalePrice +
-                ", totalProfit=" + totalProfit +
+                ", matchConfidence=" + matchConfidence +
+                ", totalSalePrice=" + getTotalSalePrice() +
+                ", totalProfit=" + getTotalProfit() +
+                ", source='" + source + '\'' +
                 '}';
     }
 }
\ No newline at end of file
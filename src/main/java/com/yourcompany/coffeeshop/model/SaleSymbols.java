@@ -0,0 +1,16 @@
+package com.yourcompany.coffeeshop.model;
+
+// Спільні на весь процес словники рядкових полів продажів з кількома значеннями на всю історію (способи оплати,
+// баристи). Читачі й DataProcessor кладуть значення в записи через intern, тож сотні тисяч SaleRecord посилаються
+// на кілька десятків рядків замість власних копій, а CompactSaleRecord зберігає лише коди з цих словників.
+// Сирі назви товарів, "Unknown / <назва>" і джерела ("файл!аркуш") сюди не потрапляють: у довгоживучому --watch
+// кожен новий варіант назви чи аркуш лишався б у словнику назавжди. Їх ділять словники в межах одного читання
+// (сирі назви) і DataProcessor з обмеженим кешем (невідомі назви).
+public final class SaleSymbols {
+
+    public static final SymbolTable PAYMENT_METHODS = new SymbolTable();
+    public static final SymbolTable BARISTA_NAMES = new SymbolTable();
+
+    private SaleSymbols() {
+    }
+}
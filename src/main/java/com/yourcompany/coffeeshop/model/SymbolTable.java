@@ -0,0 +1,57 @@
+package com.yourcompany.coffeeshop.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Словник рядкових значень з малою кількістю варіантів (назви товарів, способи оплати, баристи):
+// кожне значення отримує щільний код 0..size-1 і зберігається один раз. Записи тримають код
+// (CompactSaleRecord) або канонічний екземпляр з intern, а не власну копію рядка.
+// Потокобезпечний: читання - без блокувань, додавання нового значення - під локом (це рідкість).
+// Коди не видаляються, тож для колонок з унікальним значенням у кожному рядку словник не підходить.
+public final class SymbolTable {
+
+    // Код для null
+    public static final int NONE = -1;
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] symbols = new String[16];
+    private int size; // Змінюється лише під локом
+
+    // Код значення (нове значення додається); NONE для null
+    public int code(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    // Значення за кодом; null для NONE
+    public String symbol(int code) {
+        return code == NONE ? null : symbols[code];
+    }
+
+    // Канонічний екземпляр рядка, рівного value (той самий об'єкт для всіх записів)
+    public String intern(String value) {
+        return symbol(code(value));
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    private synchronized int add(String value) {
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            return existing; // Інший потік додав те саме значення між get і локом
+        }
+        String[] current = symbols;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = value;
+        symbols = current; // Запис volatile публікує масив до того, як код стане видно в codes
+        codes.put(value, size);
+        return size++;
+    }
+}
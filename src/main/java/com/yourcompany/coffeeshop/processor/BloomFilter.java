@@ -0,0 +1,76 @@
+package com.yourcompany.coffeeshop.processor;
+
+// Bloom-фільтр для int-ключів: "точно немає" або "можливо є" за ~10 біт на ключ при 1% хибних спрацювань,
+// тобто ~12 МБ на 10 млн sale_id замість повної множини. Позитивну відповідь треба перевіряти (у SaleDeduplicator -
+// одним запитом до БД на чанк). Позиції бітів - подвійне хешування: h1 + i * h2, i = 1..hashCount.
+final class BloomFilter {
+
+    private static final long MAX_BITS = Integer.MAX_VALUE; // Індекс біта рахується в int
+
+    private final long[] words;
+    private final int bitCount;
+    private final int hashCount;
+
+    private BloomFilter(int bitCount, int hashCount) {
+        this.words = new long[(int) ((bitCount + 63L) / 64)]; // В long: bitCount до Integer.MAX_VALUE
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+    }
+
+    // Розмір і кількість хешів для expectedKeys ключів з імовірністю хибного спрацювання falsePositiveRate
+    static BloomFilter create(long expectedKeys, double falsePositiveRate) {
+        long keys = Math.max(1, expectedKeys);
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-keys * Math.log(falsePositiveRate) / (ln2 * ln2));
+        bits = Math.max(64, Math.min(bits, MAX_BITS));
+        int hashes = (int) Math.max(1, Math.min(16, Math.round((double) bits / keys * ln2)));
+        return new BloomFilter((int) bits, hashes);
+    }
+
+    void put(int key) {
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = index(h1 + i * h2);
+            words[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    // false - ключа точно не додавали; true - додавали або хибне спрацювання
+    boolean mightContain(int key) {
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = index(h1 + i * h2);
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long sizeInBytes() {
+        return words.length * 8L;
+    }
+
+    int getHashCount() {
+        return hashCount;
+    }
+
+    private int index(int combinedHash) {
+        return (combinedHash & Integer.MAX_VALUE) % bitCount;
+    }
+
+    // Фіналізатор MurmurHash3 (fmix64): сусідні id дають незалежні на вигляд половини хешу
+    private static long mix(int key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -1,93 +1,292 @@
 package com.yourcompany.coffeeshop.processor;
 
+import com.yourcompany.coffeeshop.metrics.SampledLogger;
+import com.yourcompany.coffeeshop.model.CompactSaleRecord;
+import com.yourcompany.coffeeshop.model.DeadLetter;
+import com.yourcompany.coffeeshop.model.DeadLetterSink;
 import com.yourcompany.coffeeshop.model.MenuItem;
+import com.yourcompany.coffeeshop.model.Money;
 import com.yourcompany.coffeeshop.model.SaleRecord;
+import com.yourcompany.coffeeshop.model.SaleSymbols;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.stream.Collectors;
 
 public class DataProcessor {
 
     private static final Logger logger = LoggerFactory.getLogger(DataProcessor.class);
+    private static final SampledLogger sampledLogger = new SampledLogger(logger); // Попередження про окремі записи
 
-    // Мапа для нормалізації назв товарів (сира назва -> стандартизована назва -> MenuItem)
-    private final Map<String, MenuItem> menuItemLookupMap;
+    // Індекс для нормалізації назв товарів (сира назва -> MenuItem): точний, транслітерований та нечіткий пошук
+    private final MenuNameIndex menuNameIndex;
+    // "Unknown / <сира назва>" - один екземпляр на назву, а не конкатенація на кожен запис.
+    // Обмежений, як і кеш MenuNameIndex: DataProcessor у --watch живе до зміни меню
+    private static final int MAX_UNKNOWN_ITEM_NAMES = 10_000;
+    private final Map<String, String> unknownItemNames = new ConcurrentHashMap<>();
+
+    // Паралельний режим: пул потоків і розмір чанку, на які ділиться вхідний список
+    public static final int DEFAULT_PARALLEL_CHUNK_SIZE = 16_384;
+    private ForkJoinPool parallelPool = ForkJoinPool.commonPool();
+    private int parallelChunkSize = DEFAULT_PARALLEL_CHUNK_SIZE;
+    private volatile DeadLetterSink deadLetters = DeadLetterSink.NONE;
+    // За замовчуванням LAST_WINS - той самий результат, що дав би upsert, але без зайвих записів
+    private SaleDeduplicator deduplicator = new SaleDeduplicator(DuplicatePolicy.LAST_WINS);
 
     public DataProcessor(List<MenuItem> menuItems) {
-        // Створення мапи для швидкого пошуку стандартизованих пунктів меню
-        // Ми нормалізуємо ключі, щоб полегшити порівняння
-        this.menuItemLookupMap = menuItems.stream()
-                .collect(Collectors.toMap(
-                        item -> item.getNameStandard().toLowerCase().trim(),
-                        item -> item
-                ));
-        logger.info("Initialized DataProcessor with {} menu items.", menuItemLookupMap.size());
+        // Індекс будується один раз; результати для кожної сирої назви кешуються в ньому ж
+        this.menuNameIndex = new MenuNameIndex(menuItems);
+        logger.info("Initialized DataProcessor with {} menu items.", menuNameIndex.size());
+    }
+
+    // Налаштування паралельного режиму: власний пул (наприклад, new ForkJoinPool(cores)) і розмір чанку
+    public void setParallelExecution(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.parallelPool = pool;
+        this.parallelChunkSize = chunkSize;
+    }
+
+    // Правило для дублікатів sale_id і (необов'язково) відкидання вже завантажених продажів
+    public void setDeduplicator(SaleDeduplicator deduplicator) {
+        this.deduplicator = deduplicator;
+    }
+
+    // Записи, що не пройшли isValidSaleRecord, передаються в sink (етап DeadLetter.STAGE_PROCESS)
+    public void setDeadLetters(DeadLetterSink deadLetters) {
+        this.deadLetters = deadLetters;
     }
 
     // Метод для очищення та трансформації записів про продажі
     public List<SaleRecord> processSalesData(List<SaleRecord> rawSales) {
+        ProcessingStats stats = new ProcessingStats();
         List<SaleRecord> processedSales = rawSales.stream()
-                .filter(this::isValidSaleRecord) // Фільтрація невалідних записів
-                .map(this::transformSaleRecord) // Трансформація кожного запису
+                .filter(record -> isValidSaleRecord(record, stats, true)) // Фільтрація невалідних записів
+                .map(record -> transformSaleRecord(record, stats, true)) // Трансформація кожного запису
                 .collect(Collectors.toList());
 
+        stats.publish();
+        logger.info("Processed {} raw sales into {} valid records.", rawSales.size(), processedSales.size());
+        return processedSales;
+    }
+
+    // Те саме для компактних записів (конвеєр): кожен запис розгортається в SaleRecord лише на час обробки,
+    // тож у пам'яті між етапами лишаються тільки CompactSaleRecord
+    public List<CompactSaleRecord> processCompactSales(List<CompactSaleRecord> rawSales) {
+        ProcessingStats stats = new ProcessingStats();
+        List<CompactSaleRecord> processedSales = new ArrayList<>(rawSales.size());
+        for (CompactSaleRecord rawSale : rawSales) {
+            SaleRecord record = rawSale.toSaleRecord();
+            if (isValidSaleRecord(record, stats, true)) {
+                processedSales.add(CompactSaleRecord.of(transformSaleRecord(record, stats, true)));
+            }
+        }
+
+        stats.publish();
         logger.info("Processed {} raw sales into {} valid records.", rawSales.size(), processedSales.size());
         return processedSales;
     }
 
+    // Паралельна версія processSalesData: вхід ділиться на чанки, які обробляються в parallelPool.
+    // Порядок результату той самий, що й у послідовній версії (чанки склеюються за номером),
+    // а попередження не логуються по одному, а підсумовуються в ProcessingStats.
+    public List<SaleRecord> processSalesDataParallel(List<SaleRecord> rawSales) {
+        int chunkCount = (rawSales.size() + parallelChunkSize - 1) / parallelChunkSize;
+        List<List<SaleRecord>> chunkResults = new ArrayList<>(chunkCount);
+        List<ProcessingStats> chunkStats = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            chunkResults.add(null);
+            chunkStats.add(null);
+        }
+
+        parallelPool.invoke(new ChunkTask(rawSales, 0, chunkCount, chunkResults, chunkStats));
+
+        List<SaleRecord> processedSales = new ArrayList<>(rawSales.size());
+        ProcessingStats stats = new ProcessingStats();
+        for (int i = 0; i < chunkCount; i++) {
+            processedSales.addAll(chunkResults.get(i));
+            stats.add(chunkStats.get(i));
+        }
+        stats.publish();
+
+        logger.info("Processed {} raw sales into {} valid records in {} chunks on {} threads.",
+                rawSales.size(), processedSales.size(), chunkCount, parallelPool.getParallelism());
+        if (stats.getInvalidRecords() > 0 || stats.getUnmatchedItemNames() > 0 || stats.getUnknownCostRecords() > 0) {
+            logger.warn("Processing warnings: {} invalid records, {} unmatched item names, {} records with unknown cost.",
+                    stats.getInvalidRecords(), stats.getUnmatchedItemNames(), stats.getUnknownCostRecords());
+        }
+        return processedSales;
+    }
+
+    // Ділить діапазон чанків навпіл, доки не лишиться один чанк; результат пишеться в слот за номером чанку
+    private final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<SaleRecord> rawSales;
+        private final int fromChunk;
+        private final int toChunk;
+        private final List<List<SaleRecord>> chunkResults;
+        private final List<ProcessingStats> chunkStats;
+
+        ChunkTask(List<SaleRecord> rawSales, int fromChunk, int toChunk,
+                  List<List<SaleRecord>> chunkResults, List<ProcessingStats> chunkStats) {
+            this.rawSales = rawSales;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+            this.chunkResults = chunkResults;
+            this.chunkStats = chunkStats;
+        }
+
+        @Override
+        protected void compute() {
+            if (fromChunk >= toChunk) {
+                return; // Порожній вхід: чанків немає
+            }
+            if (toChunk - fromChunk > 1) {
+                int middle = (fromChunk + toChunk) >>> 1;
+                invokeAll(new ChunkTask(rawSales, fromChunk, middle, chunkResults, chunkStats),
+                        new ChunkTask(rawSales, middle, toChunk, chunkResults, chunkStats));
+                return;
+            }
+            int start = fromChunk * parallelChunkSize;
+            int end = Math.min(start + parallelChunkSize, rawSales.size());
+            ProcessingStats stats = new ProcessingStats();
+            List<SaleRecord> processed = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                SaleRecord record = rawSales.get(i);
+                if (isValidSaleRecord(record, stats, false)) {
+                    processed.add(transformSaleRecord(record, stats, false));
+                }
+            }
+            // Кожен потік пише лише у свій слот; видимість гарантує join у invoke()
+            chunkResults.set(fromChunk, processed);
+            chunkStats.set(fromChunk, stats);
+        }
+    }
+
     // --- Логіка очищення та валідації ---
-    private boolean isValidSaleRecord(SaleRecord record) {
+    private boolean isValidSaleRecord(SaleRecord record, ProcessingStats stats, boolean logEachRecord) {
         // Перевірка на NULL значення, які могли залишитися або бути встановлені під час читання
         if (record.getDate() == null || record.getItemNameRaw() == null || record.getItemNameRaw().trim().isEmpty() ||
                 record.getPaymentMethod() == null || record.getBaristaName() == null ||
-                record.getPricePerItem() == null || record.getPricePerItem().compareTo(BigDecimal.ZERO) < 0 ||
+                isMissingOrNegativePrice(record) ||
                 record.getQuantity() <= 0) {
-            logger.warn("Invalid record found (missing fields or negative values): {}", record);
+            stats.invalidRecord();
+            if (logEachRecord) {
+                sampledLogger.warn("invalid_record", "Invalid record found (missing fields or negative values): {}", record);
+            }
+            deadLetters.accept(DeadLetter.of(record, DeadLetter.STAGE_PROCESS, "invalid_record"));
             return false;
         }
         return true;
     }
 
+    private static boolean isMissingOrNegativePrice(SaleRecord record) {
+        long priceCents = record.getPricePerItemCents();
+        if (priceCents != Money.NONE) {
+            return priceCents < 0;
+        }
+        return record.getPricePerItem() == null || record.getPricePerItem().compareTo(BigDecimal.ZERO) < 0;
+    }
+
     // --- Логіка трансформації ---
-    private SaleRecord transformSaleRecord(SaleRecord record) {
+    private SaleRecord transformSaleRecord(SaleRecord record, ProcessingStats stats, boolean logEachRecord) {
         // 1. Нормалізація item_name:
-        String cleanedItemNameRaw = record.getItemNameRaw().toLowerCase().trim();
-        MenuItem matchedMenuItem = menuItemLookupMap.get(cleanedItemNameRaw);
-
-        // Спробуємо знайти найближчий варіант, якщо точного співпадіння немає
-        // Це може бути більш складна логіка, наприклад, з використанням Levenshtein distance
-        if (matchedMenuItem == null) {
-            // Якщо не знайдено точного співпадіння, спробуємо знайти за частковим збігом або ручними правилами
-            // Наприклад, "латте" -> "Лате"
-            if (cleanedItemNameRaw.contains("латте") || cleanedItemNameRaw.contains("latte")) {
-                matchedMenuItem = menuItemLookupMap.get("лате"); // Припускаємо, що "лате" є стандартом
-            } else if (cleanedItemNameRaw.contains("капучино") || cleanedItemNameRaw.contains("cappuccino")) {
-                matchedMenuItem = menuItemLookupMap.get("капучино");
-            }
-            // ... додайте інші правила нормалізації
+        // точний збіг, потім ручні правила ("латте" -> "Лате"), потім транслітерація та нечіткий пошук (Левенштейн)
+        MenuNameIndex.Match match = menuNameIndex.resolve(record.getItemNameRaw());
+        MenuItem matchedMenuItem = match.getMenuItem();
+        record.setMatchConfidence(match.getConfidence());
+        if (match.isFuzzy()) {
+            stats.fuzzyMatch();
+        } else if (matchedMenuItem != null) {
+            stats.exactMatch();
         }
 
         if (matchedMenuItem != null) {
             record.setItemNameStandard(matchedMenuItem.getNameStandard());
         } else {
             // Якщо не вдалося стандартизувати, можна залишити сиру назву або позначити як "Unknown"
-            record.setItemNameStandard("Unknown / " + record.getItemNameRaw());
-            logger.warn("Could not standardize item name '{}' for sale_id: {}", record.getItemNameRaw(), record.getSaleId());
+            record.setItemNameStandard(unknownItemName(record.getItemNameRaw()));
+            stats.unmatchedItemName();
+            if (logEachRecord) {
+                sampledLogger.warn("unmatched_item_name", "Could not standardize item name '{}' for sale_id: {}", record.getItemNameRaw(), record.getSaleId());
+            }
             // Можна також задати default values для pricePerItem та costPerUnit, якщо вони залежать від matchedMenuItem
         }
 
-        // 2. Розрахунок total_sale_price:
+        // 2-3. Розрахунок total_sale_price, profit_per_item та total_profit
+        // Основний шлях - у копійках (long) без створення BigDecimal; якщо ціна чи собівартість не вміщуються в scale 2,
+        // рахуємо як раніше через BigDecimal з округленням HALF_UP. Результати обох шляхів однакові.
+        if (!calculateInCents(record, matchedMenuItem)) {
+            calculateWithBigDecimal(record, matchedMenuItem);
+        }
+        if (matchedMenuItem == null || matchedMenuItem.getCostPerUnit() == null) {
+            stats.unknownCost();
+            if (logEachRecord) {
+                sampledLogger.warn("unknown_cost", "Cannot calculate profit for sale_id {} due to unknown cost per unit.", record.getSaleId());
+            }
+        }
+
+        // 4. Додаткова очистка: видалення зайвих пробілів, приведення до єдиного регістру
+        // (через словники, щоб обрізане значення теж було спільним екземпляром)
+        record.setPaymentMethod(SaleSymbols.PAYMENT_METHODS.intern(record.getPaymentMethod().trim()));
+        record.setBaristaName(SaleSymbols.BARISTA_NAMES.intern(record.getBaristaName().trim()));
+
+        return record;
+    }
+
+    private String unknownItemName(String rawName) {
+        String name = unknownItemNames.get(rawName);
+        if (name == null) {
+            name = "Unknown / " + rawName;
+            if (unknownItemNames.size() < MAX_UNKNOWN_ITEM_NAMES) {
+                String existing = unknownItemNames.putIfAbsent(rawName, name);
+                name = existing != null ? existing : name;
+            }
+        }
+        return name;
+    }
+
+    // Ціна та собівартість зі scale <= 2, тому добуток і різниця в копійках точні,
+    // а setScale(2, HALF_UP) у BigDecimal-версії нічого не округлює - результат той самий, лише зі scale 2.
+    private static boolean calculateInCents(SaleRecord record, MenuItem matchedMenuItem) {
+        long priceCents = record.getPricePerItemCents();
+        long totalSalePriceCents = Money.times(priceCents, record.getQuantity());
+        if (totalSalePriceCents == Money.NONE) {
+            return false;
+        }
+        long profitPerUnitCents = 0;
+        long totalProfitCents = 0;
+        int profitScale = 0; // BigDecimal.ZERO, якщо собівартість невідома
+        if (matchedMenuItem != null && matchedMenuItem.getCostPerUnit() != null) {
+            profitPerUnitCents = Money.minus(priceCents, matchedMenuItem.getCostPerUnitCents());
+            totalProfitCents = Money.times(profitPerUnitCents, record.getQuantity());
+            if (totalProfitCents == Money.NONE) {
+                return false;
+            }
+            profitScale = Money.SCALE;
+        }
+        record.setTotalSalePriceCents(totalSalePriceCents, Money.SCALE);
+        record.setProfitPerItemCents(profitPerUnitCents, profitScale);
+        record.setTotalProfitCents(totalProfitCents, profitScale);
+        return true;
+    }
+
+    private static void calculateWithBigDecimal(SaleRecord record, MenuItem matchedMenuItem) {
         // Використовуйте BigDecimal для точних грошових розрахунків
         BigDecimal totalSalePrice = record.getPricePerItem().multiply(BigDecimal.valueOf(record.getQuantity()));
         record.setTotalSalePrice(totalSalePrice.setScale(2, RoundingMode.HALF_UP)); // Округлити до 2 знаків після коми
 
-        // 3. Розрахунок profit_per_item та total_profit
         if (matchedMenuItem != null && matchedMenuItem.getCostPerUnit() != null) {
             BigDecimal profitPerUnit = record.getPricePerItem().subtract(matchedMenuItem.getCostPerUnit());
             record.setProfitPerItem(profitPerUnit.setScale(2, RoundingMode.HALF_UP));
@@ -97,46 +296,16 @@ public class DataProcessor {
         } else {
             record.setProfitPerItem(BigDecimal.ZERO); // Якщо собівартість невідома
             record.setTotalProfit(BigDecimal.ZERO);
-            logger.warn("Cannot calculate profit for sale_id {} due to unknown cost per unit.", record.getSaleId());
-        }
-
-        // 4. Додаткова очистка: видалення зайвих пробілів, приведення до єдиного регістру
-        record.setPaymentMethod(record.getPaymentMethod().trim());
-        record.setBaristaName(record.getBaristaName().trim());
-
-        return record;
-    }
-
-    // Метод для обробки дублікатів (зазвичай краще робити в SQL при вставці або через унікальні обмеження)
-    // Але можна зробити і тут:
-    public List<SaleRecord> removeDuplicateSales(List<SaleRecord> sales) {
-        Set<Integer> uniqueSaleIds = sales.stream()
-                .map(SaleRecord::getSaleId)
-                .collect(Collectors.toSet());
-
-        if (uniqueSaleIds.size() < sales.size()) {
-            logger.warn("Detected {} duplicate sales records. Removing them...", sales.size() - uniqueSaleIds.size());
-            // Просто повертаємо список унікальних за ID
-            return sales.stream()
-                    .distinct() // Вимагає реалізації equals() і hashCode() у SaleRecord!
-                    .collect(Collectors.toList());
         }
-        return sales;
     }
 
-    // Щоб .distinct() працював коректно для SaleRecord, додайте до SaleRecord.java
-    /*
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        SaleRecord that = (SaleRecord) o;
-        return saleId == that.saleId; // Порівнюємо за унікальним ID
+    // Дублікати sale_id відкидаються етапом deduplicator (див. SaleDeduplicator). Його стан спільний для всіх
+    // викликів цього DataProcessor, тож FIRST_WINS діє між файлами й чанками одного запуску.
+    public List<SaleRecord> removeDuplicateSales(List<SaleRecord> sales) throws SQLException {
+        return deduplicator.dedupe(sales, SaleRecord::getSaleId);
     }
 
-    @Override
-    public int hashCode() {
-        return Objects.hash(saleId);
+    public List<CompactSaleRecord> removeDuplicateCompactSales(List<CompactSaleRecord> sales) throws SQLException {
+        return deduplicator.dedupe(sales, CompactSaleRecord::getSaleId);
     }
-    */
 }
\ No newline at end of file
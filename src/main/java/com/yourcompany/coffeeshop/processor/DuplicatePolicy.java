@@ -0,0 +1,7 @@
+package com.yourcompany.coffeeshop.processor;
+
+// Який із записів з однаковим sale_id лишається (див. SaleDeduplicator)
+public enum DuplicatePolicy {
+    FIRST_WINS, // Перший прочитаний; пізніші копії відкидаються
+    LAST_WINS   // Останній прочитаний - як і upsert у БД, де пізніший запис перезаписує раніший
+}
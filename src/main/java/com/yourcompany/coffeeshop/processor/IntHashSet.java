@@ -0,0 +1,105 @@
+package com.yourcompany.coffeeshop.processor;
+
+import java.util.Arrays;
+
+// Множина int з відкритою адресацією (лінійне зондування) без упаковки в Integer:
+// HashSet<Integer> на мільйон sale_id - це мільйон Integer і мільйон вузлів HashMap (~50 байт на id),
+// тут - 8..17 байт на id залежно від заповнення таблиці.
+final class IntHashSet {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private boolean[] used;
+    private int size;
+    private int resizeAt;
+
+    IntHashSet() {
+        this(16);
+    }
+
+    IntHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) * 2 - 1);
+        allocate(capacity);
+    }
+
+    static IntHashSet of(int[] values) {
+        IntHashSet set = new IntHashSet(values.length);
+        for (int value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    // true, якщо ключа ще не було
+    boolean add(int key) {
+        int slot = slotOf(key);
+        if (used[slot]) {
+            return false;
+        }
+        used[slot] = true;
+        keys[slot] = key;
+        if (++size >= resizeAt) {
+            rehash();
+        }
+        return true;
+    }
+
+    boolean contains(int key) {
+        return used[slotOf(key)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    int[] toArray() {
+        int[] values = new int[size];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                values[count++] = keys[i];
+            }
+        }
+        return values;
+    }
+
+    // Слот ключа або перший вільний слот його ланцюжка
+    private int slotOf(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9; // Послідовні sale_id розходяться по таблиці, а не йдуть одним ланцюжком
+        return h ^ (h >>> 16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        used = new boolean[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slotOf(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.yourcompany.coffeeshop.processor;
+
+import com.yourcompany.coffeeshop.model.MenuItem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Індекс для нормалізації сирих назв товарів до MenuItem.
+// Порядок пошуку: точний збіг -> ручні правила -> збіг після "згортання" (транслітерація кирилиці,
+// нижній регістр, без пунктуації та подвоєних літер) -> нечіткий пошук: кандидати з інвертованого
+// індексу триграм, перевірка відстанню Левенштейна. Результат для кожної сирої назви запам'ятовується,
+// тож повторні написання коштують один lookup у ConcurrentHashMap.
+public class MenuNameIndex {
+
+    public static final double EXACT_CONFIDENCE = 1.0;
+    public static final double FOLDED_CONFIDENCE = 0.95;
+    public static final double RULE_CONFIDENCE = 0.9;
+    public static final double MIN_FUZZY_CONFIDENCE = 0.75; // Нижче цього - вважаємо, що збігу немає
+
+    private static final double MIN_TRIGRAM_DICE = 0.3; // Мінімальна схожість за триграмами для перевірки Левенштейном
+    private static final int MAX_MEMO_SIZE = 100_000; // Захист від необмеженого росту на "сміттєвих" назвах
+
+    private static final Map<Character, String> TRANSLITERATION = buildTransliteration();
+
+    private final Map<String, MenuItem> exactLookup; // lower/trim назва -> MenuItem
+    private final Map<String, MenuItem> foldedLookup = new HashMap<>();
+    private final List<MenuItem> items = new ArrayList<>();
+    private final List<String> foldedNames = new ArrayList<>();
+    private final int[] trigramCounts;
+    private final Map<String, int[]> trigramPostings; // триграма -> індекси пунктів меню
+    private final Map<String, Match> memo = new ConcurrentHashMap<>();
+
+    public MenuNameIndex(List<MenuItem> menuItems) {
+        // Ключі нормалізуються, щоб полегшити порівняння
+        this.exactLookup = menuItems.stream()
+                .collect(Collectors.toMap(
+                        item -> item.getNameStandard().toLowerCase().trim(),
+                        item -> item
+                ));
+
+        Map<String, List<Integer>> postings = new HashMap<>();
+        List<Integer> counts = new ArrayList<>();
+        for (MenuItem item : exactLookup.values()) {
+            String folded = fold(item.getNameStandard());
+            foldedLookup.putIfAbsent(folded, item);
+            int index = items.size();
+            items.add(item);
+            foldedNames.add(folded);
+            List<String> trigrams = trigrams(folded);
+            counts.add(trigrams.size());
+            for (String trigram : trigrams) {
+                List<Integer> posting = postings.computeIfAbsent(trigram, k -> new ArrayList<>());
+                if (posting.isEmpty() || posting.get(posting.size() - 1) != index) {
+                    posting.add(index);
+                }
+            }
+        }
+        this.trigramCounts = counts.stream().mapToInt(Integer::intValue).toArray();
+        this.trigramPostings = new HashMap<>();
+        postings.forEach((trigram, posting) -> trigramPostings.put(trigram, posting.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    public int size() {
+        return exactLookup.size();
+    }
+
+    // Результат нормалізації сирої назви (menuItem == null, якщо збігу немає)
+    public static final class Match {
+        static final Match NONE = new Match(null, 0.0, false);
+
+        private final MenuItem menuItem;
+        private final double confidence;
+        private final boolean fuzzy;
+
+        Match(MenuItem menuItem, double confidence, boolean fuzzy) {
+            this.menuItem = menuItem;
+            this.confidence = confidence;
+            this.fuzzy = fuzzy;
+        }
+
+        public MenuItem getMenuItem() { return menuItem; }
+        public double getConfidence() { return confidence; }
+        public boolean isFuzzy() { return fuzzy; } // true, якщо знайдено не точним збігом
+    }
+
+    public Match resolve(String rawName) {
+        if (rawName == null) {
+            return Match.NONE;
+        }
+        Match cached = memo.get(rawName);
+        if (cached != null) {
+            return cached;
+        }
+        Match match = computeMatch(rawName);
+        if (memo.size() < MAX_MEMO_SIZE) {
+            memo.put(rawName, match);
+        }
+        return match;
+    }
+
+    private Match computeMatch(String rawName) {
+        String cleaned = rawName.toLowerCase().trim();
+        MenuItem exact = exactLookup.get(cleaned);
+        if (exact != null) {
+            return new Match(exact, EXACT_CONFIDENCE, false);
+        }
+
+        // Ручні правила (історично були в DataProcessor), наприклад, "латте" -> "Лате"
+        MenuItem byRule = null;
+        if (cleaned.contains("латте") || cleaned.contains("latte")) {
+            byRule = exactLookup.get("лате"); // Припускаємо, що "лате" є стандартом
+        } else if (cleaned.contains("капучино") || cleaned.contains("cappuccino")) {
+            byRule = exactLookup.get("капучино");
+        }
+        if (byRule != null) {
+            return new Match(byRule, RULE_CONFIDENCE, true);
+        }
+
+        String folded = fold(cleaned);
+        if (folded.isEmpty()) {
+            return Match.NONE;
+        }
+        MenuItem byFolded = foldedLookup.get(folded);
+        if (byFolded != null) {
+            return new Match(byFolded, FOLDED_CONFIDENCE, true);
+        }
+        return fuzzyMatch(folded);
+    }
+
+    // Кандидати - пункти меню зі спільними триграмами; з них обирається найменша відстань Левенштейна
+    private Match fuzzyMatch(String folded) {
+        List<String> queryTrigrams = trigrams(folded);
+        int[] shared = new int[items.size()];
+        for (String trigram : queryTrigrams) {
+            int[] posting = trigramPostings.get(trigram);
+            if (posting != null) {
+                for (int index : posting) {
+                    shared[index]++;
+                }
+            }
+        }
+
+        MenuItem best = null;
+        double bestSimilarity = 0.0;
+        for (int index = 0; index < shared.length; index++) {
+            if (shared[index] == 0) {
+                continue;
+            }
+            double dice = 2.0 * shared[index] / (queryTrigrams.size() + trigramCounts[index]);
+            if (dice < MIN_TRIGRAM_DICE) {
+                continue;
+            }
+            String candidate = foldedNames.get(index);
+            int distance = levenshtein(folded, candidate);
+            double similarity = 1.0 - (double) distance / Math.max(folded.length(), candidate.length());
+            if (similarity > bestSimilarity) {
+                bestSimilarity = similarity;
+                best = items.get(index);
+            }
+        }
+        if (best == null || bestSimilarity < MIN_FUZZY_CONFIDENCE) {
+            return Match.NONE;
+        }
+        // Нечіткий збіг ніколи не отримує впевненість вищу за збіг після згортання
+        return new Match(best, Math.min(bestSimilarity, FOLDED_CONFIDENCE - 0.01), true);
+    }
+
+    // --- Нормалізація тексту ---
+
+    // Нижній регістр, кирилиця -> латиниця, лише літери/цифри/одиночні пробіли, без подвоєних літер
+    // ("Еспрессо" і "Еспресо" -> "espreso", "Латте" і "Лате" -> "late")
+    static String fold(String value) {
+        String lower = value.toLowerCase();
+        StringBuilder out = new StringBuilder(lower.length() + 4);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            String latin = TRANSLITERATION.get(c);
+            if (latin != null) {
+                for (int j = 0; j < latin.length(); j++) {
+                    appendFolded(out, latin.charAt(j));
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                appendFolded(out, c);
+            } else if (out.length() > 0 && out.charAt(out.length() - 1) != ' ') {
+                out.append(' ');
+            }
+        }
+        int end = out.length();
+        while (end > 0 && out.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return out.substring(0, end);
+    }
+
+    private static void appendFolded(StringBuilder out, char c) {
+        if (out.length() > 0 && out.charAt(out.length() - 1) == c) {
+            return; // Подвоєні літери згортаються
+        }
+        out.append(c);
+    }
+
+    private static List<String> trigrams(String folded) {
+        String padded = "  " + folded + " ";
+        List<String> result = new ArrayList<>(padded.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    static int levenshtein(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    // Українська та російська кирилиця; голосні и/і/ї/й/ы зводяться до "i", щоб "капучино" і "капучіно" збігалися
+    private static Map<Character, String> buildTransliteration() {
+        Map<Character, String> map = new HashMap<>();
+        String[][] pairs = {
+                {"а", "a"}, {"б", "b"}, {"в", "v"}, {"г", "h"}, {"ґ", "g"}, {"д", "d"}, {"е", "e"}, {"є", "ie"},
+                {"ж", "zh"}, {"з", "z"}, {"и", "i"}, {"і", "i"}, {"ї", "i"}, {"й", "i"}, {"к", "k"}, {"л", "l"},
+                {"м", "m"}, {"н", "n"}, {"о", "o"}, {"п", "p"}, {"р", "r"}, {"с", "s"}, {"т", "t"}, {"у", "u"},
+                {"ф", "f"}, {"х", "kh"}, {"ц", "ts"}, {"ч", "ch"}, {"ш", "sh"}, {"щ", "shch"}, {"ь", ""},
+                {"ю", "iu"}, {"я", "ia"}, {"ы", "i"}, {"э", "e"}, {"ё", "e"}, {"ъ", ""}, {"'", ""}, {"’", ""}
+        };
+        for (String[] pair : pairs) {
+            map.put(pair[0].charAt(0), pair[1]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,60 @@
+package com.yourcompany.coffeeshop.processor;
+
+import com.yourcompany.coffeeshop.metrics.Counter;
+import com.yourcompany.coffeeshop.metrics.Metrics;
+
+// Лічильники попереджень обробки продажів. У паралельному режимі кожен чанк рахує свої,
+// а потім вони складаються - замість логування кожного запису з багатьох потоків.
+public class ProcessingStats {
+    private static final Counter INVALID = Metrics.counter("processor_rows_rejected", "reason", "invalid_record");
+    private static final Counter EXACT = Metrics.counter("normalization", "result", "exact");
+    private static final Counter FUZZY = Metrics.counter("normalization", "result", "fuzzy");
+    private static final Counter MISS = Metrics.counter("normalization", "result", "miss");
+    private static final Counter UNKNOWN_COST = Metrics.counter("processor_unknown_cost");
+
+    private long invalidRecords; // Відфільтровані isValidSaleRecord
+    private long exactMatchedItemNames; // Назви, знайдені точним збігом
+    private long fuzzyMatchedItemNames; // Назви, знайдені не точним збігом (правило, транслітерація, Левенштейн)
+    private long unmatchedItemNames; // Назви, які не вдалося стандартизувати
+    private long unknownCostRecords; // Записи без собівартості (прибуток = 0)
+
+    void invalidRecord() { invalidRecords++; }
+    void exactMatch() { exactMatchedItemNames++; }
+    void fuzzyMatch() { fuzzyMatchedItemNames++; }
+    void unmatchedItemName() { unmatchedItemNames++; }
+    void unknownCost() { unknownCostRecords++; }
+
+    // Додає лічильники до метрик процесу (Metrics): один раз на виклик обробки, а не на кожен запис
+    void publish() {
+        INVALID.add(invalidRecords);
+        EXACT.add(exactMatchedItemNames);
+        FUZZY.add(fuzzyMatchedItemNames);
+        MISS.add(unmatchedItemNames);
+        UNKNOWN_COST.add(unknownCostRecords);
+    }
+
+    void add(ProcessingStats other) {
+        invalidRecords += other.invalidRecords;
+        exactMatchedItemNames += other.exactMatchedItemNames;
+        fuzzyMatchedItemNames += other.fuzzyMatchedItemNames;
+        unmatchedItemNames += other.unmatchedItemNames;
+        unknownCostRecords += other.unknownCostRecords;
+    }
+
+    public long getInvalidRecords() { return invalidRecords; }
+    public long getExactMatchedItemNames() { return exactMatchedItemNames; }
+    public long getFuzzyMatchedItemNames() { return fuzzyMatchedItemNames; }
+    public long getUnmatchedItemNames() { return unmatchedItemNames; }
+    public long getUnknownCostRecords() { return unknownCostRecords; }
+
+    @Override
+    public String toString() {
+        return "ProcessingStats{" +
+                "invalidRecords=" + invalidRecords +
+                ", exactMatchedItemNames=" + exactMatchedItemNames +
+                ", fuzzyMatchedItemNames=" + fuzzyMatchedItemNames +
+                ", unmatchedItemNames=" + unmatchedItemNames +
+                ", unknownCostRecords=" + unknownCostRecords +
+                '}';
+    }
+}
@@ -0,0 +1,162 @@
+package com.yourcompany.coffeeshop.processor;
+
+import com.yourcompany.coffeeshop.metrics.Counter;
+import com.yourcompany.coffeeshop.metrics.Metrics;
+import com.yourcompany.coffeeshop.model.SaleIdStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+// Етап відкидання дублікатів sale_id перед записом у БД. Вивантаження, що перекриваються (один день у двох файлах,
+// повторно надісланий файл), дають ті самі sale_id, а після секціонування sales за датою ключ (sale_id, sale_date)
+// не ловить копію з іншою датою. Записи проходять чанками в порядку читання, і стан зберігається між викликами:
+//   FIRST_WINS - лишається перший запис з кожним sale_id за весь запуск (між файлами і чанками);
+//   LAST_WINS  - у межах чанку лишається останній запис, а пізніший чанк перезаписує раніший upsert-ом.
+// З skipLoaded відкидаються й продажі, sale_id яких уже був у sales до запуску: Bloom-фільтр із sale_id з БД
+// відсіює нові id без звернення до БД, а його спрацювання (серед них бувають хибні) перевіряються одним
+// запитом на чанк. Такі продажі не доходять до upsert і не навантажують БД записом.
+// У довгоживучому процесі (--watch) фільтр поповнюється через recordLoaded, а "весь запуск" для FIRST_WINS -
+// це весь час роботи служби.
+// Не потокобезпечний: викликається з одного потоку (послідовний режим, етап трансформації конвеєра)
+// або під спільним локом (loadLock в IncrementalIngestion).
+public class SaleDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SaleDeduplicator.class);
+
+    private static final Counter DUPLICATES = Metrics.counter("dedupe_rows_dropped", "reason", "duplicate");
+    private static final Counter ALREADY_LOADED = Metrics.counter("dedupe_rows_dropped", "reason", "already_loaded");
+    private static final Counter FALSE_POSITIVES = Metrics.counter("dedupe_bloom_false_positives");
+
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+
+    private final DuplicatePolicy policy;
+    private final IntHashSet seen = new IntHashSet(); // FIRST_WINS: sale_id, які вже пройшли
+    private SaleIdStore loadedStore; // null - вже завантажені продажі не відкидаються
+    private BloomFilter loaded; // Заповнюється з loadedStore при першому виклику dedupe
+
+    public SaleDeduplicator(DuplicatePolicy policy) {
+        this.policy = policy;
+    }
+
+    public DuplicatePolicy getPolicy() {
+        return policy;
+    }
+
+    // Відкидати продажі, sale_id яких уже є в store. Фільтр заповнюється під час першого dedupe,
+    // тож таблиця на той момент має існувати (після createTables).
+    public void skipLoaded(SaleIdStore store) {
+        this.loadedStore = store;
+        this.loaded = null;
+    }
+
+    // Записи без дублікатів за правилом policy (порядок зберігається)
+    public <T> List<T> dedupe(List<T> sales, ToIntFunction<T> saleIdOf) throws SQLException {
+        return dedupe(sales, saleIdOf, false);
+    }
+
+    // reload - повторне завантаження вже записаних продажів (перерахунок файлу після зміни меню): дублікати
+    // відкидаються лише в межах sales, бо sale_id цих записів уже пройшли раніше й уже є в БД
+    public <T> List<T> dedupe(List<T> sales, ToIntFunction<T> saleIdOf, boolean reload) throws SQLException {
+        List<T> unique;
+        if (policy == DuplicatePolicy.FIRST_WINS) {
+            unique = firstWins(sales, saleIdOf, reload ? new IntHashSet(sales.size()) : seen);
+            if (reload) {
+                unique.forEach(sale -> seen.add(saleIdOf.applyAsInt(sale)));
+            }
+        } else {
+            unique = lastWins(sales, saleIdOf);
+        }
+        int duplicates = sales.size() - unique.size();
+        int alreadyLoaded = 0;
+        if (loadedStore != null && !reload && !unique.isEmpty()) {
+            int before = unique.size();
+            unique = withoutLoaded(unique, saleIdOf);
+            alreadyLoaded = before - unique.size();
+        }
+        DUPLICATES.add(duplicates);
+        ALREADY_LOADED.add(alreadyLoaded);
+        if (duplicates > 0 || alreadyLoaded > 0) {
+            logger.info("Dropped {} duplicate sales ({}) and {} already loaded sales out of {}.",
+                    duplicates, policy, alreadyLoaded, sales.size());
+        }
+        return unique;
+    }
+
+    // Продажі, записані після заповнення фільтра, теж відкидаються наступними dedupe. Фільтр розрахований
+    // на кількість sale_id при заповненні, тож хибних спрацювань з часом більше, але їх відсіює перевірка в БД.
+    public <T> void recordLoaded(List<T> sales, ToIntFunction<T> saleIdOf) {
+        if (loaded == null) {
+            return; // Ще не заповнений - заповниться з БД разом із цими продажами
+        }
+        for (T sale : sales) {
+            loaded.put(saleIdOf.applyAsInt(sale));
+        }
+    }
+
+    private static <T> List<T> firstWins(List<T> sales, ToIntFunction<T> saleIdOf, IntHashSet seen) {
+        List<T> unique = new ArrayList<>(sales.size());
+        for (T sale : sales) {
+            if (seen.add(saleIdOf.applyAsInt(sale))) {
+                unique.add(sale);
+            }
+        }
+        return unique;
+    }
+
+    // Обхід з кінця: перший побачений - останній у чанку
+    private static <T> List<T> lastWins(List<T> sales, ToIntFunction<T> saleIdOf) {
+        IntHashSet chunkIds = new IntHashSet(sales.size());
+        List<T> unique = new ArrayList<>(sales.size());
+        for (int i = sales.size() - 1; i >= 0; i--) {
+            T sale = sales.get(i);
+            if (chunkIds.add(saleIdOf.applyAsInt(sale))) {
+                unique.add(sale);
+            }
+        }
+        Collections.reverse(unique);
+        return unique;
+    }
+
+    private <T> List<T> withoutLoaded(List<T> sales, ToIntFunction<T> saleIdOf) throws SQLException {
+        if (loaded == null) {
+            loaded = seed(loadedStore);
+        }
+        IntHashSet candidates = new IntHashSet();
+        for (T sale : sales) {
+            int saleId = saleIdOf.applyAsInt(sale);
+            if (loaded.mightContain(saleId)) {
+                candidates.add(saleId);
+            }
+        }
+        if (candidates.size() == 0) {
+            return sales;
+        }
+        IntHashSet confirmed = IntHashSet.of(loadedStore.findSaleIds(candidates.toArray()));
+        FALSE_POSITIVES.add(candidates.size() - confirmed.size());
+        if (confirmed.size() == 0) {
+            return sales;
+        }
+        List<T> notLoaded = new ArrayList<>(sales.size());
+        for (T sale : sales) {
+            if (!confirmed.contains(saleIdOf.applyAsInt(sale))) {
+                notLoaded.add(sale);
+            }
+        }
+        return notLoaded;
+    }
+
+    private static BloomFilter seed(SaleIdStore store) throws SQLException {
+        long startNanos = System.nanoTime();
+        long count = store.countSaleIds();
+        BloomFilter filter = BloomFilter.create(count, DEFAULT_FALSE_POSITIVE_RATE);
+        store.forEachSaleId(filter::put);
+        logger.info("Seeded the loaded sales filter with {} sale_ids ({} KB, {} hashes) in {} ms.",
+                count, filter.sizeInBytes() / 1024, filter.getHashCount(), (System.nanoTime() - startNanos) / 1_000_000);
+        return filter;
+    }
+}
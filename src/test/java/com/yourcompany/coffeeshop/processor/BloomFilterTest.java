@@ -0,0 +1,62 @@
+package com.yourcompany.coffeeshop.processor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void hasNoFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(100_000, 0.01);
+        Random random = new Random(2);
+        int[] keys = new int[100_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt();
+            filter.put(keys[i]);
+        }
+        for (int key : keys) {
+            assertTrue(filter.mightContain(key), "false negative for " + key);
+        }
+    }
+
+    @Test
+    void keepsFalsePositiveRateNearTheTarget() {
+        BloomFilter filter = BloomFilter.create(100_000, 0.01);
+        for (int key = 0; key < 100_000; key++) {
+            filter.put(key);
+        }
+        int falsePositives = 0;
+        for (int key = 1_000_000; key < 1_100_000; key++) {
+            if (filter.mightContain(key)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives); // Ціль - ~1 000 з 100 000
+    }
+
+    @Test
+    void sizesSmallFiltersToAtLeastOneWord() {
+        BloomFilter filter = BloomFilter.create(0, 0.01);
+        assertEquals(8, filter.sizeInBytes());
+        filter.put(Integer.MIN_VALUE);
+        assertTrue(filter.mightContain(Integer.MIN_VALUE));
+    }
+
+    // Розмір обмежено Integer.MAX_VALUE біт; кількість слів рахується в long, тож конструктор не переповнюється
+    @Test
+    void capsBitsAtMaxBits() {
+        BloomFilter filter = BloomFilter.create(1_000_000_000L, 0.01);
+        assertEquals((Integer.MAX_VALUE + 63L) / 64 * 8, filter.sizeInBytes());
+        int[] keys = {0, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, 123_456_789};
+        for (int key : keys) {
+            filter.put(key);
+        }
+        for (int key : keys) {
+            assertTrue(filter.mightContain(key), "false negative for " + key);
+        }
+    }
+}
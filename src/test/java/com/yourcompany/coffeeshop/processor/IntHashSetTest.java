@@ -0,0 +1,90 @@
+package com.yourcompany.coffeeshop.processor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntHashSetTest {
+
+    @Test
+    void addReportsOnlyNewKeys() {
+        IntHashSet set = new IntHashSet();
+        assertTrue(set.add(42));
+        assertFalse(set.add(42));
+        assertTrue(set.add(-42));
+        assertTrue(set.add(0));
+        assertTrue(set.add(Integer.MIN_VALUE));
+        assertTrue(set.add(Integer.MAX_VALUE));
+        assertEquals(5, set.size());
+    }
+
+    @Test
+    void containsOnlyAddedKeys() {
+        IntHashSet set = new IntHashSet();
+        set.add(7);
+        set.add(0);
+        assertTrue(set.contains(7));
+        assertTrue(set.contains(0));
+        assertFalse(set.contains(8));
+        assertFalse(set.contains(-7));
+    }
+
+    // Початкова місткість - 4 слоти, тож 10 000 ключів проходять через кілька rehash
+    @Test
+    void keepsAllKeysAcrossRehashes() {
+        IntHashSet set = new IntHashSet(0);
+        for (int key = 0; key < 10_000; key++) {
+            assertTrue(set.add(key));
+        }
+        assertEquals(10_000, set.size());
+        for (int key = 0; key < 10_000; key++) {
+            assertTrue(set.contains(key), "missing " + key);
+            assertFalse(set.add(key));
+        }
+        assertFalse(set.contains(10_000));
+        assertFalse(set.contains(-1));
+    }
+
+    // Випадкові ключі з повторами - порівняння з HashSet<Integer>
+    @Test
+    void matchesHashSetOnRandomKeys() {
+        Random random = new Random(1);
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(20_000) - 10_000;
+            assertEquals(expected.add(key), set.add(key));
+        }
+        assertEquals(expected.size(), set.size());
+        for (int key = -10_000; key < 10_000; key++) {
+            assertEquals(expected.contains(key), set.contains(key));
+        }
+    }
+
+    @Test
+    void toArrayReturnsEachKeyOnce() {
+        IntHashSet set = IntHashSet.of(new int[] {5, 3, 5, -1, 3, 100_000});
+        int[] values = set.toArray();
+        Arrays.sort(values);
+        assertArrayEquals(new int[] {-1, 3, 5, 100_000}, values);
+        assertEquals(0, new IntHashSet().toArray().length);
+    }
+
+    @Test
+    void clearEmptiesTheSet() {
+        IntHashSet set = IntHashSet.of(new int[] {1, 2, 3});
+        set.clear();
+        assertEquals(0, set.size());
+        assertFalse(set.contains(1));
+        assertEquals(0, set.toArray().length);
+        assertTrue(set.add(1));
+    }
+}
@@ -0,0 +1,125 @@
+package com.yourcompany.coffeeshop.processor;
+
+import com.yourcompany.coffeeshop.model.SaleIdStore;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SaleDeduplicatorTest {
+
+    // Продаж з міткою, щоб було видно, яка з копій лишилася
+    private record Sale(int id, String tag) {
+    }
+
+    // sale_id, "вже завантажені" в БД
+    private static final class StubStore implements SaleIdStore {
+        final TreeSet<Integer> ids = new TreeSet<>();
+        int lookups;
+
+        StubStore(int... ids) {
+            Arrays.stream(ids).forEach(this.ids::add);
+        }
+
+        @Override
+        public long countSaleIds() {
+            return ids.size();
+        }
+
+        @Override
+        public void forEachSaleId(IntConsumer consumer) {
+            ids.forEach(consumer::accept);
+        }
+
+        @Override
+        public int[] findSaleIds(int[] saleIds) {
+            lookups++;
+            return Arrays.stream(saleIds).filter(ids::contains).toArray();
+        }
+    }
+
+    private static List<Sale> dedupe(SaleDeduplicator deduplicator, Sale... sales) throws SQLException {
+        return deduplicator.dedupe(List.of(sales), Sale::id);
+    }
+
+    @Test
+    void firstWinsKeepsTheFirstCopyAcrossCalls() throws SQLException {
+        SaleDeduplicator deduplicator = new SaleDeduplicator(DuplicatePolicy.FIRST_WINS);
+        assertEquals(List.of(new Sale(1, "a"), new Sale(2, "a")),
+                dedupe(deduplicator, new Sale(1, "a"), new Sale(2, "a"), new Sale(1, "b")));
+        assertEquals(List.of(new Sale(3, "c")),
+                dedupe(deduplicator, new Sale(2, "c"), new Sale(3, "c"), new Sale(1, "c")));
+    }
+
+    @Test
+    void lastWinsKeepsTheLastCopyWithinAChunkInReadOrder() throws SQLException {
+        SaleDeduplicator deduplicator = new SaleDeduplicator(DuplicatePolicy.LAST_WINS);
+        assertEquals(List.of(new Sale(2, "a"), new Sale(1, "b"), new Sale(3, "b")),
+                dedupe(deduplicator, new Sale(1, "a"), new Sale(2, "a"), new Sale(1, "b"), new Sale(3, "b")));
+        // Між чанками нічого не відкидається: пізніший чанк перезапише раніший upsert-ом
+        assertEquals(List.of(new Sale(1, "c")), dedupe(deduplicator, new Sale(1, "c")));
+    }
+
+    @Test
+    void skipLoadedDropsSalesAlreadyInTheStore() throws SQLException {
+        StubStore store = new StubStore(10, 20, 30);
+        SaleDeduplicator deduplicator = new SaleDeduplicator(DuplicatePolicy.LAST_WINS);
+        deduplicator.skipLoaded(store);
+        assertEquals(List.of(new Sale(11, "a"), new Sale(21, "a")),
+                dedupe(deduplicator, new Sale(10, "a"), new Sale(11, "a"), new Sale(20, "a"), new Sale(21, "a")));
+        assertEquals(1, store.lookups); // Спрацювання фільтра перевіряються одним запитом на чанк
+    }
+
+    // Id, яких немає у фільтрі, проходять без запиту до БД
+    @Test
+    void skipLoadedDoesNotQueryTheStoreForNewIds() throws SQLException {
+        StubStore store = new StubStore(10, 20, 30);
+        SaleDeduplicator deduplicator = new SaleDeduplicator(DuplicatePolicy.LAST_WINS);
+        deduplicator.skipLoaded(store);
+        assertEquals(List.of(new Sale(5_000_000, "a")), dedupe(deduplicator, new Sale(5_000_000, "a")));
+        assertEquals(0, store.lookups);
+    }
+
+    @Test
+    void recordLoadedDropsSalesWrittenAfterSeeding() throws SQLException {
+        StubStore store = new StubStore(10);
+        SaleDeduplicator deduplicator = new SaleDeduplicator(DuplicatePolicy.LAST_WINS);
+        deduplicator.skipLoaded(store);
+        List<Sale> loaded = dedupe(deduplicator, new Sale(10, "a"), new Sale(11, "a"));
+        assertEquals(List.of(new Sale(11, "a")), loaded);
+        store.ids.add(11); // Записано в БД
+        deduplicator.recordLoaded(loaded, Sale::id);
+        assertEquals(List.of(new Sale(12, "b")), dedupe(deduplicator, new Sale(11, "b"), new Sale(12, "b")));
+    }
+
+    // Перерахунок файлу: його sale_id уже пройшли FIRST_WINS і вже є в БД, але мають записатися знову
+    @Test
+    void reloadDropsOnlyDuplicatesWithinTheList() throws SQLException {
+        StubStore store = new StubStore(1, 2);
+        SaleDeduplicator deduplicator = new SaleDeduplicator(DuplicatePolicy.FIRST_WINS);
+        deduplicator.skipLoaded(store);
+        assertEquals(List.of(new Sale(3, "a")), dedupe(deduplicator, new Sale(1, "a"), new Sale(3, "a")));
+        store.lookups = 0;
+
+        List<Sale> reloaded = deduplicator.dedupe(
+                List.of(new Sale(1, "b"), new Sale(3, "b"), new Sale(1, "c")), Sale::id, true);
+        assertEquals(List.of(new Sale(1, "b"), new Sale(3, "b")), reloaded);
+        assertEquals(0, store.lookups);
+
+        // Після reload FIRST_WINS пам'ятає і ці sale_id
+        assertEquals(List.of(), dedupe(deduplicator, new Sale(3, "d")));
+    }
+
+    @Test
+    void reloadWithLastWinsKeepsTheLastCopy() throws SQLException {
+        SaleDeduplicator deduplicator = new SaleDeduplicator(DuplicatePolicy.LAST_WINS);
+        deduplicator.skipLoaded(new StubStore(1));
+        assertEquals(List.of(new Sale(2, "a"), new Sale(1, "b")), deduplicator.dedupe(
+                List.of(new Sale(1, "a"), new Sale(2, "a"), new Sale(1, "b")), Sale::id, true));
+    }
+}